@@ -12,19 +12,39 @@ package org.eclipse.che.vfs.impl.fs;
 
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.MountPoint;
+import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileFilter;
 
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ExecutorService;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
 /**
- * Filesystem based LuceneSearcher which cleans index directory after call method {@link #close()}.
+ * Filesystem based LuceneSearcher which cleans index directory after call method {@link #close()}. If searcher is persistent
+ * index directory is kept after close and index is reconciled with files when searcher is initialized next time, see {@link
+ * #reconcileTree(VirtualFile)}.
+ * <p/>
+ * Changes of virtual filesystem are not applied to the index in the thread that makes them. Methods {@link #add(VirtualFile)},
+ * {@link #update(VirtualFile)} and {@link #delete(String, boolean)} put change in queue and return immediately. Changes of the
+ * same path are coalesced, so if file is updated few times before it is indexed its content is read only once. Queue is drained
+ * in batches by executor of {@link CleanableSearcherProvider}. Index readers are refreshed not often than once per configured
+ * refresh period, so changes become visible for search with small delay.
  *
  * @author andrew00x
  */
@@ -35,23 +55,107 @@ public class CleanableSearcher extends FSIndexSearcher {
     private final AtomicBoolean              initFlag;
     private final AtomicReference<Exception> initError;
 
+    private final boolean                       persistent;
+    private final long                          refreshPeriod;
+    private final int                           batchSize;
+    /** Pending changes of index. Key is path of changed item. Guarded by itself. */
+    private final LinkedHashMap<String, Change> pending;
+    /** Guards applying of changes and refreshing of index readers. */
+    // for test
+    final Object                                applyLock;
+    private final AtomicBoolean                 drainScheduled;
+    private final AtomicLong                    appliedChanges;
+    private final AtomicLong                    appliedBatches;
+    private final Runnable                      drainTask;
+    private final Runnable                      refreshTask;
+
+    private volatile boolean            closed;
+    private volatile boolean            refreshNeeded;
+    private volatile long               lastRefreshTime;
+    /** Time (in nanoseconds) of the oldest change that is applied to the index but is not visible for search yet. */
+    private volatile long               oldestUnrefreshedChange = Long.MAX_VALUE;
+    private volatile ScheduledFuture<?> refreshFuture;
+
     CleanableSearcher(CleanableSearcherProvider searcherService, java.io.File indexDir, VirtualFileFilter filter) {
+        this(searcherService, indexDir, filter, false, CleanableSearcherProvider.DEFAULT_REFRESH_PERIOD,
+             CleanableSearcherProvider.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param searcherService
+     *         provider of this searcher, its executor is used for indexing
+     * @param indexDir
+     *         index directory
+     * @param filter
+     *         filter of files which content should be indexed
+     * @param persistent
+     *         if {@code true} index directory is not removed after close and index is reused next time
+     * @param refreshPeriod
+     *         period in milliseconds of refreshing of index readers. If this parameter is zero or negative index readers are
+     *         refreshed before each search request.
+     * @param batchSize
+     *         max number of changes that are applied to the index in one batch
+     */
+    CleanableSearcher(CleanableSearcherProvider searcherService, java.io.File indexDir, VirtualFileFilter filter, boolean persistent,
+                      long refreshPeriod, int batchSize) {
         super(indexDir, filter);
         this.searcherService = searcherService;
+        this.persistent = persistent;
+        this.refreshPeriod = refreshPeriod;
+        this.batchSize = batchSize > 0 ? batchSize : CleanableSearcherProvider.DEFAULT_BATCH_SIZE;
         initFlag = new AtomicBoolean();
         initError = new AtomicReference<>();
+        pending = new LinkedHashMap<>();
+        applyLock = new Object();
+        drainScheduled = new AtomicBoolean();
+        appliedChanges = new AtomicLong();
+        appliedBatches = new AtomicLong();
+        drainTask = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+        refreshTask = new Runnable() {
+            @Override
+            public void run() {
+                if (refreshNeeded) {
+                    refresh();
+                }
+            }
+        };
     }
 
     @Override
     public void init(final MountPoint mountPoint) throws ServerException {
-        doInit();
-        final ExecutorService executor = searcherService.getExecutor();
+        try {
+            doInit(mountPoint);
+        } catch (ServerException e) {
+            if (!persistent) {
+                throw e;
+            }
+            // Index might be broken, e.g. if server was killed while index was written. Drop it and index all files again.
+            LOG.warn("Unable open index in '{}', index is going to be recreated. {}", getIndexDir(), e.getMessage());
+            if (!(deleteRecursive(getIndexDir(), false) && getIndexDir().mkdirs())) {
+                throw new ServerException(String.format("Unable clean index directory '%s'. ", getIndexDir()));
+            }
+            doInit(mountPoint);
+        }
+        final ScheduledExecutorService executor = searcherService.getExecutor();
         if (!executor.isShutdown()) {
+            if (refreshPeriod > 0) {
+                refreshFuture = executor.scheduleWithFixedDelay(refreshTask, refreshPeriod, refreshPeriod, TimeUnit.MILLISECONDS);
+            }
             executor.execute(new Runnable() {
                 @Override
                 public void run() {
                     try {
-                        CleanableSearcher.this.addTree(mountPoint.getRoot());
+                        if (persistent) {
+                            CleanableSearcher.this.reconcileTree(mountPoint.getRoot());
+                        } else {
+                            CleanableSearcher.this.addTree(mountPoint.getRoot());
+                        }
+                        refresh();
                         initFlag.set(true);
                     } catch (ServerException e) {
                         initError.set(e);
@@ -72,16 +176,265 @@ public class CleanableSearcher extends FSIndexSearcher {
         return initFlag.get();
     }
 
+    @Override
+    protected void doAdd(VirtualFile virtualFile) throws ServerException {
+        enqueue(new Change(Change.ADD, virtualFile.getPath(), virtualFile, 0));
+    }
+
+    @Override
+    protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
+        enqueue(new Change(Change.UPDATE, virtualFile.getPath(), virtualFile, 0));
+    }
+
+    @Override
+    protected void doDelete(String path, boolean isFile) throws ServerException {
+        enqueue(new Change(Change.DELETE, path, null, isFile ? Change.DELETE_FILE : Change.DELETE_TREE));
+    }
+
+    @Override
+    protected void refreshBeforeSearch() throws IOException {
+        if (refreshPeriod <= 0) {
+            super.refreshBeforeSearch();
+        }
+    }
+
+    /** Gets number of changes that are waiting to be applied to the index. */
+    public int getQueueDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Gets age of the oldest change that is not visible for search yet, either because it is still in the queue or because
+     * index readers are not refreshed after applying it. Zero is returned if all changes are visible for search.
+     */
+    public long getIndexingLag(TimeUnit unit) {
+        long oldest = oldestUnrefreshedChange;
+        synchronized (pending) {
+            for (Change change : pending.values()) {
+                if (change.created < oldest) {
+                    oldest = change.created;
+                }
+            }
+        }
+        if (oldest == Long.MAX_VALUE) {
+            return 0;
+        }
+        return unit.convert(Math.max(0, System.nanoTime() - oldest), TimeUnit.NANOSECONDS);
+    }
+
+    /** Gets number of changes that are applied to the index since this searcher is created. */
+    public long getAppliedChanges() {
+        return appliedChanges.get();
+    }
+
+    /** Gets number of batches of changes that are applied to the index since this searcher is created. */
+    public long getAppliedBatches() {
+        return appliedBatches.get();
+    }
+
+    /** Applies all pending changes in the current thread and refreshes index readers. */
+    void flush() {
+        while (applyBatch()) {
+            // Apply until queue is empty.
+        }
+        refresh();
+    }
+
+    private void enqueue(Change change) throws ServerException {
+        if (closed) {
+            return;
+        }
+        synchronized (pending) {
+            final Change previous = pending.remove(change.path);
+            if (previous != null) {
+                change = change.coalesce(previous);
+            }
+            // Always put at the end of the queue, changes of nested paths must be applied in the same order as they are made.
+            pending.put(change.path, change);
+        }
+        if (drainScheduled.compareAndSet(false, true)) {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        final ScheduledExecutorService executor = searcherService.getExecutor();
+        if (!executor.isShutdown()) {
+            try {
+                executor.execute(drainTask);
+                return;
+            } catch (RejectedExecutionException ignored) {
+                // Executor is shut down just now, apply changes in the current thread.
+            }
+        }
+        drain();
+    }
+
+    private void drain() {
+        applyBatch();
+        drainScheduled.set(false);
+        // Changes might be added after batch is taken but before flag is cleared.
+        if (getQueueDepth() > 0 && drainScheduled.compareAndSet(false, true)) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Takes next batch of changes from the queue and applies it to the index. Batch is taken under the same lock that guards
+     * applying, so once queue is empty for thread that holds the lock all changes taken before are applied.
+     *
+     * @return {@code false} if queue is empty and there is nothing to apply
+     */
+    private boolean applyBatch() {
+        synchronized (applyLock) {
+            if (closed) {
+                return false;
+            }
+            final List<Change> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return false;
+                }
+                batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                final Iterator<Change> iterator = pending.values().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+            long oldest = oldestUnrefreshedChange;
+            for (Change change : batch) {
+                try {
+                    applyChange(change);
+                } catch (ServerException e) {
+                    LOG.warn("Unable update index for '{}'. {}", change.path, e.getMessage());
+                } catch (AlreadyClosedException e) {
+                    return false;
+                }
+                if (change.created < oldest) {
+                    oldest = change.created;
+                }
+            }
+            oldestUnrefreshedChange = oldest;
+            appliedChanges.addAndGet(batch.size());
+            appliedBatches.incrementAndGet();
+            refreshNeeded = true;
+        }
+        if (refreshPeriod > 0 && System.currentTimeMillis() - lastRefreshTime >= refreshPeriod) {
+            refresh();
+        }
+        return true;
+    }
+
+    private void applyChange(Change change) throws ServerException {
+        if ((change.delete & Change.DELETE_FILE) != 0) {
+            super.doDelete(change.path, true);
+        }
+        if ((change.delete & Change.DELETE_TREE) != 0) {
+            super.doDelete(change.path, false);
+        }
+        switch (change.type) {
+            case Change.ADD:
+                super.doAdd(change.virtualFile);
+                break;
+            case Change.UPDATE:
+                // File might be removed after update, in this case it is removed from index by other change.
+                if (change.virtualFile.exists()) {
+                    super.doUpdate(new Term("path", change.path), change.virtualFile);
+                }
+                break;
+            default:
+                // Item is already removed from index.
+        }
+    }
+
+    private void refresh() {
+        synchronized (applyLock) {
+            if (closed) {
+                return;
+            }
+            refreshNeeded = false;
+            try {
+                getSearcherManager().maybeRefresh();
+                oldestUnrefreshedChange = Long.MAX_VALUE;
+            } catch (IOException | AlreadyClosedException e) {
+                refreshNeeded = true;
+                LOG.warn("Unable refresh index readers. {}", e.getMessage());
+            }
+            lastRefreshTime = System.currentTimeMillis();
+        }
+    }
+
     @Override
     public void close() {
         searcherService.close(this);
     }
 
+    boolean isPersistent() {
+        return persistent;
+    }
+
     void doClose() {
-        super.close();
-        final java.io.File dir = getIndexDir();
-        if (!deleteRecursive(dir)) {
-            LOG.warn("Unable delete index directory '{}'", dir);
+        if (persistent) {
+            // Don't lose changes, index is reused next time.
+            flush();
+        }
+        closed = true;
+        final ScheduledFuture<?> myRefreshFuture = refreshFuture;
+        if (myRefreshFuture != null) {
+            myRefreshFuture.cancel(false);
+        }
+        synchronized (pending) {
+            pending.clear();
+        }
+        synchronized (applyLock) {
+            super.close();
+        }
+        if (!persistent) {
+            final java.io.File dir = getIndexDir();
+            if (!deleteRecursive(dir)) {
+                LOG.warn("Unable delete index directory '{}'", dir);
+            }
+        }
+    }
+
+    /** Pending change of index. */
+    private static final class Change {
+        static final int ADD    = 1;
+        static final int UPDATE = 2;
+        static final int DELETE = 3;
+
+        static final int DELETE_FILE = 1;
+        static final int DELETE_TREE = 1 << 1;
+
+        final int         type;
+        final String      path;
+        final VirtualFile virtualFile;
+        /**
+         * What should be removed from index before applying this change: document of file with the path, documents of all files
+         * under the path or both. Delete is remembered when change replaces not applied delete of the same path.
+         */
+        final int         delete;
+        /** Time (in nanoseconds) when the first of coalesced changes was made. */
+        final long        created;
+
+        Change(int type, String path, VirtualFile virtualFile, int delete) {
+            this(type, path, virtualFile, delete, System.nanoTime());
+        }
+
+        private Change(int type, String path, VirtualFile virtualFile, int delete, long created) {
+            this.type = type;
+            this.path = path;
+            this.virtualFile = virtualFile;
+            this.delete = delete;
+            this.created = created;
+        }
+
+        /** Merges this change with previous not applied change of the same path. */
+        Change coalesce(Change previous) {
+            return new Change(type, path, virtualFile, delete | previous.delete, Math.min(created, previous.created));
         }
     }
 }
@@ -29,30 +29,60 @@ import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * NOTE: This implementation always create new index in new directory. Index is not reused after call {@link
+ * NOTE: By default this implementation always create new index in new directory. Index is not reused after call {@link
  * CleanableSearcher#close()}. Index directory is cleaned after close Searcher.
+ * <p/>
+ * If configuration parameter <i>vfs.local.fs_index_persistent</i> is {@code true} index of each workspace is kept in the
+ * directory with name of workspace under the index root directory. Such index is not removed after close Searcher and survives
+ * restart of server. When Searcher is created next time index is reconciled with files instead of indexing all files again.
  *
  * @author andrew00x
  */
 @Singleton
 public class CleanableSearcherProvider extends LuceneSearcherProvider {
+    /** Default period in milliseconds of refreshing of index readers. */
+    static final long DEFAULT_REFRESH_PERIOD = 1000;
+    /** Default max number of changes that are applied to the index in one batch. */
+    static final int  DEFAULT_BATCH_SIZE     = 512;
+
     private final ConcurrentMap<java.io.File, CleanableSearcher> instances;
-    private final ExecutorService                                executor;
+    private final ScheduledExecutorService                       executor;
     private final java.io.File                                   indexRootDir;
     private final Set<VirtualFileFilter>                         filters;
 
+    /**
+     * Optional period in milliseconds of refreshing of index readers. Changes of files become visible for search not later than
+     * after this period. Zero or negative value means index readers are refreshed before each search request.
+     */
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.fs_index_refresh_period")
+    private long refreshPeriod = DEFAULT_REFRESH_PERIOD;
+
+    /** Optional flag to keep index of workspace after close of Searcher or restart of server. */
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.fs_index_persistent")
+    // Switched to default for test.
+    // private
+    boolean persistent;
+
+    /** Optional max number of changes that are applied to the index in one batch. */
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.fs_index_batch_size")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
     @Inject
     CleanableSearcherProvider(@Named("vfs.local.fs_index_root_dir") java.io.File indexRootDir,
                               @Named("vfs.index_filter") Set<VirtualFileFilter> filters) {
         this.indexRootDir = indexRootDir;
         this.filters = filters;
-        executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
-                                                new ThreadFactoryBuilder().setNameFormat("LocalVirtualFileSystem-CleanableSearcher-%d")
-                                                                          .setDaemon(true).build());
+        executor = Executors.newScheduledThreadPool(1 + Runtime.getRuntime().availableProcessors(),
+                                                    new ThreadFactoryBuilder().setNameFormat("LocalVirtualFileSystem-CleanableSearcher-%d")
+                                                                              .setDaemon(true).build());
         instances = new ConcurrentHashMap<>();
     }
 
@@ -65,7 +95,11 @@ public class CleanableSearcherProvider extends LuceneSearcherProvider {
             final CleanableSearcher newSearcher;
             try {
                 Files.createDirectories(indexRootDir.toPath());
-                myIndexDir = Files.createTempDirectory(indexRootDir.toPath(), null).toFile();
+                if (persistent) {
+                    myIndexDir = Files.createDirectories(indexRootDir.toPath().resolve(getIndexDirName(mountPoint))).toFile();
+                } else {
+                    myIndexDir = Files.createTempDirectory(indexRootDir.toPath(), null).toFile();
+                }
                 final VirtualFileFilter filter;
                 if (!filters.isEmpty()) {
                     final VirtualFileFilter[] myFilters = new VirtualFileFilter[filters.size() + 1];
@@ -78,7 +112,7 @@ public class CleanableSearcherProvider extends LuceneSearcherProvider {
                 } else {
                     filter = new MediaTypeFilter(getIndexedMediaTypes());
                 }
-                newSearcher = new CleanableSearcher(this, myIndexDir, filter);
+                newSearcher = new CleanableSearcher(this, myIndexDir, filter, persistent, refreshPeriod, batchSize);
             } catch (IOException e) {
                 throw new ServerException("Unable create searcher. " + e.getMessage(), e);
             }
@@ -86,7 +120,7 @@ public class CleanableSearcherProvider extends LuceneSearcherProvider {
             if (searcher == null) {
                 searcher = newSearcher;
                 searcher.init(mountPoint);
-            } else {
+            } else if (!persistent) {
                 // not need this directory
                 myIndexDir.delete();
             }
@@ -94,6 +128,17 @@ public class CleanableSearcherProvider extends LuceneSearcherProvider {
         return searcher;
     }
 
+    /** Name of directory of persistent index. Workspace id is used, all characters that may be not safe for filesystem are replaced. */
+    private String getIndexDirName(MountPoint mountPoint) {
+        final String workspaceId = mountPoint.getWorkspaceId();
+        final StringBuilder name = new StringBuilder(workspaceId.length());
+        for (int i = 0, length = workspaceId.length(); i < length; i++) {
+            final char c = workspaceId.charAt(i);
+            name.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+        }
+        return name.toString();
+    }
+
     void close(CleanableSearcher searcher) {
         instances.values().remove(searcher);
         searcher.doClose();
@@ -107,7 +152,25 @@ public class CleanableSearcherProvider extends LuceneSearcherProvider {
         }
     }
 
-    ExecutorService getExecutor() {
+    /** Gets total number of changes that are waiting to be applied to the indexes of all mounted filesystems. */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (CleanableSearcher searcher : instances.values()) {
+            depth += searcher.getQueueDepth();
+        }
+        return depth;
+    }
+
+    /** Gets max age of changes that are not visible for search yet in the indexes of all mounted filesystems. */
+    public long getIndexingLag(TimeUnit unit) {
+        long lag = 0;
+        for (CleanableSearcher searcher : instances.values()) {
+            lag = Math.max(lag, searcher.getIndexingLag(unit));
+        }
+        return lag;
+    }
+
+    ScheduledExecutorService getExecutor() {
         return executor;
     }
 }
@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.vfs.server.Path;
+import org.eclipse.che.api.vfs.server.observation.MoveEvent;
+import org.eclipse.che.api.vfs.server.observation.RenameEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import com.google.common.hash.HashFunction;
+import com.google.common.io.Files;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Persistent index of hash sums of files content of single {@link FSMountPoint}.
+ * <p/>
+ * Index is kept in memory and saved in file under {@link FSMountPoint#SERVICE_DIR} directory, so it survives restart of
+ * server. Each entry of index remembers size and last modification time of the file at the moment when hash sum was
+ * counted. Entry is used only if size and modification time of the file are not changed. Index also listens to {@link
+ * VirtualFileEvent}s to drop entries of updated, created and deleted files and to move entries of moved and renamed files
+ * without recounting. With such index only changed files need to be read to get hash sums of all files in the folder.
+ * <p/>
+ * Index is loaded from file and starts listening to the events when it is used first time. Method {@link #close()} saves
+ * index and stops listening to the events. Changes of files made while index is closed are detected by size and
+ * modification time.
+ */
+class ContentHashIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(ContentHashIndex.class);
+
+    private static final int VERSION = 1;
+
+    private final String                                workspaceId;
+    private final java.io.File                          indexFile;
+    private final EventService                          eventService;
+    private final HashFunction                          hashFunction;
+    private final EventSubscriber<VirtualFileEvent>     subscriber;
+    private final ConcurrentNavigableMap<String, Entry> entries;
+
+    private volatile boolean opened;
+    private volatile boolean dirty;
+
+    /**
+     * @param workspaceId
+     *         id of workspace to which mount point belongs to, index accepts events of this workspace only
+     * @param indexFile
+     *         file to save index
+     * @param eventService
+     *         EventService
+     * @param hashFunction
+     *         hash function that is used for counting of hash sums
+     */
+    ContentHashIndex(String workspaceId, java.io.File indexFile, EventService eventService, HashFunction hashFunction) {
+        this.workspaceId = workspaceId;
+        this.indexFile = indexFile;
+        this.eventService = eventService;
+        this.hashFunction = hashFunction;
+        entries = new ConcurrentSkipListMap<>();
+        subscriber = new EventSubscriber<VirtualFileEvent>() {
+            @Override
+            public void onEvent(VirtualFileEvent event) {
+                if (ContentHashIndex.this.workspaceId.equals(event.getWorkspaceId())) {
+                    handleEvent(event);
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets hash sum of content of file. This method should be called when caller holds lock that prevents updating of the
+     * file.
+     *
+     * @param path
+     *         virtual filesystem path of file
+     * @param ioFile
+     *         file on local filesystem
+     * @return hash sum of content of file
+     * @throws IOException
+     *         if an i/o error occurs while counting hash sum
+     */
+    String getHash(Path path, java.io.File ioFile) throws IOException {
+        open();
+        final String key = path.toString();
+        final long length = ioFile.length();
+        final long lastModified = ioFile.lastModified();
+        final Entry entry = entries.get(key);
+        if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+            return entry.hash;
+        }
+        final String hash = Files.hash(ioFile, hashFunction).toString();
+        entries.put(key, new Entry(length, lastModified, hash));
+        dirty = true;
+        return hash;
+    }
+
+    /** Saves index in file if it was changed since last save. */
+    synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        final java.io.File tmp = new java.io.File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        DataOutputStream dos = null;
+        try {
+            if (!(indexFile.getParentFile().exists() || indexFile.getParentFile().mkdirs())) {
+                throw new IOException(String.format("Unable create directory '%s'. ", indexFile.getParentFile()));
+            }
+            dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            // Take snapshot of entries. Entries which are added while we are writing are saved next time.
+            final List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+            dos.writeInt(VERSION);
+            dos.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> e : snapshot) {
+                dos.writeUTF(e.getKey());
+                dos.writeLong(e.getValue().length);
+                dos.writeLong(e.getValue().lastModified);
+                dos.writeUTF(e.getValue().hash);
+            }
+            dos.close();
+            dos = null;
+            java.nio.file.Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            dirty = true;
+            LOG.warn(String.format("Unable save index of hash sums in '%s'. %s", indexFile, e.getMessage()));
+        } finally {
+            if (dos != null) {
+                try {
+                    dos.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /** Saves index, stops listening to the events and releases memory. Index is reopened when it is used next time. */
+    synchronized void close() {
+        if (!opened) {
+            return;
+        }
+        eventService.unsubscribe(subscriber);
+        save();
+        entries.clear();
+        opened = false;
+    }
+
+    private void open() {
+        if (opened) {
+            return;
+        }
+        synchronized (this) {
+            if (opened) {
+                return;
+            }
+            eventService.subscribe(subscriber);
+            load();
+            opened = true;
+        }
+    }
+
+    private void load() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        DataInputStream dis = null;
+        try {
+            dis = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            if (dis.readInt() != VERSION) {
+                LOG.warn("Unsupported version of index of hash sums '{}'. Index is dropped. ", indexFile);
+                return;
+            }
+            final int size = dis.readInt();
+            for (int i = 0; i < size; i++) {
+                final String path = dis.readUTF();
+                final long length = dis.readLong();
+                final long lastModified = dis.readLong();
+                final String hash = dis.readUTF();
+                entries.putIfAbsent(path, new Entry(length, lastModified, hash));
+            }
+        } catch (IOException e) {
+            // Index will be rebuilt from content of files.
+            entries.clear();
+            LOG.warn(String.format("Unable read index of hash sums from '%s'. %s", indexFile, e.getMessage()));
+        } finally {
+            if (dis != null) {
+                try {
+                    dis.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void handleEvent(VirtualFileEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case CONTENT_UPDATED:
+            case DELETED:
+                remove(event.getPath());
+                break;
+            case MOVED:
+                move(((MoveEvent)event).getOldPath(), event.getPath());
+                break;
+            case RENAMED:
+                move(((RenameEvent)event).getOldPath(), event.getPath());
+                break;
+            default:
+                // Other changes don't affect content of files.
+        }
+    }
+
+    private void remove(String path) {
+        if (entries.remove(path) != null) {
+            dirty = true;
+        }
+        final Map<String, Entry> children = descendants(path);
+        if (!children.isEmpty()) {
+            children.clear();
+            dirty = true;
+        }
+    }
+
+    private void move(String oldPath, String newPath) {
+        if (oldPath == null) {
+            remove(newPath);
+            return;
+        }
+        remove(newPath);
+        final Entry entry = entries.remove(oldPath);
+        if (entry != null) {
+            entries.put(newPath, entry);
+            dirty = true;
+        }
+        final Map<String, Entry> children = descendants(oldPath);
+        if (!children.isEmpty()) {
+            final int trim = oldPath.length();
+            for (Map.Entry<String, Entry> e : new ArrayList<>(children.entrySet())) {
+                entries.put(newPath + e.getKey().substring(trim), e.getValue());
+            }
+            children.clear();
+            dirty = true;
+        }
+    }
+
+    private Map<String, Entry> descendants(String path) {
+        final String prefix = path.endsWith("/") ? path : path + '/';
+        // Character that follows '/' in the table of characters limits range of descendants.
+        return entries.subMap(prefix, true, prefix.substring(0, prefix.length() - 1) + (char)('/' + 1), false);
+    }
+
+    private static final class Entry {
+        final long   length;
+        final long   lastModified;
+        final String hash;
+
+        Entry(long length, long lastModified, String hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
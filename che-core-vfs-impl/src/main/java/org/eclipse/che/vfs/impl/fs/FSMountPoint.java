@@ -17,10 +17,10 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.api.vfs.server.ContentStream;
+import org.eclipse.che.api.vfs.server.HierarchicalPathLockFactory;
 import org.eclipse.che.api.vfs.server.LazyIterator;
 import org.eclipse.che.api.vfs.server.MountPoint;
 import org.eclipse.che.api.vfs.server.Path;
-import org.eclipse.che.api.vfs.server.PathLockFactory;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileFilter;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemUser;
@@ -34,8 +34,9 @@ import org.eclipse.che.api.vfs.server.observation.UpdateACLEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdatePropertiesEvent;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
-import org.eclipse.che.api.vfs.server.util.DeleteOnCloseFileInputStream;
+import org.eclipse.che.api.vfs.server.util.FileChannelInputStream;
 import org.eclipse.che.api.vfs.server.util.NotClosableInputStream;
+import org.eclipse.che.api.vfs.server.util.ZipCompression;
 import org.eclipse.che.api.vfs.server.util.ZipContent;
 import org.eclipse.che.api.vfs.shared.PropertyFilter;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
@@ -46,18 +47,16 @@ import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.LoadingValueSLRUCache;
-import org.eclipse.che.commons.lang.cache.SynchronizedCache;
+import org.eclipse.che.commons.lang.cache.LoadingValueTinyLFUCache;
 import org.eclipse.che.dto.server.DtoFactory;
 import com.google.common.collect.Sets;
-import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
-import com.google.common.io.ByteSource;
 
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.core.StreamingOutput;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
@@ -68,7 +67,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -97,17 +103,9 @@ public class FSMountPoint implements MountPoint {
 
     /*
      * Configuration parameters for caches.
-     * Caches are split to the few partitions to reduce lock contention.
-     * Use SLRU cache algorithm here.
-     * This is required some additional parameters, e.g. protected and probationary size.
-     * See details about SLRU algorithm: http://en.wikipedia.org/wiki/Cache_algorithms#Segmented_LRU
+     * Use W-TinyLFU cache algorithm here. Caches are concurrent and don't need to be split to partitions.
      */
-    private static final int CACHE_PARTITIONS_NUM        = 1 << 3;
-    private static final int CACHE_PROTECTED_SIZE        = 100;
-    private static final int CACHE_PROBATIONARY_SIZE     = 200;
-    private static final int MASK                        = CACHE_PARTITIONS_NUM - 1;
-    private static final int PARTITION_PROTECTED_SIZE    = CACHE_PROTECTED_SIZE / CACHE_PARTITIONS_NUM;
-    private static final int PARTITION_PROBATIONARY_SIZE = CACHE_PROBATIONARY_SIZE / CACHE_PARTITIONS_NUM;
+    private static final int CACHE_SIZE = 1 << 12;
     // end cache parameters
 
     private static final int MAX_BUFFER_SIZE  = 200 * 1024; // 200k
@@ -127,6 +125,11 @@ public class FSMountPoint implements MountPoint {
     static final String PROPS_DIR              = SERVICE_DIR + java.io.File.separatorChar + "props";
     static final String PROPERTIES_FILE_SUFFIX = "_props";
 
+    static final String MD5_INDEX_FILE = SERVICE_DIR + java.io.File.separatorChar + "md5sums";
+
+    /** Temporary files, e.g. new content of file before it replaces previous content. Must be on the same filesystem. */
+    static final String TMP_DIR = SERVICE_DIR + java.io.File.separatorChar + "tmp";
+
 
     /** Hide .vfs directory. */
     private static final java.io.FilenameFilter SERVICE_DIR_FILTER = new java.io.FilenameFilter() {
@@ -160,9 +163,9 @@ public class FSMountPoint implements MountPoint {
 
     private static final FileLock NO_LOCK = new FileLock("no_lock", 0);
 
-    private class FileLockCache extends LoadingValueSLRUCache<Path, FileLock> {
+    private class FileLockCache extends LoadingValueTinyLFUCache<Path, FileLock> {
         FileLockCache() {
-            super(PARTITION_PROTECTED_SIZE, PARTITION_PROBATIONARY_SIZE);
+            super(CACHE_SIZE);
         }
 
         @Override
@@ -173,7 +176,7 @@ public class FSMountPoint implements MountPoint {
                 final Path lockFilePath = getLockFilePath(key);
                 final java.io.File lockIoFile = new java.io.File(ioRoot, toIoPath(lockFilePath));
                 if (lockIoFile.exists()) {
-                    final PathLockFactory.PathLock lockFilePathLock =
+                    final HierarchicalPathLockFactory.PathLock lockFilePathLock =
                             pathLockFactory.getLock(lockFilePath, false).acquire(LOCK_FILE_TIMEOUT);
                     try {
                         dis = new DataInputStream(new BufferedInputStream(new FileInputStream(lockIoFile)));
@@ -194,9 +197,9 @@ public class FSMountPoint implements MountPoint {
     }
 
 
-    private class FileMetadataCache extends LoadingValueSLRUCache<Path, Map<String, String[]>> {
+    private class FileMetadataCache extends LoadingValueTinyLFUCache<Path, Map<String, String[]>> {
         FileMetadataCache() {
-            super(PARTITION_PROTECTED_SIZE, PARTITION_PROBATIONARY_SIZE);
+            super(CACHE_SIZE);
         }
 
         @Override
@@ -206,7 +209,7 @@ public class FSMountPoint implements MountPoint {
                 final Path metadataFilePath = getMetadataFilePath(key);
                 java.io.File metadataIoFile = new java.io.File(ioRoot, toIoPath(metadataFilePath));
                 if (metadataIoFile.exists()) {
-                    final PathLockFactory.PathLock metadataFilePathLock =
+                    final HierarchicalPathLockFactory.PathLock metadataFilePathLock =
                             pathLockFactory.getLock(metadataFilePath, false).acquire(LOCK_FILE_TIMEOUT);
                     try {
                         dis = new DataInputStream(new BufferedInputStream(new FileInputStream(metadataIoFile)));
@@ -227,9 +230,9 @@ public class FSMountPoint implements MountPoint {
     }
 
 
-    private class AccessControlListCache extends LoadingValueSLRUCache<Path, AccessControlList> {
+    private class AccessControlListCache extends LoadingValueTinyLFUCache<Path, AccessControlList> {
         private AccessControlListCache() {
-            super(PARTITION_PROTECTED_SIZE, PARTITION_PROBATIONARY_SIZE);
+            super(CACHE_SIZE);
         }
 
         @Override
@@ -239,7 +242,8 @@ public class FSMountPoint implements MountPoint {
                 final Path aclFilePath = getAclFilePath(key);
                 final java.io.File aclIoFile = new java.io.File(ioRoot, toIoPath(aclFilePath));
                 if (aclIoFile.exists()) {
-                    final PathLockFactory.PathLock aclFilePathLock = pathLockFactory.getLock(aclFilePath, false).acquire(LOCK_FILE_TIMEOUT);
+                    final HierarchicalPathLockFactory.PathLock aclFilePathLock =
+                            pathLockFactory.getLock(aclFilePath, false).acquire(LOCK_FILE_TIMEOUT);
                     try {
                         dis = new DataInputStream(new BufferedInputStream(new FileInputStream(aclIoFile)));
                         return aclSerializer.read(dis);
@@ -276,21 +280,24 @@ public class FSMountPoint implements MountPoint {
     private final SearcherProvider searcherProvider;
 
     /* NOTE -- This does not related to virtual file system locking in any kind. -- */
-    private final PathLockFactory pathLockFactory;
+    private final HierarchicalPathLockFactory pathLockFactory;
 
     private final VirtualFileImpl root;
 
     /* ----- Access control list feature. ----- */
-    private final AccessControlListSerializer      aclSerializer;
-    private final Cache<Path, AccessControlList>[] aclCache;
+    private final AccessControlListSerializer    aclSerializer;
+    private final Cache<Path, AccessControlList> aclCache;
 
     /* ----- Virtual file system lock feature. ----- */
-    private final FileLockSerializer      locksSerializer;
-    private final Cache<Path, FileLock>[] lockTokensCache;
+    private final FileLockSerializer    locksSerializer;
+    private final Cache<Path, FileLock> lockTokensCache;
 
     /* ----- File metadata. ----- */
-    private final FileMetadataSerializer               metadataSerializer;
-    private final Cache<Path, Map<String, String[]>>[] metadataCache;
+    private final FileMetadataSerializer             metadataSerializer;
+    private final Cache<Path, Map<String, String[]>> metadataCache;
+
+    /* ----- Hash sums of files content. ----- */
+    private final ContentHashIndex md5Index;
 
     private final VirtualFileSystemUserContext userContext;
 
@@ -301,7 +308,6 @@ public class FSMountPoint implements MountPoint {
      *         root directory for virtual file system. Any file in higher level than root are not accessible through
      *         virtual file system API.
      */
-    @SuppressWarnings("unchecked")
     FSMountPoint(String workspaceId, java.io.File ioRoot, EventService eventService, SearcherProvider searcherProvider) {
         this.workspaceId = workspaceId;
         this.ioRoot = ioRoot;
@@ -309,22 +315,18 @@ public class FSMountPoint implements MountPoint {
         this.searcherProvider = searcherProvider;
 
         root = new VirtualFileImpl(ioRoot, Path.ROOT, pathToId(Path.ROOT), this);
-        pathLockFactory = new PathLockFactory(FILE_LOCK_MAX_THREADS);
+        pathLockFactory = new HierarchicalPathLockFactory(FILE_LOCK_MAX_THREADS);
 
         aclSerializer = new AccessControlListSerializer();
-        aclCache = new Cache[CACHE_PARTITIONS_NUM];
+        aclCache = new AccessControlListCache();
 
         locksSerializer = new FileLockSerializer();
-        lockTokensCache = new Cache[CACHE_PARTITIONS_NUM];
+        lockTokensCache = new FileLockCache();
 
         metadataSerializer = new FileMetadataSerializer();
-        metadataCache = new Cache[CACHE_PARTITIONS_NUM];
+        metadataCache = new FileMetadataCache();
 
-        for (int i = 0; i < CACHE_PARTITIONS_NUM; i++) {
-            aclCache[i] = new SynchronizedCache(new AccessControlListCache());
-            lockTokensCache[i] = new SynchronizedCache(new FileLockCache());
-            metadataCache[i] = new SynchronizedCache(new FileMetadataCache());
-        }
+        md5Index = new ContentHashIndex(workspaceId, new java.io.File(ioRoot, MD5_INDEX_FILE), eventService, Hashing.md5());
         userContext = VirtualFileSystemUserContext.newInstance();
     }
 
@@ -381,11 +383,12 @@ public class FSMountPoint implements MountPoint {
         clearMetadataCache();
         clearAclCache();
         clearLockTokensCache();
+        md5Index.close();
     }
 
     // Used in tests. Need this to check state of PathLockFactory.
     // All locks MUST be released at the end of request lifecycle.
-    PathLockFactory getPathLockFactory() {
+    HierarchicalPathLockFactory getPathLockFactory() {
         return pathLockFactory;
     }
 
@@ -784,38 +787,39 @@ public class FSMountPoint implements MountPoint {
             throw new ForbiddenException(String.format("Unable get content. Item '%s' is not a file. ", virtualFile.getPath()));
         }
 
-        final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getVirtualFilePath(), false).acquire(LOCK_FILE_TIMEOUT);
+        final HierarchicalPathLockFactory.PathLock lock =
+                pathLockFactory.getLock(virtualFile.getVirtualFilePath(), false).acquire(LOCK_FILE_TIMEOUT);
         try {
             final java.io.File ioFile = virtualFile.getIoFile();
-            FileInputStream fIn = null;
+            FileChannel channel = null;
             try {
-                final long fLength = ioFile.length();
+                channel = FileChannel.open(ioFile.toPath(), StandardOpenOption.READ);
+                final long fLength = channel.size();
+                final Date lastModified = new Date(ioFile.lastModified());
                 if (fLength <= MAX_BUFFER_SIZE) {
                     // If file small enough save its content in memory.
-                    fIn = new FileInputStream(ioFile);
-                    final byte[] buff = new byte[(int)fLength];
-                    int offset = 0;
-                    int len = buff.length;
+                    final ByteBuffer buff = ByteBuffer.allocate((int)fLength);
                     int r;
-                    while ((r = fIn.read(buff, offset, len)) > 0) {
-                        offset += r;
-                        len -= r;
-                    }
-                    return new ContentStream(virtualFile.getName(), new ByteArrayInputStream(buff),
-                                             virtualFile.getMediaType(), buff.length, new Date(ioFile.lastModified()));
+                    do {
+                        r = channel.read(buff);
+                    } while (r > 0 && buff.hasRemaining());
+                    return new ContentStream(virtualFile.getName(), new ByteArrayInputStream(buff.array(), 0, buff.position()),
+                                             virtualFile.getMediaType(), buff.position(), lastModified);
                 }
 
-                // Otherwise copy this file to be able release the file lock before leave this method.
-                final java.io.File f = java.io.File.createTempFile("spool_file", null);
-                nioCopy(ioFile, f, null);
-                return new ContentStream(virtualFile.getName(), new DeleteOnCloseFileInputStream(f),
-                                         virtualFile.getMediaType(), fLength, new Date(ioFile.lastModified()));
+                // Otherwise read file through opened channel. Content of file is never updated in place (see _doUpdateContent)
+                // so channel keeps consistent snapshot of content after the file lock is released.
+                final ContentStream contentStream = new ContentStream(virtualFile.getName(),
+                                                                      new FileChannelInputStream(channel, fLength),
+                                                                      virtualFile.getMediaType(), fLength, lastModified);
+                channel = null;
+                return contentStream;
             } catch (IOException e) {
                 String msg = String.format("Unable get content of '%s'. ", virtualFile.getPath());
                 LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
                 throw new ServerException(msg);
             } finally {
-                closeQuietly(fIn);
+                closeQuietly(channel);
             }
         } finally {
             lock.release();
@@ -870,7 +874,8 @@ public class FSMountPoint implements MountPoint {
 
 
     private void doUpdateContent(VirtualFileImpl virtualFile, String mediaType, InputStream content) throws ServerException {
-        final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getVirtualFilePath(), true).acquire(LOCK_FILE_TIMEOUT);
+        final HierarchicalPathLockFactory.PathLock lock =
+                pathLockFactory.getLock(virtualFile.getVirtualFilePath(), true).acquire(LOCK_FILE_TIMEOUT);
         try {
             _doUpdateContent(virtualFile, content);
             setProperty(virtualFile, "vfs:mimeType", mediaType);
@@ -880,7 +885,8 @@ public class FSMountPoint implements MountPoint {
     }
 
     private void doUpdateContent(VirtualFileImpl virtualFile, InputStream content) throws ServerException {
-        final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getVirtualFilePath(), true).acquire(LOCK_FILE_TIMEOUT);
+        final HierarchicalPathLockFactory.PathLock lock =
+                pathLockFactory.getLock(virtualFile.getVirtualFilePath(), true).acquire(LOCK_FILE_TIMEOUT);
         try {
             _doUpdateContent(virtualFile, content);
         } finally {
@@ -890,20 +896,57 @@ public class FSMountPoint implements MountPoint {
 
     // UNDER LOCK
     private void _doUpdateContent(VirtualFileImpl virtualFile, InputStream content) throws ServerException {
+        // Write new content to temporary file and replace original file with it. Streams that are opened with getContent keep
+        // reading previous content, so they don't need to hold the file lock while content is read.
+        // Replaced file is new file on filesystem: hard links to original file keep previous content, owner and ACLs of
+        // original file are not kept, only POSIX permissions are copied.
+        final java.io.File ioFile = virtualFile.getIoFile();
+        java.io.File tmpFile = null;
         FileOutputStream fOut = null;
         try {
-            fOut = new FileOutputStream(virtualFile.getIoFile());
+            final java.io.File tmpDir = new java.io.File(ioRoot, TMP_DIR);
+            if (!(tmpDir.exists() || tmpDir.mkdirs())) {
+                throw new IOException(String.format("Unable create directory '%s'. ", tmpDir));
+            }
+            tmpFile = java.io.File.createTempFile("content", null, tmpDir);
+            fOut = new FileOutputStream(tmpFile);
             final byte[] buff = new byte[COPY_BUFFER_SIZE];
             int r;
             while ((r = content.read(buff)) != -1) {
                 fOut.write(buff, 0, r);
             }
+            fOut.close();
+            fOut = null;
+            copyPermissions(ioFile, tmpFile);
+            try {
+                Files.move(tmpFile.toPath(), ioFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                // Filesystem doesn't support atomic replacing of file. Anyway never update file in place, original file is
+                // removed and readers which opened it keep reading previous content.
+                Files.move(tmpFile.toPath(), ioFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             String msg = String.format("Unable set content of '%s'. ", virtualFile.getPath());
             LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
             throw new ServerException(msg);
         } finally {
             closeQuietly(fOut);
+            if (tmpFile != null && tmpFile.exists() && !tmpFile.delete()) {
+                LOG.warn("Unable delete temporary file '{}'. ", tmpFile);
+            }
+        }
+    }
+
+    private void copyPermissions(java.io.File source, java.io.File target) throws IOException {
+        if (!source.exists()) {
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions(target.toPath(), Files.getPosixFilePermissions(source.toPath()));
+        } catch (UnsupportedOperationException e) {
+            if (source.canExecute() && !target.setExecutable(true)) {
+                LOG.warn("Unable set executable flag on '{}'. ", target);
+            }
         }
     }
 
@@ -997,40 +1040,47 @@ public class FSMountPoint implements MountPoint {
 
 
     private void clearLockTokensCache() {
-        for (Cache<Path, FileLock> cache : lockTokensCache) {
-            cache.clear();
-        }
+        lockTokensCache.clear();
     }
 
 
     private void clearAclCache() {
-        for (Cache<Path, AccessControlList> cache : aclCache) {
-            cache.clear();
-        }
+        aclCache.clear();
     }
 
 
     private void clearMetadataCache() {
-        for (Cache<Path, Map<String, String[]>> cache : metadataCache) {
-            cache.clear();
-        }
+        metadataCache.clear();
     }
 
 
-    ContentStream zip(VirtualFileImpl virtualFile, VirtualFileFilter filter) throws ForbiddenException, ServerException {
+    ContentStream zip(final VirtualFileImpl virtualFile, final VirtualFileFilter filter, final int compressionLevel)
+            throws ForbiddenException, ServerException {
         if (!virtualFile.isFolder()) {
             throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder. ", virtualFile.getPath()));
         }
-        java.io.File zipFile = null;
-        FileOutputStream out = null;
         try {
-            zipFile = java.io.File.createTempFile("export", ".zip");
-            out = new FileOutputStream(zipFile);
-            final ZipOutputStream zipOut = new ZipOutputStream(out);
-            final LinkedList<VirtualFile> q = new LinkedList<>();
-            q.add(virtualFile);
-            final int zipEntryNameTrim = virtualFile.getVirtualFilePath().length();
-            final byte[] buff = new byte[COPY_BUFFER_SIZE];
+            ZipCompression.checkLevel(compressionLevel);
+        } catch (IllegalArgumentException e) {
+            throw new ServerException(e.getMessage());
+        }
+        // Zip archive is created while it is written to the output, so nothing is saved on local disk.
+        return new ContentStream(virtualFile.getName() + ".zip", new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                zip(virtualFile, filter, compressionLevel, output);
+            }
+        }, "application/zip", new Date());
+    }
+
+    private void zip(VirtualFileImpl virtualFile, VirtualFileFilter filter, int compressionLevel, OutputStream output)
+            throws IOException {
+        final ZipOutputStream zipOut = new ZipOutputStream(output);
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(virtualFile);
+        final int zipEntryNameTrim = virtualFile.getVirtualFilePath().length();
+        final byte[] buff = new byte[COPY_BUFFER_SIZE];
+        try {
             while (!q.isEmpty()) {
                 for (VirtualFile current : doGetChildren((VirtualFileImpl)q.pop(), SERVICE_GIT_DIR_FILTER)) {
                     // (1) Check filter.
@@ -1041,12 +1091,12 @@ public class FSMountPoint implements MountPoint {
                         final String zipEntryName = current.getVirtualFilePath().subPath(zipEntryNameTrim).toString().substring(1);
                         if (current.isFile()) {
                             final ZipEntry zipEntry = new ZipEntry(zipEntryName);
-                            zipOut.putNextEntry(zipEntry);
                             InputStream in = null;
-                            final PathLockFactory.PathLock lock =
+                            final HierarchicalPathLockFactory.PathLock lock =
                                     pathLockFactory.getLock(current.getVirtualFilePath(), false).acquire(LOCK_FILE_TIMEOUT);
                             try {
-                                zipEntry.setTime(virtualFile.getLastModificationDate());
+                                zipEntry.setTime(current.getLastModificationDate());
+                                ZipCompression.putNextEntry(zipOut, zipEntry, compressionLevel);
                                 in = new FileInputStream(((VirtualFileImpl)current).getIoFile());
                                 int r;
                                 while ((r = in.read(buff)) != -1) {
@@ -1067,16 +1117,10 @@ public class FSMountPoint implements MountPoint {
                     }
                 }
             }
-            closeQuietly(zipOut);
-            final String name = virtualFile.getName() + ".zip";
-            return new ContentStream(name, new DeleteOnCloseFileInputStream(zipFile), "application/zip", zipFile.length(), new Date());
-        } catch (IOException | RuntimeException ioe) {
-            if (zipFile != null) {
-                zipFile.delete();
-            }
-            throw new ServerException(ioe.getMessage(), ioe);
-        } finally {
-            closeQuietly(out);
+            // Don't close output, it is managed by caller.
+            zipOut.finish();
+        } catch (ServerException e) {
+            throw new IOException(e.getMessage(), e);
         }
     }
 
@@ -1198,8 +1242,7 @@ public class FSMountPoint implements MountPoint {
 
 
     private String doLock(VirtualFileImpl virtualFile, long timeout) throws ConflictException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        if (NO_LOCK == lockTokensCache[index].get(virtualFile.getVirtualFilePath())) // causes read from file if need.
+        if (NO_LOCK == lockTokensCache.get(virtualFile.getVirtualFilePath())) // causes read from file if need.
         {
             final String lockToken = NameGenerator.generate(null, 16);
             final long expired = timeout > 0 ? (System.currentTimeMillis() + timeout) : Long.MAX_VALUE;
@@ -1210,7 +1253,8 @@ public class FSMountPoint implements MountPoint {
                 final java.io.File lockIoFile = new java.io.File(ioRoot, toIoPath(lockFilePath));
                 lockIoFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create
                 // directory we will get FileNotFoundException at the next line when try to create FileOutputStream.
-                final PathLockFactory.PathLock lockFilePathLock = pathLockFactory.getLock(lockFilePath, true).acquire(LOCK_FILE_TIMEOUT);
+                final HierarchicalPathLockFactory.PathLock lockFilePathLock =
+                        pathLockFactory.getLock(lockFilePath, true).acquire(LOCK_FILE_TIMEOUT);
                 try {
                     dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(lockIoFile)));
                     locksSerializer.write(dos, fileLock);
@@ -1226,7 +1270,7 @@ public class FSMountPoint implements MountPoint {
             }
 
             // Save lock token in cache if lock successful.
-            lockTokensCache[index].put(virtualFile.getVirtualFilePath(), fileLock);
+            lockTokensCache.put(virtualFile.getVirtualFilePath(), fileLock);
             return lockToken;
         }
 
@@ -1250,7 +1294,6 @@ public class FSMountPoint implements MountPoint {
     }
 
     private void doUnlock(VirtualFileImpl virtualFile, FileLock lock, String lockToken) throws ForbiddenException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         try {
             if (!lock.getLockToken().equals(lockToken)) {
                 throw new ForbiddenException(String.format("Unable unlock file '%s'. Lock token does not match. ", virtualFile.getPath()));
@@ -1260,7 +1303,7 @@ public class FSMountPoint implements MountPoint {
                 throw new IOException(String.format("Unable delete lock file %s. ", lockIoFile));
             }
             // Mark as unlocked in cache.
-            lockTokensCache[index].put(virtualFile.getVirtualFilePath(), NO_LOCK);
+            lockTokensCache.put(virtualFile.getVirtualFilePath(), NO_LOCK);
         } catch (IOException e) {
             String msg = String.format("Unable unlock file '%s'. ", virtualFile.getPath());
             LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
@@ -1274,9 +1317,8 @@ public class FSMountPoint implements MountPoint {
     }
 
     private FileLock checkIsLockValidAndGet(VirtualFileImpl virtualFile) {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         // causes read from file if need
-        final FileLock lock = lockTokensCache[index].get(virtualFile.getVirtualFilePath());
+        final FileLock lock = lockTokensCache.get(virtualFile.getVirtualFilePath());
         if (NO_LOCK == lock) {
             return NO_LOCK;
         }
@@ -1288,7 +1330,7 @@ public class FSMountPoint implements MountPoint {
                     LOG.warn("Unable delete lock file %s. ", lockIoFile);
                 }
             }
-            lockTokensCache[index].put(virtualFile.getVirtualFilePath(), NO_LOCK);
+            lockTokensCache.put(virtualFile.getVirtualFilePath(), NO_LOCK);
             return NO_LOCK;
         }
         return lock;
@@ -1311,14 +1353,13 @@ public class FSMountPoint implements MountPoint {
 
     AccessControlList getACL(VirtualFileImpl virtualFile) {
         // Do not check permission here. We already check 'read' permission when get VirtualFile.
-        return new AccessControlList(aclCache[virtualFile.getVirtualFilePath().hashCode() & MASK].get(virtualFile.getVirtualFilePath()));
+        return new AccessControlList(aclCache.get(virtualFile.getVirtualFilePath()));
     }
 
 
     void updateACL(VirtualFileImpl virtualFile, List<AccessControlEntry> acl, boolean override, String lockToken)
             throws ForbiddenException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        final AccessControlList actualACL = aclCache[index].get(virtualFile.getVirtualFilePath());
+        final AccessControlList actualACL = aclCache.get(virtualFile.getVirtualFilePath());
 
         if (!hasPermission(virtualFile, BasicPermissions.UPDATE_ACL.value(), true)) {
             throw new ForbiddenException(String.format("Unable update ACL for '%s'. Operation not permitted. ", virtualFile.getPath()));
@@ -1346,7 +1387,8 @@ public class FSMountPoint implements MountPoint {
             } else {
                 aclFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create directory
                 // we will get FileNotFoundException at the next line when try to create FileOutputStream.
-                final PathLockFactory.PathLock lock = pathLockFactory.getLock(aclFilePath, true).acquire(LOCK_FILE_TIMEOUT);
+                final HierarchicalPathLockFactory.PathLock lock =
+                        pathLockFactory.getLock(aclFilePath, true).acquire(LOCK_FILE_TIMEOUT);
                 try {
                     dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(aclFile)));
                     aclSerializer.write(dos, copy);
@@ -1363,7 +1405,7 @@ public class FSMountPoint implements MountPoint {
         }
 
         // 4. update cache
-        aclCache[index].put(virtualFile.getVirtualFilePath(), copy);
+        aclCache.put(virtualFile.getVirtualFilePath(), copy);
         // 5. update last modification time
         if (!virtualFile.getIoFile().setLastModified(System.currentTimeMillis())) {
             LOG.warn("Unable to set timestamp to '{}'. ", virtualFile.getIoFile());
@@ -1377,7 +1419,7 @@ public class FSMountPoint implements MountPoint {
         final VirtualFileSystemUser user = userContext.getVirtualFileSystemUser();
         Path path = virtualFile.getVirtualFilePath();
         while (path != null) {
-            final AccessControlList accessControlList = aclCache[path.hashCode() & MASK].get(path);
+            final AccessControlList accessControlList = aclCache.get(path);
             if (!accessControlList.isEmpty()) {
                 final Principal userPrincipal = DtoFactory.getInstance().createDto(Principal.class)
                                                           .withName(user.getUserId()).withType(Principal.Type.USER);
@@ -1443,7 +1485,6 @@ public class FSMountPoint implements MountPoint {
 
     void updateProperties(VirtualFileImpl virtualFile, List<Property> properties, String lockToken)
             throws ForbiddenException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         if (!hasPermission(virtualFile, BasicPermissions.WRITE.value(), true)) {
             throw new ForbiddenException(
                     String.format("Unable update properties for '%s'. Operation not permitted. ", virtualFile.getPath()));
@@ -1455,7 +1496,7 @@ public class FSMountPoint implements MountPoint {
         }
 
         // 1. make copy of properties
-        final Map<String, String[]> metadata = copyMetadataMap(metadataCache[index].get(virtualFile.getVirtualFilePath()));
+        final Map<String, String[]> metadata = copyMetadataMap(metadataCache.get(virtualFile.getVirtualFilePath()));
         // 2. update
         for (Property property : properties) {
             final String name = property.getName();
@@ -1470,7 +1511,7 @@ public class FSMountPoint implements MountPoint {
         // 3. save in file
         saveFileMetadata(virtualFile, metadata);
         // 4. update cache
-        metadataCache[index].put(virtualFile.getVirtualFilePath(), metadata);
+        metadataCache.put(virtualFile.getVirtualFilePath(), metadata);
         // 5. update last modification time
         if (!virtualFile.getIoFile().setLastModified(System.currentTimeMillis())) {
             LOG.warn("Unable to set timestamp to '{}'. ", virtualFile.getIoFile());
@@ -1480,23 +1521,20 @@ public class FSMountPoint implements MountPoint {
 
 
     private Map<String, String[]> getFileMetadata(VirtualFileImpl virtualFile) {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        return copyMetadataMap(metadataCache[index].get(virtualFile.getVirtualFilePath()));
+        return copyMetadataMap(metadataCache.get(virtualFile.getVirtualFilePath()));
     }
 
 
     String getPropertyValue(VirtualFileImpl virtualFile, String name) {
         // Do not check permission here. We already check 'read' permission when get VirtualFile.
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        final String[] value = metadataCache[index].get(virtualFile.getVirtualFilePath()).get(name);
+        final String[] value = metadataCache.get(virtualFile.getVirtualFilePath()).get(name);
         return value == null || value.length == 0 ? null : value[0];
     }
 
 
     String[] getPropertyValues(VirtualFileImpl virtualFile, String name) {
         // Do not check permission here. We already check 'read' permission when get VirtualFile.
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        final String[] value = metadataCache[index].get(virtualFile.getVirtualFilePath()).get(name);
+        final String[] value = metadataCache.get(virtualFile.getVirtualFilePath()).get(name);
         final String[] copyValue = new String[value.length];
         System.arraycopy(value, 0, copyValue, 0, value.length);
         return copyValue;
@@ -1509,9 +1547,8 @@ public class FSMountPoint implements MountPoint {
 
 
     void setProperty(VirtualFileImpl virtualFile, String name, String... value) throws ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         // 1. make copy of properties
-        final Map<String, String[]> metadata = copyMetadataMap(metadataCache[index].get(virtualFile.getVirtualFilePath()));
+        final Map<String, String[]> metadata = copyMetadataMap(metadataCache.get(virtualFile.getVirtualFilePath()));
         // 2. update
         if (value != null) {
             String[] copyValue = new String[value.length];
@@ -1523,7 +1560,7 @@ public class FSMountPoint implements MountPoint {
         // 3. save in file
         saveFileMetadata(virtualFile, metadata);
         // 4. update cache
-        metadataCache[index].put(virtualFile.getVirtualFilePath(), metadata);
+        metadataCache.put(virtualFile.getVirtualFilePath(), metadata);
     }
 
 
@@ -1542,7 +1579,8 @@ public class FSMountPoint implements MountPoint {
             } else {
                 metadataFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create
                 // directory we will get FileNotFoundException at the next line when try to create FileOutputStream.
-                final PathLockFactory.PathLock lock = pathLockFactory.getLock(metadataFilePath, true).acquire(LOCK_FILE_TIMEOUT);
+                final HierarchicalPathLockFactory.PathLock lock =
+                        pathLockFactory.getLock(metadataFilePath, true).acquire(LOCK_FILE_TIMEOUT);
                 try {
                     dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(metadataFile)));
                     metadataSerializer.write(dos, properties);
@@ -1602,14 +1640,13 @@ public class FSMountPoint implements MountPoint {
         }
         final List<Pair<String, String>> hashes = new ArrayList<>();
         final int trimPathLength = virtualFile.getPath().length() + 1;
-        final HashFunction hashFunction = Hashing.md5();
         final ValueHolder<ServerException> errorHolder = new ValueHolder<>();
         virtualFile.accept(new VirtualFileVisitor() {
             @Override
             public void visit(final VirtualFile virtualFile) {
                 try {
                     if (virtualFile.isFile()) {
-                        hashes.add(Pair.of(countHashSum(virtualFile, hashFunction), virtualFile.getPath().substring(trimPathLength)));
+                        hashes.add(Pair.of(countHashSum((VirtualFileImpl)virtualFile), virtualFile.getPath().substring(trimPathLength)));
                     } else {
                         final LazyIterator<VirtualFile> children = virtualFile.getChildren(VirtualFileFilter.ALL);
                         while (children.hasNext()) {
@@ -1621,19 +1658,25 @@ public class FSMountPoint implements MountPoint {
                 }
             }
         });
+        md5Index.save();
+        final ServerException error = errorHolder.get();
+        if (error != null) {
+            throw error;
+        }
         return LazyIterator.fromList(hashes);
     }
 
 
-    private String countHashSum(VirtualFile virtualFile, HashFunction hashFunction) throws ServerException {
-        final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getVirtualFilePath(), false).acquire(LOCK_FILE_TIMEOUT);
+    private String countHashSum(VirtualFileImpl virtualFile) throws ServerException {
+        final HierarchicalPathLockFactory.PathLock lock =
+                pathLockFactory.getLock(virtualFile.getVirtualFilePath(), false).acquire(LOCK_FILE_TIMEOUT);
         try {
-            final InputStream stream = virtualFile.getContent().getStream();
-            return ByteSource.concat().hash(hashFunction).toString();
-        } catch (ForbiddenException e) {
-            throw new ServerException(e.getServiceError());
+            // Hash sum is counted only if file was changed since last time.
+            return md5Index.getHash(virtualFile.getVirtualFilePath(), virtualFile.getIoFile());
         } catch (IOException e) {
-            throw new ServerException(e);
+            String msg = String.format("Unable count hash sum of '%s'. ", virtualFile.getPath());
+            LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
+            throw new ServerException(msg);
         } finally {
             lock.release();
         }
@@ -99,6 +99,7 @@ public class LocalFileSystemProvider extends VirtualFileSystemProvider {
     public void close() {
         final FSMountPoint mount = mountRef.remove();
         if (mount != null) {
+            mount.reset();
             if (searcherProvider != null) {
                 try {
                     final Searcher searcher = searcherProvider.getSearcher(mount, false);
@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.Deflater;
 
 /**
  * Implementation of VirtualFile which uses java.io.File.
@@ -227,7 +228,12 @@ public class VirtualFileImpl implements VirtualFile {
 
     @Override
     public ContentStream zip(VirtualFileFilter filter) throws ForbiddenException, ServerException {
-        return mountPoint.zip(this, filter);
+        return mountPoint.zip(this, filter, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public ContentStream zip(VirtualFileFilter filter, int compressionLevel) throws ForbiddenException, ServerException {
+        return mountPoint.zip(this, filter, compressionLevel);
     }
 
     @Override
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.vfs.server.Path;
+import org.eclipse.che.api.vfs.server.observation.MoveEvent;
+import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ContentHashIndexTest {
+    private final String workspaceId = "ws1";
+
+    private java.io.File     root;
+    private java.io.File     indexFile;
+    private EventService     eventService;
+    private ContentHashIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        java.io.File testDir = new java.io.File(Thread.currentThread().getContextClassLoader().getResource(".").toURI()).getParentFile();
+        root = new java.io.File(testDir, "hash-index");
+        assertTrue(new java.io.File(root, "a/b").mkdirs());
+        indexFile = new java.io.File(root, FSMountPoint.MD5_INDEX_FILE);
+        eventService = new EventService();
+        index = new ContentHashIndex(workspaceId, indexFile, eventService, Hashing.md5());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        index.close();
+        deleteRecursive(root);
+    }
+
+    @Test
+    public void countsHashSumOfFile() throws Exception {
+        final java.io.File file = write("a/b/file.txt", "hello");
+        assertEquals(md5("hello"), index.getHash(Path.fromString("/a/b/file.txt"), file));
+    }
+
+    @Test
+    public void doesNotRecountHashSumOfUnchangedFile() throws Exception {
+        final java.io.File file = write("a/b/file.txt", "hello");
+        final Path path = Path.fromString("/a/b/file.txt");
+        final String hash = index.getHash(path, file);
+        // Change content but keep size and modification time. Hash sum is not recounted.
+        overwriteKeepingTimestamp(file, "world");
+        assertEquals(hash, index.getHash(path, file));
+    }
+
+    @Test
+    public void reusesSavedIndex() throws Exception {
+        final java.io.File file = write("a/b/file.txt", "hello");
+        final Path path = Path.fromString("/a/b/file.txt");
+        final String hash = index.getHash(path, file);
+        index.close();
+        assertTrue(indexFile.exists());
+
+        overwriteKeepingTimestamp(file, "world");
+        final ContentHashIndex reopened = new ContentHashIndex(workspaceId, indexFile, eventService, Hashing.md5());
+        try {
+            assertEquals(hash, reopened.getHash(path, file));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void recountsHashSumAfterUpdateContentEvent() throws Exception {
+        final java.io.File file = write("a/b/file.txt", "hello");
+        final Path path = Path.fromString("/a/b/file.txt");
+        index.getHash(path, file);
+        overwriteKeepingTimestamp(file, "world");
+
+        eventService.publish(new UpdateContentEvent(workspaceId, "/a/b/file.txt"));
+
+        assertEquals(md5("world"), index.getHash(path, file));
+    }
+
+    @Test
+    public void keepsHashSumsOfMovedFolder() throws Exception {
+        final java.io.File file = write("a/b/file.txt", "hello");
+        index.getHash(Path.fromString("/a/b/file.txt"), file);
+        final java.io.File moved = new java.io.File(root, "a/c/file.txt");
+        assertTrue(moved.getParentFile().mkdirs());
+        assertTrue(file.renameTo(moved));
+        overwriteKeepingTimestamp(moved, "world");
+
+        eventService.publish(new MoveEvent(workspaceId, "/a/c", "/a/b", true));
+
+        // Entry is moved together with folder, content is not read again.
+        assertEquals(md5("hello"), index.getHash(Path.fromString("/a/c/file.txt"), moved));
+    }
+
+    private java.io.File write(String relPath, String content) throws Exception {
+        final java.io.File file = new java.io.File(root, relPath);
+        Files.write(content.getBytes(StandardCharsets.UTF_8), file);
+        return file;
+    }
+
+    private void overwriteKeepingTimestamp(java.io.File file, String content) throws Exception {
+        final long lastModified = file.lastModified();
+        Files.write(content.getBytes(StandardCharsets.UTF_8), file);
+        assertTrue(file.setLastModified(lastModified));
+    }
+
+    private String md5(String content) {
+        return Hashing.md5().hashBytes(content.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
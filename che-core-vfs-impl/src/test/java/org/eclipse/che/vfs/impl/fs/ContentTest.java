@@ -10,14 +10,18 @@
  *******************************************************************************/
 package org.eclipse.che.vfs.impl.fs;
 
+import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
 import org.eclipse.che.dto.server.DtoFactory;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 
 import org.everrest.core.impl.ContainerResponse;
 import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 
 import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -86,6 +90,44 @@ public class ContentTest extends LocalFileSystemTest {
                      writer.getHeaders().getFirst("Content-Disposition"));
     }
 
+    public void testGetLargeContent() throws Exception {
+        final byte[] largeContent = createLargeContent('a');
+        final String largeFileId = pathToId(createFile(testRootPath, "ContentTest_LargeFile.txt", largeContent));
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String requestPath = SERVICE_URI + "content/" + largeFileId;
+        ContainerResponse response = launcher.service("GET", requestPath, BASE_URI, null, null, writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        assertTrue(Arrays.equals(largeContent, writer.getBody()));
+
+        writer = new ByteArrayContainerResponseWriter();
+        requestPath = SERVICE_URI + "downloadfile/" + largeFileId;
+        response = launcher.service("GET", requestPath, BASE_URI, null, null, writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        assertTrue(Arrays.equals(largeContent, writer.getBody()));
+    }
+
+    public void testGetLargeContentWhileUpdate() throws Exception {
+        final byte[] largeContent = createLargeContent('a');
+        final byte[] newLargeContent = createLargeContent('b');
+        final String largeFilePath = createFile(testRootPath, "ContentTest_LargeFile.txt", largeContent);
+        final VirtualFile file = mountPoint.getVirtualFile(largeFilePath);
+        try (InputStream stream = file.getContent().getStream()) {
+            // Content is updated while stream is opened but stream still provides previous content.
+            file.updateContent(new ByteArrayInputStream(newLargeContent), null);
+            assertTrue(Arrays.equals(largeContent, ByteStreams.toByteArray(stream)));
+        }
+        assertTrue(Arrays.equals(newLargeContent, readFile(largeFilePath)));
+        try (InputStream stream = file.getContent().getStream()) {
+            assertTrue(Arrays.equals(newLargeContent, ByteStreams.toByteArray(stream)));
+        }
+    }
+
+    private byte[] createLargeContent(char c) {
+        final byte[] largeContent = new byte[1024 * 1024];
+        Arrays.fill(largeContent, (byte)c);
+        return largeContent;
+    }
+
     public void testGetContentFolder() throws Exception {
         ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
         String requestPath = SERVICE_URI + "content/" + folderId;
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.server.ContentStream;
+import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+
+import org.everrest.core.impl.ContainerResponse;
+import org.everrest.core.tools.ByteArrayContainerResponseWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class ExportTest extends LocalFileSystemTest {
+    private final byte[] textContent = createContent("text content ", 4096);
+    private final byte[] jarContent  = createContent("jar content ", 4096);
+
+    private String folderId;
+    private String folderPath;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        folderPath = createDirectory(testRootPath, "ExportTest_Folder");
+        createFile(createDirectory(folderPath, "src"), "file.txt", textContent);
+        createFile(createDirectory(folderPath, "lib"), "library.jar", jarContent);
+        folderId = pathToId(folderPath);
+    }
+
+    public void testExportFolder() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String requestPath = SERVICE_URI + "export/" + folderId;
+        ContainerResponse response = launcher.service("GET", requestPath, BASE_URI, null, null, writer, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        assertEquals("application/zip", writer.getHeaders().getFirst("Content-Type"));
+        Map<String, byte[]> entries = readZip(writer.getBody(), null);
+        assertEquals(4, entries.size());
+        assertTrue(entries.containsKey("src/"));
+        assertTrue(entries.containsKey("lib/"));
+        assertTrue(Arrays.equals(textContent, entries.get("src/file.txt")));
+        assertTrue(Arrays.equals(jarContent, entries.get("lib/library.jar")));
+    }
+
+    public void testExportFileForbidden() throws Exception {
+        String filePath = createFile(folderPath, "file.txt", textContent);
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String requestPath = SERVICE_URI + "export/" + pathToId(filePath);
+        ContainerResponse response = launcher.service("GET", requestPath, BASE_URI, null, null, writer, null);
+        assertEquals(403, response.getStatus());
+    }
+
+    public void testCompressionLevel() throws Exception {
+        ContentStream zip = mountPoint.getVirtualFile(folderPath).zip(VirtualFileFilter.ALL, Deflater.BEST_COMPRESSION);
+        // Zip is created on the fly.
+        assertNull(zip.getStream());
+        assertNotNull(zip.getOutput());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        zip.getOutput().write(out);
+        Map<String, Long> compressedSizes = new HashMap<>();
+        Map<String, byte[]> entries = readZip(out.toByteArray(), compressedSizes);
+        assertTrue(Arrays.equals(textContent, entries.get("src/file.txt")));
+        assertTrue(Arrays.equals(jarContent, entries.get("lib/library.jar")));
+        // Text file is compressed but jar file is stored as is.
+        assertTrue(compressedSizes.get("src/file.txt") < textContent.length / 10);
+        assertTrue(compressedSizes.get("lib/library.jar") >= jarContent.length);
+    }
+
+    public void testInvalidCompressionLevel() throws Exception {
+        try {
+            mountPoint.getVirtualFile(folderPath).zip(VirtualFileFilter.ALL, 10);
+            fail("ServerException expected");
+        } catch (ServerException expected) {
+        }
+    }
+
+    private Map<String, byte[]> readZip(byte[] zip, Map<String, Long> compressedSizes) throws Exception {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry zipEntry;
+            byte[] buff = new byte[1024];
+            while ((zipEntry = zipIn.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                int r;
+                while ((r = zipIn.read(buff)) != -1) {
+                    content.write(buff, 0, r);
+                }
+                zipIn.closeEntry();
+                entries.put(zipEntry.getName(), content.toByteArray());
+                if (compressedSizes != null) {
+                    compressedSizes.put(zipEntry.getName(), zipEntry.getCompressedSize());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private byte[] createContent(String line, int count) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(line);
+        }
+        return content.toString().getBytes();
+    }
+}
@@ -35,6 +35,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class SearcherTest extends LocalFileSystemTest {
     private static final String FILE_NAME          = "SearcherTest_File1";
@@ -104,7 +105,10 @@ public class SearcherTest extends LocalFileSystemTest {
         // Touch Searcher to initialize it.
         searcher = (CleanableSearcher)searcherProvider.getSearcher(mountPoint, true);
         searcherManager = new SearcherManager(searcher.getIndexWriter(), true, new SearcherFactory());
+        waitForInitialization(searcher);
+    }
 
+    private void waitForInitialization(CleanableSearcher searcher) throws Exception {
         Throwable error;
         while ((error = searcher.initializationError()) == null && !searcher.initialized()) {
             Thread.sleep(100);
@@ -148,6 +152,7 @@ public class SearcherTest extends LocalFileSystemTest {
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(file1).delete(null);
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
@@ -163,6 +168,7 @@ public class SearcherTest extends LocalFileSystemTest {
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(searchTestPath).delete(null);
+        searcher.flush();
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
@@ -177,6 +183,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).createFile("new_file.txt", null, new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -192,6 +199,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(0, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).updateContent(new ByteArrayInputStream("updated content".getBytes()), null);
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -209,6 +217,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(0, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).moveTo(mountPoint.getVirtualFile(destination), null);
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -228,6 +237,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(0, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).copyTo(mountPoint.getVirtualFile(destination));
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -246,6 +256,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).rename(newName, null, null);
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -266,6 +277,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file4).rename(newName, null, null);
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -290,6 +302,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).rename(newName, null, null);
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -312,6 +325,7 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).rename(newName, null, null);
+        searcher.flush();
 
         searcherManager.maybeRefresh();
         luceneSearcher = searcherManager.acquire();
@@ -322,4 +336,63 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
     }
+
+    public void testCoalesceChanges() throws Exception {
+        final long appliedChanges = searcher.getAppliedChanges();
+        // Indexer can't take changes from the queue while lock is held, so all updates are queued before any of them is applied.
+        synchronized (searcher.applyLock) {
+            for (int i = 0; i < 10; i++) {
+                final String content = i < 9 ? "intermediate content" : "coalesced content";
+                mountPoint.getVirtualFile(file2).updateContent(new ByteArrayInputStream(content.getBytes()), null);
+            }
+            assertEquals(1, searcher.getQueueDepth());
+        }
+        searcher.flush();
+        assertEquals(0, searcher.getQueueDepth());
+        assertEquals(0, searcher.getIndexingLag(TimeUnit.MILLISECONDS));
+        assertEquals(appliedChanges + 1, searcher.getAppliedChanges());
+
+        searcherManager.maybeRefresh();
+        IndexSearcher luceneSearcher = searcherManager.acquire();
+        TopDocs topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("coalesced"), 10);
+        assertEquals(1, topDocs.totalHits);
+        topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("intermediate"), 10);
+        assertEquals(0, topDocs.totalHits);
+        searcherManager.release(luceneSearcher);
+    }
+
+    public void testReconcilePersistentIndex() throws Exception {
+        CleanableSearcherProvider persistentProvider =
+                new CleanableSearcherProvider(new java.io.File(root.getParentFile(), "persistent_index"),
+                                              Collections.<VirtualFileFilter>emptySet());
+        persistentProvider.persistent = true;
+        CleanableSearcher persistentSearcher = (CleanableSearcher)persistentProvider.getSearcher(mountPoint, true);
+        waitForInitialization(persistentSearcher);
+        java.io.File indexDir = persistentSearcher.getIndexDir();
+        persistentSearcher.close();
+        assertTrue(indexDir.exists());
+
+        // Files are changed while index is closed.
+        assertTrue(getIoFile(file1).delete());
+        writeFile(file2, "changed while index is closed".getBytes());
+        String file5 = createFile(searchTestPath, "SearcherTest_File05.txt", "created while index is closed".getBytes());
+
+        persistentSearcher = (CleanableSearcher)persistentProvider.getSearcher(mountPoint, true);
+        waitForInitialization(persistentSearcher);
+        assertEquals(indexDir, persistentSearcher.getIndexDir());
+        SearcherManager persistentSearcherManager = new SearcherManager(persistentSearcher.getIndexWriter(), true, new SearcherFactory());
+        IndexSearcher luceneSearcher = persistentSearcherManager.acquire();
+        TopDocs topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
+        assertEquals(0, topDocs.totalHits);
+        topDocs = luceneSearcher.search(new TermQuery(new Term("path", file3)), 10);
+        assertEquals(1, topDocs.totalHits);
+        topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("closed"), 10);
+        assertEquals(2, topDocs.totalHits);
+        List<String> paths = Arrays.asList(luceneSearcher.doc(topDocs.scoreDocs[0].doc).get("path"),
+                                           luceneSearcher.doc(topDocs.scoreDocs[1].doc).get("path"));
+        assertTrue(paths.containsAll(Arrays.asList(file2, file5)));
+        persistentSearcherManager.release(luceneSearcher);
+        persistentSearcherManager.close();
+        persistentSearcher.close();
+    }
 }
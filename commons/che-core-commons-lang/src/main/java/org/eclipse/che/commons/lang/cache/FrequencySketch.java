@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+/**
+ * Probabilistic frequency counter (Count-Min sketch with 4-bit counters) used by {@link TinyLFUCache} to decide whether new
+ * entry should be admitted to the cache. Counters are halved periodically, so the sketch keeps track of recent frequency only.
+ * <p/>
+ * Implementation is not threadsafe.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS      = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long   RESET_MASK = 0x7777777777777777L;
+    private static final long   ONE_MASK   = 0x1111111111111111L;
+
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private long[] table;
+    private int    tableMask;
+    private int    sampleSize;
+    private int    additions;
+
+    /**
+     * @param expectedSize
+     *         expected number of entries in the cache, sketch may be enlarged later with {@link #ensureCapacity(long)}
+     */
+    FrequencySketch(long expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Enlarges sketch if it is too small for the specified number of entries. All collected frequencies are lost when sketch is
+     * enlarged, since table size doubles at least this happens only few times while cache grows.
+     */
+    void ensureCapacity(long expectedSize) {
+        if (expectedSize > table.length && table.length < MAX_TABLE_SIZE) {
+            allocate(tableSizeFor(expectedSize));
+        }
+    }
+
+    /** Gets number of counters in each row of sketch. */
+    int capacity() {
+        return table.length;
+    }
+
+    private void allocate(int tableSize) {
+        table = new long[tableSize];
+        tableMask = tableSize - 1;
+        sampleSize = 10 * tableSize;
+        additions = 0;
+    }
+
+    private static int tableSizeFor(long expectedSize) {
+        final int size = (int)Math.min(Math.max(expectedSize, 1), MAX_TABLE_SIZE);
+        int tableSize = 1;
+        while (tableSize < size) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    /** Returns estimated number of occurrences of element, max value is 15. */
+    int frequency(Object element) {
+        final int hash = spread(element.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int)((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /** Increments counters of element. */
+    void increment(Object element) {
+        final int hash = spread(element.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /** Halves all counters. */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int)h) & tableMask;
+    }
+
+    private static int spread(int h) {
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+}
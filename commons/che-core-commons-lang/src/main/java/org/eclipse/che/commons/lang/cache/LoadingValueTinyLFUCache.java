@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+/**
+ * TinyLFUCache that loads value for key if it is not cached yet.
+ * <p/>
+ * Value for the same key is loaded at most by one thread at a time. Loading and modifications of cache are serialized per key
+ * with small set of monitors, so value which is loaded concurrently with {@link #put(Object, Object)} or {@link
+ * #remove(Object)} never overrides result of such modification. Cache hits don't need any monitor.
+ *
+ * @see TinyLFUCache
+ */
+public abstract class LoadingValueTinyLFUCache<K, V> extends TinyLFUCache<K, V> {
+    private static final int LOAD_LOCKS = 1 << 5;
+
+    private final Object[] loadLocks;
+
+    /**
+     * @param maximumSize
+     *         max number of entries in the cache
+     */
+    public LoadingValueTinyLFUCache(long maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * @param maximumWeight
+     *         max total weight of entries in the cache
+     * @param weigher
+     *         calculates weight of entries, if <code>null</code> then each entry has weight <code>1</code>
+     */
+    public LoadingValueTinyLFUCache(long maximumWeight, Weigher<K, V> weigher) {
+        super(maximumWeight, weigher);
+        loadLocks = new Object[LOAD_LOCKS];
+        for (int i = 0; i < LOAD_LOCKS; i++) {
+            loadLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        V value = super.get(key);
+        if (value != null) {
+            return value;
+        }
+        synchronized (loadLock(key)) {
+            value = getQuietly(key);
+            if (value == null) {
+                value = loadValue(key);
+                super.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        synchronized (loadLock(key)) {
+            return super.put(key, value);
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        synchronized (loadLock(key)) {
+            return super.remove(key);
+        }
+    }
+
+    /**
+     * Load value in implementation specific way.
+     *
+     * @param key
+     *         key
+     * @return value
+     * @throws RuntimeException
+     *         if failed to load value
+     */
+    protected abstract V loadValue(K key) throws RuntimeException;
+
+    private Object loadLock(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return loadLocks[h & (LOAD_LOCKS - 1)];
+    }
+}
@@ -0,0 +1,666 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent cache with W-TinyLFU admission and eviction policy. See for details <a
+ * href="http://arxiv.org/abs/1512.00727">TinyLFU: A Highly Efficient Cache Admission Policy</a>.
+ * <p/>
+ * New entries are placed in a small LRU window. Entries which leave the window are admitted to the main segmented LRU area
+ * only if they are used more frequently than the entry which would be evicted instead of them. Frequencies are estimated with
+ * compact {@link FrequencySketch}, so one-time scan of many keys does not flush entries that are used often.
+ * <p/>
+ * Implementation is threadsafe and does not need to be wrapped with {@link SynchronizedCache}. Entries are kept in {@link
+ * ConcurrentHashMap}, reads never block. Changes of eviction policy are recorded in buffers and applied in batches by the thread
+ * which succeeds to get the eviction lock, other threads never wait for it.
+ * <p/>
+ * By default each entry has weight <code>1</code>, so cache is bounded by number of entries. Use {@link Weigher} to bound cache by
+ * total weight of entries.
+ */
+public class TinyLFUCache<K, V> implements Cache<K, V> {
+    private static final int READ_BUFFERS;
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    /** Initial size of frequency sketch of cache which is bounded by weight. */
+    private static final int INITIAL_SKETCH_SIZE = 64;
+
+    static {
+        final int cpu = Runtime.getRuntime().availableProcessors();
+        int buffers = 1;
+        while (buffers < cpu) {
+            buffers <<= 1;
+        }
+        READ_BUFFERS = buffers;
+    }
+
+    // Segments of eviction policy.
+    private static final int NONE      = 0;
+    private static final int WINDOW    = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final Weigher<K, V>                    weigher;
+    private final long                             maximumWeight;
+    private final long                             windowMaximum;
+    private final long                             mainMaximum;
+    private final long                             protectedMaximum;
+    private final boolean                          weighted;
+
+    private final ReentrantLock evictionLock;
+    private final ReadBuffer[]  readBuffers;
+    private final Queue<Task>   writeBuffer;
+
+    // Guarded by evictionLock.
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<K, V> window;
+    private final AccessOrderDeque<K, V> probation;
+    private final AccessOrderDeque<K, V> protectedSegment;
+    private       long                   windowWeight;
+    private       long                   protectedWeight;
+    private       long                   weightedSize;
+    private       long                   policySize;
+    // end guarded by evictionLock.
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    /**
+     * @param maximumSize
+     *         max number of entries in the cache
+     */
+    public TinyLFUCache(long maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * @param maximumWeight
+     *         max total weight of entries in the cache
+     * @param weigher
+     *         calculates weight of entries, if <code>null</code> then each entry has weight <code>1</code>
+     */
+    public TinyLFUCache(long maximumWeight, Weigher<K, V> weigher) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("Max weight of cache must be greater than 0. ");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        windowMaximum = Math.max(1, maximumWeight / 100);
+        mainMaximum = maximumWeight - windowMaximum;
+        protectedMaximum = (long)(mainMaximum * 0.8);
+        weighted = weigher != null;
+        // Max weight tells nothing about number of entries if cache is bounded by weight, e.g. by size of values in bytes. In this
+        // case sketch starts small and grows with number of entries.
+        if (weighted) {
+            data = new ConcurrentHashMap<>();
+            sketch = new FrequencySketch(INITIAL_SKETCH_SIZE);
+        } else {
+            data = new ConcurrentHashMap<>((int)Math.min(maximumWeight, 1 << 16));
+            sketch = new FrequencySketch(maximumWeight);
+        }
+        evictionLock = new ReentrantLock();
+        readBuffers = new ReadBuffer[READ_BUFFERS];
+        for (int i = 0; i < READ_BUFFERS; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+        writeBuffer = new ConcurrentLinkedQueue<>();
+        window = new AccessOrderDeque<>();
+        probation = new AccessOrderDeque<>();
+        protectedSegment = new AccessOrderDeque<>();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        evictions = new AtomicLong();
+    }
+
+    @Override
+    public V get(K key) {
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        final int weight = weigh(key, value);
+        final Node<K, V> node = new Node<>(key, value, weight);
+        for (; ; ) {
+            final Node<K, V> prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                afterWrite(new AddTask(node));
+                return null;
+            }
+            final V oldValue;
+            synchronized (prior) {
+                if (!prior.alive) {
+                    // Removed concurrently, try again.
+                    continue;
+                }
+                oldValue = prior.value;
+                prior.value = value;
+                prior.weight = weight;
+            }
+            afterWrite(new UpdateTask(prior));
+            evict(key, oldValue);
+            return oldValue;
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        for (; ; ) {
+            final Node<K, V> node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+            final V oldValue;
+            synchronized (node) {
+                if (!node.alive) {
+                    continue;
+                }
+                if (!data.remove(key, node)) {
+                    continue;
+                }
+                node.alive = false;
+                oldValue = node.value;
+            }
+            afterWrite(new RemovalTask(node));
+            evict(key, oldValue);
+            return oldValue;
+        }
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public void clear() {
+        for (K key : data.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        final Iterator<Node<K, V>> delegate = data.values().iterator();
+        return new Iterator<Entry<K, V>>() {
+            private Node<K, V> current;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                current = delegate.next();
+                return new AbstractMap.SimpleImmutableEntry<>(current.key, current.value);
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                TinyLFUCache.this.remove(current.key);
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * Should be called when value is removed from cache, e.g. when value is replaced with {@link #put(Object, Object)}, removed
+     * with {@link #remove(Object)} or {@link #clear()} or evicted by eviction policy. Eviction policy calls this method after the
+     * internal eviction lock is released, but it may be called from any thread which accesses the cache.
+     *
+     * @param key
+     *         key
+     * @param value
+     *         evicted value
+     */
+    protected void evict(K key, V value) {
+        // nothing by default
+    }
+
+    /** Returns number of successful lookups. */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** Returns number of lookups of keys which were not found in cache. */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** Returns number of entries which were evicted by eviction policy. */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /** Returns max total weight of entries in the cache. */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /** Returns total weight of entries in the cache. Pending changes are applied before calculation. */
+    public long getWeightedSize() {
+        final List<Node<K, V>> evicted;
+        final long result;
+        evictionLock.lock();
+        try {
+            evicted = maintenance();
+            result = weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(evicted);
+        return result;
+    }
+
+    /** Gets value without recording access and updating statistic. */
+    V getQuietly(K key) {
+        final Node<K, V> node = data.get(key);
+        return node == null ? null : node.value;
+    }
+
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        final int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight of cache entry must be non-negative. ");
+        }
+        return weight;
+    }
+
+    /* ========== Buffering of eviction policy changes ========== */
+
+    private void afterRead(Node<K, V> node) {
+        final ReadBuffer buffer = readBuffers[(int)Thread.currentThread().getId() & (READ_BUFFERS - 1)];
+        if (!buffer.offer(node)) {
+            // Buffer is full. Record of access is lost that is acceptable, but it's time to apply recorded accesses.
+            tryToDrain();
+        }
+    }
+
+    private void afterWrite(Task task) {
+        writeBuffer.add(task);
+        tryToDrain();
+    }
+
+    private void tryToDrain() {
+        do {
+            if (!evictionLock.tryLock()) {
+                // Thread which holds lock applies our changes.
+                return;
+            }
+            List<Node<K, V>> evicted;
+            try {
+                evicted = maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+            notifyEvicted(evicted);
+        } while (!writeBuffer.isEmpty());
+    }
+
+    private void notifyEvicted(List<Node<K, V>> evicted) {
+        for (Node<K, V> node : evicted) {
+            evict(node.key, node.value);
+        }
+    }
+
+    // UNDER LOCK
+    private List<Node<K, V>> maintenance() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+        Task task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+        return evictEntries();
+    }
+
+    /* ========== Eviction policy. All methods below must be called under eviction lock ========== */
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+        switch (node.segment) {
+            case WINDOW:
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.segment = PROTECTED;
+                protectedSegment.addLast(node);
+                protectedWeight += node.policyWeight;
+                while (protectedWeight > protectedMaximum) {
+                    final Node<K, V> demoted = protectedSegment.pollFirst();
+                    if (demoted == null) {
+                        break;
+                    }
+                    protectedWeight -= demoted.policyWeight;
+                    demoted.segment = PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            case PROTECTED:
+                protectedSegment.moveToBack(node);
+                break;
+            default:
+                // Not linked yet or already removed.
+        }
+    }
+
+    private void onAdd(Node<K, V> node) {
+        if (!node.alive || node.segment != NONE) {
+            return;
+        }
+        policySize++;
+        if (weighted) {
+            sketch.ensureCapacity(policySize);
+        }
+        sketch.increment(node.key);
+        node.policyWeight = node.weight;
+        node.segment = WINDOW;
+        window.addLast(node);
+        windowWeight += node.policyWeight;
+        weightedSize += node.policyWeight;
+    }
+
+    private void onUpdate(Node<K, V> node) {
+        if (node.segment == NONE) {
+            // Add task is not applied yet, it reads actual weight.
+            return;
+        }
+        final int delta = node.weight - node.policyWeight;
+        node.policyWeight += delta;
+        weightedSize += delta;
+        if (node.segment == WINDOW) {
+            windowWeight += delta;
+        } else if (node.segment == PROTECTED) {
+            protectedWeight += delta;
+        }
+        onAccess(node);
+    }
+
+    private void onRemove(Node<K, V> node) {
+        unlink(node);
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.remove(node);
+                windowWeight -= node.policyWeight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node);
+                protectedWeight -= node.policyWeight;
+                break;
+            default:
+                return;
+        }
+        weightedSize -= node.policyWeight;
+        policySize--;
+        node.segment = NONE;
+    }
+
+    private List<Node<K, V>> evictEntries() {
+        List<Node<K, V>> evicted = null;
+        // Move entries from window to main area, each of them must compete for the place with the main area's victim.
+        while (windowWeight > windowMaximum) {
+            final Node<K, V> candidate = window.pollFirst();
+            windowWeight -= candidate.policyWeight;
+            candidate.segment = PROBATION;
+            probation.addLast(candidate);
+            while (weightedSize - windowWeight > mainMaximum) {
+                Node<K, V> victim = probation.peekFirst();
+                if (victim == candidate) {
+                    victim = protectedSegment.peekFirst();
+                }
+                if (victim == null || victim == candidate) {
+                    evicted = evictNode(candidate, evicted);
+                    break;
+                }
+                if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    evicted = evictNode(victim, evicted);
+                } else {
+                    evicted = evictNode(candidate, evicted);
+                    break;
+                }
+            }
+        }
+        // Entries may be too heavy for the cache even after admission.
+        while (weightedSize > maximumWeight) {
+            Node<K, V> victim = probation.peekFirst();
+            if (victim == null) {
+                victim = protectedSegment.peekFirst();
+            }
+            if (victim == null) {
+                victim = window.peekFirst();
+            }
+            if (victim == null) {
+                break;
+            }
+            evicted = evictNode(victim, evicted);
+        }
+        return evicted == null ? new ArrayList<Node<K, V>>(0) : evicted;
+    }
+
+    private List<Node<K, V>> evictNode(Node<K, V> node, List<Node<K, V>> evicted) {
+        boolean removed;
+        synchronized (node) {
+            removed = node.alive && data.remove(node.key, node);
+            if (removed) {
+                node.alive = false;
+            }
+        }
+        unlink(node);
+        if (removed) {
+            evictions.incrementAndGet();
+            if (evicted == null) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(node);
+        }
+        return evicted;
+    }
+
+   /* =============================================== */
+
+    private static final class Node<K, V> {
+        final K key;
+        // Guarded by this Node instance on write.
+        volatile V       value;
+        volatile int     weight;
+        volatile boolean alive;
+
+        // Guarded by eviction lock.
+        int        policyWeight;
+        int        segment;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.alive = true;
+        }
+    }
+
+    /** Doubly linked list of nodes. The least recently used node is first. Not threadsafe. */
+    private static final class AccessOrderDeque<K, V> {
+        private Node<K, V> first;
+        private Node<K, V> last;
+
+        Node<K, V> peekFirst() {
+            return first;
+        }
+
+        Node<K, V> pollFirst() {
+            final Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    /**
+     * Lossy ring buffer of accessed nodes. Many threads may add nodes but only thread which holds eviction lock drains it. If
+     * buffer is full new records are dropped.
+     */
+    private static final class ReadBuffer {
+        final AtomicReferenceArray<Node<?, ?>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        final AtomicLong                       writes = new AtomicLong();
+        final AtomicLong                       reads  = new AtomicLong();
+
+        /** Returns <code>false</code> if buffer is full. */
+        boolean offer(Node<?, ?> node) {
+            final long head = reads.get();
+            final long tail = writes.get();
+            if (tail - head >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writes.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int)tail & READ_BUFFER_MASK, node);
+            }
+            return true;
+        }
+
+        // UNDER LOCK
+        @SuppressWarnings("unchecked")
+        <K, V> void drainTo(TinyLFUCache<K, V> cache) {
+            long head = reads.get();
+            final long tail = writes.get();
+            for (; head < tail; head++) {
+                final int index = (int)head & READ_BUFFER_MASK;
+                final Node<K, V> node = (Node<K, V>)buffer.get(index);
+                if (node == null) {
+                    // Slot is reserved but node is not published yet.
+                    break;
+                }
+                buffer.lazySet(index, null);
+                cache.onAccess(node);
+            }
+            reads.lazySet(head);
+        }
+    }
+
+    private abstract static class Task implements Runnable {
+    }
+
+    private final class AddTask extends Task {
+        final Node<K, V> node;
+
+        AddTask(Node<K, V> node) {
+            this.node = node;
+        }
+
+        @Override
+        public void run() {
+            onAdd(node);
+        }
+    }
+
+    private final class UpdateTask extends Task {
+        final Node<K, V> node;
+
+        UpdateTask(Node<K, V> node) {
+            this.node = node;
+        }
+
+        @Override
+        public void run() {
+            onUpdate(node);
+        }
+    }
+
+    private final class RemovalTask extends Task {
+        final Node<K, V> node;
+
+        RemovalTask(Node<K, V> node) {
+            this.node = node;
+        }
+
+        @Override
+        public void run() {
+            onRemove(node);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+/**
+ * Calculates weight of cache entry. Caches that support size-by-weight bound the total weight of entries instead of the
+ * number of entries.
+ *
+ * @see TinyLFUCache
+ */
+public interface Weigher<K, V> {
+    /**
+     * Returns weight of cache entry. Weight is calculated once when entry is put in cache.
+     *
+     * @param key
+     *         key
+     * @param value
+     *         value
+     * @return weight of entry, must be non-negative
+     */
+    int weigh(K key, V value);
+}
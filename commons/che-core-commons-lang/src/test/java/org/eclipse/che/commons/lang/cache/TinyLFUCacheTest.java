@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/** Test of TinyLFUCache class */
+public class TinyLFUCacheTest {
+    @Test
+    public void shouldBeAbleToGetValueAfterPut() throws Exception {
+        //given
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(10);
+        cache.put("k1", "v1");
+        //when
+        String value = cache.get("k1");
+        //then
+        assertEquals(value, "v1");
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.getHitCount(), 1);
+    }
+
+    @Test
+    public void shouldNotBeAbleToGetValueAfterRemove() throws Exception {
+        //given
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(10);
+        cache.put("k1", "v1");
+        //when
+        cache.remove("k1");
+        //then
+        assertNull(cache.get("k1"));
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getWeightedSize(), 0);
+    }
+
+    @Test
+    public void shouldNotKeepMoreEntriesThanMaxSize() throws Exception {
+        //given
+        TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<>(100);
+        //when
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        //then
+        assertEquals(cache.getWeightedSize(), 100);
+        assertEquals(cache.size(), 100);
+        assertEquals(cache.getEvictionCount(), 900);
+    }
+
+    @Test
+    public void shouldKeepFrequentlyUsedEntriesAfterScan() throws Exception {
+        //given
+        TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<>(100);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+        //when
+        for (int i = 1000; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        //then
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.contains(i)) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 45, "Frequently used entries were flushed by scan: " + retained);
+    }
+
+    @Test
+    public void shouldBoundCacheByWeight() throws Exception {
+        //given
+        TinyLFUCache<String, byte[]> cache = new TinyLFUCache<>(1000, new Weigher<String, byte[]>() {
+            @Override
+            public int weigh(String key, byte[] value) {
+                return value.length;
+            }
+        });
+        //when
+        for (int i = 0; i < 100; i++) {
+            cache.put("k" + i, new byte[64]);
+        }
+        //then
+        assertTrue(cache.getWeightedSize() <= 1000);
+        assertEquals(cache.getWeightedSize(), cache.size() * 64);
+    }
+
+    @Test
+    public void shouldNotifyAboutEvictedEntries() throws Exception {
+        //given
+        final AtomicInteger evicted = new AtomicInteger();
+        TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<Integer, Integer>(10) {
+            @Override
+            protected void evict(Integer key, Integer value) {
+                evicted.incrementAndGet();
+            }
+        };
+        //when
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, i);
+        }
+        cache.clear();
+        //then
+        assertEquals(evicted.get(), 20);
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void shouldLoadValueOnce() throws Exception {
+        //given
+        final AtomicInteger loads = new AtomicInteger();
+        final LoadingValueTinyLFUCache<Integer, String> cache = new LoadingValueTinyLFUCache<Integer, String>(100) {
+            @Override
+            protected String loadValue(Integer key) {
+                loads.incrementAndGet();
+                return "v" + key;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return cache.get(1);
+                    }
+                }));
+            }
+            //then
+            for (Future<String> result : results) {
+                assertEquals(result.get(), "v1");
+            }
+            assertEquals(loads.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldStayConsistentUnderConcurrentAccess() throws Exception {
+        //given
+        final TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<>(500);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        final ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < 100000; i++) {
+                            final int key = random.nextInt(2000);
+                            if (random.nextInt(10) == 0) {
+                                cache.remove(key);
+                            } else if (cache.get(key) == null) {
+                                cache.put(key, key);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            //then
+            assertEquals(cache.getWeightedSize(), cache.size());
+            assertTrue(cache.size() <= 500);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotSizeFrequencySketchByMaxWeight() throws Exception {
+        //given
+        TinyLFUCache<Integer, byte[]> cache = new TinyLFUCache<>(1L << 40, new Weigher<Integer, byte[]>() {
+            @Override
+            public int weigh(Integer key, byte[] value) {
+                return value.length;
+            }
+        });
+        //when
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, new byte[1024]);
+        }
+        //then
+        assertEquals(cache.size(), 1000);
+        assertEquals(cache.getWeightedSize(), 1000 * 1024);
+    }
+
+    @Test
+    public void shouldGrowFrequencySketchWithNumberOfEntries() throws Exception {
+        //given
+        FrequencySketch sketch = new FrequencySketch(64);
+        sketch.increment("k1");
+        //when
+        sketch.ensureCapacity(32);
+        //then
+        assertEquals(sketch.capacity(), 64);
+        assertEquals(sketch.frequency("k1"), 1);
+        //when
+        sketch.ensureCapacity(1000);
+        //then
+        assertEquals(sketch.capacity(), 1024);
+        sketch.increment("k1");
+        assertEquals(sketch.frequency("k1"), 1);
+    }
+}
@@ -14,14 +14,16 @@ package org.eclipse.che.commons.xml;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
 
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.ByteArrayInputStream;
@@ -32,10 +34,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import static org.eclipse.che.commons.xml.XMLTreeUtil.SPACES_IN_TAB;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.UTF_8;
@@ -58,6 +63,8 @@ import static com.google.common.io.ByteStreams.toByteArray;
 import static java.nio.file.Files.readAllBytes;
 import static java.util.Objects.requireNonNull;
 import static javax.xml.XMLConstants.XML_NS_URI;
+import static javax.xml.XMLConstants.XMLNS_ATTRIBUTE;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
 import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
 import static javax.xml.stream.XMLStreamConstants.COMMENT;
 import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
@@ -67,8 +74,7 @@ import static javax.xml.stream.XMLStreamConstants.START_DOCUMENT;
 import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
 import static javax.xml.xpath.XPathConstants.NODESET;
 import static javax.xml.xpath.XPathConstants.STRING;
-import static org.w3c.dom.Node.CDATA_SECTION_NODE;
-import static org.w3c.dom.Node.TEXT_NODE;
+import static org.w3c.dom.Node.ELEMENT_NODE;
 
 /**
  * XML tool which provides abilities to modify and search
@@ -161,11 +167,38 @@ public final class XMLTree {
         return from(String.format(ROOT_TEMPLATE, rootName, rootName));
     }
 
-    private static final XMLInputFactory        XML_INPUT_FACTORY        = XMLInputFactory.newFactory();
+    private static final XMLInputFactory        XML_INPUT_FACTORY        = newXMLInputFactory();
     private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
     private static final XPathFactory           XPATH_FACTORY            = XPathFactory.newInstance();
     private static final String                 ROOT_TEMPLATE            = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<%s>\n</%s>";
     private static final int                    EXPECTED_NAMESPACES_SIZE = 2;
+    private static final byte[]                 CARRIAGE_RETURN_REF      = "&#xD;".getBytes();
+    private static final byte[]                 CDATA_START              = "<![CDATA[".getBytes();
+    private static final byte[]                 CDATA_END                = "]]>".getBytes();
+    private static final int                    XPATH_CACHE_SIZE         = 256;
+    private static final String                 REPORT_CDATA_EVENT       = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    /**
+     * Absolute path which contains only element names e.g. /project/build/plugins/plugin,
+     * such expressions are evaluated without xpath
+     */
+    private static final Pattern SIMPLE_PATH = Pattern.compile("(/[A-Za-z_][\\w.\\-]*)+");
+
+    /**
+     * Compiled xpath expressions, neither {@link XPath} nor compiled expressions
+     * are thread-safe so each thread has own cache of recently used expressions
+     */
+    private static final ThreadLocal<Map<String, XPathExpression>> XPATH_CACHE = new ThreadLocal<Map<String, XPathExpression>>() {
+        @Override
+        protected Map<String, XPathExpression> initialValue() {
+            return new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                    return size() > XPATH_CACHE_SIZE;
+                }
+            };
+        }
+    };
 
     private Document            document;
     private Map<String, String> namespaces;
@@ -189,8 +222,7 @@ public final class XMLTree {
         if (rootStart == -1) {
             throw new XMLTreeException("XML document should contain root element");
         }
-        document = parseQuietly(replaceAll(xml, (byte)'\r', "&#xD;".getBytes(), rootStart));
-        constructTreeQuietly();
+        constructTreeQuietly(rootStart);
     }
 
     /**
@@ -380,29 +412,66 @@ public final class XMLTree {
 
     /**
      * Evaluates xpath expression with given return type.
+     * Simple paths like /project/artifactId are evaluated
+     * without xpath, see {@link #selectElements(String)}.
      * Rethrows all exceptions as {@link XMLTreeException}
      */
     @SuppressWarnings("unchecked")
     private <T> T evaluateXPath(String expression, QName returnType) {
-        final XPath xpath = XPATH_FACTORY.newXPath();
+        if ((returnType == NODESET || returnType == STRING) && SIMPLE_PATH.matcher(expression).matches()) {
+            final List<Node> nodes = selectElements(expression);
+            if (returnType == NODESET) {
+                return (T)new NodeListImpl(nodes);
+            }
+            return (T)(nodes.isEmpty() ? "" : nodes.get(0).getTextContent());
+        }
         try {
-            return (T)xpath.evaluate(expression, document, returnType);
+            return (T)compileXPath(expression).evaluate(document, returnType);
         } catch (XPathExpressionException xpathEx) {
             throw XMLTreeException.wrap(xpathEx);
         }
     }
 
     /**
-     * Parses document using {@link DocumentBuilder}
-     * Rethrows all exceptions as {@link XMLTreeException}
+     * Returns compiled expression from the cache of current thread
+     * or compiles expression and puts it to the cache
      */
-    private Document parseQuietly(byte[] xml) {
-        try {
-            final DocumentBuilder db = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
-            return db.parse(new ByteArrayInputStream(xml));
-        } catch (Exception ex) {
-            throw XMLTreeException.wrap(ex);
+    private static XPathExpression compileXPath(String expression) throws XPathExpressionException {
+        final Map<String, XPathExpression> cache = XPATH_CACHE.get();
+        XPathExpression compiled = cache.get(expression);
+        if (compiled == null) {
+            compiled = XPATH_FACTORY.newXPath().compile(expression);
+            cache.put(expression, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Selects elements matched to the simple path in document order,
+     * as xpath does name of element without prefix is compared with
+     * element local name.
+     */
+    private List<Node> selectElements(String path) {
+        List<Node> nodes = Collections.<Node>singletonList(document);
+        for (String name : path.substring(1).split("/")) {
+            final List<Node> children = new ArrayList<>();
+            for (Node node : nodes) {
+                for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child.getNodeType() == ELEMENT_NODE && name.equals(localName(child.getNodeName()))) {
+                        children.add(child);
+                    }
+                }
+            }
+            if (children.isEmpty()) {
+                return children;
+            }
+            nodes = children;
         }
+        return nodes;
+    }
+
+    private static String localName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.indexOf(':') + 1);
     }
 
     /**
@@ -419,34 +488,44 @@ public final class XMLTree {
     }
 
     /**
-     * Constructs tree based on segments which are supplied by {@link XMLStreamReader}.
-     * Before this method is invoked {@link #document} should be initialized first.
+     * Constructs document and tree in single pass over events which are supplied by {@link XMLStreamReader}.
      * For START_ELEMENT, END_ELEMENT, CHARACTERS reader provides offset from
      * start of source array bytes, so we can fetch position of elements and text.
-     * Each created element associated with related {@link Node} and vise-versa.
+     * Document nodes are created from the same events, each created element
+     * associated with related {@link Node} and vise-versa.
+     * <p>
+     * Reader parses source bytes where carriage return characters are replaced
+     * with character references, see {@link #XMLTree(byte[])}, so reader offsets
+     * are translated back to the source bytes with {@link OffsetTranslator}.
      */
-    private void constructTree() throws XMLStreamException {
-        final XMLStreamReader reader = newXMLStreamReader();
+    private void constructTree(int rootStart) throws XMLStreamException {
+        //positions of carriage return characters which are replaced before parsing
+        final int[] carriageReturns = indexesOf(xml, (byte)'\r', rootStart);
+        final byte[] parsed = carriageReturns.length == 0 ? xml : replaceAll(xml, (byte)'\r', CARRIAGE_RETURN_REF, rootStart);
+        final OffsetTranslator offsets = new OffsetTranslator(parsed, carriageReturns);
+        final XMLStreamReader reader = newXMLStreamReader(parsed);
+        document = newDocument();
         final LinkedList<Element> stack = new LinkedList<>();
         //before element open tag index
-        int beforeStart = rootStart(xml) - 1;
-        //used to associate each element with document node
-        Node node = document.getDocumentElement();
+        int beforeStart = rootStart - 1;
+        //node which receives new nodes
+        Node parent = document;
         //used to hold previous reader event
         int prevEvent = START_DOCUMENT;
         while (reader.hasNext()) {
-            switch (reader.next()) {
+            final int event = reader.next();
+            switch (event) {
                 case START_ELEMENT:
+                    final org.w3c.dom.Element node = newElementNode(reader);
+                    parent.appendChild(node);
+                    parent = node;
+
                     final Element newElement = new Element(this);
-                    newElement.start = new Segment(beforeStart + 1, elementRight(beforeStart + 1, reader));
-                    //if new node is not xml root - set up relationships
-                    if (!stack.isEmpty()) {
-                        node = deepNext(node, true);
-                    }
+                    final int startRight = offsets.sourceOffset(reader.getLocation().getCharacterOffset());
+                    newElement.start = new Segment(beforeStart + 1, elementRight(beforeStart + 1, startRight));
                     //connect node with element
                     node.setUserData("element", newElement, null);
-
-                    newElement.delegate = safeCast(node);
+                    newElement.delegate = node;
                     //let next event know about its start
                     beforeStart = newElement.start.right;
                     //if element has declared namespaces register it
@@ -454,107 +533,140 @@ public final class XMLTree {
                     stack.push(newElement);
                     break;
                 case END_ELEMENT:
+                    parent = parent.getParentNode();
+
                     final Element element = stack.pop();
-                    element.end = new Segment(beforeStart + 1, elementRight(beforeStart + 1, reader));
+                    final int endRight = offsets.sourceOffset(reader.getLocation().getCharacterOffset());
+                    element.end = new Segment(beforeStart + 1, elementRight(beforeStart + 1, endRight));
                     elements.add(element);
                     beforeStart = element.end.right;
                     break;
                 case CHARACTERS:
+                case CDATA:
+                    if (stack.isEmpty()) {
+                        break;
+                    }
                     //characters event may be invoked 2 or more times
-                    //on the element text, but related node is single text node
-                    //so the only segment should be created for it
-                    if (prevEvent == CHARACTERS) continue;
-
-                    final Element current = stack.peek();
-                    if (current.text == null) {
-                        //TODO replace with array list as we know current node 'text nodes' count
-                        current.text = new LinkedList<>();
+                    //on the element text, parser also merges them to single text node
+                    if (event == CDATA) {
+                        parent.appendChild(document.createCDATASection(reader.getText()));
+                    } else if (prevEvent == CHARACTERS) {
+                        ((Text)parent.getLastChild()).appendData(reader.getText());
+                    } else {
+                        parent.appendChild(document.createTextNode(reader.getText()));
+                    }
+                    //chain of text and cdata nodes is the only segment
+                    if (prevEvent != CHARACTERS && prevEvent != CDATA) {
+                        final Element current = stack.peek();
+                        if (current.text == null) {
+                            current.text = new LinkedList<>();
+                        }
+                        final Segment textSegment = new Segment(beforeStart + 1, textRight(beforeStart + 1));
+                        current.text.add(textSegment);
+                        beforeStart = textSegment.right;
                     }
-
-                    final Node nextNode = deepNext(node, true);
-
-                    final int left = beforeStart + 1;
-                    final int right = left + textLength(nextNode) - 1;
-
-                    current.text.add(new Segment(left, right));
-                    beforeStart = right;
-                    node = skipTextNodes(nextNode);
                     break;
                 case COMMENT:
                 case SPACE:
                 case PROCESSING_INSTRUCTION:
+                    if (event == COMMENT) {
+                        parent.appendChild(document.createComment(reader.getText()));
+                    } else if (event == PROCESSING_INSTRUCTION) {
+                        parent.appendChild(document.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+                    } else if (!stack.isEmpty()) {
+                        parent.appendChild(document.createTextNode(reader.getText()));
+                    }
                     if (!stack.isEmpty()) {
-                        node = deepNext(node, true);
-                        beforeStart = lastIndexOf(xml, '>', reader.getLocation().getCharacterOffset());
+                        beforeStart = lastIndexOf(xml, '>', offsets.sourceOffset(reader.getLocation().getCharacterOffset()));
                     }
                     break;
             }
-            prevEvent = reader.getEventType();
+            prevEvent = event;
         }
     }
 
     /**
-     * Returns length of cdata and text nodes chain.
+     * Creates element node with attributes and namespace declarations
+     * from START_ELEMENT event. Document is not namespace aware
+     * so element and attributes are created with qualified names.
      */
-    private int textLength(Node node) {
-        int length = node.getTextContent().length();
-        node = node.getNextSibling();
-        while (node != null && (node.getNodeType() == TEXT_NODE || node.getNodeType() == CDATA_SECTION_NODE)) {
-            length += node.getTextContent().length();
-            if (node.getNodeType() == CDATA_SECTION_NODE) {
-                length += 12; //<![CDATA[]]> - 12
-            }
-            node = node.getNextSibling();
+    private org.w3c.dom.Element newElementNode(XMLStreamReader reader) {
+        final org.w3c.dom.Element node = document.createElement(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            node.setAttribute(qualifiedName(XMLNS_ATTRIBUTE, reader.getNamespacePrefix(i)), reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            node.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+        return node;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        if (prefix == null || prefix.isEmpty()) {
+            return localName;
+        }
+        if (localName == null || localName.isEmpty()) {
+            return prefix;
         }
-        return length;
+        return prefix + ':' + localName;
     }
 
     /**
-     * Returns safe Element instance for node or throws exception
-     * if it is not possible to cast {@code node} to {@link org.w3c.dom.Element}.
+     * Returns positions of all target bytes starting from given index.
      */
-    private org.w3c.dom.Element safeCast(Node node) {
-        if (!(node instanceof org.w3c.dom.Element)) {
-            throw new XMLTreeException("It is not possible to associate xml elements");
+    private static int[] indexesOf(byte[] src, byte target, int fromIdx) {
+        int count = 0;
+        for (int i = fromIdx; i < src.length; i++) {
+            if (src[i] == target) {
+                count++;
+            }
         }
-        return (org.w3c.dom.Element)node;
+        final int[] indexes = new int[count];
+        for (int i = fromIdx, j = 0; j < count; i++) {
+            if (src[i] == target) {
+                indexes[j++] = i;
+            }
+        }
+        return indexes;
     }
 
     /**
-     * Returns last text or cdata node in the chain of cdata and text nodes.
-     * <p>
-     * i.e. node1 is text <i>node</i> and <i>node1</i> has next sibling <i>node2</i> as cdata node and
-     * <i>node2</i> has next sibling <i>node3</i> as text node and node3 has next sibling <i>node4</i> as element
-     * node, then <i>node3</i> will be returned as last text node in the chain. Consider following examples:
-     * <pre>
-     * 1.
-     * node3 - last text node
-     *
-     * text     cdata    text     element
-     * node1 -> node2 -> node3 -> node4
-     *
-     * 2.
-     * node2 - last text result
-     *
-     * text     cdata
-     * node1 -> node2 -> null
-     *
-     * </pre>
+     * Searches for the right bound index of text which
+     * starts from {@code left}, text may contain cdata sections.
      */
-    private Node skipTextNodes(Node node) {
-        final Node next = node.getNextSibling();
-        if (next != null && (next.getNodeType() == CDATA_SECTION_NODE || next.getNodeType() == TEXT_NODE)) {
-            return skipTextNodes(next);
+    private int textRight(int left) {
+        int idx = left;
+        while (idx < xml.length) {
+            if (xml[idx] == '<') {
+                if (!startsWith(xml, CDATA_START, idx)) {
+                    break;
+                }
+                idx = indexOf(xml, CDATA_END, idx + CDATA_START.length) + CDATA_END.length;
+            } else {
+                idx++;
+            }
         }
-        return node;
+        return idx - 1;
+    }
+
+    private static boolean startsWith(byte[] src, byte[] prefix, int fromIdx) {
+        if (fromIdx + prefix.length > src.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (src[fromIdx + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * Searches for the element start right bound index.
      * TODO respect element attributes text content while checking '<'
      */
-    private int elementRight(int left, XMLStreamReader reader) {
-        int rightIdx = lastIndexOf(xml, '>', reader.getLocation().getCharacterOffset());
+    private int elementRight(int left, int offset) {
+        int rightIdx = lastIndexOf(xml, '>', offset);
         int leftIdx = lastIndexOf(xml, '<', rightIdx);
         while (leftIdx > left) {
             rightIdx = lastIndexOf(xml, '>', rightIdx - 1);
@@ -563,26 +675,13 @@ public final class XMLTree {
         return rightIdx;
     }
 
-    private Node deepNext(Node node, boolean deep) {
-        if (deep && node.getChildNodes().getLength() != 0) {
-            return node.getFirstChild();
-        }
-        final Node next = node.getNextSibling();
-        if (next != null) {
-            return next;
-        } else if (node == document.getDocumentElement()) {
-            return node;
-        }
-        return deepNext(node.getParentNode(), false);
-    }
-
     /**
-     * Same as {@link #constructTree()}, only difference
+     * Same as {@link #constructTree(int)}, only difference
      * that it wraps {@link XMLStreamException} to {@link XMLTreeException}
      */
-    private void constructTreeQuietly() {
+    private void constructTreeQuietly(int rootStart) {
         try {
-            constructTree();
+            constructTree(rootStart);
         } catch (XMLStreamException xmlEx) {
             throw XMLTreeException.wrap(xmlEx);
         }
@@ -603,7 +702,7 @@ public final class XMLTree {
     /**
      * Creates new stream reader instance
      */
-    private XMLStreamReader newXMLStreamReader() {
+    private XMLStreamReader newXMLStreamReader(byte[] xml) {
         try {
             return XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml), "UTF-8");
         } catch (Exception xmlEx) {
@@ -611,6 +710,29 @@ public final class XMLTree {
         }
     }
 
+    /**
+     * Creates new empty document
+     */
+    private Document newDocument() {
+        try {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException pcEx) {
+            throw XMLTreeException.wrap(pcEx);
+        }
+    }
+
+    /**
+     * Creates input factory which reports cdata sections
+     * as separate events if implementation supports it
+     */
+    private static XMLInputFactory newXMLInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+            factory.setProperty(REPORT_CDATA_EVENT, true);
+        }
+        return factory;
+    }
+
     /**
      * Updates element text content. Update based on element text segments.
      * If element doesn't have any text segment then new segment will
@@ -1014,6 +1136,98 @@ public final class XMLTree {
         }
     }
 
+    /**
+     * Translates character offsets reported by {@link XMLStreamReader} to offsets in source bytes.
+     * Reader counts offset in characters, which differs from bytes when document contains
+     * non-ASCII characters, and it parses bytes where each carriage return is replaced
+     * with 5 bytes long character reference.
+     * <p>
+     * Reader offsets are mostly growing so translator keeps position
+     * of last translated offset and moves from it in both directions.
+     */
+    private static class OffsetTranslator {
+        final byte[] parsed;
+        final int[]  carriageReturns;
+
+        int chars;
+        int bytes;
+
+        OffsetTranslator(byte[] parsed, int[] carriageReturns) {
+            this.parsed = parsed;
+            this.carriageReturns = carriageReturns;
+        }
+
+        int sourceOffset(int charOffset) {
+            return sourceOffset(byteOffset(charOffset), carriageReturns);
+        }
+
+        int byteOffset(int charOffset) {
+            while (chars < charOffset && bytes < parsed.length) {
+                final int lead = parsed[bytes] & 0xFF;
+                if (lead >= 0xF0) {
+                    //4 bytes long sequence is represented with surrogate pair
+                    bytes += 4;
+                    chars += 2;
+                } else {
+                    bytes += lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+                    chars++;
+                }
+            }
+            while (chars > charOffset && bytes > 0) {
+                do {
+                    bytes--;
+                } while (bytes > 0 && (parsed[bytes] & 0xC0) == 0x80);
+                chars -= (parsed[bytes] & 0xFF) >= 0xF0 ? 2 : 1;
+            }
+            //reader may report offset which is out of document
+            return bytes + Math.max(charOffset - chars, 0);
+        }
+
+        /**
+         * Translates offset in parsed bytes to offset in source bytes.
+         */
+        static int sourceOffset(int offset, int[] carriageReturns) {
+            final int extra = CARRIAGE_RETURN_REF.length - 1;
+            //count of character references which start before offset
+            int low = 0;
+            int high = carriageReturns.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (carriageReturns[mid] + mid * extra < offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low > 0 && offset < carriageReturns[low - 1] + (low - 1) * extra + CARRIAGE_RETURN_REF.length) {
+                //offset points inside of character reference
+                return carriageReturns[low - 1];
+            }
+            return offset - low * extra;
+        }
+    }
+
+    /**
+     * Result of simple path evaluation
+     */
+    private static class NodeListImpl implements NodeList {
+        final List<Node> nodes;
+
+        NodeListImpl(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public Node item(int index) {
+            return index >= 0 && index < nodes.size() ? nodes.get(index) : null;
+        }
+
+        @Override
+        public int getLength() {
+            return nodes.size();
+        }
+    }
+
     @Override
     public String toString() {
         return new String(xml, UTF_8);
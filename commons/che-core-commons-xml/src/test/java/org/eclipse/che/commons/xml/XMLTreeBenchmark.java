@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.xml;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.eclipse.che.commons.xml.XMLTreeUtil.UTF_8;
+
+/**
+ * Measures creation of {@link XMLTree} and typical queries over it. Uses pom of multi-module project with 200 modules,
+ * 500 managed dependencies and 20 plugins, all elements are commented and formatted as usual poms are.
+ * <p/>
+ * Run with: <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.eclipse.che.commons.xml.XMLTreeBenchmark</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class XMLTreeBenchmark {
+    private byte[]  pom;
+    private XMLTree tree;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+          .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n")
+          .append("         xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd\">\n")
+          .append("    <modelVersion>4.0.0</modelVersion>\n")
+          .append("    <groupId>org.sample</groupId>\n")
+          .append("    <artifactId>sample-parent</artifactId>\n")
+          .append("    <version>1.0.0-SNAPSHOT</version>\n")
+          .append("    <packaging>pom</packaging>\n")
+          .append("    <name>Sample :: Parent</name>\n")
+          .append("    <modules>\n");
+        for (int i = 0; i < 200; i++) {
+            sb.append("        <module>module-").append(i).append("</module>\n");
+        }
+        sb.append("    </modules>\n")
+          .append("    <properties>\n");
+        for (int i = 0; i < 50; i++) {
+            sb.append("        <artifact").append(i).append(".version>").append(i).append(".0.0</artifact").append(i).append(".version>\n");
+        }
+        sb.append("    </properties>\n")
+          .append("    <dependencyManagement>\n")
+          .append("        <dependencies>\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append("            <!-- dependency ").append(i).append(" -->\n")
+              .append("            <dependency>\n")
+              .append("                <groupId>org.sample.group").append(i % 10).append("</groupId>\n")
+              .append("                <artifactId>artifact").append(i).append("</artifactId>\n")
+              .append("                <version>${artifact").append(i % 50).append(".version}</version>\n");
+            if (i % 5 == 0) {
+                sb.append("                <exclusions>\n")
+                  .append("                    <exclusion>\n")
+                  .append("                        <groupId>commons-logging</groupId>\n")
+                  .append("                        <artifactId>commons-logging</artifactId>\n")
+                  .append("                    </exclusion>\n")
+                  .append("                </exclusions>\n");
+            }
+            sb.append("            </dependency>\n");
+        }
+        sb.append("        </dependencies>\n")
+          .append("    </dependencyManagement>\n")
+          .append("    <build>\n")
+          .append("        <plugins>\n");
+        for (int i = 0; i < 20; i++) {
+            sb.append("            <plugin>\n")
+              .append("                <groupId>org.apache.maven.plugins</groupId>\n")
+              .append("                <artifactId>maven-plugin").append(i).append("</artifactId>\n")
+              .append("                <configuration>\n")
+              .append("                    <description><![CDATA[Plugin <").append(i).append("> configuration]]></description>\n")
+              .append("                </configuration>\n")
+              .append("            </plugin>\n");
+        }
+        sb.append("        </plugins>\n")
+          .append("    </build>\n")
+          .append("</project>\n");
+        pom = sb.toString().getBytes(UTF_8);
+        tree = XMLTree.from(pom);
+    }
+
+    @Benchmark
+    public XMLTree parse() {
+        return XMLTree.from(pom);
+    }
+
+    @Benchmark
+    public String simplePath() {
+        return tree.getSingleText("/project/artifactId");
+    }
+
+    @Benchmark
+    public List<String> simplePathAll() {
+        return tree.getText("/project/dependencyManagement/dependencies/dependency/artifactId");
+    }
+
+    @Benchmark
+    public String predicate() {
+        return tree.getSingleText("/project/dependencyManagement/dependencies/dependency[artifactId='artifact250']/version");
+    }
+
+    @Benchmark
+    public int parseAndUpdate() {
+        final XMLTree tree = XMLTree.from(pom);
+        tree.getSingleElement("/project/version").setText("1.0.1-SNAPSHOT");
+        return tree.getBytes().length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(XMLTreeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1661,6 +1661,101 @@ public class XMLTreeTest {
                                       "</project>");
     }
 
+    @Test
+    public void shouldRespectContentPositionsWhenUpdatingTextAfterMultiByteText() {
+        final XMLTree tree = XMLTree.from("<project>" +
+                                          "<name>Проект ünïcödé 项目</name>" +
+                                          "<description>Описание</description>" +
+                                          "<version>1.0</version>" +
+                                          "</project>");
+
+        tree.updateText("/project/version", "2.0");
+        tree.updateText("/project/description", "Новое описание");
+
+        assertEquals(tree.getSingleText("/project/name"), "Проект ünïcödé 项目");
+        assertEquals(tree.toString(), "<project>" +
+                                      "<name>Проект ünïcödé 项目</name>" +
+                                      "<description>Новое описание</description>" +
+                                      "<version>2.0</version>" +
+                                      "</project>");
+    }
+
+    @Test
+    public void shouldRespectContentPositionsWhenUpdatingTextAfterSurrogatePairs() {
+        final XMLTree tree = XMLTree.from("<project>" +
+                                          "<name>𝄞 music 😀</name>" +
+                                          "<!-- 🚀 -->" +
+                                          "<version>1.0</version>" +
+                                          "</project>");
+
+        tree.updateText("/project/version", "2.0");
+        tree.getSingleElement("/project/name").insertAfter(NewElement.createElement("packaging", "📦"));
+
+        assertEquals(tree.getSingleText("/project/packaging"), "📦");
+        assertEquals(tree.toString(), "<project>" +
+                                      "<name>𝄞 music 😀</name>\n" +
+                                      "    <packaging>📦</packaging>" +
+                                      "<!-- 🚀 -->" +
+                                      "<version>2.0</version>" +
+                                      "</project>");
+    }
+
+    @Test
+    public void shouldRespectContentPositionsWhenUpdatingTextWithCarriageReturnAndMultiByteText() {
+        final XMLTree tree = XMLTree.from("<project>\r\n" +
+                                          "\t<name>\r\nПроект 😀\r\n</name>\r\n" +
+                                          "\t<description>\rОписание\r</description>\r\n" +
+                                          "\t<version>1.0</version>\r\n" +
+                                          "</project>");
+
+        tree.updateText("/project/description", "описание 🚀");
+        tree.updateText("/project/version", "2.0");
+
+        assertEquals(tree.getSingleText("/project/name"), "\r\nПроект 😀\r\n");
+        assertEquals(tree.toString(), "<project>\r\n" +
+                                      "\t<name>\r\nПроект 😀\r\n</name>\r\n" +
+                                      "\t<description>описание 🚀</description>\r\n" +
+                                      "\t<version>2.0</version>\r\n" +
+                                      "</project>");
+    }
+
+    @Test
+    public void shouldSelectElementsOfPrefixedRootBySimplePath() {
+        final XMLTree tree = XMLTree.from("<p:project xmlns:p=\"http://maven.apache.org/POM/4.0.0\">" +
+                                          "<p:artifactId>artifact</p:artifactId>" +
+                                          "<p:modules><p:module>first</p:module><p:module>second</p:module></p:modules>" +
+                                          "</p:project>");
+
+        assertEquals(tree.getSingleText("/project/artifactId"), "artifact");
+        assertEquals(tree.getText("/project/modules/module"), asList("first", "second"));
+        assertEquals(tree.getText("/project/modules/module"), tree.getText("/*[local-name()='project']/*/*[local-name()='module']"));
+        assertEquals(tree.getSingleElement("/project/artifactId").getName(), "p:artifactId");
+
+        tree.updateText("/project/artifactId", "new-artifact");
+
+        assertEquals(tree.toString(), "<p:project xmlns:p=\"http://maven.apache.org/POM/4.0.0\">" +
+                                      "<p:artifactId>new-artifact</p:artifactId>" +
+                                      "<p:modules><p:module>first</p:module><p:module>second</p:module></p:modules>" +
+                                      "</p:project>");
+    }
+
+    @Test
+    public void shouldSelectTheSameElementsBySimplePathAsByXPath() {
+        final XMLTree tree = XMLTree.from(XML_CONTENT);
+
+        // 'child::' axis is not a simple path, so these expressions are evaluated with xpath
+        assertEquals(tree.getSingleText("/project/artifactId"), tree.getSingleText("/child::project/child::artifactId"));
+        assertEquals(tree.getText("/project/artifactId"), tree.getText("/child::project/child::artifactId"));
+        assertEquals(tree.getText("/project/dependencies/dependency/artifactId"),
+                     tree.getText("/child::project/child::dependencies/child::dependency/child::artifactId"));
+        assertEquals(tree.getText("/project/dependencies/dependency/artifactId").size(), 3);
+        assertEquals(tree.getSingleText("/project/missing"), tree.getSingleText("/child::project/child::missing"));
+        assertTrue(tree.getText("/project/missing/artifactId").isEmpty());
+        assertTrue(tree.getElements("/artifactId").isEmpty());
+        assertEquals(tree.getElements("/project/dependencies/dependency").size(),
+                     tree.getElements("/child::project/child::dependencies/child::dependency").size());
+    }
+
     @Test(dataProvider = "custom-xml-files")
     public void shouldBeAbleToCreateTreeFromCustomXML(File xml) throws IOException {
         //should be able to parse file
@@ -15,6 +15,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.eclipse.che.api.builder.dto.BaseBuilderRequest;
 import org.eclipse.che.api.builder.dto.BuildOptions;
 import org.eclipse.che.api.builder.dto.BuildRequest;
+import org.eclipse.che.api.builder.dto.BuilderMetric;
 import org.eclipse.che.api.builder.dto.BuilderServerAccessCriteria;
 import org.eclipse.che.api.builder.dto.BuilderServerLocation;
 import org.eclipse.che.api.builder.dto.BuilderServerRegistration;
@@ -32,6 +33,7 @@ import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonHelper;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.core.util.DispatchQueue;
 import org.eclipse.che.api.project.server.ProjectService;
 import org.eclipse.che.api.project.shared.dto.BuilderConfiguration;
 import org.eclipse.che.api.project.shared.dto.BuildersDescriptor;
@@ -62,16 +64,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -97,12 +102,20 @@ public class BuildQueue {
 
     private static final long CHECK_AVAILABLE_BUILDER_DELAY = 2000;
 
+    /** Max number of threads which send requests to slave-builders. */
+    private static final int DISPATCH_THREADS = 8;
+
+    /* Priority classes of build tasks. */
+    private static final int PRIORITY_HIGH   = 0;
+    private static final int PRIORITY_NORMAL = 1;
+
     private static final AtomicLong sequence = new AtomicLong(1);
 
     private final ConcurrentMap<String, RemoteBuilderServer> builderServices;
     private final BuilderSelectionStrategy                   builderSelector;
     private final ConcurrentMap<Long, BuildQueueTask>        tasks;
     private final ConcurrentMap<BuilderListKey, BuilderList> builderListMapping;
+    private final BuilderSlots                               builderSlots;
     private final int                                        maxExecutionTimeMillis;
     private final EventService                               eventService;
     /** Max time for request to be in queue in milliseconds. */
@@ -111,14 +124,24 @@ public class BuildQueue {
     private final AtomicBoolean                              started;
     private final long                                       keepResultTimeMillis;
 
-    private ExecutorService          executor;
-    private ScheduledExecutorService scheduler;
+    private ExecutorService           executor;
+    private ScheduledExecutorService  scheduler;
+    private DispatchQueue<RemoteTask> dispatchQueue;
 
     /** Optional pre-configured slave builders. */
     @com.google.inject.Inject(optional = true)
     @Named(Constants.BUILDER_SLAVE_BUILDER_URLS)
     private String[] slaves = new String[0];
 
+    /** Period (in seconds) of checking state of slave builders. Slots are updated by events from slave builders between checks. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.BUILDER_STATE_CHECK_PERIOD)
+    private int builderStateCheckPeriod = 30;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.MAX_WAITING_TASKS)
+    private int maxWaitingTasks = 10000;
+
     /**
      * @param waitingTime
      *         max time for request to be in queue in seconds. Configuration parameter that sets max time (in seconds) which request may be
@@ -140,6 +163,16 @@ public class BuildQueue {
 
         tasks = new ConcurrentHashMap<>();
         builderListMapping = new ConcurrentHashMap<>();
+        builderSlots = new BuilderSlots(new Runnable() {
+            @Override
+            public void run() {
+                final DispatchQueue<RemoteTask> myDispatchQueue = dispatchQueue;
+                if (myDispatchQueue != null) {
+                    // Some builder has free slot, try to send waiting requests again.
+                    myDispatchQueue.signal();
+                }
+            }
+        });
         successfulBuilds = new SynchronizedCache<>(new SLRUCache<BaseBuilderRequest, RemoteTask>(200, 400));
         builderServices = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
@@ -217,13 +250,18 @@ public class BuildQueue {
         final BuilderListKey key = new BuilderListKey(builderServer.getAssignedProject(), builderServer.getAssignedWorkspace());
         BuilderList builderList = builderListMapping.get(key);
         if (builderList == null) {
-            final BuilderList newBuilderList = new BuilderList(builderSelector);
+            final BuilderList newBuilderList = new BuilderList(builderSelector, builderSlots);
             builderList = builderListMapping.putIfAbsent(key, newBuilderList);
             if (builderList == null) {
                 builderList = newBuilderList;
             }
         }
-        return builderList.addBuilders(builderServer.getRemoteBuilders());
+        final List<RemoteBuilder> builders = builderServer.getRemoteBuilders();
+        for (RemoteBuilder builder : builders) {
+            builderSlots.add(builder);
+            checkBuilderState(builder);
+        }
+        return builderList.addBuilders(builders);
     }
 
     /**
@@ -254,6 +292,7 @@ public class BuildQueue {
             for (RemoteBuilder builder : builderList.getBuilders()) {
                 if (url.equals(builder.getBaseUrl())) {
                     modified |= builderList.removeBuilder(builder);
+                    builderSlots.remove(builder);
                 }
             }
             if (builderList.size() == 0) {
@@ -309,14 +348,11 @@ public class BuildQueue {
             }
             if (reuse) {
                 LOG.debug("Reuse successful build {}", successfulTask.getId());
+                final long reuseTime = System.currentTimeMillis() + 1000;
                 callable = new Callable<RemoteTask>() {
                     @Override
                     public RemoteTask call() throws Exception {
-                        try {
-                            Thread.sleep(1000);
-                        } catch (InterruptedException ignored) {
-                        }
-                        return successfulTask;
+                        return System.currentTimeMillis() < reuseTime ? null : successfulTask;
                     }
                 };
             } else {
@@ -328,12 +364,12 @@ public class BuildQueue {
             callable = createTaskFor(request);
         }
         final Long id = sequence.getAndIncrement();
-        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, reuse);
+        final InternalBuildTask future =
+                new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, getPriority(workspace), reuse);
         request.setId(id);
         final BuildQueueTask task = new BuildQueueTask(id, request, waitingTimeMillis, future, eventService, serviceContext.getServiceUriBuilder());
-        tasks.put(id, task);
+        submit(task, future);
         eventService.publish(BuilderEvent.queueStartedEvent(id, wsId, project));
-        executor.execute(future);
         return task;
     }
 
@@ -341,7 +377,18 @@ public class BuildQueue {
         return new Callable<RemoteTask>() {
             @Override
             public RemoteTask call() throws BuilderException {
-                return getBuilder(request).perform(request);
+                final RemoteBuilder builder = getBuilder(request);
+                if (builder == null) {
+                    // Wait for free builder.
+                    return null;
+                }
+                builderSlots.assign(request.getId(), builder);
+                try {
+                    return builder.perform(request);
+                } catch (BuilderException | RuntimeException e) {
+                    builderSlots.release(request.getId());
+                    throw e;
+                }
             }
         };
     }
@@ -385,19 +432,44 @@ public class BuildQueue {
         request.setTimeout(getBuildTimeout(workspace));
         final Callable<RemoteTask> callable = createTaskFor(request);
         final Long id = sequence.getAndIncrement();
-        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, false);
+        final InternalBuildTask future =
+                new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, getPriority(workspace), false);
         request.setId(id);
         final BuildQueueTask task = new BuildQueueTask(id, request, waitingTimeMillis, future, eventService, serviceContext.getServiceUriBuilder());
-        tasks.put(id, task);
-        executor.execute(future);
+        submit(task, future);
         return task;
     }
 
+    private void submit(BuildQueueTask task, InternalBuildTask future) throws BuilderException {
+        tasks.put(task.getId(), task);
+        try {
+            dispatchQueue.submit(future);
+        } catch (RejectedExecutionException e) {
+            tasks.remove(task.getId());
+            throw new BuilderException(e.getMessage());
+        }
+    }
+
+    private int getPriority(WorkspaceDescriptor workspace) {
+        return "high".equals(workspace.getAttributes().get(Constants.BUILDER_PRIORITY)) ? PRIORITY_HIGH : PRIORITY_NORMAL;
+    }
+
     protected Callable<RemoteTask> createTaskFor(final DependencyRequest request) {
         return new Callable<RemoteTask>() {
             @Override
             public RemoteTask call() throws BuilderException {
-                return getBuilder(request).perform(request);
+                final RemoteBuilder builder = getBuilder(request);
+                if (builder == null) {
+                    // Wait for free builder.
+                    return null;
+                }
+                builderSlots.assign(request.getId(), builder);
+                try {
+                    return builder.perform(request);
+                } catch (BuilderException | RuntimeException e) {
+                    builderSlots.release(request.getId());
+                    throw e;
+                }
             }
         };
     }
@@ -500,6 +572,7 @@ public class BuildQueue {
         return builderList;
     }
 
+    /** Gets builder which has free slot and takes this slot or returns {@code null} if all suitable builders are busy. */
     // Switched to default for test.
     // private
     RemoteBuilder getBuilder(BaseBuilderRequest request) throws BuilderException {
@@ -509,13 +582,39 @@ public class BuildQueue {
             throw new BuilderException("There is no any builder to process this request. ");
         }
         final RemoteBuilder builder = builderList.getBuilder(request);
-        if (builder == null) {
-            throw new BuilderException("There is no any builder available. ");
+        if (builder != null) {
+            LOG.info("Use builder '{}' at '{}'", builder.getName(), builder.getBaseUrl());
         }
-        LOG.info("Use builder '{}' at '{}'", builder.getName(), builder.getBaseUrl());
         return builder;
     }
 
+    private void checkBuilderState(RemoteBuilder builder) {
+        final BuilderState builderState;
+        try {
+            builderState = builder.getBuilderState();
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+            // Don't send requests to builder until it becomes accessible.
+            builderSlots.update(builder, 0, 0);
+            return;
+        }
+        updateBuilderState(builder, builderState);
+    }
+
+    private void updateBuilderState(RemoteBuilder builder, BuilderState builderState) {
+        int capacity = builderState.getFreeWorkers();
+        for (BuilderMetric metric : builderState.getStats()) {
+            if (BuilderMetric.NUMBER_OF_WORKERS.equals(metric.getName())) {
+                try {
+                    capacity = Integer.parseInt(metric.getValue());
+                } catch (NumberFormatException ignored) {
+                }
+                break;
+            }
+        }
+        builderSlots.update(builder, capacity, builderState.getFreeWorkers());
+    }
+
     private long getBuildTimeout(WorkspaceDescriptor workspace) throws BuilderException {
         final String timeoutAttr = workspace.getAttributes().get(Constants.BUILDER_EXECUTION_TIME);
         return timeoutAttr != null ? Integer.parseInt(timeoutAttr) : maxExecutionTimeMillis;
@@ -548,23 +647,9 @@ public class BuildQueue {
     public void start() {
         if (started.compareAndSet(false, true)) {
             executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
-                                              new ThreadFactoryBuilder().setNameFormat("BuildQueue-[%d]").setDaemon(true).build()) {
-                @Override
-                protected void afterExecute(Runnable runnable, Throwable error) {
-                    super.afterExecute(runnable, error);
-                    if (runnable instanceof InternalBuildTask) {
-                        final InternalBuildTask internalBuildTask = (InternalBuildTask)runnable;
-                        if (internalBuildTask.reused) {
-                            // Emulate event from remote builder. In fact we didn't send request to remote builder just reuse result from previous
-                            // build.
-                            eventService.publish(BuilderEvent.doneEvent(internalBuildTask.id,
-                                                                        internalBuildTask.workspace,
-                                                                        internalBuildTask.project,
-                                                                        true));
-                        }
-                    }
-                }
-            };
+                                              new ThreadFactoryBuilder().setNameFormat("BuildQueue-[%d]").setDaemon(true).build());
+            dispatchQueue = new DispatchQueue<>("BuildQueue", 2, DISPATCH_THREADS, maxWaitingTasks, CHECK_AVAILABLE_BUILDER_DELAY);
+            dispatchQueue.start();
             scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("BuildQueueScheduler-%d")
                                                                                              .setDaemon(true).build());
             scheduler.scheduleAtFixedRate(new Runnable() {
@@ -589,6 +674,7 @@ public class BuildQueue {
                                     LOG.warn(e.getMessage(), e);
                                 }
                                 i.remove();
+                                builderSlots.forget(task.getId());
                                 waitingNum++;
                                 num++;
                             }
@@ -601,6 +687,7 @@ public class BuildQueue {
                             }
                             if (remote == null) {
                                 i.remove();
+                                builderSlots.forget(task.getId());
                                 successfulBuilds.remove(DtoFactory.getInstance().clone(request).withId(0L).withTimeout(0L));
                                 num++;
                             } else if ((remote.getCreationTime() + keepResultTimeMillis) < System.currentTimeMillis()) {
@@ -608,10 +695,12 @@ public class BuildQueue {
                                     remote.getBuildTaskDescriptor();
                                 } catch (NotFoundException e) {
                                     i.remove();
+                                    builderSlots.forget(task.getId());
                                     num++;
                                 } catch (Exception e) {
                                     LOG.warn(e.getMessage(), e);
                                     i.remove();
+                                    builderSlots.forget(task.getId());
                                     num++;
                                 }
                             }
@@ -622,12 +711,51 @@ public class BuildQueue {
                     }
                 }
             }, 1, 1, TimeUnit.MINUTES);
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    // Send requests to all builders at once, slow or inaccessible builder doesn't delay checking of others.
+                    final Map<RemoteBuilder, Future<BuilderState>> states = new LinkedHashMap<>();
+                    for (BuilderList builderList : builderListMapping.values()) {
+                        for (RemoteBuilder builder : builderList.getBuilders()) {
+                            try {
+                                states.put(builder, builder.getBuilderStateAsync());
+                            } catch (Exception e) {
+                                LOG.error(e.getMessage(), e);
+                                builderSlots.update(builder, 0, 0);
+                            }
+                        }
+                    }
+                    try {
+                        for (Map.Entry<RemoteBuilder, Future<BuilderState>> entry : states.entrySet()) {
+                            final RemoteBuilder builder = entry.getKey();
+                            final BuilderState builderState;
+                            try {
+                                builderState = entry.getValue().get();
+                            } catch (ExecutionException e) {
+                                LOG.error(e.getCause().getMessage(), e.getCause());
+                                // Don't send requests to builder until it becomes accessible.
+                                builderSlots.update(builder, 0, 0);
+                                continue;
+                            }
+                            updateBuilderState(builder, builderState);
+                        }
+                    } catch (InterruptedException e) {
+                        for (Future<BuilderState> future : states.values()) {
+                            future.cancel(true);
+                        }
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, builderStateCheckPeriod, builderStateCheckPeriod, TimeUnit.SECONDS);
 
             eventService.subscribe(new EventSubscriber<BuilderEvent>() {
                 @Override
                 public void onEvent(BuilderEvent event) {
                     if (event.getType() == BuilderEvent.EventType.DONE && !event.isReused()) {
                         final long id = event.getTaskId();
+                        // Slave builder sends this event when its worker becomes free.
+                        builderSlots.release(id);
                         try {
                             final BuildQueueTask task = getTask(id);
                             final BaseBuilderRequest request = task.getRequest();
@@ -714,6 +842,7 @@ public class BuildQueue {
     public void stop() {
         if (started.compareAndSet(true, false)) {
             boolean interrupted = false;
+            dispatchQueue.stop();
             scheduler.shutdownNow();
             try {
                 if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -736,6 +865,7 @@ public class BuildQueue {
             }
             tasks.clear();
             builderListMapping.clear();
+            builderSlots.clear();
             successfulBuilds.clear();
             if (interrupted) {
                 Thread.currentThread().interrupt();
@@ -749,19 +879,29 @@ public class BuildQueue {
         return eventService;
     }
 
-    private static class InternalBuildTask extends FutureTask<RemoteTask> {
+    private class InternalBuildTask extends DispatchQueue.Task<RemoteTask> {
         final Long    id;
         final String  workspace;
         final String  project;
         final boolean reused;
 
-        InternalBuildTask(Callable<RemoteTask> callable, Long id, String workspace, String project, boolean reused) {
-            super(callable);
+        InternalBuildTask(Callable<RemoteTask> callable, Long id, String workspace, String project, int priority, boolean reused) {
+            super(callable, workspace, priority);
             this.id = id;
             this.workspace = workspace;
             this.project = project;
             this.reused = reused;
         }
+
+        @Override
+        protected void done() {
+            super.done();
+            if (reused && !isCancelled()) {
+                // Emulate event from remote builder. In fact we didn't send request to remote builder just reuse result from previous
+                // build.
+                eventService.publish(BuilderEvent.doneEvent(id, workspace, project, true));
+            }
+        }
     }
 
     private static class BuilderListKey {
@@ -808,17 +948,19 @@ public class BuildQueue {
     private static class BuilderList {
         final Collection<RemoteBuilder> builders;
         final BuilderSelectionStrategy  builderSelector;
+        final BuilderSlots              builderSlots;
 
-        BuilderList(BuilderSelectionStrategy builderSelector) {
+        BuilderList(BuilderSelectionStrategy builderSelector, BuilderSlots builderSlots) {
             this.builderSelector = builderSelector;
-            builders = new LinkedHashSet<>();
+            this.builderSlots = builderSlots;
+            builders = new CopyOnWriteArraySet<>();
         }
 
-        synchronized List<RemoteBuilder> getBuilders() {
+        List<RemoteBuilder> getBuilders() {
             return new ArrayList<>(builders);
         }
 
-        synchronized boolean hasBuilder(String name) {
+        boolean hasBuilder(String name) {
             for (RemoteBuilder builder : builders) {
                 if (name.equals(builder.getName())) {
                     return true;
@@ -827,64 +969,53 @@ public class BuildQueue {
             return false;
         }
 
-        synchronized boolean addBuilders(Collection<? extends RemoteBuilder> list) {
+        boolean addBuilders(Collection<? extends RemoteBuilder> list) {
             return builders.addAll(list);
         }
 
-        synchronized boolean removeBuilders(Collection<? extends RemoteBuilder> list) {
+        boolean removeBuilders(Collection<? extends RemoteBuilder> list) {
             return builders.removeAll(list);
         }
 
-        synchronized boolean removeBuilder(RemoteBuilder builder) {
+        boolean removeBuilder(RemoteBuilder builder) {
             return builders.remove(builder);
         }
 
-        synchronized int size() {
+        int size() {
             return builders.size();
         }
 
-        synchronized RemoteBuilder getBuilder(BaseBuilderRequest request) {
-            final List<RemoteBuilder> matched = new ArrayList<>();
-            for (RemoteBuilder builder : builders) {
-                if (request.getBuilder().equals(builder.getName())) {
-                    matched.add(builder);
-                }
-            }
-            final int size = matched.size();
-            if (size == 0) {
-                return null;
-            }
-            final List<RemoteBuilder> available = new ArrayList<>(matched.size());
+        /**
+         * Selects builder which has free slot and takes this slot. Doesn't send any requests to slave builders.
+         *
+         * @return builder or {@code null} if all suitable builders are busy
+         * @throws BuilderException
+         *         if there is no any suitable builder
+         */
+        RemoteBuilder getBuilder(BaseBuilderRequest request) throws BuilderException {
+            final List<RemoteBuilder> available = new ArrayList<>();
             for (; ; ) {
-                for (RemoteBuilder builder : matched) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        return null; // stop immediately
-                    }
-                    BuilderState builderState;
-                    try {
-                        builderState = builder.getBuilderState();
-                    } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
-                        continue;
-                    }
-                    if (builderState.getFreeWorkers() > 0) {
-                        available.add(builder);
+                boolean matched = false;
+                available.clear();
+                for (RemoteBuilder builder : builders) {
+                    if (request.getBuilder().equals(builder.getName())) {
+                        matched = true;
+                        if (builderSlots.getFree(builder) > 0) {
+                            available.add(builder);
+                        }
                     }
                 }
-
+                if (!matched) {
+                    throw new BuilderException("There is no any builder available. ");
+                }
                 if (available.isEmpty()) {
-                    try {
-                        wait(CHECK_AVAILABLE_BUILDER_DELAY); // wait and try again
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        return null; // expected to get here if task is canceled
-                    }
-                } else {
-                    if (available.size() > 1) {
-                        return builderSelector.select(available);
-                    }
-                    return available.get(0);
+                    return null;
+                }
+                final RemoteBuilder builder = available.size() > 1 ? builderSelector.select(available) : available.get(0);
+                if (builderSlots.tryAcquire(builder)) {
+                    return builder;
                 }
+                // Last free slot is taken by other request, try again.
             }
         }
     }
@@ -1015,9 +1146,8 @@ public class BuildQueue {
                     case MESSAGE_LOGGED:
                         final BuilderEvent.LoggedMessage message = event.getMessage();
                         if (message != null) {
-                            bm.setChannel(String.format("builder:output:%d", id));
-                            bm.setBody(String.format("{\"num\":%d, \"line\":%s}",
-                                                     message.getLineNum(), JsonUtils.getJsonString(message.getMessage())));
+                            sendLoggedMessage(id, message);
+                            return;
                         }
                         break;
                 }
@@ -1026,5 +1156,33 @@ public class BuildQueue {
                 LOG.warn(e.getMessage(), e);
             }
         }
+
+        /**
+         * Sends each line in separate message {"num":..., "line":...} to channel {@code builder:output:<id>}, as clients expect, and the
+         * whole chunk in single message {"firstNum":..., "lines":[...]} to channel {@code builder:output-chunks:<id>}. Clients that
+         * subscribe to the last one get far fewer messages for noisy output.
+         */
+        private void sendLoggedMessage(long id, BuilderEvent.LoggedMessage message) throws Exception {
+            final List<String> lines = message.getLines();
+            final String lineChannel = String.format("builder:output:%d", id);
+            final StringBuilder chunk = new StringBuilder();
+            chunk.append("{\"firstNum\":").append(message.getLineNum()).append(", \"lines\":[");
+            for (int i = 0, size = lines.size(); i < size; i++) {
+                final String line = JsonUtils.getJsonString(lines.get(i));
+                final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+                bm.setChannel(lineChannel);
+                bm.setBody(String.format("{\"num\":%d, \"line\":%s}", message.getLineNum() + i, line));
+                WSConnectionContext.sendMessage(bm);
+                if (i > 0) {
+                    chunk.append(',');
+                }
+                chunk.append(line);
+            }
+            chunk.append("]}");
+            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+            bm.setChannel(String.format("builder:output-chunks:%d", id));
+            bm.setBody(chunk.toString());
+            WSConnectionContext.sendMessage(bm);
+        }
     }
 }
@@ -21,6 +21,7 @@ import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.rest.HttpOutputMessage;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.util.Cancellable;
+import org.eclipse.che.api.core.util.DispatchQueue;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import javax.ws.rs.core.MediaType;
@@ -116,6 +117,15 @@ public class BuildQueueTask implements Cancellable {
         }
     }
 
+    /**
+     * Get position of this task in the BuildQueue.
+     *
+     * @return position of this task, {@code 1} means that the task is the next one, or {@code -1} if the task isn't waiting
+     */
+    public int getQueuePosition() {
+        return future instanceof DispatchQueue.Task ? ((DispatchQueue.Task<?>)future).getPosition() : -1;
+    }
+
     /**
      * Cancel this task.
      *
@@ -158,11 +168,18 @@ public class BuildQueueTask implements Cancellable {
                                 .withHref(getUriBuilder().path(BuilderService.class, "cancel").build(request.getWorkspace(), id).toString())
                                 .withMethod("POST")
                                 .withProduces(MediaType.APPLICATION_JSON));
-            final List<BuilderMetric> buildStats = new ArrayList<>(1);
+            final List<BuilderMetric> buildStats = new ArrayList<>(2);
             buildStats.add(dtoFactory.createDto(BuilderMetric.class)
                                      .withName(BuilderMetric.WAITING_TIME_LIMIT)
                                      .withValue(Long.toString(created + waitingTimeout))
                                      .withDescription("Waiting for start limit"));
+            final int position = getQueuePosition();
+            if (position > 0) {
+                buildStats.add(dtoFactory.createDto(BuilderMetric.class)
+                                         .withName(BuilderMetric.QUEUE_POSITION)
+                                         .withValue(Integer.toString(position))
+                                         .withDescription("Position in queue"));
+            }
             descriptor = dtoFactory.createDto(BuildTaskDescriptor.class)
                                    .withTaskId(id)
                                    .withStatus(BuildStatus.IN_QUEUE)
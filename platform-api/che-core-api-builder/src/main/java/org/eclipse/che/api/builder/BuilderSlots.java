@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory index of free workers of remote builders. BuildQueue takes slot from this index when sends request to remote builder and
+ * returns it back when gets event about end of build from slave-builder, so there is no need to ask each slave-builder about its state
+ * before sending a request. State of slave-builders is still checked periodically with {@link #update(RemoteBuilder, int, int)} to fix
+ * possible divergence, e.g. if some events are lost.
+ * <p/>
+ * Methods of this class don't block. Listener which is set in constructor is notified each time when any slot is released.
+ */
+final class BuilderSlots {
+    private final ConcurrentMap<RemoteBuilder, Slots> slots;
+    /** Remote builders which process tasks. Key is id of task. */
+    private final ConcurrentMap<Long, RemoteBuilder>  assignments;
+    private final Runnable                            releaseListener;
+
+    BuilderSlots(Runnable releaseListener) {
+        this.releaseListener = releaseListener;
+        slots = new ConcurrentHashMap<>();
+        assignments = new ConcurrentHashMap<>();
+    }
+
+    /** Adds remote builder to the index. Builder doesn't have free slots until its state is set with {@link #update}. */
+    void add(RemoteBuilder builder) {
+        slots.putIfAbsent(builder, new Slots());
+    }
+
+    /** Removes remote builder from the index. */
+    void remove(RemoteBuilder builder) {
+        slots.remove(builder);
+    }
+
+    /**
+     * Sets state of remote builder which is got from the slave-builder.
+     *
+     * @param builder
+     *         remote builder
+     * @param capacity
+     *         total number of workers of remote builder
+     * @param free
+     *         number of free workers of remote builder
+     */
+    void update(RemoteBuilder builder, int capacity, int free) {
+        final Slots mySlots = slots.get(builder);
+        if (mySlots != null) {
+            mySlots.capacity = capacity;
+            final int actual = Math.max(0, Math.min(free, capacity));
+            if (actual > mySlots.free.getAndSet(actual)) {
+                signal();
+            }
+        }
+    }
+
+    /** Gets number of free slots of remote builder. */
+    int getFree(RemoteBuilder builder) {
+        final Slots mySlots = slots.get(builder);
+        return mySlots == null ? 0 : mySlots.free.get();
+    }
+
+    /**
+     * Takes one slot of remote builder.
+     *
+     * @return {@code true} if slot is taken and {@code false} if builder doesn't have free slots at the moment
+     */
+    boolean tryAcquire(RemoteBuilder builder) {
+        final Slots mySlots = slots.get(builder);
+        if (mySlots == null) {
+            return false;
+        }
+        for (; ; ) {
+            final int free = mySlots.free.get();
+            if (free <= 0) {
+                return false;
+            }
+            if (mySlots.free.compareAndSet(free, free - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Returns slot of remote builder which is taken with {@link #tryAcquire(RemoteBuilder)} but not assigned to any task. */
+    void release(RemoteBuilder builder) {
+        final Slots mySlots = slots.get(builder);
+        if (mySlots == null) {
+            return;
+        }
+        for (; ; ) {
+            final int free = mySlots.free.get();
+            if (free >= mySlots.capacity) {
+                // Slots are already updated with actual state of builder.
+                return;
+            }
+            if (mySlots.free.compareAndSet(free, free + 1)) {
+                signal();
+                return;
+            }
+        }
+    }
+
+    /** Remembers that slot of remote builder is taken by task with specified id. */
+    void assign(Long taskId, RemoteBuilder builder) {
+        assignments.put(taskId, builder);
+    }
+
+    /** Returns slot which is taken by task with specified id. Does nothing if task doesn't have slot or it is already returned. */
+    void release(Long taskId) {
+        final RemoteBuilder builder = assignments.remove(taskId);
+        if (builder != null) {
+            release(builder);
+        }
+    }
+
+    /** Forgets about task with specified id without returning its slot. */
+    void forget(Long taskId) {
+        assignments.remove(taskId);
+    }
+
+    /** Removes all builders and tasks from the index. */
+    void clear() {
+        slots.clear();
+        assignments.clear();
+    }
+
+    private void signal() {
+        releaseListener.run();
+    }
+
+    private static final class Slots {
+        final AtomicInteger free = new AtomicInteger();
+        volatile int capacity;
+    }
+}
@@ -27,6 +27,7 @@ import org.eclipse.che.api.core.rest.shared.Links;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.dto.server.DtoFactory;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -142,7 +143,7 @@ public class RemoteBuilder {
     private RemoteTask perform(Link link, BaseBuilderRequest request) throws BuilderException {
         final BuildTaskDescriptor build;
         try {
-            build = HttpJsonHelper.request(BuildTaskDescriptor.class, link, request);
+            build = HttpJsonHelper.requestBinary(BuildTaskDescriptor.class, -1, link, request);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -165,7 +166,8 @@ public class RemoteBuilder {
             throw new BuilderException("Unable get URL for getting state of a remote builder");
         }
         try {
-            return HttpJsonHelper.request(BuilderState.class, 10000, DtoFactory.getInstance().clone(link), Pair.of("builder", name));
+            return HttpJsonHelper.requestBinary(BuilderState.class, 10000, DtoFactory.getInstance().clone(link), null,
+                                                Pair.of("builder", name));
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -173,6 +175,23 @@ public class RemoteBuilder {
         }
     }
 
+    /**
+     * Get description of current state of {@link org.eclipse.che.api.builder.internal.Builder} without blocking the caller.
+     *
+     * @return future description of current state of {@link org.eclipse.che.api.builder.internal.Builder}
+     * @throws BuilderException
+     *         if URL for getting state of a remote builder is unknown
+     * @see #getBuilderState()
+     */
+    public ListenableFuture<BuilderState> getBuilderStateAsync() throws BuilderException {
+        final Link link = Links.getLink(Constants.LINK_REL_BUILDER_STATE, links);
+        if (link == null) {
+            throw new BuilderException("Unable get URL for getting state of a remote builder");
+        }
+        return HttpJsonHelper.requestBinaryAsync(BuilderState.class, 10000, DtoFactory.getInstance().clone(link), null,
+                                                 Pair.of("builder", name));
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) {
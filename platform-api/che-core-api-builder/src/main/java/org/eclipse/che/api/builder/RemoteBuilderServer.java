@@ -96,7 +96,7 @@ public class RemoteBuilderServer extends RemoteServiceDescriptor {
             if (link == null) {
                 throw new BuilderException("Unable get URL for retrieving list of remote builders");
             }
-            return HttpJsonHelper.requestArray(BuilderDescriptor.class, link);
+            return HttpJsonHelper.requestBinaryArray(BuilderDescriptor.class, -1, link, null);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -110,7 +110,7 @@ public class RemoteBuilderServer extends RemoteServiceDescriptor {
             if (stateLink == null) {
                 throw new BuilderException(String.format("Unable get URL for getting state of a remote server '%s'", baseUrl));
             }
-            return HttpJsonHelper.request(ServerState.class, 10000, stateLink);
+            return HttpJsonHelper.requestBinary(ServerState.class, 10000, stateLink, null);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -87,7 +87,8 @@ public class RemoteTask {
      */
     public BuildTaskDescriptor getBuildTaskDescriptor() throws BuilderException, NotFoundException {
         try {
-            return HttpJsonHelper.get(BuildTaskDescriptor.class, String.format("%s/status/%s/%d", baseUrl, builder, taskId));
+            return HttpJsonHelper.requestBinary(BuildTaskDescriptor.class, -1, String.format("%s/status/%s/%d", baseUrl, builder, taskId),
+                                                "GET", null);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
@@ -119,7 +120,7 @@ public class RemoteTask {
             }
         }
         try {
-            return HttpJsonHelper.request(BuildTaskDescriptor.class, DtoFactory.getInstance().clone(link));
+            return HttpJsonHelper.requestBinary(BuildTaskDescriptor.class, -1, DtoFactory.getInstance().clone(link), null);
         } catch (IOException e) {
             throw new BuilderException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
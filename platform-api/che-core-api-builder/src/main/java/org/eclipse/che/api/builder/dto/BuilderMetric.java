@@ -20,6 +20,8 @@ public interface BuilderMetric {
 
     String WAITING_TIME_LIMIT = "waitingTimeLimit";
 
+    String QUEUE_POSITION = "queuePosition";
+
     String START_TIME = "startTime";
 
     String TERMINATION_TIME = "terminationTime";
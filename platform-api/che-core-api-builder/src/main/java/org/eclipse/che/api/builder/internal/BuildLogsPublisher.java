@@ -11,21 +11,30 @@
 package org.eclipse.che.api.builder.internal;
 
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.util.BufferedLineConsumer;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Publishes builder's outputs to the EventService.
+ * Publishes builder's outputs to the EventService. Lines are published in chunks, see {@link BuilderEvent.LoggedMessage}, since noisy
+ * build may produce thousands of lines per second and event for each line is too expensive for both server and client.
  *
  * @author andrew00x
  */
 class BuildLogsPublisher extends DelegateBuildLogger {
-    private final AtomicInteger lineCounter;
-    private final EventService eventService;
-    private final long         taskId;
-    private final String       workspace;
-    private final String       project;
+    static final int  CHUNK_MAX_LINES    = 200;
+    static final int  CHUNK_MAX_CHARS    = 32 * 1024;
+    static final long CHUNK_DELAY_MILLIS = 100;
+
+    private final EventService         eventService;
+    private final long                 taskId;
+    private final String               workspace;
+    private final String               project;
+    private final BufferedLineConsumer publisher;
+
+    private int lineCounter;
 
     BuildLogsPublisher(BuildLogger delegate, EventService eventService, long taskId, String workspace, String project) {
         super(delegate);
@@ -33,15 +42,36 @@ class BuildLogsPublisher extends DelegateBuildLogger {
         this.taskId = taskId;
         this.workspace = workspace;
         this.project = project;
-        lineCounter = new AtomicInteger(1);
+        lineCounter = 1;
+        publisher = new BufferedLineConsumer(CHUNK_MAX_LINES, CHUNK_MAX_CHARS, CHUNK_DELAY_MILLIS, TimeUnit.MILLISECONDS) {
+            @Override
+            protected void writeLines(List<String> lines) {
+                publish(lines);
+            }
+        };
     }
 
     @Override
     public void writeLine(String line) throws IOException {
         if (line != null) {
-            eventService.publish(BuilderEvent.messageLoggedEvent(taskId, workspace, project,
-                                                                 new BuilderEvent.LoggedMessage(line, lineCounter.getAndIncrement())));
+            publisher.writeLine(line);
         }
         super.writeLine(line);
     }
+
+    /** Publishes all lines which are not published yet and closes delegate logger. */
+    @Override
+    public void close() throws IOException {
+        try {
+            publisher.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    private void publish(List<String> lines) {
+        eventService.publish(BuilderEvent.messageLoggedEvent(taskId, workspace, project,
+                                                             new BuilderEvent.LoggedMessage(lines, lineCounter)));
+        lineCounter += lines.size();
+    }
 }
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import org.eclipse.che.api.core.util.DiskLruDirectory;
+import org.eclipse.che.commons.lang.IoUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Persistent cache of successful build results. Each entry is identified with key which is computed from the sources of project and
+ * parameters of build, see {@link Builder#getBuildCacheKey(BuilderConfiguration)}, so builds of the same sources may reuse result even
+ * if they are requested by different users or for different projects.
+ * <p/>
+ * Entries are stored on local disk, each entry in own directory:
+ * <pre>
+ * &lt;cache directory&gt;/&lt;key&gt;/manifest - list of artifacts and build report, paths are relative to work directory of build
+ * &lt;cache directory&gt;/&lt;key&gt;/files/... - copies of artifacts and build report
+ * </pre>
+ * Entry is prepared in temporary directory and then moved to its place, so the same directory may be shared between few slave-builders.
+ * Total size of entries is limited. When limit is reached entries which were not used for the longest time are removed, see
+ * {@link DiskLruDirectory}.
+ */
+public class BuildResultCache {
+    private static final String MANIFEST = "manifest";
+    private static final String FILES    = "files";
+
+    private static final String ARTIFACT = "artifact ";
+    private static final String REPORT   = "report ";
+
+    /** Prefix of name of temporary directory in work directory of build where cached build result is copied before restoring. */
+    private static final String RESTORE_PREFIX = ".cache-";
+
+    private final DiskLruDirectory entries;
+
+    /**
+     * @param directory
+     *         directory for cache entries
+     * @param maxSize
+     *         max size of cache in bytes
+     */
+    public BuildResultCache(java.io.File directory, long maxSize) {
+        entries = new DiskLruDirectory(directory, maxSize);
+    }
+
+    public java.io.File getDirectory() {
+        return entries.getDirectory();
+    }
+
+    /**
+     * Restores cached build result in the work directory. Files are copied to temporary directory and moved to their places when all
+     * of them are copied, so work directory doesn't contain partially restored result if copying is failed.
+     *
+     * @param key
+     *         key of cache entry
+     * @param workDir
+     *         work directory of build
+     * @return restored build result or {@code null} if there is no entry with specified key
+     * @throws IOException
+     *         if an i/o error occurs, e.g. if entry is removed by other slave-builder while we copy it
+     */
+    public BuildResult get(String key, java.io.File workDir) throws IOException {
+        final java.io.File entry = entries.getEntry(key);
+        final java.io.File manifest = new java.io.File(entry, MANIFEST);
+        if (!manifest.isFile()) {
+            return null;
+        }
+        entries.touch(key);
+        final java.io.File files = new java.io.File(entry, FILES);
+        final List<String> paths = new ArrayList<>();
+        final List<java.io.File> artifacts = new LinkedList<>();
+        java.io.File report = null;
+        for (String line : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith(ARTIFACT)) {
+                final String path = line.substring(ARTIFACT.length());
+                paths.add(path);
+                artifacts.add(new java.io.File(workDir, path));
+            } else if (line.startsWith(REPORT)) {
+                final String path = line.substring(REPORT.length());
+                paths.add(path);
+                report = new java.io.File(workDir, path);
+            }
+        }
+        Files.createDirectories(workDir.toPath());
+        final java.io.File tmp = Files.createTempDirectory(workDir.toPath(), RESTORE_PREFIX).toFile();
+        try {
+            for (String path : paths) {
+                IoUtil.copy(new java.io.File(files, path), new java.io.File(tmp, path), IoUtil.ANY_FILTER);
+            }
+            final List<java.io.File> restored = new ArrayList<>(paths.size());
+            try {
+                for (String path : paths) {
+                    final java.io.File dest = new java.io.File(workDir, path);
+                    Files.createDirectories(dest.getParentFile().toPath());
+                    Files.move(new java.io.File(tmp, path).toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    restored.add(dest);
+                }
+            } catch (IOException e) {
+                for (java.io.File file : restored) {
+                    IoUtil.deleteRecursive(file);
+                }
+                throw e;
+            }
+        } finally {
+            IoUtil.deleteRecursive(tmp);
+        }
+        return new BuildResult(true, artifacts, report);
+    }
+
+    /**
+     * Saves successful build result in the cache. Artifacts and build report must be located inside the work directory of build,
+     * otherwise result isn't saved.
+     *
+     * @param key
+     *         key of cache entry
+     * @param workDir
+     *         work directory of build
+     * @param result
+     *         build result
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public void put(String key, final java.io.File workDir, BuildResult result) throws IOException {
+        final java.io.File entry = entries.getEntry(key);
+        if (entry.exists()) {
+            return;
+        }
+        final Path workDirPath = workDir.toPath().normalize();
+        final List<String> manifest = new ArrayList<>();
+        for (java.io.File artifact : result.getResults()) {
+            final String path = relativize(workDirPath, artifact);
+            if (path == null) {
+                return;
+            }
+            manifest.add(ARTIFACT + path);
+        }
+        if (result.hasBuildReport()) {
+            final String path = relativize(workDirPath, result.getBuildReport());
+            if (path == null) {
+                return;
+            }
+            manifest.add(REPORT + path);
+        }
+        entries.write(entry, new DiskLruDirectory.ContentWriter() {
+            @Override
+            public void write(java.io.File dir) throws IOException {
+                final java.io.File files = new java.io.File(dir, FILES);
+                for (String line : manifest) {
+                    final String path = line.substring(line.indexOf(' ') + 1);
+                    IoUtil.copy(new java.io.File(workDir, path), new java.io.File(files, path), IoUtil.ANY_FILTER);
+                }
+                Files.write(new java.io.File(dir, MANIFEST).toPath(), manifest, StandardCharsets.UTF_8);
+            }
+        });
+        entries.evict();
+    }
+
+    /** Gets total size of entries in bytes. */
+    public long getSize() {
+        return entries.getSize();
+    }
+
+    private static String relativize(Path workDirPath, java.io.File file) {
+        final Path path = file.toPath().normalize();
+        if (!path.startsWith(workDirPath) || path.equals(workDirPath)) {
+            return null;
+        }
+        return workDirPath.relativize(path).toString().replace("\\", "/");
+    }
+}
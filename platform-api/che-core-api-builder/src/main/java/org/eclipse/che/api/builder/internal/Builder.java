@@ -29,6 +29,8 @@ import org.eclipse.che.api.core.util.StreamPump;
 import org.eclipse.che.api.core.util.Watchdog;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.dto.server.DtoFactory;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
@@ -36,7 +38,10 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -44,6 +49,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -84,6 +90,17 @@ public abstract class Builder {
     private java.io.File             repository;
     private java.io.File             builds;
     private SourcesManagerImpl       sourcesManager;
+    private BuildResultCache         buildCache;
+
+    /** Optional directory of cache of build results. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.BUILD_CACHE_DIRECTORY)
+    private String buildCacheDirectory;
+
+    /** Max size of cache of build results in megabytes. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.BUILD_CACHE_SIZE)
+    private int buildCacheSize = 1024;
 
     public Builder(java.io.File rootDirectory, int numberOfWorkers, int queueSize, int keepResultTime, EventService eventService) {
         this.rootDirectory = rootDirectory;
@@ -140,6 +157,14 @@ public abstract class Builder {
 
     protected abstract CommandLine createCommandLine(BuilderConfiguration config) throws BuilderException;
 
+    /**
+     * Gets glob patterns of source files which build modifies in place, e.g. "package.json". Such files are copied to work directory of
+     * build, other files may be hard linked to the shared read-only copy of sources. By default returns empty list.
+     */
+    protected Collection<String> getWritableSources() {
+        return Collections.emptyList();
+    }
+
     /** Initialize Builder. Sub-classes should invoke {@code super.start} at the begin of this method. */
     @PostConstruct
     public void start() {
@@ -157,8 +182,14 @@ public abstract class Builder {
                 throw new IllegalStateException(String.format("Unable create directory %s", builds.getAbsolutePath()));
             }
             // TODO: use single instance of SourceManager
-            sourcesManager = new SourcesManagerImpl(sources);
+            sourcesManager = new SourcesManagerImpl(sources, getWritableSources());
             sourcesManager.start(); // TODO: guice must do this
+            if (buildCacheSize > 0) {
+                // Don't keep cache in repository since repository is cleaned when builder is stopped.
+                final java.io.File cacheDir = buildCacheDirectory == null ? new java.io.File(rootDirectory, "build_cache")
+                                                                          : new java.io.File(buildCacheDirectory);
+                buildCache = new BuildResultCache(cacheDir, buildCacheSize * 1024L * 1024L);
+            }
             executor = new MyThreadPoolExecutor(numberOfWorkers <= 0 ? Runtime.getRuntime().availableProcessors() : numberOfWorkers,
                                                 queueSize);
             scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(
@@ -396,13 +427,14 @@ public abstract class Builder {
             @Override
             public void done(BuildTask task) {
                 final BaseBuilderRequest buildRequest = task.getConfiguration().getRequest();
-                eventService.publish(BuilderEvent.doneEvent(buildRequest.getId(), buildRequest.getWorkspace(), buildRequest.getProject()));
+                // Close logger before publishing 'done' event, closing publishes lines which are buffered by logger.
                 try {
                     myLogger.close();
                     LOG.debug("Close build logger {}", myLogger);
                 } catch (IOException e) {
                     LOG.error(e.getMessage(), e);
                 }
+                eventService.publish(BuilderEvent.doneEvent(buildRequest.getId(), buildRequest.getWorkspace(), buildRequest.getProject()));
             }
         };
         final FutureBuildTask task = new FutureBuildTask(callable, internalId, commandLine, getName(), configuration, myLogger, callback);
@@ -423,62 +455,166 @@ public abstract class Builder {
                                               final BuildLogger logger,
                                               final long timeout,
                                               final BuilderConfiguration configuration) {
-        return new Callable<Boolean>() {
-            @Override
-            public Boolean call() throws Exception {
-                BaseBuilderRequest request = configuration.getRequest();
-                getSourcesManager()
-                        .getSources(logger, request.getWorkspace(), request.getProject(), request.getSourcesUrl(), configuration.getWorkDir());
-                // build effectively starts right after sources downloading is done
-                eventService.publish(BuilderEvent.buildTimeStartedEvent(request.getId(), request.getWorkspace(), request.getProject(),
-                                                                        System.currentTimeMillis()));
-                eventService.publish(BuilderEvent.beginEvent(request.getId(), request.getWorkspace(), request.getProject()));
-                StreamPump output = null;
-                Watchdog watcher = null;
-                int result = -1;
-                try {
-                    ProcessBuilder processBuilder = new ProcessBuilder().command(commandLine.toShellCommand()).directory(
-                            configuration.getWorkDir()).redirectErrorStream(true);
-                    Process process = processBuilder.start();
-
-                    if (timeout > 0) {
-                        watcher = new Watchdog(getName().toUpperCase() + "-WATCHDOG", timeout, TimeUnit.SECONDS);
-                        watcher.start(new CancellableProcessWrapper(process, new Cancellable.Callback() {
-                            @Override
-                            public void cancelled(Cancellable cancellable) {
-                                try {
-                                    logger.writeLine("[ERROR] Your build has been shutdown due to timeout.");
-                                } catch (IOException e) {
-                                    LOG.error(e.getMessage(), e);
-                                }
+        return new BuildCallable(commandLine, logger, timeout, configuration);
+    }
+
+    /**
+     * Gets key of build in the cache of build results. Sources of project must be already in the work directory of build when this
+     * method is called. Key is computed from name of this builder, parameters of build request and content of sources but doesn't depend
+     * on workspace, project and user, so build result may be shared between them. Md5 sums of sources are mostly reused from manifest
+     * which is saved when sources are copied to the work directory, see {@link SourcesManagerImpl#getMd5sums(java.io.File)}. Sub-classes
+     * should override this method if result of build depends on anything else or return {@code null} to disable caching for particular
+     * build.
+     *
+     * @param configuration
+     *         configuration of build
+     * @return key of build or {@code null} if result of build must not be cached
+     * @throws IOException
+     *         if an i/o error occurs while reading sources
+     */
+    protected String getBuildCacheKey(BuilderConfiguration configuration) throws IOException {
+        if (configuration.getTaskType() != BuilderTaskType.DEFAULT) {
+            return null;
+        }
+        final BaseBuilderRequest request = configuration.getRequest();
+        final Hasher hasher = Hashing.sha1().newHasher();
+        putString(hasher, getName());
+        for (String target : request.getTargets()) {
+            putString(hasher, target);
+        }
+        for (Map.Entry<String, String> option : new TreeMap<>(request.getOptions()).entrySet()) {
+            putString(hasher, option.getKey());
+            putString(hasher, option.getValue());
+        }
+        hasher.putBoolean(request.isIncludeDependencies());
+        hasher.putBoolean(request instanceof BuildRequest && ((BuildRequest)request).isSkipTest());
+        putString(hasher, request.getProjectDescriptor() == null ? null : request.getProjectDescriptor().getType());
+        for (Map.Entry<String, String> md5sum : SourcesManagerImpl.getMd5sums(configuration.getWorkDir()).entrySet()) {
+            putString(hasher, md5sum.getKey());
+            putString(hasher, md5sum.getValue());
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putString(Hasher hasher, String str) {
+        if (str == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(str.length()).putString(str, StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Saves result of build in cache if it is successful and wasn't restored from the cache. */
+    private void saveInCache(FutureBuildTask task) {
+        if (!(task.callable instanceof BuildCallable)) {
+            return;
+        }
+        final BuildCallable callable = (BuildCallable)task.callable;
+        if (buildCache == null || callable.cacheKey == null || callable.cachedResult != null) {
+            return;
+        }
+        try {
+            final BuildResult result = task.getResult();
+            if (result != null && result.isSuccessful() && !result.getResults().isEmpty()) {
+                buildCache.put(callable.cacheKey, task.getConfiguration().getWorkDir(), result);
+            }
+        } catch (BuilderException | IOException e) {
+            LOG.warn("Unable save result of {} in build cache: {}", task, e.getMessage());
+        }
+    }
+
+    private class BuildCallable implements Callable<Boolean> {
+        final CommandLine          commandLine;
+        final BuildLogger          logger;
+        final long                 timeout;
+        final BuilderConfiguration configuration;
+
+        volatile String      cacheKey;
+        volatile BuildResult cachedResult;
+
+        BuildCallable(CommandLine commandLine, BuildLogger logger, long timeout, BuilderConfiguration configuration) {
+            this.commandLine = commandLine;
+            this.logger = logger;
+            this.timeout = timeout;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            BaseBuilderRequest request = configuration.getRequest();
+            getSourcesManager()
+                    .getSources(logger, request.getWorkspace(), request.getProject(), request.getSourcesUrl(), configuration.getWorkDir());
+            // build effectively starts right after sources downloading is done
+            eventService.publish(BuilderEvent.buildTimeStartedEvent(request.getId(), request.getWorkspace(), request.getProject(),
+                                                                    System.currentTimeMillis()));
+            eventService.publish(BuilderEvent.beginEvent(request.getId(), request.getWorkspace(), request.getProject()));
+            if (buildCache != null && restoreFromCache()) {
+                return true;
+            }
+            StreamPump output = null;
+            Watchdog watcher = null;
+            int result = -1;
+            try {
+                ProcessBuilder processBuilder = new ProcessBuilder().command(commandLine.toShellCommand()).directory(
+                        configuration.getWorkDir()).redirectErrorStream(true);
+                Process process = processBuilder.start();
+
+                if (timeout > 0) {
+                    watcher = new Watchdog(getName().toUpperCase() + "-WATCHDOG", timeout, TimeUnit.SECONDS);
+                    watcher.start(new CancellableProcessWrapper(process, new Cancellable.Callback() {
+                        @Override
+                        public void cancelled(Cancellable cancellable) {
+                            try {
+                                logger.writeLine("[ERROR] Your build has been shutdown due to timeout.");
+                            } catch (IOException e) {
+                                LOG.error(e.getMessage(), e);
                             }
-                        }));
-                    }
-                    output = new StreamPump();
-                    output.start(process, logger);
-                    try {
-                        result = process.waitFor();
-                    } catch (InterruptedException e) {
-                        Thread.interrupted(); // we interrupt thread when cancel task
-                        ProcessUtil.kill(process);
-                    }
-                    try {
-                        output.await(); // wait for logger
-                    } catch (InterruptedException e) {
-                        Thread.interrupted(); // we interrupt thread when cancel task, NOTE: logs may be incomplete
-                    }
-                } finally {
-                    if (watcher != null) {
-                        watcher.stop();
-                    }
-                    if (output != null) {
-                        output.stop();
-                    }
+                        }
+                    }));
+                }
+                output = new StreamPump();
+                output.start(process, logger);
+                try {
+                    result = process.waitFor();
+                } catch (InterruptedException e) {
+                    Thread.interrupted(); // we interrupt thread when cancel task
+                    ProcessUtil.kill(process);
+                }
+                try {
+                    output.await(); // wait for logger
+                } catch (InterruptedException e) {
+                    Thread.interrupted(); // we interrupt thread when cancel task, NOTE: logs may be incomplete
+                }
+            } finally {
+                if (watcher != null) {
+                    watcher.stop();
+                }
+                if (output != null) {
+                    output.stop();
                 }
-                LOG.debug("Done: {}, exit code: {}", commandLine, result);
-                return result == 0;
             }
-        };
+            LOG.debug("Done: {}, exit code: {}", commandLine, result);
+            return result == 0;
+        }
+
+        private boolean restoreFromCache() throws IOException {
+            try {
+                cacheKey = getBuildCacheKey(configuration);
+                if (cacheKey != null) {
+                    cachedResult = buildCache.get(cacheKey, configuration.getWorkDir());
+                }
+            } catch (IOException e) {
+                // Entry may be removed by other slave-builder which uses the same cache, just build project.
+                LOG.warn("Unable restore build result from cache: {}", e.getMessage());
+                cachedResult = null;
+            }
+            if (cachedResult != null) {
+                LOG.debug("Reuse cached build result {}", cacheKey);
+                logger.writeLine("[INFO] Sources of project are not changed since previous build, reuse result of previous build.");
+                return true;
+            }
+            return false;
+        }
     }
 
     /**
@@ -503,6 +639,12 @@ public abstract class Builder {
                 LOG.warn("Unable delete file {}", log);
             }
         }
+        if (workDir != null) {
+            final java.io.File sourcesManifest = SourcesManagerImpl.getManifestFile(workDir);
+            if (sourcesManifest.exists() && !sourcesManifest.delete()) {
+                LOG.warn("Unable delete file {}", sourcesManifest);
+            }
+        }
         BuildResult result = null;
         try {
             result = task.getResult();
@@ -608,6 +750,7 @@ public abstract class Builder {
     }
 
     protected class FutureBuildTask extends FutureTask<Boolean> implements BuildTask {
+        private final Callable<Boolean>    callable;
         private final Long                 id;
         private final CommandLine          commandLine;
         private final String               builder;
@@ -627,6 +770,7 @@ public abstract class Builder {
                                   BuildLogger buildLogger,
                                   Callback callback) {
             super(callable);
+            this.callable = callable;
             this.id = id;
             this.commandLine = commandLine;
             this.builder = builder;
@@ -699,7 +843,9 @@ public abstract class Builder {
                 } catch (CancellationException ce) {
                     successful = false;
                 }
-                result = Builder.this.getTaskResult(this, successful);
+                final BuildResult cachedResult =
+                        successful && callable instanceof BuildCallable ? ((BuildCallable)callable).cachedResult : null;
+                result = cachedResult != null ? cachedResult : Builder.this.getTaskResult(this, successful);
             }
             return result;
         }
@@ -816,6 +962,8 @@ public abstract class Builder {
                         LOG.error(e.getMessage(), e);
                     }
                 }
+                // Save result before notifying about end of build, so next build of the same sources may reuse it.
+                saveInCache(futureBuildTask);
                 futureBuildTask.ended();
             }
         }
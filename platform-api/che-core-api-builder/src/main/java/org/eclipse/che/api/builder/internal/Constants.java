@@ -64,6 +64,20 @@ public class Constants {
      * this time build may be terminated.
      */
     public static final String MAX_EXECUTION_TIME         = "builder.max_execution_time";
+    /**
+     * Period in seconds of checking state of slave builders by BuildQueue. Between checks BuildQueue tracks free workers of slave builders
+     * by events which it gets from them.
+     */
+    public static final String BUILDER_STATE_CHECK_PERIOD = "builder.state_check_period";
+    /** Max number of build tasks which may wait in BuildQueue. New tasks are rejected when this limit is reached. */
+    public static final String MAX_WAITING_TASKS          = "builder.max_waiting_tasks";
+    /**
+     * Directory of cache of build results. By default cache is stored in sub-directory 'build_cache' of {@link #BASE_DIRECTORY}. The same
+     * directory may be shared between few slave builders.
+     */
+    public static final String BUILD_CACHE_DIRECTORY      = "builder.build_cache.directory";
+    /** Max size of cache of build results in megabytes. Set to 0 to disable cache. */
+    public static final String BUILD_CACHE_SIZE           = "builder.build_cache.size_mb";
 
     /* ================================================= */
 
@@ -76,6 +90,8 @@ public class Constants {
 
     // attributes of workspace which are interested for builder
     public static final String BUILDER_EXECUTION_TIME = "codenvy:builder_execution_time";
+    /** Priority of build tasks of workspace in BuildQueue. Build tasks of workspace with value 'high' are processed first. */
+    public static final String BUILDER_PRIORITY       = "codenvy:builder_priority";
 
     private Constants() {
     }
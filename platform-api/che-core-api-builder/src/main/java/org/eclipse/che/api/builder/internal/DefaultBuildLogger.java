@@ -10,28 +10,48 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder.internal;
 
+import org.eclipse.che.api.core.util.BufferedLineConsumer;
+
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * File based implementation of BuildLogger.
+ * File based implementation of BuildLogger. Lines are written to the file in chunks, so file isn't flushed after each line but content
+ * of file is behind the build output not more than for {@link #FLUSH_DELAY_MILLIS} milliseconds.
  *
  * @author andrew00x
  */
 public final class DefaultBuildLogger implements BuildLogger {
-    private final java.io.File file;
-    private final String       contentType;
-    private final Writer       writer;
-    private final boolean      autoFlush;
+    static final int  FLUSH_MAX_LINES    = 1000;
+    static final int  FLUSH_MAX_CHARS    = 64 * 1024;
+    static final long FLUSH_DELAY_MILLIS = 200;
+
+    private final java.io.File         file;
+    private final String               contentType;
+    private final Writer               writer;
+    private final BufferedLineConsumer output;
 
     public DefaultBuildLogger(java.io.File file, String contentType) throws IOException {
         this.file = file;
         this.contentType = contentType;
-        autoFlush = true;
         writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset());
+        output = new BufferedLineConsumer(FLUSH_MAX_LINES, FLUSH_MAX_CHARS, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS) {
+            @Override
+            protected void writeLines(List<String> lines) throws IOException {
+                for (String line : lines) {
+                    if (line != null) {
+                        writer.write(line);
+                    }
+                    writer.write('\n');
+                }
+                writer.flush();
+            }
+        };
     }
 
     @Override
@@ -51,18 +71,16 @@ public final class DefaultBuildLogger implements BuildLogger {
 
     @Override
     public void writeLine(String line) throws IOException {
-        if (line != null) {
-            writer.write(line);
-        }
-        writer.write('\n');
-        if (autoFlush) {
-            writer.flush();
-        }
+        output.writeLine(line);
     }
 
     @Override
     public void close() throws IOException {
-        writer.close();
+        try {
+            output.close();
+        } finally {
+            writer.close();
+        }
     }
 
     @Override
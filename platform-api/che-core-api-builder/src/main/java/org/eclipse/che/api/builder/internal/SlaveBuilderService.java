@@ -20,6 +20,7 @@ import org.eclipse.che.api.builder.dto.DependencyRequest;
 import org.eclipse.che.api.builder.dto.ServerState;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.rest.CodenvyBinaryProvider;
 import org.eclipse.che.api.core.rest.Service;
 import org.eclipse.che.api.core.rest.annotations.Description;
 import org.eclipse.che.api.core.rest.annotations.GenerateLink;
@@ -73,7 +74,7 @@ public final class SlaveBuilderService extends Service {
     @GenerateLink(rel = Constants.LINK_REL_AVAILABLE_BUILDERS)
     @GET
     @Path("available")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public List<BuilderDescriptor> availableBuilders() {
         final Set<Builder> all = builders.getAll();
         final List<BuilderDescriptor> list = new ArrayList<>(all.size());
@@ -90,7 +91,7 @@ public final class SlaveBuilderService extends Service {
     @GenerateLink(rel = Constants.LINK_REL_BUILDER_STATE)
     @GET
     @Path("state")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public BuilderState getBuilderState(@Required
                                         @Description("Name of the builder")
                                         @QueryParam("builder") String builder) throws Exception {
@@ -105,7 +106,7 @@ public final class SlaveBuilderService extends Service {
     @GenerateLink(rel = Constants.LINK_REL_SERVER_STATE)
     @GET
     @Path("server-state")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public ServerState getServerState() {
         return DtoFactory.getInstance().createDto(ServerState.class)
                          .withCpuPercentUsage(SystemInfo.cpu())
@@ -117,7 +118,7 @@ public final class SlaveBuilderService extends Service {
     @POST
     @Path("build")
     @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public BuildTaskDescriptor build(@Description("Parameters for build task in JSON format") BuildRequest request) throws Exception {
         final Builder myBuilder = getBuilder(request.getBuilder());
         final BuildTask task = myBuilder.perform(request);
@@ -128,7 +129,7 @@ public final class SlaveBuilderService extends Service {
     @POST
     @Path("dependencies")
     @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public BuildTaskDescriptor dependencies(@Description("Parameters for analyze dependencies in JSON format") DependencyRequest request)
             throws Exception {
         final Builder myBuilder = getBuilder(request.getBuilder());
@@ -138,7 +139,7 @@ public final class SlaveBuilderService extends Service {
 
     @GET
     @Path("status/{builder}/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public BuildTaskDescriptor getStatus(@PathParam("builder") String builder, @PathParam("id") Long id) throws Exception {
         final Builder myBuilder = getBuilder(builder);
         final BuildTask task = myBuilder.getBuildTask(id);
@@ -154,7 +155,7 @@ public final class SlaveBuilderService extends Service {
 
     @POST
     @Path("cancel/{builder}/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public BuildTaskDescriptor cancel(@PathParam("builder") String builder, @PathParam("id") Long id) throws Exception {
         final Builder myBuilder = getBuilder(builder);
         final BuildTask task = myBuilder.getBuildTask(id);
@@ -11,13 +11,12 @@
 package org.eclipse.che.api.builder.internal;
 
 import org.eclipse.che.api.builder.dto.BaseBuilderRequest;
-import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.commons.json.JsonParseException;
 import org.eclipse.che.commons.lang.IoUtil;
-import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.ZipUtils;
 import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
@@ -28,31 +27,46 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.StringReader;
 import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementation of SourcesManager that stores sources locally and gets only updated files over virtual file system RESt API.
@@ -64,22 +78,62 @@ import java.util.concurrent.atomic.AtomicReference;
 public class SourcesManagerImpl implements SourcesManager {
     private static final Logger LOG = LoggerFactory.getLogger(SourcesManagerImpl.class);
 
-    private final java.io.File                        directory;
-    private final ConcurrentMap<String, Future<Void>> tasks;
-    private final AtomicReference<String>             projectKeyHolder;
-    private final Set<SourceManagerListener>          listeners;
-    private final ScheduledExecutorService            executor;
+    private final java.io.File                         directory;
+    /** Locks of projects. Sources of project are downloaded, copied to work directory and removed under lock of project. */
+    // Switched to default for test.
+    // private
+    final ConcurrentMap<String, ReentrantLock>         locks;
+    private final Set<SourceManagerListener>           listeners;
+    private final ScheduledExecutorService             executor;
+    private final ExecutorService                      unzipExecutor;
+
+    /** Source files which builds modify in place, they are always copied to work directory. */
+    private final List<PathMatcher>                    writableFiles;
+
+    /** Whether sources may be hard linked to work directory of build, detected once, see {@link #isHardLinksSupported()}. */
+    private volatile Boolean hardLinks;
 
     private static final long KEEP_PROJECT_TIME = TimeUnit.MINUTES.toMillis(30);
     private static final int  CONNECT_TIMEOUT   = (int)TimeUnit.MINUTES.toMillis(4);//This time is chosen empirically and
     private static final int  READ_TIMEOUT      = (int)TimeUnit.MINUTES.toMillis(4);//necessary for some large projects. See IDEX-1957.
 
+    /** Suffix of name of file where md5 sums of project files are stored. File is stored next to the directory of project. */
+    private static final String MANIFEST_SUFFIX = ".md5sums";
+    /**
+     * Don't remember md5 sum of file that is modified less than this time before the md5 sum is counted. Such file may be modified again
+     * without visible changes of its size and modification date.
+     */
+    private static final long MANIFEST_RACY_TIME = TimeUnit.SECONDS.toMillis(2);
+    /** Prefix of name of temporary directory where updates of project are unzipped. */
+    private static final String UPDATES_PREFIX = ".updates-";
+    private static final int    UNZIP_PIPE_SIZE = 64 * 1024;
+
+    private static final Set<PosixFilePermission> WRITE_PERMISSIONS = EnumSet.of(PosixFilePermission.OWNER_WRITE,
+                                                                                  PosixFilePermission.GROUP_WRITE,
+                                                                                  PosixFilePermission.OTHERS_WRITE);
+
     public SourcesManagerImpl(java.io.File directory) {
+        this(directory, Collections.<String>emptyList());
+    }
+
+    /**
+     * @param directory
+     *         directory where sources of projects are stored
+     * @param writableFiles
+     *         glob patterns of paths, relative to the project, of files which builds modify in place, e.g. "package.json". Such files
+     *         are copied to work directory of build, other files are hard linked if possible
+     */
+    public SourcesManagerImpl(java.io.File directory, Collection<String> writableFiles) {
         this.directory = directory;
-        tasks = new ConcurrentHashMap<>();
-        projectKeyHolder = new AtomicReference<>();
+        this.writableFiles = new ArrayList<>(writableFiles.size());
+        for (String glob : writableFiles) {
+            this.writableFiles.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        }
+        locks = new ConcurrentHashMap<>();
         executor = Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder().setNameFormat(getClass().getSimpleName() + "-FileCleaner-%d").setDaemon(true).build());
+        unzipExecutor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat(getClass().getSimpleName() + "-Unzip-%d").setDaemon(true).build());
         listeners = new CopyOnWriteArraySet<>();
     }
 
@@ -90,6 +144,7 @@ public class SourcesManagerImpl implements SourcesManager {
     public void stop() { // TODO: guice must do this
         listeners.clear();
         executor.shutdown();
+        unzipExecutor.shutdownNow();
     }
 
     public void getSources(BuildLogger logger, BuilderConfiguration configuration) throws IOException {
@@ -103,75 +158,70 @@ public class SourcesManagerImpl implements SourcesManager {
         // Directory for sources. Keep sources to avoid download whole project before build.
         // This directory is not permanent and may be removed at any time.
         final java.io.File srcDir = new java.io.File(directory, workspace + java.io.File.separatorChar + project);
-        // Temporary directory where we copy sources before build.
-        final String key = workspace + project;
-        try {
-            synchronized (this) {
-                while (key.equals(projectKeyHolder.get())) {
-                    wait();
-                }
-            }
-        } catch (InterruptedException e) {
-            LOG.error(e.getMessage(), e);
-            Thread.currentThread().interrupt();
-        }
-        // Avoid multiple threads download source of the same project.
-        Future<Void> future = tasks.get(key);
-        final ValueHolder<IOException> errorHolder = new ValueHolder<>();
-        if (future == null) {
-            final FutureTask<Void> newFuture = new FutureTask<>(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        download(sourcesUrl, srcDir);
-                    } catch (IOException e) {
-                        LOG.error(e.getMessage(), e);
-                        errorHolder.set(e);
-                    }
-                }
-            }, null);
-            future = tasks.putIfAbsent(key, newFuture);
-            if (future == null) {
-                future = newFuture;
-                try {
-                    // Need a bit time before to publish sources download start message via websocket
-                    // as client may not have already subscribed to the channel so early in build task execution
-                    Thread.sleep(300);
-                } catch (InterruptedException e) {
-                    LOG.error(e.getMessage(), e);
-                }
-                logger.writeLine("[INFO] Injecting source code into builder...");
-                newFuture.run();
-                logger.writeLine("[INFO] Source code injection finished"
-                                 + "\n[INFO] ------------------------------------------------------------------------");
-            }
-        }
+        // Builds of the same project share this directory. Builds of different projects don't wait for each other.
+        final ReentrantLock lock = lockProject(getKey(workspace, project));
         try {
-            future.get(); // Block thread until download is completed.
-            final IOException ioError = errorHolder.get();
-            if (ioError != null) {
-                throw ioError;
+            logger.writeLine("[INFO] Injecting source code into builder...");
+            try {
+                download(sourcesUrl, srcDir);
+            } catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+                throw e;
             }
-            IoUtil.copy(srcDir, workDir, IoUtil.ANY_FILTER);
+            logger.writeLine("[INFO] Source code injection finished"
+                             + "\n[INFO] ------------------------------------------------------------------------");
+            materialize(srcDir, workDir);
+            writeSourcesManifest(srcDir, workDir);
             for (SourceManagerListener listener : listeners) {
                 listener.afterDownload(new SourceManagerEvent(workspace, project, sourcesUrl, workDir));
             }
             if (!srcDir.setLastModified(System.currentTimeMillis())) {
                 LOG.error("Unable update modification date of {} ", srcDir);
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-            // Runnable does not throw checked exceptions.
-            final Throwable cause = e.getCause();
-            if (cause instanceof Error) {
-                throw (Error)cause;
-            } else {
-                throw (RuntimeException)cause;
-            }
         } finally {
-            tasks.remove(key);
+            lock.unlock();
+        }
+    }
+
+    private static String getKey(String workspace, String project) {
+        return workspace + java.io.File.separatorChar + project;
+    }
+
+    /** Gets lock of project and acquires it. */
+    private ReentrantLock lockProject(String key) {
+        for (; ; ) {
+            final ReentrantLock lock = getLock(key);
+            lock.lock();
+            if (locks.get(key) == lock) {
+                return lock;
+            }
+            // Lock is removed by cleaner while we were waiting for it, get new one.
+            lock.unlock();
+        }
+    }
+
+    /** Gets lock of project and acquires it only if it isn't held by other thread. Returns {@code null} if lock isn't acquired. */
+    private ReentrantLock tryLockProject(String key) {
+        final ReentrantLock lock = getLock(key);
+        if (lock.tryLock()) {
+            if (locks.get(key) == lock) {
+                return lock;
+            }
+            lock.unlock();
         }
+        return null;
+    }
+
+    private ReentrantLock getLock(String key) {
+        ReentrantLock lock = locks.get(key);
+        if (lock == null) {
+            final ReentrantLock newLock = new ReentrantLock();
+            lock = locks.putIfAbsent(key, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
     }
 
     static final OutputStream DEV_NULL = new OutputStream() {
@@ -187,29 +237,12 @@ public class SourcesManagerImpl implements SourcesManager {
 
     private void download(String downloadUrl, java.io.File downloadTo) throws IOException {
         HttpURLConnection conn = null;
+        java.io.File updates = null;
         try {
-            final LinkedList<java.io.File> q = new LinkedList<>();
-            q.add(downloadTo);
-            final long start = System.currentTimeMillis();
-            final List<Pair<String, String>> md5sums = new LinkedList<>();
-            while (!q.isEmpty()) {
-                java.io.File current = q.pop();
-                java.io.File[] list = current.listFiles();
-                if (list != null) {
-                    for (java.io.File f : list) {
-                        if (f.isDirectory()) {
-                            q.push(f);
-                        } else {
-                            md5sums.add(Pair.of(com.google.common.io.Files.hash(f, Hashing.md5()).toString(),
-                                                downloadTo.toPath().relativize(f.toPath()).toString()
-                                                          .replace("\\", "/"))); //Replacing of "\" is need for windows support
-                        }
-                    }
-                }
-            }
-            final long end = System.currentTimeMillis();
-            if (md5sums.size() > 0) {
-                LOG.debug("count md5sums of {} files, time: {}ms", md5sums.size(), (end - start));
+            final java.io.File manifestFile = getManifestFile(downloadTo);
+            final List<FileHash> md5sums = hashSources(downloadTo, manifestFile);
+            if (!md5sums.isEmpty()) {
+                writeManifest(manifestFile, md5sums, true);
             }
             conn = (HttpURLConnection)new URL(downloadUrl).openConnection();
             conn.setConnectTimeout(CONNECT_TIMEOUT);
@@ -221,16 +254,21 @@ public class SourcesManagerImpl implements SourcesManager {
                 conn.setDoOutput(true);
                 try (OutputStream output = conn.getOutputStream();
                      Writer writer = new OutputStreamWriter(output)) {
-                    for (Pair<String, String> pair : md5sums) {
-                        writer.write(pair.first);
+                    for (FileHash hash : md5sums) {
+                        writer.write(hash.md5);
                         writer.write(' ');
-                        writer.write(pair.second);
+                        writer.write(hash.path);
                         writer.write('\n');
                     }
                 }
             }
             final int responseCode = conn.getResponseCode();
             if (responseCode == HttpURLConnection.HTTP_OK) {
+                // Updates are applied to the sources only when whole response is read. Broken response must not leave sources of
+                // project partly updated, next build sends md5 sums of such sources and doesn't get the rest of updates.
+                Files.createDirectories(directory.toPath());
+                updates = Files.createTempDirectory(directory.toPath(), UPDATES_PREFIX).toFile();
+                final List<String> removedPaths = new ArrayList<>();
                 final String contentType = conn.getHeaderField("content-type");
                 if (contentType.startsWith("multipart/form-data")) {
                     final HeaderParameterParser headerParameterParser = new HeaderParameterParser();
@@ -244,39 +282,12 @@ public class SourcesManagerImpl implements SourcesManager {
                             final List<String> contentDisposition = headers.get("content-disposition");
                             final String name = headerParameterParser.parse(contentDisposition.get(0)).get("name");
                             if ("updates".equals(name)) {
-                                int length = -1;
-                                List<String> contentLengthHeader = headers.get("content-length");
-                                if (contentLengthHeader != null && !contentLengthHeader.isEmpty()) {
-                                    length = Integer.parseInt(contentLengthHeader.get(0));
-                                }
-                                if (length < 0 || length > 204800) {
-                                    java.io.File tmp = java.io.File.createTempFile("tmp", ".zip", directory);
-                                    try {
-                                        try (FileOutputStream fOut = new FileOutputStream(tmp)) {
-                                            multipart.readBodyData(fOut);
-                                        }
-                                        ZipUtils.unzip(tmp, downloadTo);
-                                    } finally {
-                                        if (tmp.exists()) {
-                                            tmp.delete();
-                                        }
-                                    }
-                                } else {
-                                    final ByteArrayOutputStream bOut = new ByteArrayOutputStream(length);
-                                    multipart.readBodyData(bOut);
-                                    ZipUtils.unzip(new ByteArrayInputStream(bOut.toByteArray()), downloadTo);
-                                }
+                                unzip(multipart, updates);
                             } else if ("removed-paths".equals(name)) {
                                 final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
                                 multipart.readBodyData(bOut);
-                                final String[] removed =
-                                        JsonHelper.fromJson(new ByteArrayInputStream(bOut.toByteArray()), String[].class, null);
-                                for (String path : removed) {
-                                    java.io.File f = new java.io.File(downloadTo, path);
-                                    if (!f.delete()) {
-                                        throw new IOException(String.format("Unable delete %s", path));
-                                    }
-                                }
+                                Collections.addAll(removedPaths,
+                                                   JsonHelper.fromJson(new ByteArrayInputStream(bOut.toByteArray()), String[].class, null));
                             } else {
                                 // To /dev/null :)
                                 multipart.readBodyData(DEV_NULL);
@@ -286,9 +297,12 @@ public class SourcesManagerImpl implements SourcesManager {
                     }
                 } else {
                     try (InputStream in = conn.getInputStream()) {
-                        ZipUtils.unzip(in, downloadTo);
+                        ZipUtils.unzip(in, updates);
+                        // Read response till the end to be sure it isn't truncated.
+                        ByteStreams.copy(in, ByteStreams.nullOutputStream());
                     }
                 }
+                applyUpdates(updates, removedPaths, downloadTo);
             } else if (responseCode != HttpURLConnection.HTTP_NO_CONTENT) {
                 throw new IOException(String.format("Invalid response status %d from remote server. ", responseCode));
             }
@@ -298,6 +312,326 @@ public class SourcesManagerImpl implements SourcesManager {
             if (conn != null) {
                 conn.disconnect();
             }
+            if (updates != null) {
+                IoUtil.deleteRecursive(updates);
+            }
+        }
+    }
+
+    /**
+     * Unzips updated files while they are being read from the multipart stream. Body of multipart item is passed to the thread which
+     * unzips it through the pipe, so updates aren't stored in memory or in temporary file before unzipping.
+     */
+    private void unzip(MultipartStream multipart, final java.io.File target) throws IOException {
+        final PipedInputStream pipeIn = new PipedInputStream(UNZIP_PIPE_SIZE);
+        final PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+        final Future<Void> unzip = unzipExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try (InputStream in = pipeIn) {
+                    ZipUtils.unzip(in, target);
+                    // Zip stream may be not read till the end, e.g. central directory, but writer must not block.
+                    ByteStreams.copy(in, ByteStreams.nullOutputStream());
+                }
+                return null;
+            }
+        });
+        IOException writeError = null;
+        try (OutputStream out = pipeOut) {
+            multipart.readBodyData(out);
+        } catch (IOException e) {
+            // Pipe is closed if unzip is failed, get the reason of failure below.
+            writeError = e;
+        }
+        try {
+            unzip.get();
+        } catch (InterruptedException e) {
+            unzip.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    /**
+     * Applies fully downloaded updates to the {@code target} directory: deletes removed files and moves updated files from the {@code
+     * updates} directory. Existed files are replaced but not overwritten, so hard links to them from work directories of builds keep
+     * previous content of files.
+     */
+    private void applyUpdates(java.io.File updates, List<String> removedPaths, java.io.File target) throws IOException {
+        for (String path : removedPaths) {
+            java.io.File f = new java.io.File(target, path);
+            if (!f.delete()) {
+                throw new IOException(String.format("Unable delete %s", path));
+            }
+        }
+        final LinkedList<java.io.File> q = new LinkedList<>();
+        q.add(updates);
+        final java.nio.file.Path updatesPath = updates.toPath();
+        final java.nio.file.Path targetPath = target.toPath();
+        Files.createDirectories(targetPath);
+        while (!q.isEmpty()) {
+            final java.io.File[] list = q.pop().listFiles();
+            if (list != null) {
+                for (java.io.File f : list) {
+                    final java.nio.file.Path dest = targetPath.resolve(updatesPath.relativize(f.toPath()));
+                    if (f.isDirectory()) {
+                        Files.createDirectories(dest);
+                        q.push(f);
+                    } else {
+                        Files.move(f.toPath(), dest, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates copy of sources in work directory of build. Files are hard linked if file system supports it, otherwise they are copied.
+     * Files in directory of sources are never overwritten, see {@link #applyUpdates(java.io.File, List, java.io.File)}, and are made read-only
+     * before linking, so build can't change the shared copy, and md5 sums of it, by modifying its sources in place. Files which
+     * builds modify in place, see {@link #SourcesManagerImpl(java.io.File, Collection)}, are always copied.
+     */
+    // Switched to default for test.
+    // private
+    void materialize(java.io.File srcDir, java.io.File workDir) throws IOException {
+        if (!srcDir.isDirectory()) {
+            return;
+        }
+        final boolean link = isHardLinksSupported();
+        final LinkedList<java.io.File> q = new LinkedList<>();
+        q.add(srcDir);
+        final java.nio.file.Path srcPath = srcDir.toPath();
+        final java.nio.file.Path workPath = workDir.toPath();
+        while (!q.isEmpty()) {
+            final java.io.File[] list = q.pop().listFiles();
+            if (list != null) {
+                for (java.io.File f : list) {
+                    final java.nio.file.Path relative = srcPath.relativize(f.toPath());
+                    final java.nio.file.Path dest = workPath.resolve(relative);
+                    if (f.isDirectory()) {
+                        Files.createDirectories(dest);
+                        q.push(f);
+                    } else {
+                        if (link && !isWritableFile(relative)) {
+                            try {
+                                makeReadOnly(f.toPath());
+                                Files.createLink(dest, f.toPath());
+                                continue;
+                            } catch (FileSystemException e) {
+                                // May fail for single file, e.g. max number of links to file is reached, just copy such file.
+                                if (Files.exists(dest)) {
+                                    throw e;
+                                }
+                                LOG.debug("Unable create hard link to {}, file is copied. {}", f, e.getMessage());
+                            }
+                        }
+                        Files.copy(f.toPath(), dest, StandardCopyOption.COPY_ATTRIBUTES);
+                        // Source may be made read-only when it was linked to other build, but copy belongs to this build only.
+                        if (!dest.toFile().canWrite() && !dest.toFile().setWritable(true)) {
+                            LOG.warn("Unable make {} writable", dest);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isWritableFile(java.nio.file.Path relative) {
+        for (PathMatcher matcher : writableFiles) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void makeReadOnly(java.nio.file.Path file) throws IOException {
+        final Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(file);
+        if (permissions.removeAll(WRITE_PERMISSIONS)) {
+            Files.setPosixFilePermissions(file, permissions);
+        }
+    }
+
+    /**
+     * Checks once whether sources may be hard linked to work directories of builds. Links are used only if file system supports them
+     * and POSIX permissions, and read-only files aren't writable for user of this process, e.g. for root, otherwise build might change
+     * shared copy of sources through the link.
+     */
+    // Switched to default for test.
+    // private
+    boolean isHardLinksSupported() {
+        Boolean supported = hardLinks;
+        if (supported == null) {
+            supported = Boolean.FALSE;
+            java.nio.file.Path file = null;
+            java.nio.file.Path link = null;
+            try {
+                if (!(directory.exists() || directory.mkdirs())) {
+                    throw new IOException(String.format("Unable create directory %s", directory.getAbsolutePath()));
+                }
+                file = Files.createTempFile(directory.toPath(), ".link-test-", null);
+                makeReadOnly(file);
+                if (Files.isWritable(file)) {
+                    LOG.info("Read-only files are writable for current user, sources are copied to work directory of build");
+                } else {
+                    link = file.resolveSibling(file.getFileName() + ".link");
+                    Files.createLink(link, file);
+                    supported = Boolean.TRUE;
+                }
+            } catch (UnsupportedOperationException | IOException e) {
+                LOG.info("Hard links aren't supported, sources are copied to work directory of build. {}", e.getMessage());
+            } finally {
+                for (java.nio.file.Path path : new java.nio.file.Path[]{link, file}) {
+                    if (path != null && !path.toFile().delete() && path.toFile().exists()) {
+                        LOG.warn("Unable delete {}", path);
+                    }
+                }
+            }
+            hardLinks = supported;
+        }
+        return supported;
+    }
+
+    // Switched to default for test.
+    // private
+    static java.io.File getManifestFile(java.io.File srcDir) {
+        return new java.io.File(srcDir.getParentFile(), srcDir.getName() + MANIFEST_SUFFIX);
+    }
+
+    /**
+     * Counts md5 sums of all files in directory of sources. Md5 sums of files which are not changed since they were saved in manifest
+     * are not counted again.
+     */
+    private static List<FileHash> hashSources(java.io.File srcDir, java.io.File manifestFile) throws IOException {
+        final long start = System.currentTimeMillis();
+        final Map<String, FileHash> manifest = readManifest(manifestFile);
+        final List<FileHash> md5sums = new ArrayList<>();
+        int hashed = 0;
+        final LinkedList<java.io.File> q = new LinkedList<>();
+        q.add(srcDir);
+        while (!q.isEmpty()) {
+            java.io.File current = q.pop();
+            java.io.File[] list = current.listFiles();
+            if (list != null) {
+                for (java.io.File f : list) {
+                    if (f.isDirectory()) {
+                        q.push(f);
+                    } else {
+                        //Replacing of "\" is need for windows support
+                        final String path = srcDir.toPath().relativize(f.toPath()).toString().replace("\\", "/");
+                        final long size = f.length();
+                        final long lastModified = f.lastModified();
+                        FileHash hash = manifest.get(path);
+                        if (hash == null || hash.size != size || hash.lastModified != lastModified) {
+                            // Count md5 sum only for new or updated files.
+                            hash = new FileHash(com.google.common.io.Files.hash(f, Hashing.md5()).toString(), size, lastModified, path);
+                            hashed++;
+                        }
+                        md5sums.add(hash);
+                    }
+                }
+            }
+        }
+        final long end = System.currentTimeMillis();
+        if (md5sums.size() > 0) {
+            LOG.debug("count md5sums of {} files ({} files are re-hashed), time: {}ms", md5sums.size(), hashed, (end - start));
+        }
+        return md5sums;
+    }
+
+    /**
+     * Saves md5 sums of updated sources of project, so next build doesn't count them again, and md5 sums of sources in work directory
+     * of build, see {@link #getMd5sums(java.io.File)}.
+     */
+    // Switched to default for test.
+    // private
+    void writeSourcesManifest(java.io.File srcDir, java.io.File workDir) throws IOException {
+        if (!srcDir.isDirectory()) {
+            return;
+        }
+        final java.io.File manifestFile = getManifestFile(srcDir);
+        final List<FileHash> md5sums = hashSources(srcDir, manifestFile);
+        writeManifest(manifestFile, md5sums, true);
+        writeManifest(getManifestFile(workDir), md5sums, false);
+    }
+
+    /**
+     * Gets md5 sums of files in the work directory of build. Md5 sums which are counted when sources are copied to the work directory by
+     * this manager are reused for files which are not changed after that, md5 sums of other files are counted.
+     *
+     * @param workDir
+     *         work directory of build
+     * @return md5 sums of files sorted by path of file relative to the work directory
+     * @throws IOException
+     *         if an i/o error occurs while reading files
+     */
+    public static SortedMap<String, String> getMd5sums(java.io.File workDir) throws IOException {
+        final SortedMap<String, String> md5sums = new TreeMap<>();
+        for (FileHash hash : hashSources(workDir, getManifestFile(workDir))) {
+            md5sums.put(hash.path, hash.md5);
+        }
+        return md5sums;
+    }
+
+    /** Reads md5 sums of files which were counted before. Each line of manifest has format: md5 size lastModified path. */
+    private static Map<String, FileHash> readManifest(java.io.File manifestFile) {
+        final Map<String, FileHash> manifest = new HashMap<>();
+        if (manifestFile.isFile()) {
+            try {
+                for (String line : Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+                    final String[] parts = line.split(" ", 4);
+                    if (parts.length == 4) {
+                        manifest.put(parts[3], new FileHash(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Not critical, just count all md5 sums again.
+                LOG.warn("Unable read {}: {}", manifestFile, e.getMessage());
+                manifest.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes md5 sums of files to manifest. If {@code skipRacy} is {@code true} md5 sums of files which are modified just before
+     * writing are not saved, see {@link #MANIFEST_RACY_TIME}.
+     */
+    private void writeManifest(java.io.File manifestFile, List<FileHash> manifest, boolean skipRacy) {
+        final long racyTime = System.currentTimeMillis() - MANIFEST_RACY_TIME;
+        final List<String> lines = new ArrayList<>(manifest.size());
+        for (FileHash hash : manifest) {
+            if (!skipRacy || hash.lastModified < racyTime) {
+                lines.add(hash.md5 + ' ' + hash.size + ' ' + hash.lastModified + ' ' + hash.path);
+            }
+        }
+        try {
+            Files.write(manifestFile.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn("Unable write {}: {}", manifestFile, e.getMessage());
+        }
+    }
+
+    private static final class FileHash {
+        final String md5;
+        final long   size;
+        final long   lastModified;
+        final String path;
+
+        FileHash(String md5, long size, long lastModified, String path) {
+            this.md5 = md5;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.path = path;
         }
     }
 
@@ -347,31 +681,47 @@ public class SourcesManagerImpl implements SourcesManager {
      *
      * @return runnable task for scheduler
      */
-    private Runnable createSchedulerTask() {
+    // Switched to default for test.
+    // private
+    Runnable createSchedulerTask() {
         return new Runnable() {
             @Override
             public void run() {
                 //get list of workspaces
                 java.io.File[] workspaces = directory.listFiles();
+                if (workspaces == null) {
+                    return;
+                }
                 for (java.io.File workspace : workspaces) {
                     //get list of workspace projects
                     java.io.File[] projects = workspace.listFiles();
+                    if (projects == null || workspace.getName().startsWith(UPDATES_PREFIX)) {
+                        // Not a workspace directory, e.g. temporary file or updates of project which are being unzipped.
+                        continue;
+                    }
                     for (java.io.File project : projects) {
-                        String key = workspace.getName() + project.getName();
-                        //if project is not downloading
-                        if (tasks.get(key) == null) {
-                            projectKeyHolder.set(key);
+                        if (project.getName().endsWith(MANIFEST_SUFFIX)) {
+                            // Removed together with project.
+                            continue;
+                        }
+                        final String key = getKey(workspace.getName(), project.getName());
+                        // Skip project if it is in use at the moment.
+                        final ReentrantLock lock = tryLockProject(key);
+                        if (lock != null) {
                             try {
                                 final long lastModifiedMillis = project.lastModified();
                                 if ((System.currentTimeMillis() - lastModifiedMillis) >= KEEP_PROJECT_TIME) {
                                     IoUtil.deleteRecursive(project);
+                                    final java.io.File manifestFile = getManifestFile(project);
+                                    if (manifestFile.exists() && !manifestFile.delete()) {
+                                        LOG.warn("Unable delete {}", manifestFile);
+                                    }
                                     LOG.debug("Remove project {} that is unused since {}", project, lastModifiedMillis);
                                 }
+                                // Don't keep locks of projects which aren't in use. Lock is created again when it's needed.
+                                locks.remove(key, lock);
                             } finally {
-                                projectKeyHolder.set(null);
-                                synchronized (SourcesManagerImpl.this) {
-                                    SourcesManagerImpl.this.notify();
-                                }
+                                lock.unlock();
                             }
                         }
                     }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import org.eclipse.che.api.builder.dto.BuilderDescriptor;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BuilderSlotsTest {
+    private BuilderSlots  slots;
+    private RemoteBuilder builder;
+    private AtomicInteger released;
+
+    @BeforeMethod
+    public void setUp() {
+        released = new AtomicInteger();
+        slots = new BuilderSlots(new Runnable() {
+            @Override
+            public void run() {
+                released.incrementAndGet();
+            }
+        });
+        builder = new RemoteBuilder("http://localhost:8080/builder/internal/builder",
+                                    DtoFactory.getInstance().createDto(BuilderDescriptor.class).withName("my"),
+                                    Collections.<Link>emptyList());
+        slots.add(builder);
+    }
+
+    @Test
+    public void testNoSlotsUntilUpdate() {
+        Assert.assertEquals(slots.getFree(builder), 0);
+        Assert.assertFalse(slots.tryAcquire(builder));
+    }
+
+    @Test
+    public void testAcquireAndRelease() {
+        slots.update(builder, 2, 2);
+        Assert.assertTrue(slots.tryAcquire(builder));
+        slots.assign(1L, builder);
+        Assert.assertTrue(slots.tryAcquire(builder));
+        slots.assign(2L, builder);
+        Assert.assertFalse(slots.tryAcquire(builder));
+        slots.release(1L);
+        Assert.assertEquals(slots.getFree(builder), 1);
+        // Second event about the same task must not give one more slot.
+        slots.release(1L);
+        Assert.assertEquals(slots.getFree(builder), 1);
+        Assert.assertTrue(slots.tryAcquire(builder));
+    }
+
+    @Test
+    public void testReleaseDoesNotExceedCapacity() {
+        slots.update(builder, 1, 1);
+        Assert.assertTrue(slots.tryAcquire(builder));
+        slots.assign(1L, builder);
+        // State of builder is checked before event about end of task is delivered.
+        slots.update(builder, 1, 1);
+        slots.release(1L);
+        Assert.assertEquals(slots.getFree(builder), 1);
+    }
+
+    @Test
+    public void testForget() {
+        slots.update(builder, 1, 1);
+        Assert.assertTrue(slots.tryAcquire(builder));
+        slots.assign(1L, builder);
+        slots.forget(1L);
+        slots.release(1L);
+        Assert.assertEquals(slots.getFree(builder), 0);
+    }
+
+    @Test
+    public void testReleaseNotifiesListener() {
+        slots.update(builder, 1, 0);
+        Assert.assertEquals(released.get(), 0);
+        slots.update(builder, 1, 1);
+        Assert.assertEquals(released.get(), 1);
+        Assert.assertTrue(slots.tryAcquire(builder));
+        slots.assign(1L, builder);
+        slots.release(1L);
+        Assert.assertEquals(released.get(), 2);
+    }
+}
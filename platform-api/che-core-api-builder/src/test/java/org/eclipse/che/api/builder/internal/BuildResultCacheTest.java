@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class BuildResultCacheTest {
+    private File             root;
+    private File             workDir;
+    private BuildResultCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("build-cache-test").toFile();
+        workDir = new File(root, "work");
+        Assert.assertTrue(workDir.mkdirs());
+        cache = new BuildResultCache(new File(root, "cache"), 150);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        final File artifact = createFile(workDir, "target/app.war", "application");
+        final File report = createFile(workDir, "target/report.txt", "report");
+        cache.put("key", workDir, new BuildResult(true, Arrays.asList(artifact), report));
+
+        final File otherWorkDir = new File(root, "other");
+        final BuildResult result = cache.get("key", otherWorkDir);
+        Assert.assertNotNull(result);
+        Assert.assertTrue(result.isSuccessful());
+        Assert.assertEquals(result.getResults(), Arrays.asList(new File(otherWorkDir, "target/app.war")));
+        Assert.assertEquals(readFile(result.getResults().get(0)), "application");
+        Assert.assertEquals(result.getBuildReport(), new File(otherWorkDir, "target/report.txt"));
+        Assert.assertEquals(readFile(result.getBuildReport()), "report");
+    }
+
+    @Test
+    public void testNoPartialResultIfRestoreFailed() throws Exception {
+        final File artifact1 = createFile(workDir, "target/app1.war", "application1");
+        final File artifact2 = createFile(workDir, "target/app2.war", "application2");
+        cache.put("key", workDir, new BuildResult(true, Arrays.asList(artifact1, artifact2)));
+        // Emulate entry that is partially removed, e.g. by other slave-builder.
+        Assert.assertTrue(new File(cache.getDirectory(), "key/files/target/app2.war").delete());
+
+        final File otherWorkDir = new File(root, "other");
+        Assert.assertTrue(otherWorkDir.mkdirs());
+        try {
+            cache.get("key", otherWorkDir);
+            Assert.fail("IOException expected");
+        } catch (IOException ignored) {
+        }
+        Assert.assertEquals(otherWorkDir.list().length, 0, Arrays.toString(otherWorkDir.list()));
+    }
+
+    @Test
+    public void testMiss() throws Exception {
+        Assert.assertNull(cache.get("key", workDir));
+    }
+
+    @Test
+    public void testSkipArtifactOutsideWorkDir() throws Exception {
+        final File artifact = createFile(root, "app.war", "application");
+        cache.put("key", workDir, new BuildResult(true, Collections.singletonList(artifact)));
+        Assert.assertNull(cache.get("key", workDir));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        final File artifact = createFile(workDir, "app.war", new String(new char[40]));
+        final BuildResult result = new BuildResult(true, Collections.singletonList(artifact));
+        cache.put("key1", workDir, result);
+        cache.put("key2", workDir, result);
+        // Entry 'key2' is used least recently.
+        new File(cache.getDirectory(), "key2").setLastModified(System.currentTimeMillis() - 10000);
+        Assert.assertNotNull(cache.get("key1", new File(root, "other")));
+        cache.put("key3", workDir, result);
+        Assert.assertTrue(cache.getSize() <= 150);
+        Assert.assertNull(cache.get("key2", workDir));
+        Assert.assertNotNull(cache.get("key1", new File(root, "other")));
+        Assert.assertNotNull(cache.get("key3", new File(root, "other")));
+    }
+
+    private File createFile(File parent, String path, String content) throws Exception {
+        final File file = new File(parent, path);
+        Assert.assertTrue(file.getParentFile().exists() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String readFile(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class SourcesManagerImplTest {
+    private static final String BOUNDARY = "sources-manager-test";
+
+    private File               root;
+    private SourcesManagerImpl sourcesManager;
+    private HttpServer         server;
+    private ExecutorService    serverExecutor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("sources-manager-test").toFile();
+        sourcesManager = new SourcesManagerImpl(new File(root, "sources"));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+        sourcesManager.stop();
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testMaterialize() throws Exception {
+        final File srcDir = new File(root, "sources/my_ws/my_project");
+        final File pom = createFile(srcDir, "pom.xml", "<project/>");
+        final File java = createFile(srcDir, "src/main/java/Test.java", "class Test {}");
+        final File workDir = new File(root, "build/my_project");
+        Assert.assertTrue(workDir.mkdirs());
+
+        sourcesManager.materialize(srcDir, workDir);
+
+        final File workPom = new File(workDir, "pom.xml");
+        final File workJava = new File(workDir, "src/main/java/Test.java");
+        Assert.assertEquals(readFile(workPom), "<project/>");
+        Assert.assertEquals(readFile(workJava), "class Test {}");
+        // Files on the same file system are hard linked if shared copy may be protected from changes.
+        Assert.assertEquals(Files.isSameFile(pom.toPath(), workPom.toPath()), sourcesManager.isHardLinksSupported());
+        Assert.assertEquals(Files.isSameFile(java.toPath(), workJava.toPath()), sourcesManager.isHardLinksSupported());
+    }
+
+    @Test
+    public void testBuildDoesNotModifySharedSources() throws Exception {
+        final File srcDir = new File(root, "sources/my_ws/my_project");
+        final File java = createFile(srcDir, "src/main/java/Test.java", "class Test {}");
+        final File workDir = new File(root, "build/my_project");
+        Assert.assertTrue(workDir.mkdirs());
+
+        sourcesManager.materialize(srcDir, workDir);
+
+        final File workJava = new File(workDir, "src/main/java/Test.java");
+        if (sourcesManager.isHardLinksSupported()) {
+            // Linked file is read-only.
+            Assert.assertFalse(Files.isWritable(workJava.toPath()));
+            Assert.assertFalse(Files.isWritable(java.toPath()));
+        } else {
+            Files.write(workJava.toPath(), "class Modified {}".getBytes(StandardCharsets.UTF_8));
+            Assert.assertEquals(readFile(workJava), "class Modified {}");
+        }
+        Assert.assertEquals(readFile(java), "class Test {}");
+    }
+
+    @Test
+    public void testCopyWritableFiles() throws Exception {
+        sourcesManager.stop();
+        sourcesManager = new SourcesManagerImpl(new File(root, "sources"), Arrays.asList("package.json", "**/*.properties"));
+        final File srcDir = new File(root, "sources/my_ws/my_project");
+        final File json = createFile(srcDir, "package.json", "{}");
+        final File properties = createFile(srcDir, "src/main/resources/app.properties", "a=b");
+        final File java = createFile(srcDir, "src/main/java/Test.java", "class Test {}");
+        final File workDir = new File(root, "build/my_project");
+        Assert.assertTrue(workDir.mkdirs());
+
+        sourcesManager.materialize(srcDir, workDir);
+
+        final File workJson = new File(workDir, "package.json");
+        final File workProperties = new File(workDir, "src/main/resources/app.properties");
+        Assert.assertFalse(Files.isSameFile(json.toPath(), workJson.toPath()));
+        Assert.assertFalse(Files.isSameFile(properties.toPath(), workProperties.toPath()));
+        Assert.assertEquals(Files.isSameFile(java.toPath(), new File(workDir, "src/main/java/Test.java").toPath()),
+                            sourcesManager.isHardLinksSupported());
+        Files.write(workJson.toPath(), "{\"a\":\"b\"}".getBytes(StandardCharsets.UTF_8));
+        Files.write(workProperties.toPath(), "a=c".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(readFile(json), "{}");
+        Assert.assertEquals(readFile(properties), "a=b");
+    }
+
+    @Test
+    public void testMd5sumsOfWorkDirectory() throws Exception {
+        final File srcDir = new File(root, "sources/my_ws/my_project");
+        createFile(srcDir, "pom.xml", "<project/>");
+        createFile(srcDir, "src/main/java/Test.java", "class Test {}");
+        final File workDir = new File(root, "build/my_project");
+        Assert.assertTrue(workDir.mkdirs());
+
+        sourcesManager.materialize(srcDir, workDir);
+        sourcesManager.writeSourcesManifest(srcDir, workDir);
+
+        Assert.assertTrue(SourcesManagerImpl.getManifestFile(srcDir).isFile());
+        Assert.assertTrue(SourcesManagerImpl.getManifestFile(workDir).isFile());
+        final Map<String, String> expected = new TreeMap<>();
+        expected.put("pom.xml", md5("<project/>"));
+        expected.put("src/main/java/Test.java", md5("class Test {}"));
+        Assert.assertEquals(SourcesManagerImpl.getMd5sums(workDir), expected);
+
+        // Files which are changed after sources are copied to work directory, e.g. by listeners of SourcesManager, are hashed again.
+        final File workPom = new File(workDir, "pom.xml");
+        Assert.assertTrue(workPom.delete());
+        createFile(workDir, "pom.xml", "<project>modified</project>");
+        createFile(workDir, "README", "readme");
+        expected.put("pom.xml", md5("<project>modified</project>"));
+        expected.put("README", md5("readme"));
+        Assert.assertEquals(SourcesManagerImpl.getMd5sums(workDir), expected);
+    }
+
+    @Test
+    public void testManifestFile() {
+        final File srcDir = new File(root, "sources/my_ws/my_project");
+        Assert.assertEquals(SourcesManagerImpl.getManifestFile(srcDir), new File(root, "sources/my_ws/my_project.md5sums"));
+    }
+
+    @Test
+    public void testDownloadsOfTheSameProjectAreSerialized() throws Exception {
+        final AtomicInteger inProgress = new AtomicInteger();
+        final AtomicBoolean concurrent = new AtomicBoolean();
+        final String url = startServer(new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (inProgress.incrementAndGet() > 1) {
+                    concurrent.set(true);
+                }
+                try {
+                    Thread.sleep(200);
+                    sendZip(exchange, zip("pom.xml", "<project/>"));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inProgress.decrementAndGet();
+                }
+            }
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<File>> builds = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                final File workDir = new File(root, "build/my_project_" + i);
+                builds.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        Assert.assertTrue(workDir.mkdirs());
+                        sourcesManager.getSources(BuildLogger.DUMMY, "my_ws", "my_project", url, workDir);
+                        return workDir;
+                    }
+                }));
+            }
+            for (Future<File> build : builds) {
+                Assert.assertEquals(readFile(new File(build.get(), "pom.xml")), "<project/>");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertFalse(concurrent.get());
+    }
+
+    @Test
+    public void testLockOfProjectIsRemovedWhenProjectIsNotInUse() throws Exception {
+        final String url = startServer(new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                sendZip(exchange, zip("pom.xml", "<project/>"));
+            }
+        });
+        final File workDir = new File(root, "build/my_project");
+        Assert.assertTrue(workDir.mkdirs());
+        sourcesManager.getSources(BuildLogger.DUMMY, "my_ws", "my_project", url, workDir);
+        final String key = "my_ws" + File.separatorChar + "my_project";
+        final ReentrantLock lock = sourcesManager.locks.get(key);
+        Assert.assertNotNull(lock);
+        Assert.assertFalse(lock.isLocked());
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Lock of project which is in use is kept.
+            lock.lock();
+            try {
+                executor.submit(sourcesManager.createSchedulerTask()).get();
+            } finally {
+                lock.unlock();
+            }
+            Assert.assertSame(sourcesManager.locks.get(key), lock);
+
+            executor.submit(sourcesManager.createSchedulerTask()).get();
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertTrue(sourcesManager.locks.isEmpty());
+        // Sources are kept until they are expired.
+        Assert.assertTrue(new File(root, "sources/my_ws/my_project/pom.xml").isFile());
+
+        final File workDir2 = new File(root, "build/my_project_2");
+        Assert.assertTrue(workDir2.mkdirs());
+        sourcesManager.getSources(BuildLogger.DUMMY, "my_ws", "my_project", url, workDir2);
+        Assert.assertEquals(readFile(new File(workDir2, "pom.xml")), "<project/>");
+    }
+
+    @Test
+    public void testTruncatedUpdatesAreNotApplied() throws Exception {
+        final File srcDir = new File(root, "sources/my_ws/my_project");
+        createFile(srcDir, "pom.xml", "<project/>");
+        createFile(srcDir, "README", "readme");
+        final String url = startServer(new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try (InputStream in = exchange.getRequestBody()) {
+                    ByteStreams.copy(in, ByteStreams.nullOutputStream());
+                }
+                exchange.getResponseHeaders().add("Content-Type", "multipart/form-data; boundary=" + BOUNDARY);
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    writePart(out, "updates", zip("pom.xml", "<project>modified</project>", "src/main/java/Test.java", "class Test {}"));
+                    // Response ends before body of the next part and the final boundary.
+                    out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"removed-paths\"\r\n\r\n[\"REA")
+                                      .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+        final File workDir = new File(root, "build/my_project");
+        Assert.assertTrue(workDir.mkdirs());
+
+        try {
+            sourcesManager.getSources(BuildLogger.DUMMY, "my_ws", "my_project", url, workDir);
+            Assert.fail("IOException is expected");
+        } catch (IOException expected) {
+        }
+
+        Assert.assertEquals(readFile(new File(srcDir, "pom.xml")), "<project/>");
+        Assert.assertEquals(readFile(new File(srcDir, "README")), "readme");
+        Assert.assertFalse(new File(srcDir, "src").exists());
+        Assert.assertEquals(workDir.list().length, 0);
+        // Temporary directory with updates is removed.
+        Assert.assertEquals(new File(root, "sources").list(), new String[]{"my_ws"});
+    }
+
+    @Test
+    public void testMultipartUpdatesAreApplied() throws Exception {
+        final File srcDir = new File(root, "sources/my_ws/my_project");
+        createFile(srcDir, "pom.xml", "<project/>");
+        createFile(srcDir, "README", "readme");
+        final String url = startServer(new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try (InputStream in = exchange.getRequestBody()) {
+                    ByteStreams.copy(in, ByteStreams.nullOutputStream());
+                }
+                exchange.getResponseHeaders().add("Content-Type", "multipart/form-data; boundary=" + BOUNDARY);
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    writePart(out, "updates", zip("pom.xml", "<project>modified</project>", "src/main/java/Test.java", "class Test {}"));
+                    writePart(out, "removed-paths", "[\"README\"]".getBytes(StandardCharsets.UTF_8));
+                    out.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+        final File workDir = new File(root, "build/my_project");
+        Assert.assertTrue(workDir.mkdirs());
+
+        sourcesManager.getSources(BuildLogger.DUMMY, "my_ws", "my_project", url, workDir);
+
+        Assert.assertEquals(readFile(new File(workDir, "pom.xml")), "<project>modified</project>");
+        Assert.assertEquals(readFile(new File(workDir, "src/main/java/Test.java")), "class Test {}");
+        Assert.assertFalse(new File(workDir, "README").exists());
+        Assert.assertFalse(new File(srcDir, "README").exists());
+    }
+
+    private String startServer(HttpHandler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/sources", handler);
+        // Requests are handled concurrently.
+        server.setExecutor(serverExecutor = Executors.newCachedThreadPool());
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/sources";
+    }
+
+    private void sendZip(HttpExchange exchange, byte[] zip) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteStreams.copy(in, ByteStreams.nullOutputStream());
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/zip");
+        exchange.sendResponseHeaders(200, zip.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(zip);
+        }
+    }
+
+    private void writePart(OutputStream out, String name, byte[] body) throws IOException {
+        out.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n")
+                          .getBytes(StandardCharsets.UTF_8));
+        out.write(body);
+        out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Creates zip from pairs of path and content of file. */
+    private byte[] zip(String... entries) throws IOException {
+        final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(bOut)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zipOut.putNextEntry(new ZipEntry(entries[i]));
+                zipOut.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zipOut.closeEntry();
+            }
+        }
+        return bOut.toByteArray();
+    }
+
+    private File createFile(File parent, String path, String content) throws Exception {
+        final File file = new File(parent, path);
+        Assert.assertTrue(file.getParentFile().exists() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String md5(String content) {
+        return Hashing.md5().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    private String readFile(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Options of asynchronous delivery of events to subscriber, see {@link EventService#subscribe(EventSubscriber, AsyncDeliveryOptions)}.
+ * <p/>
+ * Events for subscriber are put in bounded queues and delivered by executor. Events of the same channel are always delivered in
+ * the same order as they are published. Events of different channels may be delivered concurrently if number of lanes is more
+ * than one. By default all events belong to the single channel, so all events are delivered in order of publishing.
+ */
+public class AsyncDeliveryOptions {
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    /** What to do when queue of subscriber is full. */
+    public enum Backpressure {
+        /** Publisher waits until subscriber takes event from the queue. Events are never lost. */
+        BLOCK,
+        /** The oldest not delivered event is dropped to free place for new one. Publisher never waits. */
+        DROP_OLDEST,
+        /**
+         * New event replaces not delivered event of the same channel, so subscriber gets only the latest state of channel. If queue
+         * is full and there is no event of the same channel in the queue, or event has no channel, publisher waits like with
+         * {@link #BLOCK}.
+         */
+        COALESCE
+    }
+
+    /** Determines channel of event. Events of the same channel are delivered to subscriber in order of publishing. */
+    public interface ChannelResolver {
+        /** Gets channel of event or {@code null} if event has no channel. Channel must have correct equals and hashCode. */
+        Object getChannel(Object event);
+    }
+
+    private int             queueSize    = DEFAULT_QUEUE_SIZE;
+    private Backpressure    backpressure = Backpressure.BLOCK;
+    private int             lanes        = 1;
+    private ChannelResolver channelResolver;
+    private Executor        executor;
+
+    /** Gets max number of not delivered events in each lane. */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public AsyncDeliveryOptions setQueueSize(int queueSize) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("Queue size must be positive. ");
+        }
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    public AsyncDeliveryOptions setBackpressure(Backpressure backpressure) {
+        if (backpressure == null) {
+            throw new IllegalArgumentException("Null backpressure policy. ");
+        }
+        this.backpressure = backpressure;
+        return this;
+    }
+
+    /**
+     * Gets max number of events that may be delivered to subscriber concurrently. Each channel is bound to one lane. Events without
+     * channel are delivered in the first lane.
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    public AsyncDeliveryOptions setLanes(int lanes) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("Number of lanes must be positive. ");
+        }
+        this.lanes = lanes;
+        return this;
+    }
+
+    public ChannelResolver getChannelResolver() {
+        return channelResolver;
+    }
+
+    public AsyncDeliveryOptions setChannelResolver(ChannelResolver channelResolver) {
+        this.channelResolver = channelResolver;
+        return this;
+    }
+
+    /** Gets executor that delivers events to subscriber. If executor is not set shared executor of EventService is used. */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public AsyncDeliveryOptions setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+}
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Subscription with asynchronous delivery of events. Instance of this class is returned by {@link
+ * EventService#subscribe(EventSubscriber, AsyncDeliveryOptions)} and provides statistic of delivery.
+ * <p/>
+ * Each lane is a bounded queue which is drained by one task at a time, so events of the same lane are delivered in order of
+ * publishing. Thread of executor is not occupied while lane is empty.
+ *
+ * @see AsyncDeliveryOptions
+ */
+public final class AsyncSubscription {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncSubscription.class);
+
+    /** Max number of events delivered by one task, after that thread of executor is released for other lanes. */
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    private final EventSubscriber                      subscriber;
+    private final AsyncDeliveryOptions.Backpressure    backpressure;
+    private final AsyncDeliveryOptions.ChannelResolver channelResolver;
+    private final Executor                             executor;
+    private final Lane[]                               lanes;
+    private final AtomicLong                           deliveredEvents;
+    private final AtomicLong                           droppedEvents;
+    private final AtomicLong                           coalescedEvents;
+    private final AtomicLong                           totalLatency;
+    private final AtomicLong                           maxLatency;
+
+    /** Subscriber that is registered in EventService instead of real one. */
+    final EventSubscriber<Object> dispatcher;
+
+    private volatile boolean cancelled;
+
+    AsyncSubscription(EventSubscriber<?> subscriber, AsyncDeliveryOptions options, Executor executor) {
+        this.subscriber = subscriber;
+        this.backpressure = options.getBackpressure();
+        this.channelResolver = options.getChannelResolver();
+        this.executor = executor;
+        lanes = new Lane[options.getLanes()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(options.getQueueSize());
+        }
+        deliveredEvents = new AtomicLong();
+        droppedEvents = new AtomicLong();
+        coalescedEvents = new AtomicLong();
+        totalLatency = new AtomicLong();
+        maxLatency = new AtomicLong();
+        dispatcher = new EventSubscriber<Object>() {
+            @Override
+            public void onEvent(Object event) {
+                dispatch(event);
+            }
+        };
+    }
+
+    /** Gets subscriber which gets events through this subscription. */
+    public EventSubscriber<?> getSubscriber() {
+        return subscriber;
+    }
+
+    /** Gets number of events which are waiting for delivery. */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.size();
+        }
+        return depth;
+    }
+
+    /** Gets number of events delivered to subscriber. */
+    public long getDeliveredEvents() {
+        return deliveredEvents.get();
+    }
+
+    /** Gets number of events which are dropped because queue is full or subscription is cancelled. */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /** Gets number of events which are replaced by newer events of the same channel. */
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    /** Gets average time between publishing of event and start of its delivery to subscriber. */
+    public long getAverageDispatchLatency(TimeUnit unit) {
+        final long delivered = deliveredEvents.get();
+        return delivered == 0 ? 0 : unit.convert(totalLatency.get() / delivered, TimeUnit.NANOSECONDS);
+    }
+
+    /** Gets max time between publishing of event and start of its delivery to subscriber. */
+    public long getMaxDispatchLatency(TimeUnit unit) {
+        return unit.convert(maxLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void dispatch(Object event) {
+        if (cancelled) {
+            droppedEvents.incrementAndGet();
+            return;
+        }
+        final Object channel = channelResolver == null ? null : channelResolver.getChannel(event);
+        final Lane lane = lanes.length == 1 || channel == null ? lanes[0]
+                                                               : lanes[(channel.hashCode() & Integer.MAX_VALUE) % lanes.length];
+        lane.offer(channel, event);
+    }
+
+    /** Stops delivery of events. Not delivered events are dropped, publishers that wait for free space in queue are released. */
+    void cancel() {
+        cancelled = true;
+        for (Lane lane : lanes) {
+            lane.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Envelope envelope) {
+        final long latency = System.nanoTime() - envelope.created;
+        totalLatency.addAndGet(latency);
+        long max;
+        while (latency > (max = maxLatency.get()) && !maxLatency.compareAndSet(max, latency)) {
+            // Retry until max value is updated or other thread sets greater value.
+        }
+        deliveredEvents.incrementAndGet();
+        try {
+            subscriber.onEvent(envelope.event);
+        } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    private static final class Envelope {
+        final Object channel;
+        final long   created;
+        /** Event may be replaced by newer event of the same channel while envelope is in the queue. Guarded by lock of lane. */
+        Object event;
+
+        Envelope(Object channel, Object event) {
+            this.channel = channel;
+            this.event = event;
+            created = System.nanoTime();
+        }
+    }
+
+    private final class Lane implements Runnable {
+        final int                   capacity;
+        final ReentrantLock         lock;
+        final Condition             notFull;
+        final ArrayDeque<Envelope>  queue;
+        /** Not delivered events by channel, used for coalescing only. */
+        final Map<Object, Envelope> pendingByChannel;
+
+        boolean scheduled;
+
+        Lane(int capacity) {
+            this.capacity = capacity;
+            lock = new ReentrantLock();
+            notFull = lock.newCondition();
+            queue = new ArrayDeque<>();
+            pendingByChannel = backpressure == AsyncDeliveryOptions.Backpressure.COALESCE ? new HashMap<Object, Envelope>() : null;
+        }
+
+        void offer(Object channel, Object event) {
+            boolean schedule = false;
+            lock.lock();
+            try {
+                if (pendingByChannel != null && channel != null) {
+                    final Envelope pending = pendingByChannel.get(channel);
+                    if (pending != null) {
+                        pending.event = event;
+                        coalescedEvents.incrementAndGet();
+                        return;
+                    }
+                }
+                while (queue.size() >= capacity && !cancelled) {
+                    if (backpressure == AsyncDeliveryOptions.Backpressure.DROP_OLDEST) {
+                        remove(queue.poll());
+                        droppedEvents.incrementAndGet();
+                    } else {
+                        try {
+                            notFull.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            droppedEvents.incrementAndGet();
+                            return;
+                        }
+                    }
+                }
+                if (cancelled) {
+                    droppedEvents.incrementAndGet();
+                    return;
+                }
+                final Envelope envelope = new Envelope(channel, event);
+                queue.add(envelope);
+                if (pendingByChannel != null && channel != null) {
+                    pendingByChannel.put(channel, envelope);
+                }
+                if (!scheduled) {
+                    scheduled = true;
+                    schedule = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (schedule) {
+                schedule();
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < DRAIN_BATCH_SIZE; i++) {
+                final Envelope envelope;
+                lock.lock();
+                try {
+                    envelope = queue.poll();
+                    if (envelope == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    remove(envelope);
+                    notFull.signal();
+                } finally {
+                    lock.unlock();
+                }
+                deliver(envelope);
+            }
+            // Continue in the next task to let other lanes use thread of executor.
+            schedule();
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                droppedEvents.addAndGet(queue.size());
+                queue.clear();
+                if (pendingByChannel != null) {
+                    pendingByChannel.clear();
+                }
+                scheduled = false;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                LOG.error("Unable deliver events to {}, executor rejects task. ", subscriber);
+                clear();
+            }
+        }
+
+        private void remove(Envelope envelope) {
+            if (pendingByChannel != null && envelope.channel != null) {
+                pendingByChannel.remove(envelope.channel);
+            }
+        }
+    }
+}
@@ -10,23 +10,26 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.notification;
 
-import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.LoadingValueSLRUCache;
-import org.eclipse.che.commons.lang.cache.SynchronizedCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +43,9 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * By default subscribers get events synchronously in the thread that publishes event. Subscriber that may be slow, e.g. one
+ * that sends events over network, may be subscribed with {@link #subscribe(EventSubscriber, AsyncDeliveryOptions)} to get
+ * events asynchronously.
  *
  * @author andrew00x
  */
@@ -47,40 +53,32 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public class EventService {
     private static final Logger LOG = LoggerFactory.getLogger(EventService.class);
 
-    private static final int CACHE_NUM  = 1 << 2;
-    private static final int CACHE_MASK = CACHE_NUM - 1;
-    private static final int SEG_SIZE   = 32;
+    /** Max number of event classes in dispatch table. Table is reset when this limit is reached. */
+    private static final int MAX_DISPATCH_TABLE_SIZE = 1 << 10;
 
-    private final Cache<Class<?>, Set<Class<?>>>[]              typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    private static final EventSubscriber[] NO_SUBSCRIBERS = new EventSubscriber[0];
+
+    /** Subscribers by type of events which they are subscribed for. Guarded by this. */
+    private final Map<Class<?>, Set<EventSubscriber>>               subscribersByEventType;
+    /** Hierarchy of types of each class in dispatch table. Guarded by this. */
+    private final Map<Class<?>, Class<?>[]>                         typeHierarchies;
+    private final ConcurrentMap<EventSubscriber, AsyncSubscription> asyncSubscriptions;
+
+    /**
+     * Maps class of event to all subscribers that get it, including subscribers of super classes and interfaces. Map and
+     * arrays are never modified, new map is built each time when set of subscribers is changed or new class of event is
+     * published first time. Building is guarded by this.
+     */
+    private volatile Map<Class<?>, EventSubscriber[]> dispatchTable;
+
+    private ExecutorService asyncExecutor;
+    private boolean         stopped;
 
-    @SuppressWarnings("unchecked")
     public EventService() {
-        subscribersByEventType = new ConcurrentHashMap<>();
-        typeCache = new Cache[CACHE_NUM];
-        for (int i = 0; i < CACHE_NUM; i++) {
-            typeCache[i] = new SynchronizedCache<>(new LoadingValueSLRUCache<Class<?>, Set<Class<?>>>(SEG_SIZE, SEG_SIZE) {
-                @Override
-                protected Set<Class<?>> loadValue(Class<?> eventClass) throws RuntimeException {
-                    LinkedList<Class<?>> parents = new LinkedList<>();
-                    Set<Class<?>> classes = new HashSet<>();
-                    parents.add(eventClass);
-                    while (!parents.isEmpty()) {
-                        Class<?> clazz = parents.pop();
-                        classes.add(clazz);
-                        Class<?> parent = clazz.getSuperclass();
-                        if (parent != null) {
-                            parents.add(parent);
-                        }
-                        Class<?>[] interfaces = clazz.getInterfaces();
-                        if (interfaces.length > 0) {
-                            Collections.addAll(parents, interfaces);
-                        }
-                    }
-                    return classes;
-                }
-            });
-        }
+        subscribersByEventType = new HashMap<>();
+        typeHierarchies = new HashMap<>();
+        asyncSubscriptions = new ConcurrentHashMap<>();
+        dispatchTable = Collections.emptyMap();
     }
 
     /**
@@ -95,16 +93,15 @@ public class EventService {
             throw new IllegalArgumentException("Null event.");
         }
         final Class<?> eventClass = event.getClass();
-        for (Class<?> clazz : typeCache[eventClass.hashCode() & CACHE_MASK].get(eventClass)) {
-            final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
-            if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
-                for (EventSubscriber eventSubscriber : eventSubscribers) {
-                    try {
-                        eventSubscriber.onEvent(event);
-                    } catch (RuntimeException e) {
-                        LOG.error(e.getMessage(), e);
-                    }
-                }
+        EventSubscriber[] eventSubscribers = dispatchTable.get(eventClass);
+        if (eventSubscribers == null) {
+            eventSubscribers = addDispatchEntry(eventClass);
+        }
+        for (EventSubscriber eventSubscriber : eventSubscribers) {
+            try {
+                eventSubscriber.onEvent(event);
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
             }
         }
     }
@@ -116,16 +113,43 @@ public class EventService {
      *         event subscriber
      */
     public void subscribe(EventSubscriber<?> subscriber) {
+        doSubscribe(getEventType(subscriber), subscriber);
+    }
+
+    /**
+     * Subscribe event listener that gets events asynchronously. Method {@link #publish(Object)} puts event in queue of such
+     * subscriber and returns without waiting for delivery, unless queue is full and backpressure policy requires waiting.
+     * <p/>
+     * NOTE: Subscriber with {@link AsyncDeliveryOptions.Backpressure#BLOCK} policy must not publish events which it gets itself,
+     * it may wait for free space in queue forever.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @param options
+     *         options of delivery
+     * @return subscription that provides statistic of delivery. If subscriber is already subscribed asynchronously existed
+     * subscription is returned.
+     */
+    public AsyncSubscription subscribe(EventSubscriber<?> subscriber, AsyncDeliveryOptions options) {
         final Class<?> eventType = getEventType(subscriber);
+        final Executor executor = options.getExecutor() == null ? getAsyncExecutor() : options.getExecutor();
+        final AsyncSubscription subscription = new AsyncSubscription(subscriber, options, executor);
+        final AsyncSubscription existed = asyncSubscriptions.putIfAbsent(subscriber, subscription);
+        if (existed != null) {
+            return existed;
+        }
+        doSubscribe(eventType, subscription.dispatcher);
+        return subscription;
+    }
+
+    private synchronized void doSubscribe(Class<?> eventType, EventSubscriber<?> subscriber) {
         Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries == null) {
-            Set<EventSubscriber> newEntries = new CopyOnWriteArraySet<>();
-            entries = subscribersByEventType.putIfAbsent(eventType, newEntries);
-            if (entries == null) {
-                entries = newEntries;
-            }
+            subscribersByEventType.put(eventType, entries = new LinkedHashSet<>());
+        }
+        if (entries.add(subscriber)) {
+            rebuildDispatchTable();
         }
-        entries.add(subscriber);
     }
 
     /**
@@ -136,15 +160,108 @@ public class EventService {
      */
     public void unsubscribe(EventSubscriber<?> subscriber) {
         final Class<?> eventType = getEventType(subscriber);
+        final AsyncSubscription subscription = asyncSubscriptions.remove(subscriber);
+        if (subscription != null) {
+            doUnsubscribe(eventType, subscription.dispatcher);
+            subscription.cancel();
+        } else {
+            doUnsubscribe(eventType, subscriber);
+        }
+    }
+
+    private synchronized void doUnsubscribe(Class<?> eventType, EventSubscriber<?> subscriber) {
         final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
-        if (entries != null && !entries.isEmpty()) {
-            boolean changed = entries.remove(subscriber);
-            if (changed) {
-                if (entries.isEmpty()) {
-                    subscribersByEventType.remove(eventType);
-                }
+        if (entries != null && entries.remove(subscriber)) {
+            if (entries.isEmpty()) {
+                subscribersByEventType.remove(eventType);
+            }
+            rebuildDispatchTable();
+        }
+    }
+
+    /** Adds class of event that is published first time in dispatch table. */
+    private synchronized EventSubscriber[] addDispatchEntry(Class<?> eventClass) {
+        EventSubscriber[] eventSubscribers = dispatchTable.get(eventClass);
+        if (eventSubscribers != null) {
+            // Added by other thread.
+            return eventSubscribers;
+        }
+        final Map<Class<?>, EventSubscriber[]> newTable;
+        if (typeHierarchies.size() >= MAX_DISPATCH_TABLE_SIZE) {
+            // Unlikely to happen, normally number of event classes is small. Removed entries are restored on demand.
+            typeHierarchies.clear();
+            newTable = new HashMap<>();
+        } else {
+            newTable = new HashMap<>(dispatchTable);
+        }
+        final Class<?>[] hierarchy = getTypeHierarchy(eventClass);
+        typeHierarchies.put(eventClass, hierarchy);
+        eventSubscribers = getSubscribers(hierarchy);
+        newTable.put(eventClass, eventSubscribers);
+        dispatchTable = newTable;
+        return eventSubscribers;
+    }
+
+    /** Recounts subscribers of all classes in dispatch table. Should be called each time when set of subscribers is changed. */
+    private void rebuildDispatchTable() {
+        final Map<Class<?>, EventSubscriber[]> newTable = new HashMap<>(typeHierarchies.size());
+        for (Map.Entry<Class<?>, Class<?>[]> e : typeHierarchies.entrySet()) {
+            newTable.put(e.getKey(), getSubscribers(e.getValue()));
+        }
+        dispatchTable = newTable;
+    }
+
+    private EventSubscriber[] getSubscribers(Class<?>[] hierarchy) {
+        final Set<EventSubscriber> result = new LinkedHashSet<>();
+        for (Class<?> clazz : hierarchy) {
+            final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
+            if (eventSubscribers != null) {
+                result.addAll(eventSubscribers);
             }
         }
+        return result.isEmpty() ? NO_SUBSCRIBERS : result.toArray(new EventSubscriber[result.size()]);
+    }
+
+    private Class<?>[] getTypeHierarchy(Class<?> eventClass) {
+        LinkedList<Class<?>> parents = new LinkedList<>();
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        parents.add(eventClass);
+        while (!parents.isEmpty()) {
+            Class<?> clazz = parents.pop();
+            classes.add(clazz);
+            Class<?> parent = clazz.getSuperclass();
+            if (parent != null) {
+                parents.add(parent);
+            }
+            Class<?>[] interfaces = clazz.getInterfaces();
+            if (interfaces.length > 0) {
+                Collections.addAll(parents, interfaces);
+            }
+        }
+        return classes.toArray(new Class<?>[classes.size()]);
+    }
+
+    /** Shared executor for asynchronous subscribers. It is created when it is needed first time. */
+    private synchronized Executor getAsyncExecutor() {
+        if (stopped) {
+            throw new IllegalStateException("EventService is stopped. ");
+        }
+        if (asyncExecutor == null) {
+            asyncExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("EventService-AsyncDelivery-%d")
+                                                                                    .setDaemon(true).build());
+        }
+        return asyncExecutor;
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        stopped = true;
+        for (AsyncSubscription subscription : asyncSubscriptions.values()) {
+            subscription.cancel();
+        }
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdownNow();
+        }
     }
 
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
@@ -32,6 +32,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public final class WSocketEventBusServer {
     private static final Logger LOG = LoggerFactory.getLogger(WSocketEventBusServer.class);
 
+    /** Events of different channels are sent to clients concurrently, events of the same channel are sent in order. */
+    private static final int ASYNC_DELIVERY_LANES = 4;
+
     private final EventService                 eventService;
     private final ServerEventPropagationPolicy policy;
     private final AtomicBoolean                start;
@@ -61,12 +64,19 @@ public final class WSocketEventBusServer {
     void start() {
         if (start.compareAndSet(false, true)) {
             if (policy != null) {
+                // Sending of message over websocket may be slow, don't block threads that publish events.
                 eventService.subscribe(new EventSubscriber<Object>() {
                     @Override
                     public void onEvent(Object event) {
                         propagate(event);
                     }
-                });
+                }, new AsyncDeliveryOptions().setLanes(ASYNC_DELIVERY_LANES).setChannelResolver(new AsyncDeliveryOptions.ChannelResolver() {
+                    @Override
+                    public Object getChannel(Object event) {
+                        final EventOrigin eventOrigin = event.getClass().getAnnotation(EventOrigin.class);
+                        return eventOrigin == null ? null : eventOrigin.value();
+                    }
+                }));
             }
         }
     }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.shared.DTO;
+
+import javax.inject.Singleton;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementation of {@link MessageBodyReader} and {@link MessageBodyWriter} that binds DTO and lists of DTO to and from compact binary
+ * format, see {@link org.eclipse.che.dto.server.DtoBinaryWriter}. Binary format is used for internal calls, e.g. between master and
+ * slave builders or runners. Service that supports it should add {@link #MEDIA_TYPE} to {@link Produces} annotation after JSON, so
+ * JSON stays default for other clients and client gets binary content only if it asks for it in header "Accept".
+ *
+ * @see HttpJsonHelper#requestBinary(Class, int, String, String, Object, org.eclipse.che.commons.lang.Pair[])
+ */
+@Singleton
+@Provider
+@Produces({CodenvyBinaryProvider.MEDIA_TYPE})
+@Consumes({CodenvyBinaryProvider.MEDIA_TYPE})
+public class CodenvyBinaryProvider<T> implements MessageBodyReader<T>, MessageBodyWriter<T> {
+    public static final String MEDIA_TYPE = "application/x-che-dto";
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type.isAnnotationPresent(DTO.class) || (Collection.class.isAssignableFrom(type) && isDtoElementType(genericType));
+    }
+
+    @Override
+    public long getSize(T t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(T t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
+        // Add Cache-Control before start write body.
+        httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
+        if (t instanceof Collection) {
+            DtoFactory.getInstance().toBinary((Collection<?>)t, entityStream);
+        } else {
+            DtoFactory.getInstance().toBinary(t, entityStream);
+        }
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type.isAnnotationPresent(DTO.class) || (type.isAssignableFrom(List.class) && isDtoElementType(genericType));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                      MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
+        if (type.isAnnotationPresent(DTO.class)) {
+            return DtoFactory.getInstance().createDtoFromBinary(entityStream, type);
+        }
+        Class elementClass = (Class)((ParameterizedType)genericType).getActualTypeArguments()[0];
+        return (T)DtoFactory.getInstance().createListDtoFromBinary(entityStream, elementClass);
+    }
+
+    /** Checks whether specified type is parameterized type, e.g. List&lt;T&gt;, with DTO interface as type argument. */
+    private boolean isDtoElementType(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] typeArguments = ((ParameterizedType)genericType).getActualTypeArguments();
+            return typeArguments.length == 1
+                   && typeArguments[0] instanceof Class
+                   && ((Class<?>)typeArguments[0]).isAnnotationPresent(DTO.class);
+        }
+        return false;
+    }
+}
@@ -37,6 +37,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -82,7 +83,14 @@ public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBody
         if (type.isAnnotationPresent(DTO.class)) {
             Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"));
             try {
-                w.write(DtoFactory.getInstance().toJson(t));
+                DtoFactory.getInstance().toJson(t, w);
+            } finally {
+                w.flush();
+            }
+        } else if (t instanceof Collection && isDtoElementType(genericType)) {
+            Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"));
+            try {
+                DtoFactory.getInstance().toJson((Collection<?>)t, w);
             } finally {
                 w.flush();
             }
@@ -104,19 +112,24 @@ public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBody
                       MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
         if (type.isAnnotationPresent(DTO.class)) {
             return DtoFactory.getInstance().createDtoFromJson(entityStream, type);
-        } else if (type.isAssignableFrom(List.class) && genericType instanceof ParameterizedType) {
-            ParameterizedType parameterizedType = (ParameterizedType)genericType;
-            Type elementType = parameterizedType.getActualTypeArguments()[0];
-            if (elementType instanceof Class) {
-                Class elementClass = (Class)elementType;
-                if (elementClass.isAnnotationPresent(DTO.class)) {
-                    return (T)DtoFactory.getInstance().createListDtoFromJson(entityStream, elementClass);
-                }
-            }
+        } else if (type.isAssignableFrom(List.class) && isDtoElementType(genericType)) {
+            Class elementClass = (Class)((ParameterizedType)genericType).getActualTypeArguments()[0];
+            return (T)DtoFactory.getInstance().createListDtoFromJson(entityStream, elementClass);
         }
         return (T)delegate.readFrom(type, genericType, annotations, mediaType, httpHeaders, entityStream);
     }
 
+    /** Checks whether specified type is parameterized type, e.g. List&lt;T&gt;, with DTO interface as type argument. */
+    private boolean isDtoElementType(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] typeArguments = ((ParameterizedType)genericType).getActualTypeArguments();
+            return typeArguments.length == 1
+                   && typeArguments[0] instanceof Class
+                   && ((Class<?>)typeArguments[0]).isAnnotationPresent(DTO.class);
+        }
+        return false;
+    }
+
     /**
      * Get Set of classes that we never try to serialize or deserialize. Returned Set is mutable and new classes may be added in ignored
      * Set.
@@ -21,6 +21,7 @@ public class CoreRestModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(CodenvyJsonProvider.class);
+        bind(CodenvyBinaryProvider.class);
         bind(ApiExceptionMapper.class);
         Multibinder.newSetBinder(binder(), Class.class, Names.named("codenvy.json.ignored_classes"));
     }
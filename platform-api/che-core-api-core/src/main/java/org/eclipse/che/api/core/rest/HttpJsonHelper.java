@@ -22,17 +22,29 @@ import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.user.User;
 import org.eclipse.che.dto.server.DtoFactory;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Provides helper method to send HTTP requests with JSON content.
@@ -48,6 +60,13 @@ public class HttpJsonHelper {
      */
     private static HttpJsonHelperImpl httpJsonHelperImpl = new HttpJsonHelperImpl();
 
+    /** Prefers compact binary format but accepts JSON from servers that don't support binary format. */
+    private static final String ACCEPT_BINARY = CodenvyBinaryProvider.MEDIA_TYPE + ", application/json;q=0.9";
+
+    /** Sends asynchronous requests. Threads are created on demand and released after one minute of inactivity. */
+    private static final ListeningExecutorService asyncExecutor = MoreExecutors.listeningDecorator(
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("HttpJsonHelper-%d").setDaemon(true).build()));
+
 
     //==============================================================
     public static <DTO> DTO request(Class<DTO> dtoInterface, Link link, Object body, Pair<String, ?>... parameters)
@@ -187,6 +206,90 @@ public class HttpJsonHelper {
         return httpJsonHelperImpl.requestArray(dtoInterface, timeout, url, method, body, parameters);
     }
 
+    /**
+     * Sends HTTP request to specified {@code url} and asks server to send response in compact binary format, see {@link
+     * CodenvyBinaryProvider}. Response is parsed directly from the stream. Response in JSON format is accepted as well, if server
+     * doesn't support binary format. Body of request is always sent in JSON format. Intended for internal calls, e.g. between master and
+     * slave builders or runners.
+     *
+     * @param dtoInterface
+     *         type of expected response. Specified interface must be annotated with &#064DTO.
+     * @param timeout
+     *         connect and read timeout in milliseconds, default timeout is used if value isn't positive
+     * @param url
+     *         URL to send request
+     * @param method
+     *         HTTP method
+     * @param body
+     *         body of request. Object must implements DTO interface (interface must be annotated with &#064DTO).
+     * @param parameters
+     *         additional query parameters.
+     * @return instance of {@code dtoInterface} which represents response from the server
+     * @throws ServerException
+     *         if server returns error response in supported JSON format, see {@link org.eclipse.che.api.core.rest.shared.dto.ServiceError}
+     * @throws IOException
+     *         if any other error occurs
+     */
+    public static <DTO> DTO requestBinary(Class<DTO> dtoInterface,
+                                          int timeout,
+                                          String url,
+                                          String method,
+                                          Object body,
+                                          Pair<String, ?>... parameters)
+            throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
+        return httpJsonHelperImpl.requestBinary(dtoInterface, timeout, url, method, body, parameters);
+    }
+
+    public static <DTO> DTO requestBinary(Class<DTO> dtoInterface, int timeout, Link link, Object body, Pair<String, ?>... parameters)
+            throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
+        return requestBinary(dtoInterface, timeout, link.getHref(), link.getMethod(), body, parameters);
+    }
+
+    /** Sends HTTP request to specified {@code url} and reads list of DTO from response in the same way as {@code requestBinary}. */
+    public static <DTO> List<DTO> requestBinaryArray(Class<DTO> dtoInterface,
+                                                     int timeout,
+                                                     String url,
+                                                     String method,
+                                                     Object body,
+                                                     Pair<String, ?>... parameters)
+            throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
+        return httpJsonHelperImpl.requestBinaryArray(dtoInterface, timeout, url, method, body, parameters);
+    }
+
+    public static <DTO> List<DTO> requestBinaryArray(Class<DTO> dtoInterface,
+                                                     int timeout,
+                                                     Link link,
+                                                     Object body,
+                                                     Pair<String, ?>... parameters)
+            throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
+        return requestBinaryArray(dtoInterface, timeout, link.getHref(), link.getMethod(), body, parameters);
+    }
+
+    /**
+     * Sends HTTP request to specified {@code url} in the same way as {@code requestBinary} but doesn't block the caller. Intended for
+     * sending the same request to many servers at once, e.g. for getting state of all slave builders or runners.
+     *
+     * @return future result of request. If request fails future throws {@link java.util.concurrent.ExecutionException} which wraps the
+     * same exception that {@code requestBinary} throws
+     * @see #requestBinary(Class, int, String, String, Object, Pair[])
+     */
+    public static <DTO> ListenableFuture<DTO> requestBinaryAsync(Class<DTO> dtoInterface,
+                                                                 int timeout,
+                                                                 String url,
+                                                                 String method,
+                                                                 Object body,
+                                                                 Pair<String, ?>... parameters) {
+        return httpJsonHelperImpl.requestBinaryAsync(dtoInterface, timeout, url, method, body, parameters);
+    }
+
+    public static <DTO> ListenableFuture<DTO> requestBinaryAsync(Class<DTO> dtoInterface,
+                                                                 int timeout,
+                                                                 Link link,
+                                                                 Object body,
+                                                                 Pair<String, ?>... parameters) {
+        return requestBinaryAsync(dtoInterface, timeout, link.getHref(), link.getMethod(), body, parameters);
+    }
+
     /**
      * Sends GET request to specified {@code url}.
      *
@@ -330,7 +433,9 @@ public class HttpJsonHelper {
     }
 
     /**
-     * Execute all request from HttpJsonHelper throw single method  requestString.
+     * Execute all request from HttpJsonHelper. Connections aren't closed explicitly after reading of response, instead response is read
+     * up to the end and JDK keeps underlying socket alive and reuses it for the next request to the same host. Number of idle connections
+     * per host is controlled with system property {@code http.maxConnections}.
      */
     public static class HttpJsonHelperImpl {
 
@@ -350,11 +455,14 @@ public class HttpJsonHelper {
                                  Object body,
                                  Pair<String, ?>... parameters)
                 throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
-            final String str = requestString(timeout, url, method, body, parameters);
-            if (dtoInterface != null) {
-                return DtoFactory.getInstance().createDtoFromJson(str, dtoInterface);
+            final HttpURLConnection conn = connect(timeout, url, method, body, null, parameters);
+            try (InputStream in = getResponseStream(conn, conn.getInputStream())) {
+                checkJsonContentType(conn.getContentType());
+                if (dtoInterface != null) {
+                    return DtoFactory.getInstance().createDtoFromJson(new InputStreamReader(in, StandardCharsets.UTF_8), dtoInterface);
+                }
+                return null;
             }
-            return null;
         }
 
         public <DTO> List<DTO> requestArray(Class<DTO> dtoInterface,
@@ -373,11 +481,14 @@ public class HttpJsonHelper {
                                             Object body,
                                             Pair<String, ?>... parameters)
                 throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
-            final String str = requestString(timeout, url, method, body, parameters);
-            if (dtoInterface != null) {
-                return DtoFactory.getInstance().createListDtoFromJson(str, dtoInterface);
+            final HttpURLConnection conn = connect(timeout, url, method, body, null, parameters);
+            try (InputStream in = getResponseStream(conn, conn.getInputStream())) {
+                checkJsonContentType(conn.getContentType());
+                if (dtoInterface != null) {
+                    return DtoFactory.getInstance().createListDtoFromJson(new InputStreamReader(in, StandardCharsets.UTF_8), dtoInterface);
+                }
+                return null;
             }
-            return null;
         }
 
         private String getAuthenticationToken() {
@@ -402,27 +513,105 @@ public class HttpJsonHelper {
                                     Object body,
                                     Pair<String, ?>... parameters)
                 throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
-            final String authToken = getAuthenticationToken();
-            if ((parameters != null && parameters.length > 0) || authToken != null) {
-                final UriBuilder ub = UriBuilder.fromUri(url);
-                if (authToken != null) {
-                    ub.queryParam("token", authToken);
+            final HttpURLConnection conn = connect(timeout, url, method, body, null, parameters);
+            try (InputStream in = getResponseStream(conn, conn.getInputStream())) {
+                checkJsonContentType(conn.getContentType());
+                return CharStreams.toString(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+
+        public <DTO> DTO requestBinary(Class<DTO> dtoInterface,
+                                       int timeout,
+                                       String url,
+                                       String method,
+                                       Object body,
+                                       Pair<String, ?>... parameters)
+                throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
+            return readBinary(dtoInterface, connect(timeout, url, method, body, ACCEPT_BINARY, parameters));
+        }
+
+        public <DTO> List<DTO> requestBinaryArray(Class<DTO> dtoInterface,
+                                                  int timeout,
+                                                  String url,
+                                                  String method,
+                                                  Object body,
+                                                  Pair<String, ?>... parameters)
+                throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
+            final HttpURLConnection conn = connect(timeout, url, method, body, ACCEPT_BINARY, parameters);
+            try (InputStream in = getResponseStream(conn, conn.getInputStream())) {
+                if (isBinary(conn.getContentType())) {
+                    return DtoFactory.getInstance().createListDtoFromBinary(in, dtoInterface);
                 }
-                if (parameters != null && parameters.length > 0) {
-                    for (Pair<String, ?> parameter : parameters) {
-                        String name = URLEncoder.encode(parameter.first, "UTF-8");
-                        String value = parameter.second == null ? null : URLEncoder
-                                .encode(String.valueOf(parameter.second), "UTF-8");
-                        ub.replaceQueryParam(name, value);
-                    }
+                checkJsonContentType(conn.getContentType());
+                return DtoFactory.getInstance().createListDtoFromJson(new InputStreamReader(in, StandardCharsets.UTF_8), dtoInterface);
+            }
+        }
+
+        /**
+         * Sends request in the same way as {@code requestBinary} but doesn't block caller. URL of request, including authentication
+         * token of current user, is prepared in caller thread, request itself is sent in separate thread. If request fails returned
+         * future throws {@code ExecutionException} with the same exception that {@code requestBinary} throws.
+         */
+        public <DTO> ListenableFuture<DTO> requestBinaryAsync(final Class<DTO> dtoInterface,
+                                                              final int timeout,
+                                                              String url,
+                                                              final String method,
+                                                              final Object body,
+                                                              Pair<String, ?>... parameters) {
+            final String requestUrl;
+            try {
+                requestUrl = buildUrl(url, getAuthenticationToken(), parameters);
+            } catch (IOException | RuntimeException e) {
+                return Futures.immediateFailedFuture(e);
+            }
+            return asyncExecutor.submit(new Callable<DTO>() {
+                @Override
+                public DTO call() throws Exception {
+                    return readBinary(dtoInterface, open(timeout, requestUrl, method, body, ACCEPT_BINARY));
                 }
-                url = ub.build().toString();
+            });
+        }
+
+        private <DTO> DTO readBinary(Class<DTO> dtoInterface, HttpURLConnection conn) throws IOException {
+            try (InputStream in = getResponseStream(conn, conn.getInputStream())) {
+                if (isBinary(conn.getContentType())) {
+                    return DtoFactory.getInstance().createDtoFromBinary(in, dtoInterface);
+                }
+                checkJsonContentType(conn.getContentType());
+                return DtoFactory.getInstance().createDtoFromJson(new InputStreamReader(in, StandardCharsets.UTF_8), dtoInterface);
             }
+        }
+
+        /**
+         * Opens connection, sends request and checks response code. Caller must read response up to the end and close stream to
+         * release connection, see {@link #getResponseStream(HttpURLConnection, InputStream)}.
+         *
+         * @param accept
+         *         value of header "Accept", may be {@code null}
+         */
+        private HttpURLConnection connect(int timeout,
+                                          String url,
+                                          String method,
+                                          Object body,
+                                          String accept,
+                                          Pair<String, ?>... parameters)
+                throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
+            return open(timeout, buildUrl(url, getAuthenticationToken(), parameters), method, body, accept);
+        }
+
+        private HttpURLConnection open(int timeout, String url, String method, Object body, String accept)
+                throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
             final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
             conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
             conn.setReadTimeout(timeout > 0 ? timeout : 60000);
+            // Connection may be reused if we read response up to the end, e.g. error response.
+            boolean reusable = false;
             try {
                 conn.setRequestMethod(method);
+                conn.setRequestProperty("accept-encoding", "gzip");
+                if (accept != null) {
+                    conn.setRequestProperty("accept", accept);
+                }
                 if (body != null) {
                     conn.addRequestProperty("content-type", "application/json");
                     conn.setDoOutput(true);
@@ -432,8 +621,8 @@ public class HttpJsonHelper {
                         conn.setRequestProperty("X-HTTP-Method-Override", "DELETE");
                     }
 
-                    try (OutputStream output = conn.getOutputStream()) {
-                        output.write(DtoFactory.getInstance().toJson(body).getBytes());
+                    try (Writer output = new OutputStreamWriter(conn.getOutputStream(), StandardCharsets.UTF_8)) {
+                        DtoFactory.getInstance().toJson(body, output);
                     }
                 }
 
@@ -443,8 +632,11 @@ public class HttpJsonHelper {
                     if (in == null) {
                         in = conn.getInputStream();
                     }
-                    final InputStream fIn = in;
-                    final String str = CharStreams.toString(new InputStreamReader(fIn));
+                    final String str;
+                    try (InputStream fIn = getResponseStream(conn, in)) {
+                        str = CharStreams.toString(new InputStreamReader(fIn, StandardCharsets.UTF_8));
+                    }
+                    reusable = true;
                     final String contentType = conn.getContentType();
                     if (contentType != null && contentType.startsWith("application/json")) {
                         final ServiceError serviceError = DtoFactory.getInstance().createDtoFromJson(str, ServiceError.class);
@@ -467,16 +659,83 @@ public class HttpJsonHelper {
                     throw new IOException(String.format("Failed access: %s, method: %s, response code: %d, message: %s",
                                                         UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, str));
                 }
-                final String contentType = conn.getContentType();
-                if (!(contentType == null || contentType.startsWith("application/json"))) {
-                    throw new IOException("We received an error response from the Codenvy server." +
-                                          " Retry the request. If this issue continues, contact. support.");
+                reusable = true;
+                return conn;
+            } finally {
+                if (!reusable) {
+                    conn.disconnect();
                 }
+            }
+        }
 
-                return CharStreams.toString(new InputStreamReader(conn.getInputStream()));
-            } finally {
-                conn.disconnect();
+        /** Adds authentication token and query parameters to the URL. Parameter with {@code null} value is removed from the URL. */
+        private String buildUrl(String url, String authToken, Pair<String, ?>... parameters) throws IOException {
+            final boolean hasParameters = parameters != null && parameters.length > 0;
+            if (!hasParameters && authToken == null) {
+                return url;
+            }
+            if (url.indexOf('?') >= 0 || url.indexOf('#') >= 0) {
+                // URL already has query or fragment, let UriBuilder merge it with parameters.
+                final UriBuilder ub = UriBuilder.fromUri(url);
+                if (authToken != null) {
+                    ub.queryParam("token", URLEncoder.encode(authToken, "UTF-8"));
+                }
+                if (hasParameters) {
+                    for (Pair<String, ?> parameter : parameters) {
+                        final String name = URLEncoder.encode(parameter.first, "UTF-8");
+                        if (parameter.second == null) {
+                            // Empty list of values removes parameter, list with single null value doesn't.
+                            ub.replaceQueryParam(name);
+                        } else {
+                            ub.replaceQueryParam(name, URLEncoder.encode(String.valueOf(parameter.second), "UTF-8"));
+                        }
+                    }
+                }
+                return ub.build().toString();
+            }
+            final Map<String, String> query = new LinkedHashMap<>();
+            if (authToken != null) {
+                query.put("token", URLEncoder.encode(authToken, "UTF-8"));
+            }
+            if (hasParameters) {
+                for (Pair<String, ?> parameter : parameters) {
+                    final String name = URLEncoder.encode(parameter.first, "UTF-8");
+                    if (parameter.second == null) {
+                        query.remove(name);
+                    } else {
+                        query.put(name, URLEncoder.encode(String.valueOf(parameter.second), "UTF-8"));
+                    }
+                }
+            }
+            if (query.isEmpty()) {
+                return url;
+            }
+            final StringBuilder sb = new StringBuilder(url);
+            char separator = '?';
+            for (Map.Entry<String, String> entry : query.entrySet()) {
+                sb.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+                separator = '&';
+            }
+            return sb.toString();
+        }
+
+        /** Unzips response if server compressed it. Closing of returned stream returns connection to the pool of idle connections. */
+        private InputStream getResponseStream(HttpURLConnection conn, InputStream in) throws IOException {
+            if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+                return new GZIPInputStream(in);
+            }
+            return in;
+        }
+
+        private void checkJsonContentType(String contentType) throws IOException {
+            if (!(contentType == null || contentType.startsWith("application/json"))) {
+                throw new IOException("We received an error response from the Codenvy server." +
+                                      " Retry the request. If this issue continues, contact. support.");
             }
         }
+
+        private boolean isBinary(String contentType) {
+            return contentType != null && contentType.startsWith(CodenvyBinaryProvider.MEDIA_TYPE);
+        }
     }
 }
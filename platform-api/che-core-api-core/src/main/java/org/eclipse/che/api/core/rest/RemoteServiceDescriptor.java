@@ -20,6 +20,7 @@ import org.eclipse.che.api.core.rest.shared.dto.ServiceDescriptor;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -46,6 +47,8 @@ public class RemoteServiceDescriptor {
 
     // will be initialized when it is needed
     private volatile ServiceDescriptor serviceDescriptor;
+    // ETag of serviceDescriptor, it is known only if descriptor is received in isAvailable()
+    private volatile String            serviceDescriptorETag;
 
     /**
      * Creates new descriptor of remote RESTful service.
@@ -107,21 +110,60 @@ public class RemoteServiceDescriptor {
         return ServiceDescriptor.class;
     }
 
-    /** Checks service availability. */
+    /**
+     * Checks service availability. Request contains ETag of cached descriptor of service, if any, so service doesn't send descriptor
+     * again if it isn't changed. Otherwise cached descriptor is replaced with the received one.
+     */
     public boolean isAvailable() {
         HttpURLConnection conn = null;
+        boolean reusable = false;
         try {
             conn = (HttpURLConnection)baseUrlURL.openConnection();
             conn.setConnectTimeout(3 * 1000);
             conn.setReadTimeout(3 * 1000);
             conn.setRequestMethod("OPTIONS");
-            return 200 == conn.getResponseCode();
+            final String myServiceDescriptorETag = serviceDescriptorETag;
+            if (myServiceDescriptorETag != null) {
+                conn.setRequestProperty("If-None-Match", myServiceDescriptorETag);
+            }
+            final int responseCode = conn.getResponseCode();
+            if (responseCode == 304) {
+                reusable = true;
+                return true;
+            }
+            if (responseCode == 200) {
+                final String eTag = conn.getHeaderField("ETag");
+                try (InputStream in = conn.getInputStream()) {
+                    if (eTag != null) {
+                        updateServiceDescriptor(in, eTag);
+                    }
+                }
+                reusable = true;
+                return true;
+            }
+            return false;
         } catch (IOException e) {
             return false;
         } finally {
-            if (conn != null) {
+            if (conn != null && !reusable) {
                 conn.disconnect();
             }
         }
     }
+
+    private void updateServiceDescriptor(InputStream in, String eTag) throws IOException {
+        final ServiceDescriptor descriptor;
+        try {
+            descriptor = DtoFactory.getInstance().createDtoFromJson(in, getServiceDescriptorClass());
+        } catch (RuntimeException e) {
+            // Service is available but its descriptor can't be parsed, keep descriptor that we have.
+            return;
+        }
+        if (descriptor != null) {
+            synchronized (this) {
+                serviceDescriptor = descriptor;
+                serviceDescriptorETag = eTag;
+            }
+        }
+    }
 }
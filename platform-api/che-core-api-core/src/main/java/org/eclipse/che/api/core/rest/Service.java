@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import com.google.common.hash.Hashing;
+
 import org.eclipse.che.api.core.rest.annotations.Description;
 import org.eclipse.che.api.core.rest.annotations.GenerateLink;
 import org.eclipse.che.api.core.rest.annotations.OPTIONS;
@@ -34,11 +36,14 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -46,6 +51,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Base class for all API services.
@@ -56,8 +63,30 @@ public abstract class Service {
     @Context
     protected UriInfo uriInfo;
 
+    /**
+     * Sends descriptor of this service. Response contains header "ETag", so client that already has descriptor may send request with
+     * header "If-None-Match" and get short response with status 304 if descriptor isn't changed.
+     */
     @OPTIONS
     @Produces(MediaType.APPLICATION_JSON)
+    public Response options(@Context HttpHeaders httpHeaders) {
+        final ServiceDescriptor descriptor = getServiceDescriptor();
+        final String eTag = '"' + Hashing.md5().hashString(DtoFactory.getInstance().toJson(descriptor), StandardCharsets.UTF_8).toString()
+                            + '"';
+        final List<String> ifNoneMatch = httpHeaders.getRequestHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String value : ifNoneMatch) {
+                for (String tag : value.split(",")) {
+                    tag = tag.trim();
+                    if (tag.equals(eTag) || tag.equals("W/" + eTag) || tag.equals("*")) {
+                        return Response.notModified().header(HttpHeaders.ETAG, eTag).header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
+                    }
+                }
+            }
+        }
+        return Response.ok(descriptor).header(HttpHeaders.ETAG, eTag).header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
+    }
+
     public ServiceDescriptor getServiceDescriptor() {
         return generateServiceDescriptor(uriInfo, getClass());
     }
@@ -87,15 +116,17 @@ public abstract class Service {
         JAX_RS_ANNOTATIONS = new HashSet<>(tmp);
     }
 
+    /** Links of each service class. Only URI of service is changed from request to request, so other parts of links are reused. */
+    private static final ConcurrentMap<Class<?>, List<LinkTemplate>> LINK_TEMPLATES = new ConcurrentHashMap<>();
+
     private ServiceDescriptor generateServiceDescriptor(UriInfo uriInfo, Class<? extends Service> service) {
-        final List<Link> links = new ArrayList<>();
-        for (Method method : service.getMethods()) {
-            final GenerateLink generateLink = method.getAnnotation(GenerateLink.class);
-            if (generateLink != null) {
-                try {
-                    links.add(generateLinkForMethod(uriInfo, generateLink.rel(), method));
-                } catch (RuntimeException ignored) {
-                }
+        final UriBuilder serviceUriBuilder = getServiceUriBuilder(uriInfo);
+        final List<LinkTemplate> linkTemplates = getLinkTemplates(service);
+        final List<Link> links = new ArrayList<>(linkTemplates.size());
+        for (LinkTemplate linkTemplate : linkTemplates) {
+            try {
+                links.add(linkTemplate.createLink(serviceUriBuilder.clone()));
+            } catch (RuntimeException ignored) {
             }
         }
         final Description description = service.getAnnotation(Description.class);
@@ -109,20 +140,29 @@ public abstract class Service {
         return dto;
     }
 
-    private Link generateLinkForMethod(UriInfo uriInfo, String linkRel, Method method, Object... pathParameters) {
-        String httpMethod = null;
-        final HttpMethod httpMethodAnnotation = getMetaAnnotation(method, HttpMethod.class);
-        if (httpMethodAnnotation != null) {
-            httpMethod = httpMethodAnnotation.value();
-        }
-        if (httpMethod == null) {
-            throw new IllegalArgumentException(
-                    String.format("Method '%s' has not any HTTP method annotation and may not be used to produce link.", method.getName()));
+    private List<LinkTemplate> getLinkTemplates(Class<? extends Service> service) {
+        List<LinkTemplate> linkTemplates = LINK_TEMPLATES.get(service);
+        if (linkTemplates == null) {
+            final List<LinkTemplate> newLinkTemplates = new ArrayList<>();
+            for (Method method : service.getMethods()) {
+                final GenerateLink generateLink = method.getAnnotation(GenerateLink.class);
+                if (generateLink != null) {
+                    try {
+                        newLinkTemplates.add(createLinkTemplate(generateLink.rel(), method));
+                    } catch (RuntimeException ignored) {
+                    }
+                }
+            }
+            linkTemplates = LINK_TEMPLATES.putIfAbsent(service, newLinkTemplates);
+            if (linkTemplates == null) {
+                linkTemplates = newLinkTemplates;
+            }
         }
+        return linkTemplates;
+    }
 
-        final Consumes consumes = getAnnotation(method, Consumes.class);
-        final Produces produces = getAnnotation(method, Produces.class);
-
+    /** Gets URI of root resource which is matched to the current request. */
+    private UriBuilder getServiceUriBuilder(UriInfo uriInfo) {
         final UriBuilder baseUriBuilder = uriInfo.getBaseUriBuilder();
         final LinkedList<String> matchedURIs = new LinkedList<>(uriInfo.getMatchedURIs());
         // Get path to the root resource.
@@ -133,15 +173,27 @@ public abstract class Service {
         while (!matchedURIs.isEmpty()) {
             baseUriBuilder.path(matchedURIs.pollLast());
         }
+        return baseUriBuilder;
+    }
 
-        final Path path = method.getAnnotation(Path.class);
-        if (path != null) {
-            baseUriBuilder.path(path.value());
+    private LinkTemplate createLinkTemplate(String linkRel, Method method) {
+        String httpMethod = null;
+        final HttpMethod httpMethodAnnotation = getMetaAnnotation(method, HttpMethod.class);
+        if (httpMethodAnnotation != null) {
+            httpMethod = httpMethodAnnotation.value();
+        }
+        if (httpMethod == null) {
+            throw new IllegalArgumentException(
+                    String.format("Method '%s' has not any HTTP method annotation and may not be used to produce link.", method.getName()));
         }
 
+        final Consumes consumes = getAnnotation(method, Consumes.class);
+        final Produces produces = getAnnotation(method, Produces.class);
+
+        final Path path = method.getAnnotation(Path.class);
+
         final Link link = DtoFactory.getInstance().createDto(Link.class)
                                     .withRel(linkRel)
-                                    .withHref(baseUriBuilder.build(pathParameters).toString())
                                     .withMethod(httpMethod);
         if (consumes != null) {
             link.setConsumes(consumes.value()[0]);
@@ -201,7 +253,7 @@ public abstract class Service {
                 }
             }
         }
-        return link;
+        return new LinkTemplate(link, path == null ? null : path.value());
     }
 
     private <T extends Annotation> T getAnnotation(Method method, Class<T> annotationClass) {
@@ -271,6 +323,24 @@ public abstract class Service {
         return ParameterType.Object;
     }
 
+    /** Link without href and path of method relative to the service. */
+    private static class LinkTemplate {
+        final Link   link;
+        final String path;
+
+        LinkTemplate(Link link, String path) {
+            this.link = link;
+            this.path = path;
+        }
+
+        Link createLink(UriBuilder serviceUriBuilder) {
+            if (path != null) {
+                serviceUriBuilder.path(path);
+            }
+            return DtoFactory.getInstance().clone(link).withHref(serviceUriBuilder.build().toString());
+        }
+    }
+
     private static class ServiceContextImpl implements ServiceContext {
         final UriBuilder uriBuilder;
         final Class      serviceClass;
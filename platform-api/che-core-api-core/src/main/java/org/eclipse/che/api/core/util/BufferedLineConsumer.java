@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LineConsumer that collects lines in chunks and passes each chunk to method {@link #writeLines(List)} at once. It helps to avoid
+ * expensive operation, e.g. flush of file or sending of event, for each line. Chunk is written when it reaches max number of lines or
+ * characters or when its first line waits longer than max delay, so lines are never delayed for long even if output is slow.
+ * <p/>
+ * Implementation is threadsafe. Chunks are written in the same order as lines are consumed, one chunk at a time.
+ */
+public abstract class BufferedLineConsumer implements LineConsumer {
+    private static final Logger LOG = LoggerFactory.getLogger(BufferedLineConsumer.class);
+
+    private static final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("BufferedLineConsumer")
+                                                                                 .setDaemon(true).build());
+
+    private final int          maxLines;
+    private final int          maxChars;
+    private final long         maxDelay;
+    private final Runnable     flushTask;
+    private final List<String> lines;
+
+    private int                chars;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean            closed;
+
+    /**
+     * @param maxLines
+     *         max number of lines in chunk
+     * @param maxChars
+     *         max number of characters in chunk
+     * @param maxDelay
+     *         max time that line may wait in chunk before it is written
+     * @param unit
+     *         unit of {@code maxDelay}
+     */
+    protected BufferedLineConsumer(int maxLines, int maxChars, long maxDelay, TimeUnit unit) {
+        this.maxLines = maxLines;
+        this.maxChars = maxChars;
+        this.maxDelay = unit.toMillis(maxDelay);
+        lines = new ArrayList<>();
+        flushTask = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    LOG.error(String.format("An error occurred while writing lines to %s", BufferedLineConsumer.this), e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized void writeLine(String line) throws IOException {
+        if (closed) {
+            throw new IOException("Line consumer is closed");
+        }
+        lines.add(line);
+        chars += line == null ? 1 : line.length() + 1;
+        if (lines.size() >= maxLines || chars >= maxChars || maxDelay <= 0) {
+            flush();
+        } else if (scheduledFlush == null) {
+            scheduledFlush = flusher.schedule(flushTask, maxDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Writes all collected lines immediately. */
+    public synchronized void flush() throws IOException {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        final List<String> chunk = new ArrayList<>(lines);
+        lines.clear();
+        chars = 0;
+        writeLines(chunk);
+    }
+
+    /** Writes all collected lines. Lines which are written after closing are rejected. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            flush();
+        }
+    }
+
+    /**
+     * Writes chunk of lines. This method is never invoked concurrently.
+     *
+     * @param lines
+     *         lines in order they were consumed, list may contain {@code null} lines
+     */
+    protected abstract void writeLines(List<String> lines) throws IOException;
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Directory on local disk that keeps entries of cache, each entry in own sub-directory. Total size of entries is limited. When limit is
+ * reached entries which were not used for the longest time are removed, modification date of entry directory is used as time of last
+ * usage of entry.
+ * <p/>
+ * Content of entry is written in temporary directory and then moved to its place, so readers never see partially written content and
+ * the same directory may be shared between few processes.
+ */
+public class DiskLruDirectory {
+    private static final Logger LOG = LoggerFactory.getLogger(DiskLruDirectory.class);
+
+    private static final String TMP_PREFIX = ".tmp-";
+
+    private final java.io.File directory;
+    private final long         maxSize;
+
+    /**
+     * @param directory
+     *         directory for cache entries
+     * @param maxSize
+     *         max size of cache in bytes
+     */
+    public DiskLruDirectory(java.io.File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public java.io.File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /** Gets directory of entry with specified key. Directory may not exist. */
+    public java.io.File getEntry(String key) {
+        return new java.io.File(directory, key);
+    }
+
+    /** Remembers that entry with specified key is used now. Does nothing if there is no such entry. */
+    public void touch(String key) {
+        final java.io.File entry = getEntry(key);
+        if (entry.exists() && !entry.setLastModified(System.currentTimeMillis())) {
+            LOG.debug("Unable update modification date of {} ", entry);
+        }
+    }
+
+    /**
+     * Writes content in temporary directory with {@code writer} and then moves temporary directory to {@code target}. Target must be
+     * entry directory or located inside entry directory.
+     *
+     * @return {@code true} if content is written and {@code false} if target is written by other thread or process in the same time
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public boolean write(java.io.File target, ContentWriter writer) throws IOException {
+        final java.io.File parent = target.getParentFile();
+        if (!(parent.exists() || parent.mkdirs())) {
+            throw new IOException(String.format("Unable create directory %s", parent.getAbsolutePath()));
+        }
+        final java.io.File tmp = Files.createTempDirectory(directory.toPath(), TMP_PREFIX).toFile();
+        try {
+            writer.write(tmp);
+            try {
+                Files.move(tmp.toPath(), target.toPath());
+            } catch (IOException e) {
+                if (!target.exists()) {
+                    throw e;
+                }
+                return false;
+            }
+        } finally {
+            if (tmp.exists()) {
+                IoUtil.deleteRecursive(tmp);
+            }
+        }
+        return true;
+    }
+
+    /** Removes temporary directories which are left if previous process was terminated while writing content of entries. */
+    public void removeTemporaryFiles() {
+        final java.io.File[] files = directory.listFiles();
+        if (files != null) {
+            for (java.io.File file : files) {
+                if (isTemporary(file) && !IoUtil.deleteRecursive(file)) {
+                    LOG.warn("Unable delete {}", file);
+                }
+            }
+        }
+    }
+
+    /** Gets total size of entries in bytes. */
+    public long getSize() {
+        long size = 0;
+        final java.io.File[] entries = directory.listFiles();
+        if (entries != null) {
+            for (java.io.File entry : entries) {
+                size += sizeOf(entry);
+            }
+        }
+        return size;
+    }
+
+    /** Removes entries which were not used for the longest time while total size of entries exceeds limit. */
+    public void evict() {
+        evict(null);
+    }
+
+    /**
+     * Removes entries which were not used for the longest time while total size of entries exceeds limit.
+     *
+     * @param inUse
+     *         entries which must not be removed, e.g. entries that are used by applications at the moment, may be {@code null}
+     */
+    public void evict(EntryFilter inUse) {
+        final java.io.File[] entries = directory.listFiles();
+        if (entries == null) {
+            return;
+        }
+        final long[] sizes = new long[entries.length];
+        long size = 0;
+        for (int i = 0; i < entries.length; i++) {
+            size += (sizes[i] = sizeOf(entries[i]));
+        }
+        if (size <= maxSize) {
+            return;
+        }
+        final Integer[] order = new Integer[entries.length];
+        final long[] lastUsed = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            order[i] = i;
+            lastUsed[i] = entries[i].lastModified();
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(lastUsed[o1], lastUsed[o2]);
+            }
+        });
+        for (int i = 0; i < order.length && size > maxSize; i++) {
+            final java.io.File entry = entries[order[i]];
+            if (isTemporary(entry) || (inUse != null && inUse.accept(entry.getName()))) {
+                // Entry is being written or is used at the moment.
+                continue;
+            }
+            if (IoUtil.deleteRecursive(entry)) {
+                size -= sizes[order[i]];
+                LOG.debug("Remove cache entry {}", entry);
+            } else {
+                LOG.warn("Unable delete {}", entry);
+            }
+        }
+    }
+
+    private static boolean isTemporary(java.io.File file) {
+        return file.getName().startsWith(TMP_PREFIX);
+    }
+
+    /** Gets size of file or total size of files in directory in bytes. */
+    public static long sizeOf(java.io.File file) {
+        if (file.isFile()) {
+            return file.length();
+        }
+        long size = 0;
+        final java.io.File[] list = file.listFiles();
+        if (list != null) {
+            for (java.io.File f : list) {
+                size += sizeOf(f);
+            }
+        }
+        return size;
+    }
+
+    public interface ContentWriter {
+        /** Writes content in the specified directory. */
+        void write(java.io.File dir) throws IOException;
+    }
+
+    public interface EntryFilter {
+        /** Tests entry with specified key. */
+        boolean accept(String key);
+    }
+}
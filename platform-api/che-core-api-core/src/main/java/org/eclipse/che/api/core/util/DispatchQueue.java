@@ -0,0 +1,542 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue of tasks which are waiting for resources, e.g. for free slave-builder or slave-runner. Waiting task doesn't occupy any thread.
+ * Queue tries to start tasks with limited number of threads. Task of queue is {@link Callable} that must not block for long time: it
+ * returns result if task is started or {@code null} if there are no resources at the moment. Task which isn't started is tried again
+ * after delay or when {@link #signal()} or {@link #signal(Task)} is called.
+ * <p/>
+ * Tasks are served by priority classes, {@code 0} is the highest priority. Tasks of lower priority are tried only if there are no tasks
+ * of higher priority which may be tried at the moment. Tasks of the same priority are served in round-robin by owners (e.g. workspaces)
+ * that gives fair share of resources to each owner regardless to number of tasks it has in the queue. Tasks of the same owner are served
+ * in order of submission.
+ * <p/>
+ * Number of waiting tasks is limited, new tasks are rejected when queue is full.
+ */
+public class DispatchQueue<V> {
+    private static final Logger LOG = LoggerFactory.getLogger(DispatchQueue.class);
+
+    private final String        name;
+    private final Lane<V>[]     lanes;
+    private final int           threads;
+    private final int           maxSize;
+    private final long          retryDelayMillis;
+    private final ReentrantLock lock;
+    private final Condition     changed;
+
+    private ExecutorService executor;
+    private Thread          dispatcher;
+    private boolean         running;
+    private int             size;
+    private int             inProgress;
+    /** Incremented with each call of {@link #signal()}. Tasks which were tried before signal may be tried again without delay. */
+    private long            generation;
+    /** Delay before the nearest attempt, calculated by {@link #next()}. Value {@code -1} means there is no tasks to try. */
+    private long            nextAttemptDelay;
+
+    /**
+     * @param name
+     *         name of queue, used as prefix for names of threads
+     * @param priorities
+     *         number of priority classes
+     * @param threads
+     *         max number of tasks which are tried at the same time
+     * @param maxSize
+     *         max number of waiting tasks
+     * @param retryDelayMillis
+     *         delay before next attempt to start task if task can't start
+     */
+    @SuppressWarnings("unchecked")
+    public DispatchQueue(String name, int priorities, int threads, int maxSize, long retryDelayMillis) {
+        if (priorities < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of priorities: %d", priorities));
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of threads: %d", threads));
+        }
+        this.name = name;
+        this.threads = threads;
+        this.maxSize = maxSize;
+        this.retryDelayMillis = retryDelayMillis;
+        lanes = new Lane[priorities];
+        for (int i = 0; i < priorities; i++) {
+            lanes[i] = new Lane<>();
+        }
+        lock = new ReentrantLock();
+        changed = lock.newCondition();
+    }
+
+    public void start() {
+        lock.lock();
+        try {
+            if (running) {
+                throw new IllegalStateException("Already started");
+            }
+            running = true;
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat(name + "-[%d]")
+                                                                                        .setDaemon(true).build());
+            dispatcher = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    dispatch();
+                }
+            }, name + "-Dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Stops this queue. All waiting tasks are cancelled. */
+    public void stop() {
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Is not started yet.");
+            }
+            running = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dispatcher.interrupt();
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Unable terminate {}", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Task<V> task : drain()) {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Adds task in this queue.
+     *
+     * @throws RejectedExecutionException
+     *         if queue is full or isn't started
+     * @throws IllegalArgumentException
+     *         if priority of task isn't supported by this queue
+     */
+    public void submit(Task<V> task) {
+        if (task.getPriority() < 0 || task.getPriority() >= lanes.length) {
+            throw new IllegalArgumentException(String.format("Invalid priority: %d", task.getPriority()));
+        }
+        lock.lock();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException(String.format("%s isn't started", name));
+            }
+            if (size >= maxSize) {
+                throw new RejectedExecutionException(String.format("Too many tasks in %s, max number of waiting tasks is %d", name, maxSize));
+            }
+            if (task.queue != null) {
+                throw new IllegalStateException("Task is already submitted");
+            }
+            task.queue = this;
+            lanes[task.getPriority()].add(task);
+            size++;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Notifies this queue that resources are released. All waiting tasks are tried again without waiting for retry delay. */
+    public void signal() {
+        lock.lock();
+        try {
+            generation++;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Notifies this queue that resources which the specified task is waiting for may be available, e.g. build of application is done.
+     * Only this task is tried again without waiting for retry delay. If task is tried at the moment, it is tried once more right after
+     * the current attempt.
+     */
+    public void signal(Task<V> task) {
+        lock.lock();
+        try {
+            if (task.queue != this || !task.queued) {
+                return;
+            }
+            if (task.inProgress) {
+                task.signalled = true;
+            } else {
+                task.nextAttempt = 0;
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Gets number of waiting tasks. */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets position of task in this queue. Position is estimated by priority and number of tasks of each owner. Value 1 means that task
+     * is the next one.
+     *
+     * @return position of task or {@code -1} if task isn't waiting in this queue
+     */
+    int getPosition(Task<?> task) {
+        lock.lock();
+        try {
+            if (!task.queued) {
+                return -1;
+            }
+            int position = 1;
+            for (int i = 0; i < task.getPriority(); i++) {
+                position += lanes[i].size;
+            }
+            return position + lanes[task.getPriority()].countAhead(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        for (; ; ) {
+            final Task<V> task;
+            lock.lock();
+            try {
+                Task<V> next = null;
+                while (running && (inProgress >= threads || (next = next()) == null)) {
+                    try {
+                        if (inProgress >= threads || nextAttemptDelay < 0) {
+                            changed.await();
+                        } else {
+                            changed.await(nextAttemptDelay, TimeUnit.MILLISECONDS);
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                task = next;
+                task.inProgress = true;
+                task.signalled = false;
+                inProgress++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                executor.execute(new Attempt(task));
+            } catch (RejectedExecutionException e) {
+                // Queue is stopped.
+                return;
+            }
+        }
+    }
+
+    /** Finds the next task which may be tried now. Must be called under lock. */
+    private Task<V> next() {
+        final long now = System.currentTimeMillis();
+        nextAttemptDelay = -1;
+        for (Lane<V> lane : lanes) {
+            for (Iterator<ArrayDeque<Task<V>>> i = lane.owners.values().iterator(); i.hasNext(); ) {
+                final ArrayDeque<Task<V>> ownerTasks = i.next();
+                final Task<V> head = ownerTasks.peek();
+                if (head.inProgress) {
+                    continue;
+                }
+                if (head.generation != generation || head.nextAttempt <= now) {
+                    // Move owner to the end of the lane to give chance to other owners.
+                    i.remove();
+                    lane.owners.put(head.getOwner(), ownerTasks);
+                    return head;
+                }
+                final long delay = head.nextAttempt - now;
+                if (nextAttemptDelay < 0 || delay < nextAttemptDelay) {
+                    nextAttemptDelay = delay;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void completed(Task<V> task, boolean started) {
+        lock.lock();
+        try {
+            task.inProgress = false;
+            inProgress--;
+            if (started || task.isDone()) {
+                remove(task);
+            } else {
+                task.generation = generation;
+                task.nextAttempt = task.signalled ? 0 : System.currentTimeMillis() + retryDelayMillis;
+                task.signalled = false;
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancelled(Task<V> task) {
+        lock.lock();
+        try {
+            // Task which is tried at the moment is removed when attempt is completed.
+            if (!task.inProgress) {
+                remove(task);
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Must be called under lock. */
+    private void remove(Task<V> task) {
+        if (task.queued) {
+            lanes[task.getPriority()].remove(task);
+            size--;
+        }
+    }
+
+    private ArrayDeque<Task<V>> drain() {
+        lock.lock();
+        try {
+            final ArrayDeque<Task<V>> all = new ArrayDeque<>(size);
+            for (Lane<V> lane : lanes) {
+                for (ArrayDeque<Task<V>> ownerTasks : lane.owners.values()) {
+                    for (Task<V> task : ownerTasks) {
+                        task.queued = false;
+                        all.add(task);
+                    }
+                }
+                lane.owners.clear();
+                lane.size = 0;
+            }
+            size = 0;
+            return all;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Lane<V> {
+        /** Tasks by owner. Order of iteration is order in which owners are served. */
+        final LinkedHashMap<String, ArrayDeque<Task<V>>> owners = new LinkedHashMap<>();
+        int size;
+
+        void add(Task<V> task) {
+            ArrayDeque<Task<V>> ownerTasks = owners.get(task.getOwner());
+            if (ownerTasks == null) {
+                owners.put(task.getOwner(), ownerTasks = new ArrayDeque<>());
+            }
+            ownerTasks.add(task);
+            task.queued = true;
+            size++;
+        }
+
+        void remove(Task<V> task) {
+            final ArrayDeque<Task<V>> ownerTasks = owners.get(task.getOwner());
+            if (ownerTasks != null && ownerTasks.remove(task)) {
+                if (ownerTasks.isEmpty()) {
+                    owners.remove(task.getOwner());
+                }
+                task.queued = false;
+                size--;
+            }
+        }
+
+        /** Number of tasks which are served before specified task if all tasks of this lane are served in round-robin by owners. */
+        int countAhead(Task<?> task) {
+            int index = 0;
+            for (Task<V> ownerTask : owners.get(task.getOwner())) {
+                if (ownerTask == task) {
+                    break;
+                }
+                index++;
+            }
+            int ahead = index;
+            boolean before = true;
+            for (Map.Entry<String, ArrayDeque<Task<V>>> e : owners.entrySet()) {
+                if (e.getKey().equals(task.getOwner())) {
+                    before = false;
+                } else {
+                    ahead += Math.min(e.getValue().size(), before ? index + 1 : index);
+                }
+            }
+            return ahead;
+        }
+    }
+
+    private final class Attempt implements Runnable {
+        final Task<V> task;
+
+        Attempt(Task<V> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            V result = null;
+            Exception error = null;
+            if (!task.isDone()) {
+                task.attemptStarted();
+                try {
+                    result = task.callable.call();
+                } catch (Exception e) {
+                    error = e;
+                } finally {
+                    task.attemptEnded();
+                }
+            }
+            final boolean started = result != null || error != null;
+            completed(task, started);
+            if (started) {
+                task.complete(result, error);
+            }
+        }
+    }
+
+    /**
+     * Task of {@link DispatchQueue}. It is done when its callable returns not {@code null} result or throws an exception. Cancelled task
+     * is removed from the queue. Subclasses which override {@link #done()} must call {@code super.done()}.
+     */
+    public static class Task<V> extends FutureTask<V> {
+        private final Callable<V> callable;
+        private final String      owner;
+        private final int         priority;
+
+        /* Set once under lock of queue when task is submitted, read without lock by getPosition() and done(). */
+        private volatile DispatchQueue<V> queue;
+
+        /* Guarded by lock of queue. */
+        private boolean          queued;
+        private boolean          inProgress;
+        /** Set if {@link DispatchQueue#signal(Task)} is called while task is tried. */
+        private boolean          signalled;
+        private long             generation;
+        private long             nextAttempt;
+
+        /* Guarded by this. */
+        private Thread runner;
+
+        /**
+         * @param callable
+         *         callable that returns result if task is started or {@code null} if task can't be started at the moment
+         * @param owner
+         *         owner of task, tasks of different owners share resources fairly
+         * @param priority
+         *         priority of task, {@code 0} is the highest priority
+         */
+        public Task(Callable<V> callable, String owner, int priority) {
+            super(callable);
+            this.callable = callable;
+            this.owner = owner == null ? "" : owner;
+            this.priority = priority;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        /**
+         * Gets position of this task in queue.
+         *
+         * @return position of this task or {@code -1} if task isn't waiting in queue
+         * @see DispatchQueue#getPosition(Task)
+         */
+        public int getPosition() {
+            final DispatchQueue<V> myQueue = queue;
+            return myQueue == null ? -1 : myQueue.getPosition(this);
+        }
+
+        @Override
+        public void run() {
+            throw new UnsupportedOperationException("Task is started by DispatchQueue");
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(false);
+            if (cancelled && mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            final DispatchQueue<V> myQueue = queue;
+            if (myQueue != null && isCancelled()) {
+                myQueue.cancelled(this);
+            }
+        }
+
+        private void complete(V result, Exception error) {
+            if (error != null) {
+                setException(error);
+            } else {
+                set(result);
+            }
+        }
+
+        private synchronized void attemptStarted() {
+            runner = Thread.currentThread();
+        }
+
+        private synchronized void attemptEnded() {
+            runner = null;
+            // Don't let interruption of cancelled task affect next task in the same thread.
+            Thread.interrupted();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 
 /**
  * Helpers to manage system processes.
@@ -23,35 +24,44 @@ import java.io.InputStreamReader;
 public final class ProcessUtil {
     private static final ProcessManager PROCESS_MANAGER = ProcessManager.newInstance();
 
+    /**
+     * Reads standard and error output of process until process is terminated. Both outputs are read at the same time, so process never
+     * hangs because of full buffer of one of them. Must not be invoked from {@code LineConsumer} of {@link StreamPump}.
+     *
+     * @param p
+     *         process
+     * @param stdout
+     *         consumer of standard output
+     * @param stderr
+     *         consumer of error output
+     * @throws IOException
+     *         if an i/o error occurs while reading output of process
+     */
     public static void process(Process p, LineConsumer stdout, LineConsumer stderr) throws IOException {
-        BufferedReader inputReader = null;
-        BufferedReader errorReader = null;
+        final StreamPump inputPump = new StreamPump();
+        final StreamPump errorPump = new StreamPump();
+        inputPump.start(p, p.getInputStream(), stdout);
+        errorPump.start(p, p.getErrorStream(), stderr);
         try {
-            final InputStream inputStream = p.getInputStream();
-            final InputStream errorStream = p.getErrorStream();
-            inputReader = new BufferedReader(new InputStreamReader(inputStream));
-            errorReader = new BufferedReader(new InputStreamReader(errorStream));
-            String line;
-            while ((line = inputReader.readLine()) != null) {
-                stdout.writeLine(line);
-            }
-            while ((line = errorReader.readLine()) != null) {
-                stderr.writeLine(line);
-            }
+            inputPump.await();
+            errorPump.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
         } finally {
-            if (inputReader != null) {
-                try {
-                    inputReader.close();
-                } catch (IOException ignored) {
-                }
-            }
-            if (errorReader != null) {
-                try {
-                    errorReader.close();
-                } catch (IOException ignored) {
-                }
-            }
+            inputPump.stop();
+            errorPump.stop();
         }
+        if (inputPump.hasError()) {
+            throw toIOException(inputPump.getException());
+        }
+        if (errorPump.hasError()) {
+            throw toIOException(errorPump.getException());
+        }
+    }
+
+    private static IOException toIOException(Exception e) {
+        return e instanceof IOException ? (IOException)e : new IOException(e.getMessage(), e);
     }
 
     /**
@@ -10,31 +10,74 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.util;
 
-import java.io.BufferedReader;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-/** @author andrew00x */
+/**
+ * Pumps output of process to LineConsumer. All pumps share small pool of threads instead of thread per process. Process streams can't be
+ * used with selector, so pump reads only bytes which are available without blocking and then gives thread to other pumps. If stream has
+ * no data pump checks it again after short delay which grows while stream is idle.
+ *
+ * @author andrew00x
+ */
 public final class StreamPump implements Runnable {
+    private static final int  BUFFER_SIZE          = 8192;
+    private static final long MIN_IDLE_POLL_MILLIS = 10;
+    private static final long MAX_IDLE_POLL_MILLIS = 200;
+
+    private static final ScheduledExecutorService pumps =
+            Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+                                             new ThreadFactoryBuilder().setNameFormat("StreamPump-%d").setDaemon(true).build());
 
-    private BufferedReader bufferedReader;
-    private LineConsumer   lineConsumer;
+    private Process      process;
+    private InputStream  input;
+    private LineConsumer lineConsumer;
 
-    private Exception exception;
-    private boolean   done;
+    private final byte[]                buffer = new byte[BUFFER_SIZE];
+    private final ByteArrayOutputStream line   = new ByteArrayOutputStream();
 
-    public synchronized void start(Process process, LineConsumer lineConsumer) {
+    private boolean skipLF;
+    private long    idlePollMillis;
+
+    private volatile boolean   stopped;
+    private volatile Exception exception;
+    private boolean            done;
+
+    /** Starts pumping of standard output of process. */
+    public void start(Process process, LineConsumer lineConsumer) {
+        start(process, process.getInputStream(), lineConsumer);
+    }
+
+    /**
+     * Starts pumping of stream of process.
+     *
+     * @param process
+     *         process, pumping stops when process is terminated and all its output is read
+     * @param input
+     *         standard or error output of process
+     * @param lineConsumer
+     *         consumer of output
+     */
+    public synchronized void start(Process process, InputStream input, LineConsumer lineConsumer) {
+        this.process = process;
+        this.input = input;
         this.lineConsumer = lineConsumer;
-        bufferedReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        final Thread t = new Thread(this, "StreamPump");
-        t.setDaemon(true);
-        t.start();
+        idlePollMillis = MIN_IDLE_POLL_MILLIS;
+        pumps.execute(this);
     }
 
     public synchronized void stop() {
-        // Not clear do we need close original stream, but since it was wrapped by BufferedReader close it anyway.
+        stopped = true;
+        // Not clear do we need close original stream, but close it anyway.
         try {
-            bufferedReader.close();
+            input.close();
         } catch (IOException ignored) {
         }
     }
@@ -57,20 +100,80 @@ public final class StreamPump implements Runnable {
         return exception;
     }
 
+    /** NOTE: Not expected to call directly by regular users of this class. */
     @Override
     public void run() {
-        String line;
         try {
-            while ((line = bufferedReader.readLine()) != null) {
-                lineConsumer.writeLine(line);
+            if (stopped) {
+                finish();
+                return;
+            }
+            final int read = pump();
+            if (read < 0) {
+                if (line.size() > 0) {
+                    writeLine();
+                }
+                finish();
+            } else if (read > 0) {
+                idlePollMillis = MIN_IDLE_POLL_MILLIS;
+                pumps.execute(this);
+            } else {
+                pumps.schedule(this, idlePollMillis, TimeUnit.MILLISECONDS);
+                idlePollMillis = Math.min(idlePollMillis * 2, MAX_IDLE_POLL_MILLIS);
             }
-        } catch (IOException e) {
-            exception = e;
-        } finally {
-            synchronized (this) {
-                done = true;
-                notifyAll();
+        } catch (Exception e) {
+            if (!stopped) {
+                exception = e;
             }
+            finish();
+        }
+    }
+
+    /** Reads bytes which are available without blocking. Returns number of read bytes or {@code -1} if there is nothing to read anymore. */
+    private int pump() throws IOException {
+        // Check process before stream. Terminated process can't write anything, so all its output is already available.
+        final boolean terminated = isTerminated(process);
+        final int available = input.available();
+        if (available <= 0) {
+            return terminated ? -1 : 0;
+        }
+        final int read = input.read(buffer, 0, Math.min(available, buffer.length));
+        for (int i = 0; i < read; i++) {
+            final byte b = buffer[i];
+            if (b == '\n') {
+                if (skipLF) {
+                    skipLF = false;
+                } else {
+                    writeLine();
+                }
+            } else if (b == '\r') {
+                writeLine();
+                skipLF = true;
+            } else {
+                skipLF = false;
+                line.write(b);
+            }
+        }
+        return read;
+    }
+
+    private void writeLine() throws IOException {
+        final String str = new String(line.toByteArray(), Charset.defaultCharset());
+        line.reset();
+        lineConsumer.writeLine(str);
+    }
+
+    private synchronized void finish() {
+        done = true;
+        notifyAll();
+    }
+
+    private static boolean isTerminated(Process process) {
+        try {
+            process.exitValue();
+            return true;
+        } catch (IllegalThreadStateException e) {
+            return false;
         }
     }
 }
@@ -10,30 +10,50 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.util;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * It controls the time of {@code Cancellable} invocation and if time if greater than timeout it terminates such {@code Cancellable}.
+ * <p/>
+ * All watchdogs share single timer thread, so watching doesn't need thread per {@code Cancellable}. Expired {@code Cancellable} is
+ * cancelled in separate thread since cancellation, e.g. termination of process, may take time and must not delay other watchdogs.
  *
  * @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a>
  */
 public final class Watchdog implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(Watchdog.class);
 
+    private static final ScheduledThreadPoolExecutor timer;
+    private static final ExecutorService             cancellers;
+
+    static {
+        timer = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("Watchdog").setDaemon(true).build());
+        // Most of watchdogs are stopped before timeout, don't keep them in queue of timer.
+        timer.setRemoveOnCancelPolicy(true);
+        cancellers = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("Watchdog-Cancel-%d").setDaemon(true).build());
+    }
+
     private final String name;
     private final long   timeout;
 
-    private boolean     watch;
-    private Cancellable cancellable;
+    private boolean            watch;
+    private Cancellable        cancellable;
+    private ScheduledFuture<?> timeoutTask;
 
     /**
      * Create new {@code Watchdog}.
      *
      * @param name
-     *         name for background {@code Thread}. It helps to identify out threads. This parameter is optional and may be {@code null}.
+     *         name of watchdog. It helps to identify it in logs. This parameter is optional and may be {@code null}.
      * @param timeout
      *         timeout
      * @param unit
@@ -60,35 +80,34 @@ public final class Watchdog implements Runnable {
     public synchronized void start(Cancellable cancellable) {
         this.cancellable = cancellable;
         this.watch = true;
-        final Thread t = name == null ? new Thread(this) : new Thread(this, name);
-        t.setDaemon(true);
-        t.start();
+        timeoutTask = timer.schedule(this, timeout, TimeUnit.MILLISECONDS);
     }
 
     /** Stop watching. */
     public synchronized void stop() {
         watch = false;
-        notify();
+        if (timeoutTask != null) {
+            timeoutTask.cancel(false);
+            timeoutTask = null;
+        }
     }
 
     /** NOTE: Not expected to call directly by regular users of this class. */
     public synchronized void run() {
-        final long end = System.currentTimeMillis() + timeout;
-        long now;
-        while (watch && (end > (now = System.currentTimeMillis()))) {
-            try {
-                wait(end - now);
-            } catch (InterruptedException ignored) {
-                // Not expected to be thrown
-            }
-        }
         if (watch) {
-            try {
-                cancellable.cancel();
-            } catch (Exception e) {
-                LOG.error(e.getMessage(), e);
-            }
             watch = false;
+            timeoutTask = null;
+            final Cancellable myCancellable = cancellable;
+            cancellers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        myCancellable.cancel();
+                    } catch (Exception e) {
+                        LOG.error(String.format("%s: %s", name == null ? "Watchdog" : name, e.getMessage()), e);
+                    }
+                }
+            });
         }
     }
 }
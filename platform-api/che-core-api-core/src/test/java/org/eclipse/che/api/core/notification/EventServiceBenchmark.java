@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cost of {@link EventService#publish(Object)} with 0, 1 and 50 subscribers. Half of subscribers listen to the
+ * class of event and other half to its super class, so dispatching through hierarchy of event types is counted too.
+ * <p/>
+ * Run with: <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.eclipse.che.api.core.notification.EventServiceBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EventServiceBenchmark {
+    public static class BaseEvent {
+    }
+
+    public static class BuildEvent extends BaseEvent {
+    }
+
+    public static class BaseEventSubscriber implements EventSubscriber<BaseEvent> {
+        long count;
+
+        @Override
+        public void onEvent(BaseEvent event) {
+            count++;
+        }
+    }
+
+    public static class BuildEventSubscriber implements EventSubscriber<BuildEvent> {
+        long count;
+
+        @Override
+        public void onEvent(BuildEvent event) {
+            count++;
+        }
+    }
+
+    @Param({"0", "1", "50"})
+    public int subscribers;
+
+    private EventService eventService;
+    private BuildEvent   event;
+
+    @Setup
+    public void setUp() {
+        eventService = new EventService();
+        for (int i = 0; i < subscribers; i++) {
+            eventService.subscribe(i % 2 == 0 ? new BuildEventSubscriber() : new BaseEventSubscriber());
+        }
+        event = new BuildEvent();
+    }
+
+    @Benchmark
+    public void publish() {
+        eventService.publish(event);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -15,8 +15,14 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -140,6 +146,25 @@ public class EventServiceTest {
         Assert.assertTrue(events.contains("2:ext_event"));
     }
 
+    @Test
+    public void testSubscribeAfterPublish() {
+        final List<String> events = new ArrayList<>();
+        // Dispatch entry of ExtEvent is created without subscribers.
+        bus.publish(new ExtEvent());
+        final EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+            }
+        };
+        bus.subscribe(l);
+        bus.publish(new ExtEvent());
+        Assert.assertEquals(events, Arrays.asList("ext_event"));
+        bus.unsubscribe(l);
+        bus.publish(new ExtEvent());
+        Assert.assertEquals(events, Arrays.asList("ext_event"));
+    }
+
     @Test
     public void testUnsubscribe() {
         final List<String> events = new ArrayList<>();
@@ -157,4 +182,112 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    /** Subscriber that stops on the first event until it is released. */
+    static class BlockingListener implements EventSubscriber<String> {
+        final List<String>   events   = new CopyOnWriteArrayList<>();
+        final CountDownLatch started  = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final Set<Thread>    threads  = new CopyOnWriteArraySet<>();
+
+        @Override
+        public void onEvent(String event) {
+            threads.add(Thread.currentThread());
+            started.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+    }
+
+    private void waitForDelivery(AsyncSubscription subscription, long expected) throws Exception {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (subscription.getDeliveredEvents() < expected || subscription.getQueueDepth() > 0) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline, "Events are not delivered in time. ");
+            Thread.sleep(10);
+        }
+        // Delivered counter is incremented before subscriber is called.
+        Thread.sleep(50);
+    }
+
+    @Test
+    public void testAsyncDeliveryKeepsOrder() throws Exception {
+        final BlockingListener listener = new BlockingListener();
+        listener.released.countDown();
+        final AsyncSubscription subscription = bus.subscribe(listener, new AsyncDeliveryOptions().setQueueSize(16));
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(Integer.toString(i));
+            bus.publish(Integer.toString(i));
+        }
+        waitForDelivery(subscription, 1000);
+        Assert.assertEquals(listener.events, expected);
+        Assert.assertFalse(listener.threads.contains(Thread.currentThread()));
+        Assert.assertEquals(subscription.getDroppedEvents(), 0);
+        Assert.assertTrue(subscription.getMaxDispatchLatency(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    public void testAsyncDeliveryDropOldest() throws Exception {
+        final BlockingListener listener = new BlockingListener();
+        final AsyncSubscription subscription =
+                bus.subscribe(listener, new AsyncDeliveryOptions().setQueueSize(2)
+                                                                  .setBackpressure(AsyncDeliveryOptions.Backpressure.DROP_OLDEST));
+        bus.publish("a");
+        Assert.assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        bus.publish("b");
+        bus.publish("c");
+        bus.publish("d");
+        bus.publish("e");
+        Assert.assertEquals(subscription.getQueueDepth(), 2);
+        Assert.assertEquals(subscription.getDroppedEvents(), 2);
+        listener.released.countDown();
+        waitForDelivery(subscription, 3);
+        Assert.assertEquals(listener.events, Arrays.asList("a", "d", "e"));
+    }
+
+    @Test
+    public void testAsyncDeliveryCoalesce() throws Exception {
+        final BlockingListener listener = new BlockingListener();
+        final AsyncSubscription subscription =
+                bus.subscribe(listener, new AsyncDeliveryOptions().setBackpressure(AsyncDeliveryOptions.Backpressure.COALESCE)
+                                                                  .setChannelResolver(new AsyncDeliveryOptions.ChannelResolver() {
+                                                                      @Override
+                                                                      public Object getChannel(Object event) {
+                                                                          return ((String)event).split(":")[0];
+                                                                      }
+                                                                  }));
+        bus.publish("z:0");
+        Assert.assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        bus.publish("x:1");
+        bus.publish("y:1");
+        bus.publish("x:2");
+        bus.publish("x:3");
+        Assert.assertEquals(subscription.getQueueDepth(), 2);
+        Assert.assertEquals(subscription.getCoalescedEvents(), 2);
+        listener.released.countDown();
+        waitForDelivery(subscription, 3);
+        Assert.assertEquals(listener.events, Arrays.asList("z:0", "x:3", "y:1"));
+    }
+
+    @Test
+    public void testUnsubscribeAsync() throws Exception {
+        final BlockingListener listener = new BlockingListener();
+        final AsyncSubscription subscription = bus.subscribe(listener, new AsyncDeliveryOptions());
+        Assert.assertSame(bus.subscribe(listener, new AsyncDeliveryOptions()), subscription);
+        bus.publish("a");
+        Assert.assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        bus.publish("b");
+        bus.unsubscribe(listener);
+        Assert.assertTrue(subscription.isCancelled());
+        Assert.assertEquals(subscription.getQueueDepth(), 0);
+        Assert.assertEquals(subscription.getDroppedEvents(), 1);
+        listener.released.countDown();
+        bus.publish("c");
+        Thread.sleep(100);
+        Assert.assertEquals(listener.events, Arrays.asList("a"));
+    }
 }
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.commons.user.UserImpl;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+public class HttpJsonHelperTest {
+    private HttpServer   server;
+    private String       baseUrl;
+    private Set<Integer> clientPorts;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        clientPorts = Collections.synchronizedSet(new LinkedHashSet<Integer>());
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Responds with raw query of request.
+        server.createContext("/query", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                final String query = exchange.getRequestURI().getRawQuery();
+                sendMessage(exchange, 200, query == null ? "" : query, false);
+            }
+        });
+        // Responds with compressed content if client accepts it.
+        server.createContext("/gzip", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                sendMessage(exchange, 200, "accept-encoding: " + acceptEncoding, acceptEncoding != null && acceptEncoding.contains("gzip"));
+            }
+        });
+        // Responds with large error which is sent in chunks.
+        server.createContext("/error", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                final char[] message = new char[64 * 1024];
+                Arrays.fill(message, 'x');
+                sendMessage(exchange, 404, new String(message), false);
+            }
+        });
+        // Responds with error which isn't json.
+        server.createContext("/text-error", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                exchange.getResponseHeaders().add("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(500, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write("text error".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop(0);
+        EnvironmentContext.reset();
+    }
+
+    @Test
+    public void testAddParametersToUrl() throws Exception {
+        final Map<String, List<String>> query = query(baseUrl + "/query", Pair.of("a", "1"), Pair.of("b", 2));
+        Assert.assertEquals(query.get("a"), Arrays.asList("1"));
+        Assert.assertEquals(query.get("b"), Arrays.asList("2"));
+        Assert.assertEquals(query.size(), 2);
+    }
+
+    @Test
+    public void testParameterOverridesPreviousParameterWithTheSameName() throws Exception {
+        final Map<String, List<String>> query = query(baseUrl + "/query", Pair.of("a", "1"), Pair.of("b", "2"), Pair.of("a", "3"));
+        Assert.assertEquals(query.get("a"), Arrays.asList("3"));
+        Assert.assertEquals(query.get("b"), Arrays.asList("2"));
+    }
+
+    @Test
+    public void testParameterWithNullValueRemovesParameter() throws Exception {
+        final Map<String, List<String>> query = query(baseUrl + "/query", Pair.of("a", "1"), Pair.of("b", "2"), Pair.of("a", null));
+        Assert.assertNull(query.get("a"));
+        Assert.assertEquals(query.get("b"), Arrays.asList("2"));
+        Assert.assertEquals(query(baseUrl + "/query", Pair.of("a", null)).size(), 0);
+    }
+
+    @Test
+    public void testAddParametersToUrlWithQuery() throws Exception {
+        final Map<String, List<String>> query = query(baseUrl + "/query?a=0&c=x%26y", Pair.of("a", "1"), Pair.of("b", "2"));
+        Assert.assertEquals(query.get("a"), Arrays.asList("1"));
+        Assert.assertEquals(query.get("b"), Arrays.asList("2"));
+        Assert.assertEquals(query.get("c"), Arrays.asList("x&y"));
+        Assert.assertEquals(query.size(), 3);
+    }
+
+    @Test
+    public void testParameterWithNullValueRemovesParameterFromUrlWithQuery() throws Exception {
+        final Map<String, List<String>> query = query(baseUrl + "/query?a=0&c=3", Pair.of("a", null));
+        Assert.assertNull(query.get("a"));
+        Assert.assertEquals(query.get("c"), Arrays.asList("3"));
+    }
+
+    @Test
+    public void testEncodeTokenAndParameters() throws Exception {
+        EnvironmentContext.getCurrent().setUser(new UserImpl("user", "token +&=/?é", Collections.<String>emptyList()));
+        final Map<String, List<String>> query = query(baseUrl + "/query", Pair.of("name with space", "value&with=special ?é"));
+        Assert.assertEquals(query.get("token"), Arrays.asList("token +&=/?é"));
+        Assert.assertEquals(query.get("name with space"), Arrays.asList("value&with=special ?é"));
+        Assert.assertEquals(query.size(), 2);
+    }
+
+    @Test
+    public void testEncodeTokenAndParametersOfUrlWithQuery() throws Exception {
+        EnvironmentContext.getCurrent().setUser(new UserImpl("user", "token +&=/?é", Collections.<String>emptyList()));
+        final Map<String, List<String>> query = query(baseUrl + "/query?a=0", Pair.of("name with space", "value&with=special ?é"));
+        Assert.assertEquals(query.get("token"), Arrays.asList("token +&=/?é"));
+        Assert.assertEquals(query.get("name with space"), Arrays.asList("value&with=special ?é"));
+        Assert.assertEquals(query.get("a"), Arrays.asList("0"));
+        Assert.assertEquals(query.size(), 3);
+    }
+
+    @Test
+    public void testReadCompressedResponse() throws Exception {
+        final ServiceError response = HttpJsonHelper.request(ServiceError.class, baseUrl + "/gzip", "GET", null);
+        Assert.assertEquals(response.getMessage(), "accept-encoding: gzip");
+    }
+
+    @Test
+    public void testReuseConnectionAfterErrorResponse() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try {
+                HttpJsonHelper.request(ServiceError.class, baseUrl + "/error", "GET", null);
+                Assert.fail("NotFoundException is expected");
+            } catch (NotFoundException e) {
+                Assert.assertEquals(e.getMessage().length(), 64 * 1024);
+            }
+            try {
+                HttpJsonHelper.request(ServiceError.class, baseUrl + "/text-error", "GET", null);
+                Assert.fail("IOException is expected");
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().endsWith("response code: 500, message: text error"), e.getMessage());
+            }
+            Assert.assertEquals(HttpJsonHelper.request(ServiceError.class, baseUrl + "/query", "GET", null).getMessage(), "");
+        }
+        // Error responses are read up to the end, so all requests are sent over the same connection.
+        Assert.assertEquals(clientPorts.size(), 1, "Connections: " + clientPorts);
+    }
+
+    private Map<String, List<String>> query(String url, Pair<String, ?>... parameters) throws Exception {
+        final String rawQuery = HttpJsonHelper.request(ServiceError.class, url, "GET", null, parameters).getMessage();
+        final Map<String, List<String>> query = new LinkedHashMap<>();
+        if (!rawQuery.isEmpty()) {
+            for (String pair : rawQuery.split("&")) {
+                final int eq = pair.indexOf('=');
+                final String name = URLDecoder.decode(pair.substring(0, eq), "UTF-8");
+                final String value = URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+                List<String> values = query.get(name);
+                if (values == null) {
+                    query.put(name, values = new ArrayList<String>());
+                }
+                values.add(value);
+            }
+        }
+        return query;
+    }
+
+    /** Sends {@link ServiceError} with specified message, content is sent in chunks. */
+    private void sendMessage(HttpExchange exchange, int status, String message, boolean gzip) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(content) : content) {
+            out.write(DtoFactory.getInstance().toJson(DtoFactory.getInstance().createDto(ServiceError.class).withMessage(message))
+                                .getBytes(StandardCharsets.UTF_8));
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (gzip) {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            content.writeTo(out);
+        }
+    }
+}
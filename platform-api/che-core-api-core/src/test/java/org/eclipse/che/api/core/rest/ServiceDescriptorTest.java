@@ -40,8 +40,10 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Application;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /** @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a> */
@@ -136,6 +138,25 @@ public class ServiceDescriptorTest {
         Assert.assertTrue(valid.contains("b"));
     }
 
+    @Test
+    public void testETag() throws Exception {
+        ContainerResponse response = launcher.service("OPTIONS", SERVICE_URI, BASE_URI, null, null, null, null);
+        Assert.assertEquals(response.getStatus(), 200);
+        Assert.assertNotNull(response.getHttpHeaders().getFirst("ETag"));
+        Assert.assertEquals(response.getHttpHeaders().getFirst("Cache-Control"), "no-cache");
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        ContainerResponse response = launcher.service("OPTIONS", SERVICE_URI, BASE_URI, null, null, null, null);
+        String eTag = String.valueOf(response.getHttpHeaders().getFirst("ETag"));
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Collections.singletonList(eTag));
+        response = launcher.service("OPTIONS", SERVICE_URI, BASE_URI, headers, null, null, null);
+        Assert.assertEquals(response.getStatus(), 304);
+        Assert.assertNull(response.getEntity());
+    }
+
     private Link getLink(String rel) throws Exception {
         List<Link> links = getDescriptor().getLinks();
         for (Link link : links) {
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class BufferedLineConsumerTest {
+    @Test
+    public void testWriteChunkWhenMaxLinesReached() throws Exception {
+        final MyLineConsumer consumer = new MyLineConsumer(3, 1000, 1, TimeUnit.MINUTES);
+        consumer.writeLine("a");
+        consumer.writeLine("b");
+        Assert.assertTrue(consumer.chunks.isEmpty());
+        consumer.writeLine("c");
+        Assert.assertEquals(consumer.chunks.poll(), Arrays.asList("a", "b", "c"));
+    }
+
+    @Test
+    public void testWriteChunkWhenMaxCharsReached() throws Exception {
+        final MyLineConsumer consumer = new MyLineConsumer(1000, 8, 1, TimeUnit.MINUTES);
+        consumer.writeLine("abc");
+        Assert.assertTrue(consumer.chunks.isEmpty());
+        consumer.writeLine("def");
+        Assert.assertEquals(consumer.chunks.poll(), Arrays.asList("abc", "def"));
+    }
+
+    @Test
+    public void testWriteChunkAfterDelay() throws Exception {
+        final MyLineConsumer consumer = new MyLineConsumer(1000, 1000, 100, TimeUnit.MILLISECONDS);
+        consumer.writeLine("a");
+        consumer.writeLine(null);
+        Assert.assertEquals(consumer.chunks.poll(5, TimeUnit.SECONDS), Arrays.asList("a", null));
+    }
+
+    @Test
+    public void testWriteChunkOnClose() throws Exception {
+        final MyLineConsumer consumer = new MyLineConsumer(1000, 1000, 1, TimeUnit.MINUTES);
+        consumer.writeLine("a");
+        consumer.close();
+        Assert.assertEquals(consumer.chunks.poll(), Arrays.asList("a"));
+        try {
+            consumer.writeLine("b");
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static class MyLineConsumer extends BufferedLineConsumer {
+        final BlockingQueue<List<String>> chunks = new LinkedBlockingQueue<>();
+
+        MyLineConsumer(int maxLines, int maxChars, long maxDelay, TimeUnit unit) {
+            super(maxLines, maxChars, maxDelay, unit);
+        }
+
+        @Override
+        protected void writeLines(List<String> lines) {
+            chunks.add(new ArrayList<>(lines));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DispatchQueueTest {
+    private DispatchQueue<String> queue;
+    private AtomicInteger         permits;
+    private AtomicInteger         attempts;
+    private List<String>          started;
+
+    @BeforeMethod
+    public void setUp() {
+        permits = new AtomicInteger();
+        attempts = new AtomicInteger();
+        started = new CopyOnWriteArrayList<>();
+        // One thread makes order of attempts predictable. Tasks are tried again only after signal.
+        queue = new DispatchQueue<>("TestQueue", 2, 1, 8, TimeUnit.MINUTES.toMillis(1));
+        queue.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    public void testFairShareBetweenOwners() throws Exception {
+        queue.submit(newTask("a1", "A", 1));
+        queue.submit(newTask("a2", "A", 1));
+        queue.submit(newTask("a3", "A", 1));
+        queue.submit(newTask("b1", "B", 1));
+        queue.submit(newTask("b2", "B", 1));
+        queue.submit(newTask("c1", "C", 1));
+        // Only heads of owners are tried.
+        waitForAttempts(3);
+        permits.set(6);
+        queue.signal();
+        waitForStarted(6);
+        Assert.assertEquals(started, Arrays.asList("a1", "b1", "c1", "a2", "b2", "a3"));
+        Assert.assertEquals(queue.size(), 0);
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        queue.submit(newTask("low", "A", 1));
+        queue.submit(newTask("high", "B", 0));
+        waitForAttempts(2);
+        permits.set(1);
+        queue.signal();
+        waitForStarted(1);
+        Assert.assertEquals(started, Arrays.asList("high"));
+        Assert.assertEquals(queue.size(), 1);
+    }
+
+    @Test
+    public void testPosition() throws Exception {
+        final DispatchQueue.Task<String> a1 = newTask("a1", "A", 1);
+        final DispatchQueue.Task<String> a2 = newTask("a2", "A", 1);
+        final DispatchQueue.Task<String> b1 = newTask("b1", "B", 1);
+        final DispatchQueue.Task<String> high = newTask("high", "C", 0);
+        queue.submit(a1);
+        queue.submit(a2);
+        queue.submit(b1);
+        queue.submit(high);
+        waitForAttempts(3);
+        Assert.assertEquals(high.getPosition(), 1);
+        Assert.assertEquals(a1.getPosition(), 2);
+        Assert.assertEquals(b1.getPosition(), 3);
+        Assert.assertEquals(a2.getPosition(), 4);
+    }
+
+    @Test
+    public void testCancelWaitingTask() throws Exception {
+        final DispatchQueue.Task<String> task = newTask("a1", "A", 1);
+        queue.submit(task);
+        waitForAttempts(1);
+        Assert.assertTrue(task.cancel(true));
+        Assert.assertEquals(queue.size(), 0);
+        Assert.assertEquals(task.getPosition(), -1);
+        permits.set(1);
+        queue.signal();
+        Thread.sleep(200);
+        Assert.assertTrue(started.isEmpty());
+    }
+
+    @Test
+    public void testSignalTask() throws Exception {
+        final DispatchQueue.Task<String> a1 = newTask("a1", "A", 1);
+        final DispatchQueue.Task<String> b1 = newTask("b1", "B", 1);
+        queue.submit(a1);
+        queue.submit(b1);
+        waitForAttempts(2);
+        permits.set(1);
+        // Only signalled task is tried again.
+        queue.signal(b1);
+        waitForStarted(1);
+        Assert.assertEquals(started, Arrays.asList("b1"));
+        Assert.assertEquals(attempts.get(), 3);
+        Assert.assertEquals(queue.size(), 1);
+    }
+
+    @Test(expectedExceptions = RejectedExecutionException.class)
+    public void testRejectWhenFull() throws Exception {
+        for (int i = 0; i < 9; i++) {
+            queue.submit(newTask("a" + i, "A", 1));
+        }
+    }
+
+    @Test
+    public void testError() throws Exception {
+        final DispatchQueue.Task<String> task = new DispatchQueue.Task<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new IllegalStateException("error");
+            }
+        }, "A", 0);
+        queue.submit(task);
+        try {
+            task.get(5, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(queue.size(), 0);
+    }
+
+    private DispatchQueue.Task<String> newTask(final String name, String owner, int priority) {
+        return new DispatchQueue.Task<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                attempts.incrementAndGet();
+                for (; ; ) {
+                    final int free = permits.get();
+                    if (free <= 0) {
+                        return null;
+                    }
+                    if (permits.compareAndSet(free, free - 1)) {
+                        started.add(name);
+                        return name;
+                    }
+                }
+            }
+        }, owner, priority);
+    }
+
+    private void waitForAttempts(int expected) throws Exception {
+        final long end = System.currentTimeMillis() + 5000;
+        while (attempts.get() < expected) {
+            if (System.currentTimeMillis() > end) {
+                Assert.fail("timeout");
+            }
+            Thread.sleep(10);
+        }
+        // Let queue update state of the last task.
+        Thread.sleep(100);
+    }
+
+    private void waitForStarted(int expected) throws Exception {
+        final long end = System.currentTimeMillis() + 5000;
+        while (started.size() < expected) {
+            if (System.currentTimeMillis() > end) {
+                Assert.fail("timeout");
+            }
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class StreamPumpTest {
+    @Test
+    public void testPumpOutput() throws Exception {
+        final Process p = Runtime.getRuntime().exec(new String[]{"/bin/bash", "-c", "printf 'a\\nb\\r\\nc'; sleep 1; echo d"});
+        final ListLineConsumer output = new ListLineConsumer();
+        final StreamPump pump = new StreamPump();
+        pump.start(p, output);
+        p.waitFor();
+        pump.await();
+        pump.stop();
+        Assert.assertFalse(pump.hasError());
+        Assert.assertEquals(output.getLines(), Arrays.asList("a", "b", "cd"));
+    }
+
+    @Test
+    public void testPumpManyProcesses() throws Exception {
+        final int n = 20;
+        final Process[] processes = new Process[n];
+        final ListLineConsumer[] outputs = new ListLineConsumer[n];
+        final StreamPump[] pumps = new StreamPump[n];
+        for (int i = 0; i < n; i++) {
+            processes[i] = Runtime.getRuntime().exec(new String[]{"/bin/bash", "-c", "for i in $(seq 1 1000); do echo line$i; done"});
+            outputs[i] = new ListLineConsumer();
+            pumps[i] = new StreamPump();
+            pumps[i].start(processes[i], outputs[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            pumps[i].await();
+            Assert.assertEquals(outputs[i].getLines().size(), 1000);
+            Assert.assertEquals(outputs[i].getLines().get(999), "line1000");
+        }
+    }
+}
@@ -14,6 +14,7 @@ package org.eclipse.che.dto.generator;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
+import org.eclipse.che.dto.server.StreamingJsonSerializable;
 import org.eclipse.che.dto.shared.DelegateRule;
 import org.eclipse.che.dto.shared.DTOImpl;
 import org.eclipse.che.dto.shared.DelegateTo;
@@ -70,7 +71,11 @@ public class DtoImplServerTemplate extends DtoImpl {
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitStreamingSerializer(methods, builder);
         emitDeserializer(methods, builder);
+        emitStreamingDeserializer(methods, builder);
+        emitBinarySerializer(methods, builder);
+        emitBinaryDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
@@ -296,7 +301,15 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        builder.append("      return gson.toJson(toJsonElement());\n");
+        builder.append("      java.io.StringWriter json = new java.io.StringWriter();\n");
+        builder.append("      try {\n");
+        builder.append("        JsonWriter out = new JsonWriter(json);\n");
+        builder.append("        out.setLenient(true);\n");
+        builder.append("        write(out);\n");
+        builder.append("      } catch (java.io.IOException e) {\n");
+        builder.append("        throw new com.google.gson.JsonIOException(e);\n");
+        builder.append("      }\n");
+        builder.append("      return json.toString();\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -305,6 +318,111 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /** Generates a method that writes fields directly to the JSON stream without creating tree of JsonElement. */
+    private void emitStreamingSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void write(JsonWriter out) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            // Compact form is rare and small, reuse tree serializer for it.
+            builder.append("      gson.toJson(toJsonElement(), out);\n");
+        } else {
+            builder.append("      out.beginObject();\n");
+            for (Method getter : getters) {
+                builder.append("      out.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+                emitWriterImpl(expandType(getter.getGenericReturnType()), 0, builder, getJavaFieldName(getter.getName()), "      ");
+            }
+            builder.append("      out.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to write the type with the given variable name to JsonWriter {@code out}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitWriterImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final String value = depth == 0 ? "this." + inVar : inVar;
+        final String childInVar = inVar + "_";
+        final String entryVar = "entry" + depth;
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            }
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  out.beginArray();\n");
+                builder.append(i).append("  for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                       .append(") {\n");
+            } else {
+                builder.append(i).append("  out.beginObject();\n");
+                builder.append(i).append("  for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                       .append(" : ").append(value).append(".entrySet()) {\n");
+                builder.append(i).append("    out.name(").append(entryVar).append(".getKey());\n");
+                builder.append(i).append("    ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                       .append(".getValue();\n");
+            }
+            emitWriterImpl(expandedTypes, depth + 1, builder, childInVar, i + "    ");
+            builder.append(i).append("  }\n");
+            builder.append(i).append(isList(rawClass) ? "  out.endArray();\n" : "  out.endObject();\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.isEnum()) {
+            emitNullCheckedWrite(value, "out.value(" + value + ".name());", builder, i);
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitNullCheckedWrite(value, "((" + getImplNameForDto(rawClass) + ")" + value + ").write(out);", builder, i);
+        } else if (rawClass == String.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == float.class) {
+            // Write float as Number to get the same string representation as for float value itself, e.g. 0.1 instead of 0.10000000149011612
+            builder.append(i).append("out.value((Number)Float.valueOf(").append(value).append("));\n");
+        } else if (rawClass == boolean.class
+                   || rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            emitNullCheckedWrite(value, "out.value(" + value + ".booleanValue());", builder, i);
+        } else if (rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            builder.append(i).append("out.value((Number)").append(value).append(");\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitNullCheckedWrite(value, "((" + dtoImplementation.getCanonicalName() + ")" + value + ").write(out);", builder, i);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private void emitNullCheckedWrite(String value, String write, StringBuilder builder, String i) {
+        builder.append(i).append("if (").append(value).append(" == null) {\n");
+        builder.append(i).append("  out.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ").append(write).append("\n");
+        builder.append(i).append("}\n");
+    }
+
     private void emitSerializeFieldForMethod(Method getter, final StringBuilder builder) {
         final String fieldName = getFieldNameFromGetterName(getter.getName());
         final String jsonFieldName = getJsonFieldName(getter);
@@ -461,6 +579,361 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /** Generates a static factory method that creates a new instance and reads its fields directly from the JSON stream. */
+    private void emitStreamingDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" read(JsonReader in) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            builder.append("      return fromJsonElement(new JsonParser().parse(in));\n");
+            builder.append("    }\n\n");
+            return;
+        }
+        builder.append("      if (in.peek() == JsonToken.NULL) {\n");
+        builder.append("        in.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      in.beginObject();\n");
+        builder.append("      while (in.hasNext()) {\n");
+        builder.append("        switch (in.nextName()) {\n");
+        final Set<String> jsonFieldNames = new HashSet<>();
+        for (Method getter : getters) {
+            final String jsonFieldName = getJsonFieldName(getter);
+            if (!jsonFieldNames.add(jsonFieldName)) {
+                continue;
+            }
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(quoteStringLiteral(jsonFieldName)).append(": {\n");
+            emitReaderImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            in.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      in.endObject();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to read the type from JsonReader {@code in} to the variable with the given name.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output of deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitReaderImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final String childOutVar = outVar + "_";
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (in.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  in.beginArray();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endArray();\n");
+            } else {
+                final String keyVar = "key" + depth;
+                builder.append(i).append("  in.beginObject();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                builder.append(i).append("    String ").append(keyVar).append(" = in.nextName();\n");
+                emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endObject();\n");
+            }
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".read(in);\n");
+        } else if (rawClass.isPrimitive()) {
+            // Leave default value of primitive if JSON contains null.
+            builder.append(i).append(rawClass.getName()).append(" ").append(outVar).append(" = ")
+                   .append(rawClass == boolean.class ? "false" : "0").append(";\n");
+            builder.append(i).append("if (in.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = ");
+            if (rawClass == boolean.class) {
+                builder.append("in.nextBoolean()");
+            } else if (rawClass == long.class) {
+                builder.append("in.nextLong()");
+            } else if (rawClass == double.class) {
+                builder.append("in.nextDouble()");
+            } else if (rawClass == float.class) {
+                builder.append("(float)in.nextDouble()");
+            } else if (rawClass == int.class) {
+                builder.append("in.nextInt()");
+            } else {
+                builder.append("(").append(rawClass.getName()).append(")in.nextInt()");
+            }
+            builder.append(";\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass == String.class) {
+            builder.append(i).append("String ").append(outVar).append(" = readString(in);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(".read(in);\n");
+            } else {
+                // Use gson to handle all other types.
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.getAdapter(").append(rawClassName)
+                       .append(".class).read(in);\n");
+            }
+        }
+    }
+
+    /**
+     * Generates a method that writes fields to the compact binary stream. Fields are identified by their JSON names, see {@link
+     * org.eclipse.che.dto.server.DtoBinaryWriter}. Fields with {@code null} value are omitted.
+     */
+    private void emitBinarySerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeBinary(DtoBinaryWriter out) throws java.io.IOException {\n");
+        builder.append("      out.beginObject();\n");
+        for (Method getter : getters) {
+            final String fieldName = getJavaFieldName(getter.getName());
+            final Class<?> rawClass = getRawClass(getter.getGenericReturnType());
+            String i = "      ";
+            if (!rawClass.isPrimitive()) {
+                builder.append(i).append("if (this.").append(fieldName).append(" != null) {\n");
+                i += "  ";
+            }
+            builder.append(i).append("out.field(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+            emitBinaryWriterImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldName, i);
+            if (!rawClass.isPrimitive()) {
+                builder.append("      }\n");
+            }
+        }
+        builder.append("      out.endObject();\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to write the type with the given variable name to DtoBinaryWriter {@code out}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitBinaryWriterImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final String value = depth == 0 ? "this." + inVar : inVar;
+        final String childInVar = inVar + "_";
+        final String entryVar = "entry" + depth;
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            final String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            final StringBuilder write = new StringBuilder();
+            final String wi = depth == 0 ? i : i + "  ";
+            if (isList(rawClass)) {
+                write.append("out.beginArray(").append(value).append(".size());\n");
+                write.append(wi).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                     .append(") {\n");
+            } else {
+                write.append("out.beginMap(").append(value).append(".size());\n");
+                write.append(wi).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                     .append(" : ").append(value).append(".entrySet()) {\n");
+                write.append(wi).append("  out.key(").append(entryVar).append(".getKey());\n");
+                write.append(wi).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                     .append(".getValue();\n");
+            }
+            emitBinaryWriterImpl(expandedTypes, depth + 1, write, childInVar, wi + "  ");
+            write.append(wi).append("}");
+            emitBinaryNullCheckedWrite(depth, value, write.toString(), builder, i);
+        } else if (rawClass.isEnum()) {
+            emitBinaryNullCheckedWrite(depth, value, "out.value(" + value + ".name());", builder, i);
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitBinaryNullCheckedWrite(depth, value, "((" + getImplNameForDto(rawClass) + ")" + value + ").writeBinary(out);", builder, i);
+        } else if (rawClass == String.class
+                   || rawClass == boolean.class
+                   || rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == float.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            emitBinaryNullCheckedWrite(depth, value, "out.value(" + value + ".booleanValue());", builder, i);
+        } else if (rawClass == Double.class || rawClass == Float.class) {
+            emitBinaryNullCheckedWrite(depth, value, "out.value(" + value + ".doubleValue());", builder, i);
+        } else if (rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            emitBinaryNullCheckedWrite(depth, value, "out.value(" + value + ".longValue());", builder, i);
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitBinaryNullCheckedWrite(depth, value, "((" + dtoImplementation.getCanonicalName() + ")" + value + ").writeBinary(out);",
+                                           builder, i);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    /** Fields of object are checked for null before writing, so only items of collections need check here. */
+    private void emitBinaryNullCheckedWrite(int depth, String value, String write, StringBuilder builder, String i) {
+        if (depth == 0) {
+            builder.append(i).append(write).append("\n");
+        } else {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(write).append("\n");
+            builder.append(i).append("}\n");
+        }
+    }
+
+    /** Generates a static factory method that creates a new instance and reads its fields from the compact binary stream. */
+    private void emitBinaryDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName())
+               .append(" readBinary(DtoBinaryReader in) throws java.io.IOException {\n");
+        builder.append("      if (in.peek() == DtoBinaryWriter.NULL) {\n");
+        builder.append("        in.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      in.beginObject();\n");
+        builder.append("      for (String field = in.nextField(); field != null; field = in.nextField()) {\n");
+        builder.append("        switch (field) {\n");
+        for (Method getter : getters) {
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(quoteStringLiteral(getJsonFieldName(getter))).append(": {\n");
+            emitBinaryReaderImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            in.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to read the type from DtoBinaryReader {@code in} to the variable with the given name.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output of deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitBinaryReaderImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final String childOutVar = outVar + "_";
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            final String sizeVar = "size" + depth;
+            final String indexVar = "i" + depth;
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (in.peek() == DtoBinaryWriter.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  int ").append(sizeVar).append(" = ").append(isList(rawClass) ? "in.beginArray()" : "in.beginMap()")
+                   .append(";\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true))
+                   .append("(DtoBinaryReader.initialCapacity(").append(sizeVar).append("));\n");
+            builder.append(i).append("  for (int ").append(indexVar).append(" = 0; ").append(indexVar).append(" < ").append(sizeVar)
+                   .append("; ").append(indexVar).append("++) {\n");
+            if (isList(rawClass)) {
+                emitBinaryReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+            } else {
+                final String keyVar = "key" + depth;
+                builder.append(i).append("    String ").append(keyVar).append(" = in.nextKey();\n");
+                emitBinaryReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+            }
+            builder.append(i).append("  }\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.isEnum()) {
+            final String rawClassName = rawClass.getName().replace('$', '.');
+            builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = in.nextEnum(").append(rawClassName)
+                   .append(".class);\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".readBinary(in);\n");
+        } else if (rawClass == String.class) {
+            builder.append(i).append("String ").append(outVar).append(" = in.nextString();\n");
+        } else if (rawClass.isPrimitive()) {
+            builder.append(i).append(rawClass.getName()).append(" ").append(outVar).append(" = ").append(getBinaryReadExpression(rawClass))
+                   .append(";\n");
+        } else if (rawClass == Boolean.class
+                   || rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (in.peek() == DtoBinaryWriter.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = ").append(getBinaryReadExpression(Primitives.unwrap(rawClass)))
+                   .append(";\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(".readBinary(in);\n");
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private String getBinaryReadExpression(Class<?> primitive) {
+        if (primitive == boolean.class) {
+            return "in.nextBoolean()";
+        } else if (primitive == long.class) {
+            return "in.nextLong()";
+        } else if (primitive == double.class) {
+            return "in.nextDouble()";
+        } else if (primitive == float.class) {
+            return "(float)in.nextDouble()";
+        }
+        return "(" + primitive.getName() + ")in.nextLong()";
+    }
+
     private void emitDeserializerShortcut(StringBuilder builder) {
         builder.append("    public static ");
         builder.append(getImplClassName());
@@ -602,7 +1075,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
         builder.append(" implements ");
         builder.append(dtoInterface.getCanonicalName());
-        builder.append(", JsonSerializable ");
+        builder.append(", StreamingJsonSerializable, BinarySerializable ");
         builder.append(" {\n\n");
         emitFactoryMethod(builder);
         emitDefaultConstructor(builder);
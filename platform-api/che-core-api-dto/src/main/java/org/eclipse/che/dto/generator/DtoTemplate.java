@@ -191,7 +191,11 @@ public class DtoTemplate {
         builder.append(packageName);
         builder.append(";\n\n");
         if ("server".equals(implType)) {
+            builder.append("import org.eclipse.che.dto.server.BinarySerializable;\n");
+            builder.append("import org.eclipse.che.dto.server.DtoBinaryReader;\n");
+            builder.append("import org.eclipse.che.dto.server.DtoBinaryWriter;\n");
             builder.append("import org.eclipse.che.dto.server.JsonSerializable;\n");
+            builder.append("import org.eclipse.che.dto.server.StreamingJsonSerializable;\n");
             builder.append("\n");
             builder.append("import com.google.gson.Gson;\n");
             builder.append("import com.google.gson.GsonBuilder;\n");
@@ -201,6 +205,9 @@ public class DtoTemplate {
             builder.append("import com.google.gson.JsonObject;\n");
             builder.append("import com.google.gson.JsonParser;\n");
             builder.append("import com.google.gson.JsonPrimitive;\n");
+            builder.append("import com.google.gson.stream.JsonReader;\n");
+            builder.append("import com.google.gson.stream.JsonToken;\n");
+            builder.append("import com.google.gson.stream.JsonWriter;\n");
             builder.append("\n");
             builder.append("import java.util.List;\n");
             builder.append("import java.util.Map;\n");
@@ -230,6 +237,18 @@ public class DtoTemplate {
         builder.append(" {\n\n");
         if ("server".equals(implType)) {
             builder.append("  private static final Gson gson = new GsonBuilder().disableHtmlEscaping().serializeNulls().create();\n\n");
+            // Reads string in the same way as gson does, i.e. accepts numbers and booleans as well.
+            builder.append("  private static String readString(JsonReader in) throws java.io.IOException {\n");
+            builder.append("    JsonToken token = in.peek();\n");
+            builder.append("    if (token == JsonToken.NULL) {\n");
+            builder.append("      in.nextNull();\n");
+            builder.append("      return null;\n");
+            builder.append("    }\n");
+            builder.append("    if (token == JsonToken.BOOLEAN) {\n");
+            builder.append("      return Boolean.toString(in.nextBoolean());\n");
+            builder.append("    }\n");
+            builder.append("    return in.nextString();\n");
+            builder.append("  }\n\n");
             builder.append("  @Override\n" +
                            "  public void accept(org.eclipse.che.dto.server.DtoFactory dtoFactory) {\n");
             for (DtoImpl dto : getDtoInterfaces()) {
@@ -248,6 +267,14 @@ public class DtoTemplate {
                 builder.append("        public ").append(dtoInterface).append(" fromJson(com.google.gson.JsonElement json) {\n")
                        .append("            return ").append(dto.getImplClassName()).append(".fromJsonElement(json);\n");
                 builder.append("        }\n\n");
+                builder.append("        public ").append(dtoInterface)
+                       .append(" fromJson(com.google.gson.stream.JsonReader json) throws java.io.IOException {\n")
+                       .append("            return ").append(dto.getImplClassName()).append(".read(json);\n");
+                builder.append("        }\n\n");
+                builder.append("        public ").append(dtoInterface)
+                       .append(" fromBinary(org.eclipse.che.dto.server.DtoBinaryReader in) throws java.io.IOException {\n")
+                       .append("            return ").append(dto.getImplClassName()).append(".readBinary(in);\n");
+                builder.append("        }\n\n");
                 builder.append("        public ").append(dtoInterface).append(" clone(").append(dtoInterface).append(" origin) {\n")
                        .append("            return new ").append(dto.getImplClassName()).append("(origin);\n");
                 builder.append("        }\n");
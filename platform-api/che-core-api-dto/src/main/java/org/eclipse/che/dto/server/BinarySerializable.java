@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import java.io.IOException;
+
+/**
+ * An entity that may write itself in compact binary format, see {@link DtoBinaryWriter}.
+ */
+public interface BinarySerializable {
+    /** Writes DTO to the binary stream. */
+    void writeBinary(DtoBinaryWriter writer) throws IOException;
+}
@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.eclipse.che.dto.server.DtoBinaryWriter.ARRAY;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.DOUBLE;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.END_OF_OBJECT;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.FALSE;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.MAP;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.MAX_NAMES;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.NAME_REFERENCE_OFFSET;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.NEW_NAME;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.NULL;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.NUMBER;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.OBJECT;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.STRING;
+import static org.eclipse.che.dto.server.DtoBinaryWriter.TRUE;
+
+/**
+ * Reads values written by {@link DtoBinaryWriter} directly from the stream. Reader buffers input and may read ahead from the underlying
+ * stream, so stream should not be used by anybody else. The same reader must be used for the whole stream, since names of fields are
+ * written only once per stream.
+ * <p/>
+ * Sizes of strings, arrays and maps are read from the stream, so reader never trusts them for allocating memory. Memory is allocated while
+ * data is actually read, see {@link #initialCapacity(int)}.
+ */
+public final class DtoBinaryReader {
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final InputStream  in;
+    private final byte[]       buffer;
+    private final List<String> names;
+
+    private int position;
+    private int limit;
+    private int peeked;
+
+    public DtoBinaryReader(InputStream in) {
+        this.in = in;
+        buffer = new byte[8192];
+        names = new ArrayList<>();
+        peeked = -1;
+    }
+
+    /**
+     * Gets initial capacity of collection for the specified number of items which is read from the stream. Capacity is limited, so
+     * malformed or hostile stream can't make reader allocate a lot of memory before the items are actually read.
+     */
+    public static int initialCapacity(int size) {
+        return Math.min(size, MAX_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns tag of the next value without consuming it, see constants in {@link DtoBinaryWriter}.
+     *
+     * @throws EOFException
+     *         if there is no more data in the stream
+     */
+    public int peek() throws IOException {
+        if (peeked == -1) {
+            peeked = readByte();
+        }
+        return peeked;
+    }
+
+    public void nextNull() throws IOException {
+        expect(NULL);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        final int tag = nextTag();
+        if (tag == TRUE) {
+            return true;
+        } else if (tag == FALSE) {
+            return false;
+        }
+        throw unexpected(tag, "boolean");
+    }
+
+    public long nextLong() throws IOException {
+        expect(NUMBER);
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public int nextInt() throws IOException {
+        return (int)nextLong();
+    }
+
+    /** Reads double value. Integer number is accepted as well. */
+    public double nextDouble() throws IOException {
+        if (peek() == NUMBER) {
+            return nextLong();
+        }
+        expect(DOUBLE);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /** Reads string. Returns {@code null} if next value is {@link DtoBinaryWriter#NULL}. */
+    public String nextString() throws IOException {
+        final int tag = nextTag();
+        if (tag == NULL) {
+            return null;
+        } else if (tag == STRING) {
+            return readRawString();
+        }
+        throw unexpected(tag, "string");
+    }
+
+    /**
+     * Reads name of enum constant and finds constant of the specified enum. Returns {@code null} if next value is {@link
+     * DtoBinaryWriter#NULL} or if enum has no such constant, e.g. constant is added in newer version of DTO, the same as JSON
+     * deserialization does.
+     */
+    public <E extends Enum<E>> E nextEnum(Class<E> type) throws IOException {
+        final String name = nextString();
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Starts reading of array. Returns number of items in array. */
+    public int beginArray() throws IOException {
+        expect(ARRAY);
+        return readSize();
+    }
+
+    /** Starts reading of map. Returns number of entries in map, key of each entry must be read with {@link #nextKey()}. */
+    public int beginMap() throws IOException {
+        expect(MAP);
+        return readSize();
+    }
+
+    /** Reads key of map entry. */
+    public String nextKey() throws IOException {
+        return readRawString();
+    }
+
+    public void beginObject() throws IOException {
+        expect(OBJECT);
+    }
+
+    /** Reads name of next field of object. Returns {@code null} at the end of object. */
+    public String nextField() throws IOException {
+        final int number = readSize();
+        if (number == END_OF_OBJECT) {
+            return null;
+        } else if (number == NEW_NAME) {
+            final String name = readRawString();
+            if (names.size() < MAX_NAMES) {
+                names.add(name);
+            }
+            return name;
+        } else if (number - NAME_REFERENCE_OFFSET < names.size()) {
+            return names.get(number - NAME_REFERENCE_OFFSET);
+        }
+        throw new IOException("Malformed DTO stream, unknown name of field " + number);
+    }
+
+    /** Skips next value, e.g. field that is unknown to reader. */
+    public void skipValue() throws IOException {
+        final int tag = nextTag();
+        switch (tag) {
+            case NULL:
+            case FALSE:
+            case TRUE:
+                break;
+            case NUMBER:
+                readVarLong();
+                break;
+            case DOUBLE:
+                skip(8);
+                break;
+            case STRING:
+                skip(readSize());
+                break;
+            case ARRAY:
+                for (int i = readSize(); i > 0; i--) {
+                    skipValue();
+                }
+                break;
+            case MAP:
+                for (int i = readSize(); i > 0; i--) {
+                    skip(readSize());
+                    skipValue();
+                }
+                break;
+            case OBJECT:
+                while (nextField() != null) {
+                    skipValue();
+                }
+                break;
+            default:
+                throw unexpected(tag, "value");
+        }
+    }
+
+    private int nextTag() throws IOException {
+        final int tag = peek();
+        peeked = -1;
+        return tag;
+    }
+
+    private void expect(int expected) throws IOException {
+        final int tag = nextTag();
+        if (tag != expected) {
+            throw unexpected(tag, "tag " + expected);
+        }
+    }
+
+    private IOException unexpected(int tag, String expected) {
+        return new IOException(String.format("Malformed DTO stream, expected %s but found tag %d", expected, tag));
+    }
+
+    private String readRawString() throws IOException {
+        final int length = readSize();
+        if (length <= buffer.length) {
+            if (limit - position < length) {
+                compactAndFill(length);
+            }
+            final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        // Length isn't trusted, array grows while bytes are actually read.
+        byte[] bytes = new byte[Math.min(length, MAX_INITIAL_CAPACITY * buffer.length)];
+        int read = Math.min(limit - position, length);
+        System.arraycopy(buffer, position, bytes, 0, read);
+        position += read;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int)Math.min((long)bytes.length * 2, length));
+            }
+            final int n = in.read(bytes, read, bytes.length - read);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            read += n;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int readSize() throws IOException {
+        final long size = readVarLong();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Malformed DTO stream, invalid size " + size);
+        }
+        return (int)size;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed DTO stream, variable-length number is too long");
+    }
+
+    private void skip(int length) throws IOException {
+        while (length > 0) {
+            if (position == limit) {
+                fill();
+            }
+            final int n = Math.min(limit - position, length);
+            position += n;
+            length -= n;
+        }
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) {
+            fill();
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private void fill() throws IOException {
+        final int n = in.read(buffer, 0, buffer.length);
+        if (n < 0) {
+            throw new EOFException();
+        }
+        position = 0;
+        limit = n;
+    }
+
+    /** Moves unread bytes to the beginning of buffer and reads until buffer contains at least {@code length} bytes. */
+    private void compactAndFill(int length) throws IOException {
+        final int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+        while (limit < length) {
+            final int n = in.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            limit += n;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes values in compact binary format that is used for transferring DTO between internal services, e.g. between master and slave
+ * builders or runners, instead of JSON. Format is self-describing, so reader is able to skip values it doesn't know about. Each value
+ * starts with one byte tag:
+ * <ul>
+ * <li>{@link #NULL}, {@link #FALSE}, {@link #TRUE} - no content</li>
+ * <li>{@link #NUMBER} - integer number as ZigZag encoded variable-length long</li>
+ * <li>{@link #DOUBLE} - eight bytes of IEEE 754 double</li>
+ * <li>{@link #STRING} - variable-length number of bytes followed by UTF-8 bytes of string</li>
+ * <li>{@link #ARRAY} - variable-length number of items followed by items</li>
+ * <li>{@link #MAP} - variable-length number of entries followed by entries, each entry is key (string without tag) and value</li>
+ * <li>{@link #OBJECT} - fields of DTO, each field is name of field followed by value, fields end with {@link #END_OF_OBJECT}</li>
+ * </ul>
+ * Fields are identified by their JSON names, so reader and writer don't need to agree about set or order of fields and DTO of different
+ * versions may be exchanged. To keep stream compact each name is written only once. First time name is written as {@link #NEW_NAME}
+ * followed by variable-length number of bytes and UTF-8 bytes of name, and gets the next number starting from {@code 0}. After that
+ * name is written as variable-length number of name plus {@link #NAME_REFERENCE_OFFSET}. Table of names is bound to the stream and limited
+ * with {@link #MAX_NAMES}, names beyond this limit are always written in full.
+ * <p/>
+ * Writer buffers output, so {@link #flush()} must be called after the last value.
+ */
+public final class DtoBinaryWriter {
+    public static final byte NULL   = 0;
+    public static final byte FALSE  = 1;
+    public static final byte TRUE   = 2;
+    public static final byte NUMBER = 3;
+    public static final byte DOUBLE = 4;
+    public static final byte STRING = 5;
+    public static final byte ARRAY  = 6;
+    public static final byte MAP    = 7;
+    public static final byte OBJECT = 8;
+
+    /** Marks end of fields of object. */
+    public static final int END_OF_OBJECT         = 0;
+    /** Marks name of field which is written in full. */
+    public static final int NEW_NAME              = 1;
+    /** Offset of number of name of field which is written before. */
+    public static final int NAME_REFERENCE_OFFSET = 2;
+    /** Max number of names of fields which may be referenced. */
+    public static final int MAX_NAMES             = 4096;
+
+    private final OutputStream out;
+    private final byte[]               buffer;
+    private final Map<String, Integer> names;
+
+    private int position;
+
+    public DtoBinaryWriter(OutputStream out) {
+        this.out = out;
+        buffer = new byte[8192];
+        names = new HashMap<>();
+    }
+
+    public DtoBinaryWriter nullValue() throws IOException {
+        writeByte(NULL);
+        return this;
+    }
+
+    public DtoBinaryWriter value(boolean value) throws IOException {
+        writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public DtoBinaryWriter value(long value) throws IOException {
+        writeByte(NUMBER);
+        writeVarLong((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    public DtoBinaryWriter value(double value) throws IOException {
+        writeByte(DOUBLE);
+        final long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte)(bits >>> shift);
+        }
+        return this;
+    }
+
+    /** Writes string or {@link #NULL} if {@code value} is {@code null}. */
+    public DtoBinaryWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeByte(STRING);
+        writeRawString(value);
+        return this;
+    }
+
+    /** Starts array of {@code size} items. Array has no end marker, caller must write exactly {@code size} values. */
+    public DtoBinaryWriter beginArray(int size) throws IOException {
+        writeByte(ARRAY);
+        writeVarLong(size);
+        return this;
+    }
+
+    /** Starts map of {@code size} entries. Map has no end marker, caller must write exactly {@code size} pairs of key and value. */
+    public DtoBinaryWriter beginMap(int size) throws IOException {
+        writeByte(MAP);
+        writeVarLong(size);
+        return this;
+    }
+
+    /** Writes key of map entry. */
+    public DtoBinaryWriter key(String key) throws IOException {
+        writeRawString(key);
+        return this;
+    }
+
+    public DtoBinaryWriter beginObject() throws IOException {
+        writeByte(OBJECT);
+        return this;
+    }
+
+    /** Writes name of field of object, value of field must be written next. */
+    public DtoBinaryWriter field(String name) throws IOException {
+        final Integer number = names.get(name);
+        if (number != null) {
+            writeVarLong(number + NAME_REFERENCE_OFFSET);
+        } else {
+            writeVarLong(NEW_NAME);
+            writeRawString(name);
+            if (names.size() < MAX_NAMES) {
+                names.put(name, names.size());
+            }
+        }
+        return this;
+    }
+
+    public DtoBinaryWriter endObject() throws IOException {
+        writeVarLong(END_OF_OBJECT);
+        return this;
+    }
+
+    /** Writes all buffered data to the underlying stream and flushes it. */
+    public void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    private void writeRawString(String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        if (bytes.length > buffer.length) {
+            flushBuffer();
+            out.write(bytes);
+        } else {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    private void writeByte(byte b) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = b;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
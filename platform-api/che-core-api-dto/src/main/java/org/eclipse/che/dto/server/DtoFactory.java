@@ -10,26 +10,27 @@
  *******************************************************************************/
 package org.eclipse.che.dto.server;
 
-import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.LoadingValueSLRUCache;
-import org.eclipse.che.commons.lang.cache.SynchronizedCache;
-import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.io.StringReader;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,21 +45,6 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class DtoFactory {
     private static final Gson gson = new GsonBuilder().serializeNulls().create();
 
-    private static final Cache<Type, ParameterizedType> listTypeCache = new SynchronizedCache<>(
-            new LoadingValueSLRUCache<Type, ParameterizedType>(16, 16) {
-                @Override
-                protected ParameterizedType loadValue(Type type) {
-                    return ParameterizedTypeImpl.newParameterizedType(List.class, type);
-                }
-            });
-    private static final Cache<Type, ParameterizedType> mapTypeCache  = new SynchronizedCache<>(
-            new LoadingValueSLRUCache<Type, ParameterizedType>(16, 16) {
-                @Override
-                protected ParameterizedType loadValue(Type type) {
-                    return ParameterizedTypeImpl.newParameterizedType(Map.class, String.class, type);
-                }
-            });
-
     private static final DtoFactory INSTANCE = new DtoFactory();
 
     public static DtoFactory getInstance() {
@@ -120,6 +106,106 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Writes DTO object in JSON format to the specified writer. Unlike to {@link #toJson(Object)} doesn't create string representation
+     * of whole DTO if DTO is able to write itself to the stream, see {@link StreamingJsonSerializable}.
+     *
+     * @param dto
+     *         DTO object
+     * @param writer
+     *         writer, it isn't closed after writing
+     * @throws IllegalArgumentException
+     *         if specified object isn't DTO object
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJson(T dto, Writer writer) throws IOException {
+        if (dto instanceof StreamingJsonSerializable) {
+            final JsonWriter jsonWriter = newJsonWriter(writer);
+            ((StreamingJsonSerializable)dto).write(jsonWriter);
+            jsonWriter.flush();
+        } else {
+            writer.write(toJson(dto));
+        }
+    }
+
+    /**
+     * Writes collection of DTO objects as JSON array to the specified writer.
+     *
+     * @param dtos
+     *         DTO objects, collection may contain {@code null} elements
+     * @param writer
+     *         writer, it isn't closed after writing
+     * @throws IllegalArgumentException
+     *         if any element of collection isn't DTO object
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJson(Collection<T> dtos, Writer writer) throws IOException {
+        final JsonWriter jsonWriter = newJsonWriter(writer);
+        jsonWriter.beginArray();
+        for (T dto : dtos) {
+            if (dto == null) {
+                jsonWriter.nullValue();
+            } else if (dto instanceof StreamingJsonSerializable) {
+                ((StreamingJsonSerializable)dto).write(jsonWriter);
+            } else {
+                gson.toJson(new JsonParser().parse(toJson(dto)), jsonWriter);
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes DTO object in compact binary format to the specified stream, see {@link DtoBinaryWriter}.
+     *
+     * @param dto
+     *         DTO object
+     * @param out
+     *         output stream, it isn't closed after writing
+     * @throws IllegalArgumentException
+     *         if specified object isn't DTO object
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toBinary(T dto, OutputStream out) throws IOException {
+        final DtoBinaryWriter writer = new DtoBinaryWriter(out);
+        writeBinary(dto, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes collection of DTO objects in compact binary format to the specified stream.
+     *
+     * @param dtos
+     *         DTO objects, collection may contain {@code null} elements
+     * @param out
+     *         output stream, it isn't closed after writing
+     * @throws IllegalArgumentException
+     *         if any element of collection isn't DTO object
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toBinary(Collection<T> dtos, OutputStream out) throws IOException {
+        final DtoBinaryWriter writer = new DtoBinaryWriter(out);
+        writer.beginArray(dtos.size());
+        for (T dto : dtos) {
+            writeBinary(dto, writer);
+        }
+        writer.flush();
+    }
+
+    private static void writeBinary(Object dto, DtoBinaryWriter writer) throws IOException {
+        if (dto == null) {
+            writer.nullValue();
+        } else if (dto instanceof BinarySerializable) {
+            ((BinarySerializable)dto).writeBinary(writer);
+        } else {
+            throw new IllegalArgumentException("BinarySerializable instance required. ");
+        }
+    }
+
     /**
      * Creates new instance of class which implements specified DTO interface.
      *
@@ -146,7 +232,16 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      */
     public <T> T createDtoFromJson(String json, Class<T> dtoInterface) {
-        return getDtoProvider(dtoInterface).fromJson(json);
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return readDto(newJsonReader(new StringReader(json)), dtoProvider);
+        } catch (IOException e) {
+            // Not expected for StringReader, so it's syntax error, e.g. unexpected end of document.
+            throw new JsonSyntaxException(e);
+        }
     }
 
     /**
@@ -163,14 +258,7 @@ public final class DtoFactory {
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
-        }
-        return dtoProvider.fromJson(sb.toString());
+        return readDto(newJsonReader(json), getDtoProvider(dtoInterface));
     }
 
     /**
@@ -204,13 +292,11 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      */
     public <T> JsonArray<T> createListDtoFromJson(String json, Class<T> dtoInterface) {
-        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list = gson.fromJson(json, listTypeCache.get(JsonElement.class));
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
+        try {
+            return createListDtoFromJson(new StringReader(json), dtoInterface);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
         }
-        return new JsonArrayImpl<>(result);
     }
 
 
@@ -227,19 +313,16 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
+        final JsonReader reader = newJsonReader(json);
+        final List<T> result = new ArrayList<>();
         try {
-            list = gson.fromJson(json, listTypeCache.get(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
+            reader.endArray();
+        } catch (MalformedJsonException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
         }
         return new JsonArrayImpl<>(result);
     }
@@ -275,13 +358,11 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      */
     public <T> JsonStringMap<T> createMapDtoFromJson(String json, Class<T> dtoInterface) {
-        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map = gson.fromJson(json, mapTypeCache.get(JsonElement.class));
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
+        try {
+            return createMapDtoFromJson(new StringReader(json), dtoInterface);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
         }
-        return new JsonStringMapImpl<>(result);
     }
 
 
@@ -298,22 +379,19 @@ public final class DtoFactory {
      * @throws IOException
      *         if an i/o error occurs
      */
-    @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
+        final JsonReader reader = newJsonReader(json);
+        final Map<String, T> result = new LinkedHashMap<>();
         try {
-            map = gson.fromJson(json, mapTypeCache.get(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                result.put(name, dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
+            reader.endObject();
+        } catch (MalformedJsonException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
         }
         return new JsonStringMapImpl<>(result);
     }
@@ -337,6 +415,84 @@ public final class DtoFactory {
 
     //
 
+    /**
+     * Reads object of the specified type from the stream in compact binary format, see {@link #toBinary(Object, OutputStream)}.
+     *
+     * @param in
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @return DTO or {@code null} if stream is empty
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws IOException
+     *         if an i/o error occurs or stream is malformed
+     */
+    public <T> T createDtoFromBinary(InputStream in, Class<T> dtoInterface) throws IOException {
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final DtoBinaryReader reader = new DtoBinaryReader(in);
+        try {
+            reader.peek();
+        } catch (EOFException e) {
+            return null;
+        }
+        return dtoProvider.fromBinary(reader);
+    }
+
+    /**
+     * Reads list of objects of the specified type from the stream in compact binary format, see {@link #toBinary(Collection,
+     * OutputStream)}.
+     *
+     * @param in
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @return list of DTO
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws IOException
+     *         if an i/o error occurs or stream is malformed
+     */
+    public <T> JsonArray<T> createListDtoFromBinary(InputStream in, Class<T> dtoInterface) throws IOException {
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final DtoBinaryReader reader = new DtoBinaryReader(in);
+        final int size = reader.beginArray();
+        final List<T> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(dtoProvider.fromBinary(reader));
+        }
+        return new JsonArrayImpl<>(result);
+    }
+
+    //
+
+    private static JsonReader newJsonReader(Reader reader) {
+        final JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(true);
+        return jsonReader;
+    }
+
+    private static JsonWriter newJsonWriter(Writer writer) {
+        final JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setLenient(true);
+        jsonWriter.setSerializeNulls(true);
+        return jsonWriter;
+    }
+
+    /** Reads single DTO from the stream. Empty document is read as {@code null}, the same as JSON null. */
+    private static <T> T readDto(JsonReader reader, DtoProvider<T> dtoProvider) throws IOException {
+        try {
+            reader.peek();
+        } catch (EOFException e) {
+            return null;
+        }
+        try {
+            return dtoProvider.fromJson(reader);
+        } catch (MalformedJsonException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
         DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
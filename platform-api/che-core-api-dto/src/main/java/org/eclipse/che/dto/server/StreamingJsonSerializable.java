@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * An entity that may write itself to JSON stream directly, without building tree of JSON elements first.
+ */
+public interface StreamingJsonSerializable extends JsonSerializable {
+    /** Writes DTO to the JSON stream. */
+    void write(JsonWriter writer) throws IOException;
+}
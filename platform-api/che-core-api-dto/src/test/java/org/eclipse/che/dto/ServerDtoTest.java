@@ -14,6 +14,7 @@ import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DtoWithDelegate;
 import org.eclipse.che.dto.definitions.DtoWithFieldNames;
 import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoBinaryWriter;
 import org.eclipse.che.dto.server.DtoFactory;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -23,7 +24,13 @@ import com.google.gson.JsonPrimitive;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -256,6 +263,141 @@ public class ServerDtoTest {
         Assert.assertEquals(complicatedDto.getArrayOfArrayOfEnum().get(0).get(2), ComplicatedDto.SimpleEnum.THREE);
     }
 
+    @Test
+    public void testComplicatedDtoStreamingSerializerAndDeserializer() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(1).withDefault("test_default_keyword");
+        Map<String, SimpleDto> mapDtos = new HashMap<>(2);
+        mapDtos.put("dto", simpleDto);
+        mapDtos.put("null", null);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(Arrays.asList("Something 1", null, "<\"quoted\">"))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(Arrays.asList(simpleDto, null))
+                                       .withArrayOfArrayOfEnum(Arrays.asList(Arrays.asList(ComplicatedDto.SimpleEnum.THREE), null));
+
+        StringWriter writer = new StringWriter();
+        dtoFactory.toJson(dto, writer);
+        // Streaming and tree serializers must produce the same JSON.
+        Assert.assertEquals(new JsonParser().parse(writer.toString()), new JsonParser().parse(dtoFactory.toJson(dto)));
+
+        ComplicatedDto copy = dtoFactory.createDtoFromJson(new StringReader(writer.toString()), ComplicatedDto.class);
+        Assert.assertEquals(copy, dto);
+    }
+
+    @Test
+    public void testStreamingDeserializerSkipsUnknownFields() throws Exception {
+        String json = "{\"unknown\":{\"a\":[1,2,{}]},\"name\":\"Something\",\"id\":\"1\",\"default\":true}";
+        checkSimpleDto(dtoFactory.createDtoFromJson(new StringReader(json), SimpleDto.class), "Something", 1, "true");
+        Assert.assertNull(dtoFactory.createDtoFromJson(new StringReader(""), SimpleDto.class));
+        Assert.assertNull(dtoFactory.createDtoFromJson(new StringReader("null"), SimpleDto.class));
+    }
+
+    @Test
+    public void testListSimpleDtoStreamingSerializer() throws Exception {
+        List<SimpleDto> dtos = new ArrayList<>(2);
+        dtos.add(dtoFactory.createDto(SimpleDto.class).withName("Something 1").withId(1));
+        dtos.add(dtoFactory.createDto(SimpleDto.class).withName("Something 2").withId(2));
+
+        StringWriter writer = new StringWriter();
+        dtoFactory.toJson(dtos, writer);
+
+        Assert.assertEquals(dtoFactory.createListDtoFromJson(writer.toString(), SimpleDto.class), dtos);
+    }
+
+    @Test
+    public void testComplicatedDtoBinarySerializerAndDeserializer() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(-1).withDefault("test_default_keyword");
+        Map<String, SimpleDto> mapDtos = new HashMap<>(2);
+        mapDtos.put("dto", simpleDto);
+        mapDtos.put("null", null);
+        char[] longString = new char[10000];
+        Arrays.fill(longString, '\u0436');
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(Arrays.asList("Something 1", null, new String(longString)))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(Arrays.asList(simpleDto, null))
+                                       .withArrayOfArrayOfEnum(Arrays.asList(Arrays.asList(ComplicatedDto.SimpleEnum.THREE), null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dtoFactory.toBinary(dto, out);
+
+        ComplicatedDto copy = dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), ComplicatedDto.class);
+        Assert.assertEquals(copy, dto);
+    }
+
+    @Test
+    public void testBinaryDeserializerSkipsUnknownFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DtoBinaryWriter writer = new DtoBinaryWriter(out);
+        writer.beginObject();
+        writer.field("unknown").beginMap(2);
+        writer.key("a").beginArray(3).value(1).value(2.5).beginObject().field("name").value("b").endObject();
+        writer.key("c").value(true);
+        writer.field("id").value(7);
+        writer.field("other").nullValue();
+        writer.field("name").value("Something");
+        writer.endObject();
+        writer.flush();
+
+        SimpleDto dto = dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), SimpleDto.class);
+        checkSimpleDto(dto, "Something", 7, null);
+        Assert.assertNull(dtoFactory.createDtoFromBinary(new ByteArrayInputStream(new byte[0]), SimpleDto.class));
+    }
+
+    @Test
+    public void testBinaryDeserializerReturnsNullForUnknownEnumConstant() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DtoBinaryWriter writer = new DtoBinaryWriter(out);
+        writer.beginObject();
+        writer.field("simpleEnum").value("FOUR");
+        writer.field("arrayOfArrayOfEnum").beginArray(1).beginArray(2).value("ONE").value("FIVE");
+        writer.endObject();
+        writer.flush();
+
+        ComplicatedDto dto = dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), ComplicatedDto.class);
+        Assert.assertNull(dto.getSimpleEnum());
+        Assert.assertEquals(dto.getArrayOfArrayOfEnum(), Arrays.asList(Arrays.asList(ComplicatedDto.SimpleEnum.ONE, null)));
+    }
+
+    @Test(expectedExceptions = EOFException.class)
+    public void testBinaryDeserializerDoesNotTrustSizeOfArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DtoBinaryWriter writer = new DtoBinaryWriter(out);
+        writer.beginObject();
+        writer.field("strings").beginArray(Integer.MAX_VALUE).value("a");
+        writer.flush();
+
+        dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), ComplicatedDto.class);
+    }
+
+    @Test(expectedExceptions = EOFException.class)
+    public void testBinaryDeserializerDoesNotTrustLengthOfString() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DtoBinaryWriter writer = new DtoBinaryWriter(out);
+        writer.beginObject();
+        writer.field("name");
+        writer.flush();
+        // tag of string, length Integer.MAX_VALUE as variable-length number and only few bytes of content
+        out.write(new byte[]{DtoBinaryWriter.STRING, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 'a', 'b', 'c'});
+
+        dtoFactory.createDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), SimpleDto.class);
+    }
+
+    @Test
+    public void testListSimpleDtoBinarySerializer() throws Exception {
+        List<SimpleDto> dtos = new ArrayList<>(3);
+        dtos.add(dtoFactory.createDto(SimpleDto.class).withName("Something 1").withId(1));
+        dtos.add(null);
+        dtos.add(dtoFactory.createDto(SimpleDto.class).withName("Something 2").withId(Integer.MAX_VALUE));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dtoFactory.toBinary(dtos, out);
+
+        Assert.assertEquals(dtoFactory.createListDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), SimpleDto.class), dtos);
+    }
+
     private void checkSimpleDto(SimpleDto dto, String expectedName, int expectedId, String expectedDefault) {
         Assert.assertEquals(dto.getName(), expectedName);
         Assert.assertEquals(dto.getId(), expectedId);
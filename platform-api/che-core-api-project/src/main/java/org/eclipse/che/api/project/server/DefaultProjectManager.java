@@ -32,7 +32,7 @@ import org.eclipse.che.api.vfs.server.VirtualFileSystemRegistry;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.SLRUCache;
+import org.eclipse.che.commons.lang.cache.TinyLFUCache;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import org.slf4j.Logger;
@@ -46,10 +46,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -60,12 +65,16 @@ import java.util.concurrent.locks.ReentrantLock;
 public final class DefaultProjectManager implements ProjectManager {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultProjectManager.class);
 
-    private static final int CACHE_NUM  = 1 << 2;
-    private static final int CACHE_MASK = CACHE_NUM - 1;
-    private static final int SEG_SIZE   = 32;
+    private static final int LOCKS_NUM  = 1 << 2;
+    private static final int LOCKS_MASK = LOCKS_NUM - 1;
+    private static final int CACHE_SIZE = 1 << 8;
 
-    private final Lock[]                                     miscLocks;
-    private final Cache<Pair<String, String>, ProjectMisc>[] miscCaches;
+    private final Lock[]                                           miscLocks;
+    private final Cache<Pair<String, String>, ProjectMisc>         miscCache;
+    /** All ProjectMisc which are in cache or are evicted from it but not written yet. Updated only with lock of key. */
+    private final ConcurrentMap<Pair<String, String>, ProjectMisc> loadedMisc;
+    /** Keys of ProjectMisc which are evicted from cache, see {@link #writeEvictedMisc()}. */
+    private final Set<Pair<String, String>>                        evictedMisc;
 
     private final VirtualFileSystemRegistry         fileSystemRegistry;
     private final EventService                      eventService;
@@ -75,7 +84,6 @@ public final class DefaultProjectManager implements ProjectManager {
 
 
     @Inject
-    @SuppressWarnings("unchecked")
     public DefaultProjectManager(VirtualFileSystemRegistry fileSystemRegistry,
                                  EventService eventService,
                                  ProjectTypeRegistry projectTypeRegistry,
@@ -88,28 +96,20 @@ public final class DefaultProjectManager implements ProjectManager {
         this.handlers = handlers;
 
 
-        this.miscCaches = new Cache[CACHE_NUM];
-        this.miscLocks = new Lock[CACHE_NUM];
-        for (int i = 0; i < CACHE_NUM; i++) {
+        this.miscLocks = new Lock[LOCKS_NUM];
+        for (int i = 0; i < LOCKS_NUM; i++) {
             miscLocks[i] = new ReentrantLock();
-            miscCaches[i] = new SLRUCache<Pair<String, String>, ProjectMisc>(SEG_SIZE, SEG_SIZE) {
-                @Override
-                protected void evict(Pair<String, String> key, ProjectMisc value) {
-                    if (value.isUpdated()) {
-                        final int index = key.hashCode() & CACHE_MASK;
-                        miscLocks[index].lock();
-                        try {
-                            writeProjectMisc(value.getProject(), value);
-                        } catch (Exception e) {
-                            LOG.error(e.getMessage(), e);
-                        } finally {
-                            miscLocks[index].unlock();
-                        }
-                        super.evict(key, value);
-                    }
-                }
-            };
         }
+        this.loadedMisc = new ConcurrentHashMap<>();
+        this.evictedMisc = Collections.newSetFromMap(new ConcurrentHashMap<Pair<String, String>, Boolean>());
+        // Cache evicts ProjectMisc in thread which holds lock of other key from miscLocks. Don't write ProjectMisc here, since lock
+        // of its key must be acquired for that, it is written later by writeEvictedMisc().
+        this.miscCache = new TinyLFUCache<Pair<String, String>, ProjectMisc>(CACHE_SIZE) {
+            @Override
+            protected void evict(Pair<String, String> key, ProjectMisc value) {
+                evictedMisc.add(key);
+            }
+        };
 
         vfsSubscriber = new EventSubscriber<VirtualFileEvent>() {
             @Override
@@ -352,17 +352,51 @@ public final class DefaultProjectManager implements ProjectManager {
         final String workspace = project.getWorkspace();
         final String path = project.getPath();
         final Pair<String, String> key = Pair.of(workspace, path);
-        final int index = key.hashCode() & CACHE_MASK;
+        final int index = key.hashCode() & LOCKS_MASK;
+        ProjectMisc misc;
         miscLocks[index].lock();
         try {
-            ProjectMisc misc = miscCaches[index].get(key);
+            misc = miscCache.get(key);
             if (misc == null) {
-                miscCaches[index].put(key, misc = readProjectMisc(project));
+                // ProjectMisc may be evicted from cache but not written yet, reuse it to keep its changes.
+                misc = loadedMisc.get(key);
+                if (misc == null) {
+                    loadedMisc.put(key, misc = readProjectMisc(project));
+                }
+                miscCache.put(key, misc);
             }
-            return misc;
         } finally {
             miscLocks[index].unlock();
         }
+        writeEvictedMisc();
+        return misc;
+    }
+
+    /**
+     * Writes ProjectMisc which are evicted from cache with unsaved changes. Each ProjectMisc is written with lock of its key, so it
+     * can't be written concurrently with newer changes or be read again before it is written. Must not be called while any lock from
+     * miscLocks is held.
+     */
+    private void writeEvictedMisc() {
+        for (Iterator<Pair<String, String>> i = evictedMisc.iterator(); i.hasNext(); ) {
+            final Pair<String, String> key = i.next();
+            i.remove();
+            final int index = key.hashCode() & LOCKS_MASK;
+            miscLocks[index].lock();
+            try {
+                // ProjectMisc may be put in cache again after it is evicted.
+                if (!miscCache.contains(key)) {
+                    final ProjectMisc misc = loadedMisc.remove(key);
+                    if (misc != null && misc.isUpdated()) {
+                        writeProjectMisc(misc.getProject(), misc);
+                    }
+                }
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
+            } finally {
+                miscLocks[index].unlock();
+            }
+        }
     }
 
     private ProjectMisc readProjectMisc(Project project) throws ServerException {
@@ -404,15 +438,18 @@ public final class DefaultProjectManager implements ProjectManager {
             final String workspace = project.getWorkspace();
             final String path = project.getPath();
             final Pair<String, String> key = Pair.of(workspace, path);
-            final int index = key.hashCode() & CACHE_MASK;
+            final int index = key.hashCode() & LOCKS_MASK;
             miscLocks[index].lock();
             try {
-                miscCaches[index].remove(key);
+                miscCache.remove(key);
                 writeProjectMisc(project, misc);
-                miscCaches[index].put(key, misc);
+                // Previous state of ProjectMisc which is evicted from cache must not overwrite this one.
+                loadedMisc.put(key, misc);
+                miscCache.put(key, misc);
             } finally {
                 miscLocks[index].unlock();
             }
+            writeEvictedMisc();
         }
     }
 
@@ -461,14 +498,8 @@ public final class DefaultProjectManager implements ProjectManager {
     @PreDestroy
     void stop() {
         eventService.unsubscribe(vfsSubscriber);
-        for (int i = 0, length = miscLocks.length; i < length; i++) {
-            miscLocks[i].lock();
-            try {
-                miscCaches[i].clear();
-            } finally {
-                miscLocks[i].unlock();
-            }
-        }
+        miscCache.clear();
+        writeEvictedMisc();
     }
 
 
@@ -44,6 +44,7 @@ import org.eclipse.che.api.project.shared.dto.RunnerEnvironment;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentLeaf;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentTree;
 import org.eclipse.che.api.project.shared.dto.RunnerSource;
+import org.eclipse.che.api.project.shared.dto.SearchSnippetDescriptor;
 import org.eclipse.che.api.project.shared.dto.Source;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
@@ -52,6 +53,9 @@ import org.eclipse.che.api.vfs.server.ContentStream;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemImpl;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
+import org.eclipse.che.api.vfs.server.search.SearchResultEntry;
+import org.eclipse.che.api.vfs.server.search.SearchSnippet;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
@@ -84,6 +88,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
@@ -1147,10 +1152,12 @@ public class ProjectService extends Service {
     public ContentStream exportZip(@ApiParam(value = "Workspace ID", required = true)
                                    @PathParam("ws-id") String workspace,
                                    @ApiParam(value = "Path to resource to be imported")
-                                   @PathParam("path") String path)
+                                   @PathParam("path") String path,
+                                   @ApiParam(value = "Compression level from 0 (no compression) to 9, -1 for default level")
+                                   @DefaultValue("-1") @QueryParam("compressionLevel") int compressionLevel)
             throws NotFoundException, ForbiddenException, ServerException {
         final FolderEntry folder = asFolder(workspace, path);
-        return VirtualFileSystemImpl.exportZip(folder.getVirtualFile());
+        return VirtualFileSystemImpl.exportZip(folder.getVirtualFile(), compressionLevel);
     }
 
     @POST
@@ -1305,7 +1312,9 @@ public class ProjectService extends Service {
     }
 
     @ApiOperation(value = "Search for resources",
-                  notes = "Search for resources applying a number of search filters as query parameters",
+                  notes = "Search for resources applying a number of search filters as query parameters. If there are more items " +
+                          "than 'maxItems' response contains header 'x-next-cursor', its value may be passed in parameter 'after' " +
+                          "to get next page",
                   response = ItemReference.class,
                   responseContainer = "List",
                   position = 23)
@@ -1318,20 +1327,24 @@ public class ProjectService extends Service {
     @GET
     @Path("/search/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ItemReference> search(@ApiParam(value = "Workspace ID", required = true)
-                                      @PathParam("ws-id") String workspace,
-                                      @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
-                                      @PathParam("path") String path,
-                                      @ApiParam(value = "Resource name")
-                                      @QueryParam("name") String name,
-                                      @ApiParam(value = "Media type")
-                                      @QueryParam("mediatype") String mediatype,
-                                      @ApiParam(value = "Search keywords")
-                                      @QueryParam("text") String text,
-                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
-                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
-                                      @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount)
+    public Response search(@ApiParam(value = "Workspace ID", required = true)
+                           @PathParam("ws-id") String workspace,
+                           @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                           @PathParam("path") String path,
+                           @ApiParam(value = "Resource name")
+                           @QueryParam("name") String name,
+                           @ApiParam(value = "Media type")
+                           @QueryParam("mediatype") String mediatype,
+                           @ApiParam(value = "Search keywords")
+                           @QueryParam("text") String text,
+                           @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                           @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                           @ApiParam(value = "Skip count")
+                           @QueryParam("skipCount") int skipCount,
+                           @ApiParam(value = "Cursor from header 'x-next-cursor' of response with previous page")
+                           @QueryParam("after") String after,
+                           @ApiParam(value = "Include lines of files which match to the search keywords")
+                           @DefaultValue("false") @QueryParam("snippets") boolean snippets)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
 
         // to search from workspace root path should end with "/" i.e /{ws}/search/?<query>
@@ -1345,34 +1358,63 @@ public class ProjectService extends Service {
                     .setPath(path.startsWith("/") ? path : ('/' + path))
                     .setName(name)
                     .setMediaType(mediatype)
-                    .setText(text);
+                    .setText(text)
+                    .setAfter(after)
+                    .setIncludeSnippets(snippets)
+                    .setIncludeNextCursor(true);
 
-            final String[] result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).search(expr);
+            final SearchResult result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true)
+                                                        .search(expr, maxItems, skipCount);
             if (skipCount > 0) {
-                if (skipCount > result.length) {
+                if (skipCount > result.getTotalHits()) {
                     throw new ConflictException(
                             String.format("'skipCount' parameter: %d is greater then total number of items in result: %d.",
-                                          skipCount, result.length));
+                                          skipCount, result.getTotalHits()));
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<ItemReference> items = new ArrayList<>(length);
+            final List<ItemReference> items = new ArrayList<>(result.getResults().size());
             final FolderEntry root = projectManager.getProjectsRoot(workspace);
             final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
-            for (int i = skipCount; i < length; i++) {
+            for (SearchResultEntry entry : result.getResults()) {
                 VirtualFileEntry child = null;
                 try {
-                    child = root.getChild(result[i]);
+                    child = root.getChild(entry.getFilePath());
                 } catch (ForbiddenException ignored) {
                     // Ignore item that user can't access
                 }
                 if (child != null && child.isFile()) {
-                    items.add(DtoConverter.toItemReferenceDto((FileEntry)child, uriBuilder.clone()));
+                    final ItemReference item = DtoConverter.toItemReferenceDto((FileEntry)child, uriBuilder.clone());
+                    if (entry.getSnippets() != null) {
+                        item.setSnippets(toSnippetDescriptors(entry.getSnippets()));
+                    }
+                    items.add(item);
                 }
             }
-            return items;
+            final Response.ResponseBuilder responseBuilder = Response.ok(new GenericEntity<List<ItemReference>>(items) {
+            });
+            if (result.hasMoreItems()) {
+                responseBuilder.header("x-next-cursor", result.getNextCursor());
+            }
+            return responseBuilder.build();
+        }
+        return Response.ok(new GenericEntity<List<ItemReference>>(Collections.<ItemReference>emptyList()) {
+        }).build();
+    }
+
+    private List<SearchSnippetDescriptor> toSnippetDescriptors(List<SearchSnippet> snippets) {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final List<SearchSnippetDescriptor> descriptors = new ArrayList<>(snippets.size());
+        for (SearchSnippet snippet : snippets) {
+            final List<Integer> highlights = new ArrayList<>(snippet.getHighlights().length);
+            for (int offset : snippet.getHighlights()) {
+                highlights.add(offset);
+            }
+            descriptors.add(dtoFactory.createDto(SearchSnippetDescriptor.class)
+                                      .withLineNumber(snippet.getLineNumber())
+                                      .withLine(snippet.getLine())
+                                      .withHighlights(highlights));
         }
-        return Collections.emptyList();
+        return descriptors;
     }
 
     @ApiOperation(value = "Get user permissions in a project",
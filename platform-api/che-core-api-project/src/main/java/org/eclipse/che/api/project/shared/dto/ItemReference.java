@@ -89,4 +89,12 @@ public interface ItemReference extends Hyperlinks {
 
     ItemReference withContentLength(long length);
 
+
+    /** Lines of file which match to the text of search query. Set only in result of search if snippets are requested. */
+    List<SearchSnippetDescriptor> getSnippets();
+
+    void setSnippets(List<SearchSnippetDescriptor> snippets);
+
+    ItemReference withSnippets(List<SearchSnippetDescriptor> snippets);
+
 }
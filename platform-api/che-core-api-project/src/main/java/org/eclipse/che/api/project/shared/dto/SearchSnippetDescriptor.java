@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Line of file that matches to the text of search query.
+ */
+@DTO
+public interface SearchSnippetDescriptor {
+    /** Get number of line in file, starting from 1. */
+    int getLineNumber();
+
+    void setLineNumber(int lineNumber);
+
+    SearchSnippetDescriptor withLineNumber(int lineNumber);
+
+    /** Get text of line, too long lines are cut. */
+    String getLine();
+
+    void setLine(String line);
+
+    SearchSnippetDescriptor withLine(String line);
+
+    /** Get pairs of start (inclusive) and end (exclusive) offsets of matched words in line. */
+    List<Integer> getHighlights();
+
+    void setHighlights(List<Integer> highlights);
+
+    SearchSnippetDescriptor withHighlights(List<Integer> highlights);
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.project.server.dto.DtoServerImpls.ProjectDescriptorImpl;
+import org.eclipse.che.api.project.shared.dto.ProjectDescriptor;
+import org.eclipse.che.api.vfs.server.dto.DtoServerImpls.ItemListImpl;
+import org.eclipse.che.api.vfs.shared.ItemType;
+import org.eclipse.che.api.vfs.shared.dto.Item;
+import org.eclipse.che.api.vfs.shared.dto.ItemList;
+import org.eclipse.che.api.vfs.shared.dto.Property;
+import org.eclipse.che.dto.server.DtoFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serialization and deserialization of DTO through tree of JsonElement, as generated DTO did it before, and with streaming
+ * methods of generated DTO that are used by DtoFactory and CodenvyJsonProvider. Uses ProjectDescriptor and ItemList of 100 items, that
+ * are typical responses of project and virtual file system services.
+ * <p/>
+ * Run with: <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.eclipse.che.api.project.server.DtoJsonBenchmark</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DtoJsonBenchmark {
+    private static final Gson gson = new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
+
+    private DtoFactory        dtoFactory;
+    private ProjectDescriptor projectDescriptor;
+    private String            projectDescriptorJson;
+    private ItemList          itemList;
+    private String            itemListJson;
+    private CharArrayWriter   writer;
+
+    @Setup
+    public void setUp() {
+        dtoFactory = DtoFactory.getInstance();
+        final Map<String, List<String>> attributes = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            attributes.put("attribute" + i, Arrays.asList("value" + i, "value" + (i + 1)));
+        }
+        final List<Link> links = new ArrayList<>();
+        for (String rel : new String[]{"update project", "children", "tree", "modules", "delete"}) {
+            links.add(dtoFactory.createDto(Link.class)
+                                .withRel(rel)
+                                .withMethod("GET")
+                                .withHref("http://localhost:8080/api/project/workspace123/my-project/" + rel.replace(' ', '-'))
+                                .withProduces("application/json"));
+        }
+        projectDescriptor = dtoFactory.createDto(ProjectDescriptor.class)
+                                      .withName("my-project")
+                                      .withPath("/my-project")
+                                      .withType("maven")
+                                      .withTypeName("Maven Project")
+                                      .withMixins(Arrays.asList("git", "docker"))
+                                      .withWorkspaceId("workspace123")
+                                      .withWorkspaceName("workspace")
+                                      .withAttributes(attributes)
+                                      .withVisibility("public")
+                                      .withDescription("Sample project")
+                                      .withCreationDate(System.currentTimeMillis())
+                                      .withModificationDate(System.currentTimeMillis())
+                                      .withPermissions(Arrays.asList("read", "write", "build", "run", "update_acl", "all"))
+                                      .withBaseUrl("http://localhost:8080/api/project/workspace123/my-project")
+                                      .withIdeUrl("http://localhost:8080/ws/workspace/my-project")
+                                      .withLinks(links);
+        projectDescriptorJson = dtoFactory.toJson(projectDescriptor);
+
+        final List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final String path = "/my-project/src/main/java/org/sample/File" + i + ".java";
+            final Map<String, org.eclipse.che.api.vfs.shared.dto.Link> itemLinks = new HashMap<>();
+            for (String rel : new String[]{"self", "content", "parent", "acl"}) {
+                itemLinks.put(rel, dtoFactory.createDto(org.eclipse.che.api.vfs.shared.dto.Link.class)
+                                             .withRel(rel)
+                                             .withHref("http://localhost:8080/api/vfs/workspace123/v2/" + rel + path)
+                                             .withType("application/json"));
+            }
+            items.add(dtoFactory.createDto(Item.class)
+                                .withVfsId("workspace123")
+                                .withId("id" + i)
+                                .withName("File" + i + ".java")
+                                .withItemType(ItemType.FILE)
+                                .withPath(path)
+                                .withParentId("parent")
+                                .withCreationDate(System.currentTimeMillis())
+                                .withMimeType("text/x-java-source")
+                                .withProperties(Collections.singletonList(dtoFactory.createDto(Property.class)
+                                                                                    .withName("vfs:lockable")
+                                                                                    .withValue(Arrays.asList("true"))))
+                                .withLinks(itemLinks)
+                                .withPermissions(Arrays.asList("all")));
+        }
+        itemList = dtoFactory.createDto(ItemList.class).withItems(items).withNumItems(items.size()).withHasMoreItems(false);
+        itemListJson = dtoFactory.toJson(itemList);
+        writer = new CharArrayWriter(64 * 1024);
+    }
+
+    @Benchmark
+    public String writeProjectDescriptorTree() {
+        return gson.toJson(((ProjectDescriptorImpl)projectDescriptor).toJsonElement());
+    }
+
+    @Benchmark
+    public int writeProjectDescriptorStreaming() throws IOException {
+        writer.reset();
+        dtoFactory.toJson(projectDescriptor, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public ProjectDescriptor readProjectDescriptorTree() {
+        return ProjectDescriptorImpl.fromJsonElement(new JsonParser().parse(projectDescriptorJson));
+    }
+
+    @Benchmark
+    public ProjectDescriptor readProjectDescriptorStreaming() throws IOException {
+        return dtoFactory.createDtoFromJson(new StringReader(projectDescriptorJson), ProjectDescriptor.class);
+    }
+
+    @Benchmark
+    public String writeItemListTree() {
+        return gson.toJson(((ItemListImpl)itemList).toJsonElement());
+    }
+
+    @Benchmark
+    public int writeItemListStreaming() throws IOException {
+        writer.reset();
+        dtoFactory.toJson(itemList, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public ItemList readItemListTree() {
+        return ItemListImpl.fromJsonElement(new JsonParser().parse(itemListJson));
+    }
+
+    @Benchmark
+    public ItemList readItemListStreaming() throws IOException {
+        return dtoFactory.createDtoFromJson(new StringReader(itemListJson), ItemList.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DtoJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -40,6 +40,7 @@ import org.eclipse.che.api.project.shared.dto.ProjectReference;
 import org.eclipse.che.api.project.shared.dto.ProjectUpdate;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentLeaf;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironmentTree;
+import org.eclipse.che.api.project.shared.dto.SearchSnippetDescriptor;
 import org.eclipse.che.api.project.shared.dto.Source;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.user.server.dao.UserDao;
@@ -2290,6 +2291,53 @@ public class ProjectServiceTest {
         Assert.assertTrue(result.get(0).getPath().equals("/my_project/c/test"));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSearchByTextWithSnippetsAndPaging() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "hello\nsearchhit here".getBytes(), "text/plain");
+        myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "searchhit".getBytes(), "text/plain");
+
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format(
+                                                              "http://localhost:8080/api/project/%s/search/my_project?text=searchhit&maxItems=1&snippets=true",
+                                                              workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        assertEquals(result.size(), 1);
+        Set<String> paths = new LinkedHashSet<>(2);
+        paths.add(result.get(0).getPath());
+        List<SearchSnippetDescriptor> snippets = result.get(0).getSnippets();
+        assertEquals(snippets.size(), 1);
+        assertEquals(snippets.get(0).getHighlights(), Arrays.asList(0, 9));
+        String cursor = (String)response.getHttpHeaders().getFirst("x-next-cursor");
+        Assert.assertNotNull(cursor);
+
+        response = launcher.service("GET",
+                                    String.format("http://localhost:8080/api/project/%s/search/my_project?text=searchhit&maxItems=1&after=%s",
+                                                  workspace, cursor),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        result = (List<ItemReference>)response.getEntity();
+        assertEquals(result.size(), 1);
+        paths.add(result.get(0).getPath());
+        Assert.assertTrue(result.get(0).getSnippets().isEmpty());
+        Assert.assertNull(response.getHttpHeaders().getFirst("x-next-cursor"));
+        Assert.assertTrue(paths.contains("/my_project/a/b/test.txt"));
+        Assert.assertTrue(paths.contains("/my_project/x/y/test.txt"));
+    }
+
+    @Test
+    public void testSearchWithInvalidCursor() throws Exception {
+        ContainerResponse response = launcher.service("GET",
+                                                      String.format(
+                                                              "http://localhost:8080/api/project/%s/search/my_project?text=searchhit&maxItems=1&after=invalid",
+                                                              workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 409, "Error: " + response.getEntity());
+    }
+
     @Test
     public void testSetBasicPermissions() throws Exception {
         Project myProject = pm.getProject(workspace, "my_project");
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import org.eclipse.che.api.runner.dto.RunnerState;
+import org.eclipse.che.api.runner.dto.ServerState;
+
+import javax.inject.Singleton;
+import java.util.List;
+
+/**
+ * Implementation of RunnerSelectionStrategy that packs applications tightly: selects runner which has the least part of free resources
+ * (memory and CPU) and so leaves runners with more free resources for bigger applications. Uses state of runners that RunQueue gets
+ * when checks resources of runners, see {@link RemoteRunner#getLastKnownState()}. Runners which state is unknown are selected only if
+ * there is no other choice.
+ */
+@Singleton
+public class BestFitRunnerSelectionStrategy implements RunnerSelectionStrategy {
+    @Override
+    public RemoteRunner select(List<RemoteRunner> remoteRunners) {
+        if (remoteRunners == null || remoteRunners.isEmpty()) {
+            throw new IllegalArgumentException("empty or null list");
+        }
+        RemoteRunner best = null;
+        double bestScore = 0;
+        for (RemoteRunner runner : remoteRunners) {
+            final double score = getFreeShare(runner.getLastKnownState());
+            if (best == null
+                || score < bestScore
+                || (score == bestScore && runner.getLastUsageTime() > best.getLastUsageTime())) {
+                best = runner;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /** Gets sum of free parts of memory and CPU of runner. Returns {@link Double#MAX_VALUE} if state of runner is unknown. */
+    private static double getFreeShare(RunnerState runnerState) {
+        final ServerState serverState = runnerState == null ? null : runnerState.getServerState();
+        if (serverState == null || serverState.getTotalMemory() <= 0) {
+            return Double.MAX_VALUE;
+        }
+        double share = (double)serverState.getFreeMemory() / serverState.getTotalMemory();
+        if (serverState.getTotalCpu() > 0) {
+            share += (double)serverState.getFreeCpu() / serverState.getTotalCpu();
+        }
+        return share;
+    }
+}
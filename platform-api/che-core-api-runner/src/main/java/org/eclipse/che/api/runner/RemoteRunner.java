@@ -53,7 +53,8 @@ public class RemoteRunner {
     private final int        hashCode;
     private final List<Link> links;
 
-    private volatile long lastUsage = -1;
+    private volatile long        lastUsage = -1;
+    private volatile RunnerState lastState;
 
     /* Package visibility, not expected to be created by api users. They should use RemoteRunnerServer to get an instance of RemoteRunner. */
     RemoteRunner(String baseUrl, String name, List<Link> links) {
@@ -80,6 +81,15 @@ public class RemoteRunner {
         return name;
     }
 
+    /**
+     * Get state of this runner which was received with the last call of {@link #getRemoteRunnerState()}.
+     *
+     * @return last known state of this runner or {@code null} if state of runner was never requested
+     */
+    public RunnerState getLastKnownState() {
+        return lastState;
+    }
+
     /**
      * Get last time of usage of this runner.
      *
@@ -104,7 +114,7 @@ public class RemoteRunner {
             throw new RunnerException("Unable get URL for retrieving runner's environments");
         }
         try {
-            return HttpJsonHelper.requestArray(RunnerEnvironment.class, link, Pair.of("runner", name));
+            return HttpJsonHelper.requestBinaryArray(RunnerEnvironment.class, -1, link, null, Pair.of("runner", name));
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -128,7 +138,7 @@ public class RemoteRunner {
         }
         final ApplicationProcessDescriptor process;
         try {
-            process = HttpJsonHelper.request(ApplicationProcessDescriptor.class, link, request);
+            process = HttpJsonHelper.requestBinary(ApplicationProcessDescriptor.class, -1, link, request);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -152,7 +162,7 @@ public class RemoteRunner {
                     String.format("Unable get URL for getting state of a remote runner '%s' at '%s'", name, baseUrl));
         }
         try {
-            return HttpJsonHelper.request(RunnerState.class, 10000, stateLink, Pair.of("runner", name));
+            return lastState = HttpJsonHelper.requestBinary(RunnerState.class, 10000, stateLink, null, Pair.of("runner", name));
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
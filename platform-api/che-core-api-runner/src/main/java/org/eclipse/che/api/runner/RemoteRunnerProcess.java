@@ -77,7 +77,8 @@ public class RemoteRunnerProcess {
      */
     public ApplicationProcessDescriptor getApplicationProcessDescriptor() throws RunnerException, NotFoundException {
         try {
-            return HttpJsonHelper.get(ApplicationProcessDescriptor.class, 10000, baseUrl + "/status/" + runner + '/' + processId);
+            return HttpJsonHelper.requestBinary(ApplicationProcessDescriptor.class, 10000, baseUrl + "/status/" + runner + '/' + processId,
+                                                "GET", null);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
@@ -108,7 +109,7 @@ public class RemoteRunnerProcess {
             }
         }
         try {
-            return HttpJsonHelper.request(ApplicationProcessDescriptor.class, DtoFactory.getInstance().clone(link));
+            return HttpJsonHelper.requestBinary(ApplicationProcessDescriptor.class, -1, DtoFactory.getInstance().clone(link), null);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | ConflictException e) {
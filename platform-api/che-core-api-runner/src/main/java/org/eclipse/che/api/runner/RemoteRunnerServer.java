@@ -124,7 +124,7 @@ public class RemoteRunnerServer extends RemoteServiceDescriptor {
             if (link == null) {
                 throw new RunnerException("Unable get URL for retrieving list of remote runners");
             }
-            return HttpJsonHelper.requestArray(RunnerDescriptor.class, link);
+            return HttpJsonHelper.requestBinaryArray(RunnerDescriptor.class, -1, link, null);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -138,7 +138,7 @@ public class RemoteRunnerServer extends RemoteServiceDescriptor {
             if (stateLink == null) {
                 throw new RunnerException(String.format("Unable get URL for getting state of a remote server '%s'", baseUrl));
             }
-            return HttpJsonHelper.request(ServerState.class, 10000, stateLink);
+            return HttpJsonHelper.requestBinary(ServerState.class, 10000, stateLink, null);
         } catch (IOException e) {
             throw new RunnerException(e);
         } catch (ServerException | UnauthorizedException | ForbiddenException | NotFoundException | ConflictException e) {
@@ -18,6 +18,7 @@ import org.eclipse.che.api.builder.BuildStatus;
 import org.eclipse.che.api.builder.BuilderService;
 import org.eclipse.che.api.builder.dto.BuildOptions;
 import org.eclipse.che.api.builder.dto.BuildTaskDescriptor;
+import org.eclipse.che.api.builder.internal.BuilderEvent;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -29,6 +30,7 @@ import org.eclipse.che.api.core.rest.HttpJsonHelper;
 import org.eclipse.che.api.core.rest.RemoteServiceDescriptor;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.core.util.DispatchQueue;
 import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.api.project.server.ProjectService;
 import org.eclipse.che.api.project.shared.EnvironmentId;
@@ -46,6 +48,7 @@ import org.eclipse.che.api.runner.dto.RunnerServerAccessCriteria;
 import org.eclipse.che.api.runner.dto.RunnerServerLocation;
 import org.eclipse.che.api.runner.dto.RunnerServerRegistration;
 import org.eclipse.che.api.runner.dto.RunnerState;
+import org.eclipse.che.api.runner.dto.ServerState;
 import org.eclipse.che.api.runner.internal.Constants;
 import org.eclipse.che.api.runner.internal.RunnerEvent;
 import org.eclipse.che.api.workspace.server.WorkspaceService;
@@ -77,6 +80,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -89,7 +93,8 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -107,8 +112,11 @@ import java.util.concurrent.locks.ReentrantLock;
 public class RunQueue {
     private static final Logger LOG = LoggerFactory.getLogger(RunQueue.class);
 
-    /** Pause in milliseconds for checking the result of build process. */
-    private static final long CHECK_BUILD_RESULT_PERIOD     = 2000;
+    /**
+     * Pause in milliseconds for checking the result of build process. Normally run task checks result of build when it gets notification
+     * about end of build, see {@link BuildCompletionListener}, this is a fallback for notifications that are lost.
+     */
+    private static final long CHECK_BUILD_RESULT_PERIOD     = TimeUnit.SECONDS.toMillis(30);
     private static final long CHECK_AVAILABLE_RUNNER_PERIOD = 2000;
 
     private static final long PROCESS_CLEANER_PERIOD = TimeUnit.MINUTES.toMillis(1);
@@ -118,12 +126,21 @@ public class RunQueue {
     private static final int APPLICATION_CHECK_URL_TIMEOUT = 2000;
     private static final int APPLICATION_CHECK_URL_COUNT   = 30;
 
+    /** Max number of threads which send requests to slave-runners and check status of builds. */
+    private static final int DISPATCH_THREADS = 16;
+
+    /* Priority classes of run tasks. */
+    private static final int PRIORITY_HIGH   = 0;
+    private static final int PRIORITY_NORMAL = 1;
+
     private static final AtomicLong sequence = new AtomicLong(1);
 
     private final ConcurrentMap<String, RemoteRunnerServer>       runnerServers;
     private final RunnerSelectionStrategy                         runnerSelector;
     private final ConcurrentMap<RunnerListKey, Set<RemoteRunner>> runnerListMapping;
     private final ConcurrentMap<Long, RunQueueTask>               tasks;
+    /** Run tasks which are waiting for the end of build, mapped by id of build task. */
+    private final ConcurrentMap<Long, InternalRunTask>            waitingForBuild;
     private final int                                             defMemSize;
     private final EventService                                    eventService;
     private final int                                             defLifetime;
@@ -134,8 +151,9 @@ public class RunQueue {
     private final Lock[]                                          resourceCheckerLocks;
     private final int                                             resourceCheckerMask;
 
-    private ExecutorService          executor;
-    private ScheduledExecutorService cleanScheduler;
+    private ExecutorService                    executor;
+    private ScheduledExecutorService           cleanScheduler;
+    private DispatchQueue<RemoteRunnerProcess> dispatchQueue;
 
     /** Optional pre-configured slave runners. */
     @com.google.inject.Inject(optional = true)
@@ -156,6 +174,10 @@ public class RunQueue {
     @Named(Constants.RUNNER_WS_MAX_MEMORY_SIZE)
     private int defMaxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
 
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.MAX_WAITING_TASKS)
+    private int maxWaitingTasks = 10000;
+
     // Switched to default for test.
     // private
     long cleanerPeriod              = PROCESS_CLEANER_PERIOD;
@@ -191,6 +213,7 @@ public class RunQueue {
 
         runnerServers = new ConcurrentHashMap<>();
         tasks = new ConcurrentHashMap<>();
+        waitingForBuild = new ConcurrentHashMap<>();
         runnerListMapping = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
         final int partitions = 1 << 4;
@@ -218,53 +241,11 @@ public class RunQueue {
     public void start() {
         if (started.compareAndSet(false, true)) {
             executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
-                                              new ThreadFactoryBuilder().setNameFormat("RunQueue-[%d]").setDaemon(true).build()) {
-                @Override
-                protected void afterExecute(Runnable runnable, Throwable error) {
-                    boolean isInterrupted = Thread.interrupted();
-                    try {
-                        super.afterExecute(runnable, error);
-                        if (runnable instanceof InternalRunTask) {
-                            final InternalRunTask internalRunTask = (InternalRunTask)runnable;
-                            if (error == null) {
-                                try {
-                                    internalRunTask.get();
-                                } catch (CancellationException e) {
-                                    LOG.warn("Task {}, workspace '{}', project '{}' was cancelled",
-                                             internalRunTask.id, internalRunTask.workspace, internalRunTask.project);
-                                    error = e;
-                                } catch (ExecutionException e) {
-                                    error = e.getCause();
-                                    logError(internalRunTask, error == null ? e : error);
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                }
-                            } else {
-                                logError(internalRunTask, error);
-                            }
-                            if (error != null) {
-                                eventService.publish(RunnerEvent.errorEvent(internalRunTask.id, internalRunTask.workspace,
-                                                                            internalRunTask.project, error.getMessage()));
-                            }
-                        }
-                    } finally {
-                        if (isInterrupted) {
-                            Thread.currentThread().interrupt();
-                        }
-                    }
-                }
-
-                private void logError(InternalRunTask runTask, Throwable t) {
-                    String errorMessage = t.getMessage();
-                    if (errorMessage != null) {
-                        LOG.warn("Execution error, task {}, workspace '{}', project '{}', message '{}'",
-                                 runTask.id, runTask.workspace, runTask.project, errorMessage);
-                    } else {
-                        LOG.warn(String.format("Execution error, task %d, workspace '%s', project '%s', message '%s'",
-                                               runTask.id, runTask.workspace, runTask.project, ""), t);
-                    }
-                }
-            };
+                                              new ThreadFactoryBuilder().setNameFormat("RunQueue-[%d]").setDaemon(true).build());
+            dispatchQueue = new DispatchQueue<>("RunQueue", 2, DISPATCH_THREADS, maxWaitingTasks,
+                                                Math.min(checkAvailableRunnerPeriod, checkBuildResultPeriod));
+            eventService.subscribe(new BuildCompletionListener());
+            dispatchQueue.start();
             cleanScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("RunQueueScheduler-%d")
                                                                                                   .setDaemon(true).build());
             cleanScheduler.scheduleAtFixedRate(new Runnable() {
@@ -358,6 +339,7 @@ public class RunQueue {
     public void stop() {
         if (started.compareAndSet(true, false)) {
             boolean interrupted = false;
+            dispatchQueue.stop();
             cleanScheduler.shutdownNow();
             try {
                 if (!cleanScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -525,7 +507,8 @@ public class RunQueue {
         }
         final Callable<RemoteRunnerProcess> callable = createTaskFor(matchedRunners, request, buildTaskHolder);
         final Long id = sequence.getAndIncrement();
-        final InternalRunTask future = new InternalRunTask(ThreadLocalPropagateContext.wrap(callable), id, workspace, project);
+        final InternalRunTask future =
+                new InternalRunTask(ThreadLocalPropagateContext.wrap(callable), id, workspace, project, getPriority(infra), callable);
         request.setId(id); // for getting callback events from remote runner
         final RunQueueTask task = new RunQueueTask(id,
                                                    request,
@@ -536,11 +519,27 @@ public class RunQueue {
                                                    notParsedEnvironmentId,
                                                    serviceContext.getServiceUriBuilder());
         tasks.put(id, task);
+        final BuildTaskDescriptor buildDescriptor = buildTaskHolder.get();
+        if (buildDescriptor != null) {
+            waitingForBuild.put(buildDescriptor.getTaskId(), future);
+        }
+        try {
+            dispatchQueue.submit(future);
+        } catch (RejectedExecutionException e) {
+            tasks.remove(id);
+            if (buildDescriptor != null) {
+                waitingForBuild.remove(buildDescriptor.getTaskId(), future);
+            }
+            throw new RunnerException(e.getMessage());
+        }
         eventService.publish(RunnerEvent.queueStartedEvent(id, workspace, project));
-        executor.execute(future);
         return task;
     }
 
+    private int getPriority(String infra) {
+        return "paid".equals(infra) || "always_on".equals(infra) ? PRIORITY_HIGH : PRIORITY_NORMAL;
+    }
+
     private void resolveProjectRunnerEnvironments(String infra, RunRequest request, ProjectDescriptor projectDescriptor,
                                                   String envName, List<RemoteRunner> matchedRunners) throws RunnerException {
         final List<String> recipesUrls = new LinkedList<>();
@@ -995,6 +994,11 @@ public class RunQueue {
         private final List<RemoteRunner>               matchedRunners;
         private final Set<Pair<String, String>>        lowDiskSpaceRunners;
         private final Set<Pair<String, String>>        criticalDiskSpaceRunners;
+        // Attempts of the same task are never run concurrently and are ordered by DispatchQueue.
+        private volatile boolean buildDone;
+        private volatile long    nextBuildCheck;
+        /** Set when notification about end of build is received. */
+        private volatile boolean buildFinished;
 
         public RemoteRunnerProcessCallable(ValueHolder<BuildTaskDescriptor> buildTaskHolder, RunRequest request,
                                            List<RemoteRunner> matchedRunners) {
@@ -1005,28 +1009,25 @@ public class RunQueue {
             criticalDiskSpaceRunners = new HashSet<>();
         }
 
+        /**
+         * Makes one attempt to start application. Returns {@code null} if build of application is not done yet or there is no runner
+         * with enough resources at the moment. RunQueue calls this method again later in this case.
+         */
         @Override
         public RemoteRunnerProcess call() throws Exception {
-            BuildTaskDescriptor buildDescriptor = buildTaskHolder.get();
-            if (buildDescriptor != null) {
-                final Link buildStatusLink = buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_GET_STATUS);
-                if (buildStatusLink == null) {
-                    throw new RunnerException("Invalid response from builder service. Unable get URL for checking build status");
-                }
-                for (; ; ) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        // Expected to get here if task is canceled. Try to cancel related runner process.
-                        tryCancelBuild(buildDescriptor);
+            if (!buildDone) {
+                BuildTaskDescriptor buildDescriptor = buildTaskHolder.get();
+                if (buildDescriptor != null) {
+                    final long now = System.currentTimeMillis();
+                    if (!buildFinished && now < nextBuildCheck) {
+                        // Wait for notification about end of build.
                         return null;
                     }
-                    synchronized (this) {
-                        try {
-                            wait(checkBuildResultPeriod);
-                        } catch (InterruptedException e) {
-                            // Expected to get here if task is canceled. Try to cancel related build process.
-                            tryCancelBuild(buildDescriptor);
-                            return null;
-                        }
+                    nextBuildCheck = now + checkBuildResultPeriod;
+                    final Link buildStatusLink =
+                            buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_GET_STATUS);
+                    if (buildStatusLink == null) {
+                        throw new RunnerException("Invalid response from builder service. Unable get URL for checking build status");
                     }
                     buildDescriptor = HttpJsonHelper.request(BuildTaskDescriptor.class, DtoFactory.getInstance().clone(buildStatusLink));
                     // to be able show current state of build process with RunQueueTask.
@@ -1034,7 +1035,6 @@ public class RunQueue {
                     final BuildStatus buildStatus = buildDescriptor.getStatus();
                     if (buildStatus == BuildStatus.SUCCESSFUL) {
                         request.withBuildTaskDescriptor(buildDescriptor);
-                        break; // get out from loop
                     } else if (buildStatus == BuildStatus.CANCELLED || buildStatus == BuildStatus.FAILED) {
                         String msg = "Unable start application. Build of application is failed or cancelled.";
                         final Link logLink = buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_VIEW_LOG);
@@ -1042,50 +1042,71 @@ public class RunQueue {
                             msg += (" Build logs: " + logLink.getHref());
                         }
                         throw new RunnerException(msg);
-                    } else if (buildStatus == BuildStatus.IN_PROGRESS || buildStatus == BuildStatus.IN_QUEUE) {
-                        // wait
+                    } else {
                         LOG.debug("Build in of project '{}' from workspace '{}' is progress", request.getProject(), request.getWorkspace());
+                        return null;
                     }
                 }
+                buildDone = true;
             }
 
+            // Ask all matched runners about their state at once, slow or inaccessible runner doesn't delay checking of others.
+            final Map<RemoteRunner, Future<RunnerState>> states = new LinkedHashMap<>();
+            for (final RemoteRunner runner : matchedRunners) {
+                states.put(runner, executor.submit(ThreadLocalPropagateContext.wrap(new Callable<RunnerState>() {
+                    @Override
+                    public RunnerState call() throws Exception {
+                        return runner.getRemoteRunnerState();
+                    }
+                })));
+            }
             // List of runners that have enough resources for launch application.
             final List<RemoteRunner> available = new LinkedList<>();
-            for (; ; ) {
-                for (RemoteRunner runner : matchedRunners) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        // Expected to get here if task is canceled. Stop immediately.
-                        return null;
-                    }
+            try {
+                for (Map.Entry<RemoteRunner, Future<RunnerState>> entry : states.entrySet()) {
+                    final RemoteRunner runner = entry.getKey();
                     RunnerState runnerState;
                     try {
-                        runnerState = runner.getRemoteRunnerState();
-                    } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
+                        runnerState = entry.getValue().get();
+                    } catch (ExecutionException e) {
+                        LOG.error(e.getCause().getMessage(), e.getCause());
                         continue;
                     }
-                    if (runnerState.getServerState().getFreeMemory() >= request.getMemorySize()
+                    final ServerState serverState = runnerState.getServerState();
+                    if (serverState.getFreeMemory() >= request.getMemorySize()
+                        && (serverState.getTotalCpu() <= 0 || serverState.getFreeCpu() >= serverState.getApplicationCpu())
                         && hasEnoughSpaceOnDisk(runner.getName(), runner.getBaseUrl(), runnerState)) {
 
                         available.add(runner);
                     }
                 }
-                if (available.isEmpty()) {
-                    synchronized (this) {
-                        try {
-                            // Wait and try again.
-                            wait(checkAvailableRunnerPeriod);
-                        } catch (InterruptedException e) {
-                            // Expected to get here if task is canceled.
-                            Thread.currentThread().interrupt();
-                            return null;
-                        }
-                    }
-                } else {
-                    final RemoteRunner runner = available.size() > 1 ? runnerSelector.select(available) : available.get(0);
-                    LOG.info("Use runner '{}' at '{}'", runner.getName(), runner.getBaseUrl());
-                    return runner.run(request);
+            } catch (InterruptedException e) {
+                // Expected to get here if task is canceled. Stop immediately.
+                for (Future<RunnerState> future : states.values()) {
+                    future.cancel(true);
                 }
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (available.isEmpty()) {
+                // Try again later.
+                return null;
+            }
+            final RemoteRunner runner = available.size() > 1 ? runnerSelector.select(available) : available.get(0);
+            LOG.info("Use runner '{}' at '{}'", runner.getName(), runner.getBaseUrl());
+            return runner.run(request);
+        }
+
+        /** Notifies this task that build of application is done, successfully or not. */
+        void buildFinished() {
+            buildFinished = true;
+        }
+
+        /** Cancels build of application if it is not done yet. Expected to be called when run task is cancelled. */
+        void cancelBuild() {
+            final BuildTaskDescriptor buildDescriptor = buildTaskHolder.get();
+            if (!buildDone && buildDescriptor != null) {
+                tryCancelBuild(buildDescriptor);
             }
         }
 
@@ -1136,17 +1157,85 @@ public class RunQueue {
         }
     }
 
-    // for store workspace, project and id of process with FutureTask
-    private static class InternalRunTask extends FutureTask<RemoteRunnerProcess> {
-        final Long   id;
-        final String workspace;
-        final String project;
+    /** Starts run tasks which are waiting for build right after build is done instead of waiting for the next check of build status. */
+    private class BuildCompletionListener implements EventSubscriber<BuilderEvent> {
+        @Override
+        public void onEvent(BuilderEvent event) {
+            switch (event.getType()) {
+                case DONE:
+                case CANCELED:
+                case BUILD_TASK_QUEUE_TIME_EXCEEDED:
+                    final InternalRunTask task = waitingForBuild.remove(event.getTaskId());
+                    if (task != null) {
+                        if (task.origin instanceof RemoteRunnerProcessCallable) {
+                            ((RemoteRunnerProcessCallable)task.origin).buildFinished();
+                        }
+                        dispatchQueue.signal(task);
+                    }
+                    break;
+            }
+        }
+    }
 
-        InternalRunTask(Callable<RemoteRunnerProcess> callable, Long id, String workspace, String project) {
-            super(callable);
+    // for store workspace, project and id of process with DispatchQueue.Task
+    private class InternalRunTask extends DispatchQueue.Task<RemoteRunnerProcess> {
+        final Long                          id;
+        final String                        workspace;
+        final String                        project;
+        final Callable<RemoteRunnerProcess> origin;
+
+        InternalRunTask(Callable<RemoteRunnerProcess> callable, Long id, String workspace, String project, int priority,
+                        Callable<RemoteRunnerProcess> origin) {
+            super(callable, workspace, priority);
             this.id = id;
             this.workspace = workspace;
             this.project = project;
+            this.origin = origin;
+        }
+
+        @Override
+        protected void done() {
+            super.done();
+            if (origin instanceof RemoteRunnerProcessCallable) {
+                final BuildTaskDescriptor buildDescriptor = ((RemoteRunnerProcessCallable)origin).buildTaskHolder.get();
+                if (buildDescriptor != null) {
+                    waitingForBuild.remove(buildDescriptor.getTaskId(), this);
+                }
+            }
+            Throwable error = null;
+            try {
+                get();
+            } catch (CancellationException e) {
+                LOG.warn("Task {}, workspace '{}', project '{}' was cancelled", id, workspace, project);
+                error = e;
+                if (origin instanceof RemoteRunnerProcessCallable) {
+                    // Don't block thread that cancels task with request to builder.
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            ((RemoteRunnerProcessCallable)origin).cancelBuild();
+                        }
+                    });
+                }
+            } catch (ExecutionException e) {
+                error = e.getCause();
+                logError(error == null ? e : error);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (error != null) {
+                eventService.publish(RunnerEvent.errorEvent(id, workspace, project, error.getMessage()));
+            }
+        }
+
+        private void logError(Throwable t) {
+            String errorMessage = t.getMessage();
+            if (errorMessage != null) {
+                LOG.warn("Execution error, task {}, workspace '{}', project '{}', message '{}'", id, workspace, project, errorMessage);
+            } else {
+                LOG.warn(String.format("Execution error, task %d, workspace '%s', project '%s', message '%s'", id, workspace, project, ""),
+                         t);
+            }
         }
     }
 
@@ -1362,9 +1451,8 @@ public class RunQueue {
                     case MESSAGE_LOGGED:
                         final RunnerEvent.LoggedMessage message = event.getMessage();
                         if (message != null) {
-                            bm.setChannel(String.format("runner:output:%d", id));
-                            bm.setBody(String.format("{\"num\":%d, \"line\":%s}",
-                                                     message.getLineNum(), JsonUtils.getJsonString(message.getMessage())));
+                            sendLoggedMessage(id, message);
+                            return;
                         }
                         break;
                 }
@@ -1373,6 +1461,34 @@ public class RunQueue {
                 LOG.error(e.getMessage(), e);
             }
         }
+
+        /**
+         * Sends each line in separate message {"num":..., "line":...} to channel {@code runner:output:<id>}, as clients expect, and the
+         * whole chunk in single message {"firstNum":..., "lines":[...]} to channel {@code runner:output-chunks:<id>}. Clients that
+         * subscribe to the last one get far fewer messages for noisy output.
+         */
+        private void sendLoggedMessage(long id, RunnerEvent.LoggedMessage message) throws Exception {
+            final List<String> lines = message.getLines();
+            final String lineChannel = String.format("runner:output:%d", id);
+            final StringBuilder chunk = new StringBuilder();
+            chunk.append("{\"firstNum\":").append(message.getLineNum()).append(", \"lines\":[");
+            for (int i = 0, size = lines.size(); i < size; i++) {
+                final String line = JsonUtils.getJsonString(lines.get(i));
+                final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+                bm.setChannel(lineChannel);
+                bm.setBody(String.format("{\"num\":%d, \"line\":%s}", message.getLineNum() + i, line));
+                WSConnectionContext.sendMessage(bm);
+                if (i > 0) {
+                    chunk.append(',');
+                }
+                chunk.append(line);
+            }
+            chunk.append("]}");
+            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+            bm.setChannel(String.format("runner:output-chunks:%d", id));
+            bm.setBody(chunk.toString());
+            WSConnectionContext.sendMessage(bm);
+        }
     }
 
     private class AnalyticsMessenger implements EventSubscriber<RunnerEvent> {
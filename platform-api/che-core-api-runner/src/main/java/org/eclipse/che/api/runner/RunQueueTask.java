@@ -17,6 +17,7 @@ import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.rest.OutputProvider;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.core.util.Cancellable;
+import org.eclipse.che.api.core.util.DispatchQueue;
 import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.api.runner.dto.ApplicationProcessDescriptor;
 import org.eclipse.che.api.runner.dto.RunRequest;
@@ -128,10 +129,16 @@ public class RunQueueTask implements Cancellable {
                                                              .build(request.getWorkspace(), id).toString())
                                     .withMethod("POST")
                                     .withProduces(MediaType.APPLICATION_JSON));
-                final List<RunnerMetric> runStats = new ArrayList<>(2);
+                final List<RunnerMetric> runStats = new ArrayList<>(3);
                 runStats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.WAITING_TIME_LIMIT)
                                        .withValue(Long.toString(created + waitingTimeout))
                                        .withDescription("Waiting for start limit (ms)"));
+                final int position = getQueuePosition();
+                if (position > 0) {
+                    runStats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.QUEUE_POSITION)
+                                           .withValue(Integer.toString(position))
+                                           .withDescription("Position in queue"));
+                }
                 final long lifetime = request.getLifetime();
                 runStats.add(dtoFactory.createDto(RunnerMetric.class).withName(RunnerMetric.LIFETIME)
                                        .withValue(lifetime >= Integer.MAX_VALUE ? RunnerMetric.ALWAYS_ON
@@ -227,6 +234,15 @@ public class RunQueueTask implements Cancellable {
         return !future.isDone();
     }
 
+    /**
+     * Get position of this task in the RunQueue.
+     *
+     * @return position of this task, {@code 1} means that the task is the next one, or {@code -1} if the task isn't waiting
+     */
+    public int getQueuePosition() {
+        return future instanceof DispatchQueue.Task ? ((DispatchQueue.Task<?>)future).getPosition() : -1;
+    }
+
     boolean isCancelled() {
         return future.isCancelled();
     }
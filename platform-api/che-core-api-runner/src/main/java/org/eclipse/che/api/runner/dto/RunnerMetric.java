@@ -24,6 +24,8 @@ public interface RunnerMetric {
 
     String WAITING_TIME_LIMIT = "waitingTimeLimit";
 
+    String QUEUE_POSITION = "queuePosition";
+
     String ALWAYS_ON = "Always On";
 
     String LIFETIME = "lifetime";
@@ -39,4 +39,32 @@ public interface ServerState {
     ServerState withFreeMemory(long freeMemory);
 
     void setFreeMemory(long freeMemory);
+
+    /** Gets total amount of CPU (in millicores) allocated to launching applications. Returns -1 if CPU isn't reserved. */
+    int getTotalCpu();
+
+    ServerState withTotalCpu(int totalCpu);
+
+    void setTotalCpu(int totalCpu);
+
+    /** Gets amount of CPU (in millicores) available for launching applications. Returns -1 if CPU isn't reserved. */
+    int getFreeCpu();
+
+    ServerState withFreeCpu(int freeCpu);
+
+    void setFreeCpu(int freeCpu);
+
+    /** Gets amount of CPU (in millicores) which is reserved for each application. */
+    int getApplicationCpu();
+
+    ServerState withApplicationCpu(int applicationCpu);
+
+    void setApplicationCpu(int applicationCpu);
+
+    /** Gets number of ports available for launching applications. */
+    int getFreePorts();
+
+    ServerState withFreePorts(int freePorts);
+
+    void setFreePorts(int freePorts);
 }
@@ -11,25 +11,32 @@
 package org.eclipse.che.api.runner.internal;
 
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.util.BufferedLineConsumer;
 import org.eclipse.che.api.core.util.RateExceedDetector;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Publishes application's outputs to the EventService.
+ * Publishes application's outputs to the EventService. Lines are published in chunks, see {@link RunnerEvent.LoggedMessage}.
  *
  * @author andrew00x
  */
 public class ApplicationLogsPublisher extends DelegateApplicationLogger {
-    private final AtomicInteger      lineCounter;
-    private final EventService       eventService;
-    private final long               processId;
-    private final String             workspace;
-    private final String             project;
-    private final RateExceedDetector maxEventRateChecker;
+    static final int  CHUNK_MAX_LINES    = 200;
+    static final int  CHUNK_MAX_CHARS    = 32 * 1024;
+    static final long CHUNK_DELAY_MILLIS = 100;
+
+    private final EventService         eventService;
+    private final long                 processId;
+    private final String               workspace;
+    private final String               project;
+    private final RateExceedDetector   maxEventRateChecker;
+    private final BufferedLineConsumer publisher;
 
     private boolean outputEnabled = true;
+    private int     lineCounter;
 
     int maxLogsRate = 60;
 
@@ -43,12 +50,18 @@ public class ApplicationLogsPublisher extends DelegateApplicationLogger {
         this.processId = processId;
         this.workspace = workspace;
         this.project = project;
-        lineCounter = new AtomicInteger(1);
+        lineCounter = 1;
         maxEventRateChecker = new RateExceedDetector(maxLogsRate);
+        publisher = new BufferedLineConsumer(CHUNK_MAX_LINES, CHUNK_MAX_CHARS, CHUNK_DELAY_MILLIS, TimeUnit.MILLISECONDS) {
+            @Override
+            protected void writeLines(List<String> lines) {
+                publish(lines);
+            }
+        };
     }
 
     @Override
-    public void writeLine(String line) throws IOException {
+    public synchronized void writeLine(String line) throws IOException {
         if (outputEnabled) {
             double rate;
             if (maxEventRateChecker.updateAndCheckRate() && (rate = maxEventRateChecker.getRate()) > maxLogsRate) {
@@ -56,15 +69,30 @@ public class ApplicationLogsPublisher extends DelegateApplicationLogger {
                 final String message = String.format(
                         "[WARNING] Application '%s' has exceeded output rate of %.2f messages / second. Application output has been disabled.",
                         project.startsWith("/") ? project.substring(1) : project, rate);
-                eventService.publish(RunnerEvent.messageLoggedEvent(processId, workspace, project,
-                                                                    new RunnerEvent.LoggedMessage(message, lineCounter.getAndIncrement())));
+                publisher.writeLine(message);
+                publisher.flush();
                 return;
             }
             if (line != null) {
-                eventService.publish(RunnerEvent.messageLoggedEvent(processId, workspace, project,
-                                                                    new RunnerEvent.LoggedMessage(line, lineCounter.getAndIncrement())));
+                publisher.writeLine(line);
             }
         }
         super.writeLine(line);
     }
+
+    /** Publishes all lines which are not published yet and closes delegate logger. */
+    @Override
+    public void close() throws IOException {
+        try {
+            publisher.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    private void publish(List<String> lines) {
+        eventService.publish(RunnerEvent.messageLoggedEvent(processId, workspace, project,
+                                                            new RunnerEvent.LoggedMessage(lines, lineCounter)));
+        lineCounter += lines.size();
+    }
 }
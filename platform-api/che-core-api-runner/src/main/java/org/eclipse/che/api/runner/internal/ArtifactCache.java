@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner.internal;
+
+import org.eclipse.che.api.core.util.DiskLruDirectory;
+import org.eclipse.che.api.core.util.DownloadPlugin;
+import org.eclipse.che.commons.lang.TarUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local cache of build artifacts which are deployed by runners. Each entry is identified with key, e.g. digest of URL of build artifact,
+ * and keeps downloaded artifact and, if requested, unpacked content of tar archive:
+ * <pre>
+ * &lt;cache directory&gt;/&lt;key&gt;/artifact/&lt;name of artifact&gt; - downloaded artifact
+ * &lt;cache directory&gt;/&lt;key&gt;/unpacked/... - unpacked artifact
+ * </pre>
+ * Files in cache are read-only. Runners must not modify them, but copy to own directory if modification is required.
+ * <p/>
+ * The same artifact is downloaded and unpacked only once even if it is requested by few threads at the same time. Total size of cache is
+ * limited. When limit is reached entries which were not used for the longest time are removed, see {@link DiskLruDirectory}. Entries which
+ * are used by applications, see {@link Lease}, are never removed.
+ */
+public class ArtifactCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactCache.class);
+
+    private static final String ARTIFACT = "artifact";
+    private static final String UNPACKED = "unpacked";
+
+    private final DiskLruDirectory                              entries;
+    private final DownloadPlugin                                downloadPlugin;
+    private final ConcurrentMap<java.io.File, FutureTask<Void>> loading;
+    /** Number of leases of each entry. Guarded by itself, eviction of entries is guarded by the same lock. */
+    private final Map<String, Integer>                          usages;
+
+    /**
+     * @param directory
+     *         directory for cache entries
+     * @param maxSize
+     *         max size of cache in bytes
+     * @param downloadPlugin
+     *         plugin for downloading artifacts
+     */
+    public ArtifactCache(java.io.File directory, long maxSize, DownloadPlugin downloadPlugin) {
+        this.downloadPlugin = downloadPlugin;
+        entries = new DiskLruDirectory(directory, maxSize);
+        loading = new ConcurrentHashMap<>();
+        usages = new HashMap<>();
+        // Remove partially loaded entries if previous process was terminated while loading them.
+        entries.removeTemporaryFiles();
+    }
+
+    public java.io.File getDirectory() {
+        return entries.getDirectory();
+    }
+
+    /**
+     * Gets artifact from the cache. Artifact is downloaded if it isn't cached yet. Entry of cache can't be removed until lease is
+     * disposed.
+     *
+     * @param key
+     *         key of cache entry
+     * @param url
+     *         URL for download artifact
+     * @param unpack
+     *         if {@code true} artifact is tar archive and lease points to the directory with unpacked content of archive, otherwise lease
+     *         points to the downloaded file
+     * @return lease of cached artifact
+     * @throws IOException
+     *         if an i/o error occurs while downloading or unpacking artifact
+     */
+    public Lease get(String key, final String url, boolean unpack) throws IOException {
+        acquire(key);
+        boolean done = false;
+        try {
+            final java.io.File entry = entries.getEntry(key);
+            final java.io.File artifactDir = load(new java.io.File(entry, ARTIFACT), new DiskLruDirectory.ContentWriter() {
+                @Override
+                public void write(java.io.File dir) throws IOException {
+                    download(url, dir);
+                }
+            });
+            final java.io.File artifact = getArtifactFile(artifactDir);
+            java.io.File file = artifact;
+            if (unpack) {
+                file = load(new java.io.File(entry, UNPACKED), new DiskLruDirectory.ContentWriter() {
+                    @Override
+                    public void write(java.io.File dir) throws IOException {
+                        TarUtils.untar(artifact, dir);
+                    }
+                });
+            }
+            evict();
+            done = true;
+            return new Lease(key, file);
+        } finally {
+            if (!done) {
+                release(key);
+            }
+        }
+    }
+
+    /** Gets total size of entries in bytes. */
+    public long getSize() {
+        return entries.getSize();
+    }
+
+    private void download(String url, java.io.File dir) throws IOException {
+        final IOException[] error = new IOException[1];
+        downloadPlugin.download(url, dir, new DownloadPlugin.Callback() {
+            @Override
+            public void done(java.io.File downloaded) {
+            }
+
+            @Override
+            public void error(IOException e) {
+                error[0] = e;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+    }
+
+    private static java.io.File getArtifactFile(java.io.File artifactDir) throws IOException {
+        final java.io.File[] files = artifactDir.listFiles();
+        if (files == null || files.length != 1) {
+            throw new IOException(String.format("Invalid cache entry %s", artifactDir.getParentFile().getName()));
+        }
+        return files[0];
+    }
+
+    /**
+     * Loads content of {@code target} directory with {@code loader} if this directory doesn't exist yet. If the same directory is being
+     * loaded by other thread at the moment, waits until loading is done and doesn't load it again.
+     */
+    private java.io.File load(final java.io.File target, final DiskLruDirectory.ContentWriter loader) throws IOException {
+        if (target.exists()) {
+            return target;
+        }
+        FutureTask<Void> task = loading.get(target);
+        if (task == null) {
+            final FutureTask<Void> newTask = new FutureTask<>(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    if (!target.exists()) {
+                        loadAtomically(target, loader);
+                    }
+                    return null;
+                }
+            });
+            task = loading.putIfAbsent(target, newTask);
+            if (task == null) {
+                task = newTask;
+                try {
+                    newTask.run();
+                } finally {
+                    loading.remove(target, newTask);
+                }
+            }
+        }
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+        return target;
+    }
+
+    /** Loads content in temporary directory and then moves it to its place, so other threads never see partially loaded content. */
+    private void loadAtomically(java.io.File target, final DiskLruDirectory.ContentWriter loader) throws IOException {
+        entries.write(target, new DiskLruDirectory.ContentWriter() {
+            @Override
+            public void write(java.io.File dir) throws IOException {
+                loader.write(dir);
+                setReadOnly(dir);
+            }
+        });
+    }
+
+    private void acquire(String key) {
+        synchronized (usages) {
+            final Integer count = usages.get(key);
+            usages.put(key, count == null ? 1 : count + 1);
+            entries.touch(key);
+        }
+    }
+
+    private void release(String key) {
+        synchronized (usages) {
+            final Integer count = usages.get(key);
+            if (count == null || count <= 1) {
+                usages.remove(key);
+            } else {
+                usages.put(key, count - 1);
+            }
+        }
+    }
+
+    /** Removes entries which were not used for the longest time while total size of entries exceeds limit. */
+    private void evict() {
+        synchronized (usages) {
+            entries.evict(new DiskLruDirectory.EntryFilter() {
+                @Override
+                public boolean accept(String key) {
+                    // Entry is used by application at the moment.
+                    return usages.containsKey(key);
+                }
+            });
+        }
+    }
+
+    private static void setReadOnly(java.io.File file) {
+        final java.io.File[] list = file.listFiles();
+        if (list != null) {
+            for (java.io.File f : list) {
+                setReadOnly(f);
+            }
+        } else if (file.isFile() && !file.setWritable(false, false)) {
+            LOG.debug("Unable make file {} read-only", file);
+        }
+    }
+
+    /** Lease of cache entry. Entry may not be removed from cache until lease is disposed. */
+    public final class Lease implements Disposer {
+        private final String        key;
+        private final java.io.File  file;
+        private final AtomicBoolean disposed;
+
+        private Lease(String key, java.io.File file) {
+            this.key = key;
+            this.file = file;
+            disposed = new AtomicBoolean();
+        }
+
+        /** Gets cached file or directory. */
+        public java.io.File getFile() {
+            return file;
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed.compareAndSet(false, true)) {
+                release(key);
+            }
+        }
+    }
+}
@@ -64,6 +64,31 @@ public class Constants {
     public static final String APP_LIFETIME                       = "runner.app_lifetime";
     /** Name of configuration parameter that sets amount of memory (in megabytes) for running applications. */
     public static final String TOTAL_APPS_MEM_SIZE                = "runner.total_apps_mem_size_mb";
+    /** Amount of CPU in millicores for running applications. By default 1000 millicores for each processor. Set to 0 to disable. */
+    public static final String TOTAL_APPS_CPU                     = "runner.total_apps_cpu_millicores";
+    /** Amount of CPU in millicores which is reserved for each application. */
+    public static final String APP_DEFAULT_CPU                    = "runner.default_app_cpu_millicores";
+    /** Amount of disk space in megabytes for running applications. Disabled by default. */
+    public static final String TOTAL_APPS_DISK_SIZE               = "runner.total_apps_disk_size_mb";
+    /** Amount of disk space in megabytes which is reserved for each application. */
+    public static final String APP_DEFAULT_DISK_SIZE              = "runner.default_app_disk_size_mb";
+    /** Min number of port which may be allocated for application. */
+    public static final String APP_PORTS_MIN                      = "runner.app_ports.min";
+    /** Max number of port which may be allocated for application. */
+    public static final String APP_PORTS_MAX                      = "runner.app_ports.max";
+    /** Max number of run tasks which may wait in RunQueue. New tasks are rejected when this limit is reached. */
+    public static final String MAX_WAITING_TASKS                  = "runner.max_waiting_tasks";
+    /**
+     * Directory of cache of build artifacts which are deployed by runners. By default each runner keeps cache in sub-directory
+     * 'artifact_cache' of {@link #DEPLOY_DIRECTORY}.
+     */
+    public static final String ARTIFACT_CACHE_DIRECTORY           = "runner.artifact_cache.directory";
+    /**
+     * Max size of cache of build artifacts in megabytes for each runner. Default size is 1024, set it to 0 to disable cache. Runners
+     * copy cached files before deploy unless they declare that they never modify deployment sources, see {@link
+     * Runner#isModifyDeploymentSources()}.
+     */
+    public static final String ARTIFACT_CACHE_SIZE                = "runner.artifact_cache.size_mb";
 
     public static final String RUNNER_ASSIGNED_TO_WORKSPACE = "runner.assigned_to_workspace";
     public static final String RUNNER_ASSIGNED_TO_PROJECT   = "runner.assigned_to_project";
@@ -22,9 +22,21 @@ import java.io.IOException;
  */
 public class DeploymentSources {
     private final java.io.File file;
+    private final boolean      readOnly;
 
     public DeploymentSources(java.io.File file) {
+        this(file, false);
+    }
+
+    /**
+     * @param file
+     *         application file or directory
+     * @param readOnly
+     *         {@code true} if application file or directory may be shared between few applications and must not be modified
+     */
+    public DeploymentSources(java.io.File file, boolean readOnly) {
         this.file = file;
+        this.readOnly = readOnly;
     }
 
     /** Get application file or directory. */
@@ -32,6 +44,14 @@ public class DeploymentSources {
         return file;
     }
 
+    /**
+     * Checks whether application file or directory may be modified. Runner must copy read-only application bundle to own directory
+     * before modify it.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     /**
      * Checks is application bundle is zip archive or not.
      *
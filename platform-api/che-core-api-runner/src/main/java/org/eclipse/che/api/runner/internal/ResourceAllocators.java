@@ -18,10 +18,22 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import java.util.concurrent.Semaphore;
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
 /**
- * Allocator for resources.
+ * Allocator for resources. Application gets memory, CPU, disk space and set of ports with one reservation, that is all or nothing: if any
+ * of resources is not enough, nothing is allocated.
+ * <p/>
+ * CPU is measured in millicores, 1000 millicores is one core. Amount of CPU and disk space of application may not be known in advance,
+ * so they are reserved by configured size for each application, see {@link Constants#APP_DEFAULT_CPU}, {@link
+ * Constants#APP_DEFAULT_DISK_SIZE}. Reservation of CPU and disk space may be disabled by setting total amount of resource to {@code 0}.
+ * <p/>
  * Usage (memory allocation as example):
  * <pre>
  *     int mem = ...
@@ -42,8 +54,50 @@ public class ResourceAllocators {
 
     private static final Logger LOG = LoggerFactory.getLogger(ResourceAllocators.class);
 
-    private final int       memSize;
-    private final Semaphore memSemaphore;
+    private final int memSize;
+
+    /* Guarded by this. */
+    private int    usedMemory;
+    private int    usedCpu;
+    private int    usedDisk;
+    private BitSet usedPorts;
+    private int    nextPort;
+
+    // Switched to default for test.
+    // private
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.TOTAL_APPS_CPU)
+    int cpu = Runtime.getRuntime().availableProcessors() * 1000;
+
+    // Switched to default for test.
+    // private
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.APP_DEFAULT_CPU)
+    int defAppCpu = 100;
+
+    // Switched to default for test.
+    // private
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.TOTAL_APPS_DISK_SIZE)
+    int diskSize;
+
+    // Switched to default for test.
+    // private
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.APP_DEFAULT_DISK_SIZE)
+    int defAppDiskSize;
+
+    // Switched to default for test.
+    // private
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.APP_PORTS_MIN)
+    int minPort = 49152;
+
+    // Switched to default for test.
+    // private
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.APP_PORTS_MAX)
+    int maxPort = 65535;
 
     @Inject
     public ResourceAllocators(@Named(Constants.TOTAL_APPS_MEM_SIZE) int memSize) {
@@ -51,7 +105,6 @@ public class ResourceAllocators {
             throw new IllegalArgumentException(String.format("Invalid mem size %d", memSize));
         }
         this.memSize = memSize;
-        memSemaphore = new Semaphore(memSize);
     }
 
     /**
@@ -69,7 +122,42 @@ public class ResourceAllocators {
      * @see Constants#TOTAL_APPS_MEM_SIZE
      */
     public ResourceAllocator newMemoryAllocator(int size) {
-        return new MemoryAllocator(size);
+        return new Reservation(size, 0, 0, 0);
+    }
+
+    /**
+     * Create new allocator of all resources that application needs: memory, CPU, disk space and ports. CPU and disk space are reserved by
+     * configured size for each application. Resources are allocated with method {@link ResourceAllocator#allocate()} and must be released
+     * with method {@link ResourceAllocator#release()}.
+     *
+     * @param memory
+     *         memory size in megabytes
+     * @param ports
+     *         number of ports
+     * @return allocator of resources
+     * @see Constants#APP_DEFAULT_CPU
+     * @see Constants#APP_DEFAULT_DISK_SIZE
+     */
+    public Reservation newReservation(int memory, int ports) {
+        return new Reservation(memory, defAppCpu, defAppDiskSize, ports);
+    }
+
+    /**
+     * Create new allocator of all resources that application needs: memory, CPU, disk space and ports. Resources are allocated with
+     * method {@link ResourceAllocator#allocate()} and must be released with method {@link ResourceAllocator#release()}.
+     *
+     * @param memory
+     *         memory size in megabytes
+     * @param cpu
+     *         CPU in millicores
+     * @param disk
+     *         disk space in megabytes
+     * @param ports
+     *         number of ports
+     * @return allocator of resources
+     */
+    public Reservation newReservation(int memory, int cpu, int disk, int ports) {
+        return new Reservation(memory, cpu, disk, ports);
     }
 
     /**
@@ -80,8 +168,8 @@ public class ResourceAllocators {
      * @see #totalMemory()
      * @see Constants#TOTAL_APPS_MEM_SIZE
      */
-    public int freeMemory() {
-        return memSemaphore.availablePermits();
+    public synchronized int freeMemory() {
+        return memSize - usedMemory;
     }
 
     /**
@@ -96,29 +184,238 @@ public class ResourceAllocators {
         return memSize;
     }
 
+    /**
+     * Returns amount of CPU in millicores available for starting new applications or {@code -1} if reservation of CPU is disabled.
+     *
+     * @see Constants#TOTAL_APPS_CPU
+     */
+    public synchronized int freeCpu() {
+        return cpu > 0 ? cpu - usedCpu : -1;
+    }
+
+    /**
+     * Returns amount of CPU in millicores defined for all applications or {@code -1} if reservation of CPU is disabled.
+     *
+     * @see Constants#TOTAL_APPS_CPU
+     */
+    public int totalCpu() {
+        return cpu > 0 ? cpu : -1;
+    }
+
+    /**
+     * Returns amount of CPU in millicores which is reserved for each application.
+     *
+     * @see Constants#APP_DEFAULT_CPU
+     */
+    public int applicationCpu() {
+        return cpu > 0 ? defAppCpu : 0;
+    }
+
+    /**
+     * Returns amount of disk space in megabytes available for starting new applications or {@code -1} if reservation of disk space is
+     * disabled.
+     *
+     * @see Constants#TOTAL_APPS_DISK_SIZE
+     */
+    public synchronized int freeDisk() {
+        return diskSize > 0 ? diskSize - usedDisk : -1;
+    }
+
+    /** Returns number of ports available for applications. */
+    public synchronized int freePorts() {
+        return (maxPort - minPort + 1) - (usedPorts == null ? 0 : usedPorts.cardinality());
+    }
+
+    /**
+     * Checks whether resources are enough for starting application. Result of this method is not guarantee that resources may be
+     * allocated.
+     */
+    public synchronized boolean isAvailable(int memory, int cpu, int disk, int ports) {
+        return (memSize - usedMemory) >= memory
+               && (this.cpu <= 0 || (this.cpu - usedCpu) >= cpu)
+               && (diskSize <= 0 || (diskSize - usedDisk) >= disk)
+               && freePorts() >= ports;
+    }
+
     /* ===== INTERNAL STUFF ===== */
 
-    /** Manages memory available for running applications. */
-    private class MemoryAllocator implements ResourceAllocator {
-        final int size;
+    /**
+     * Allocates resources. Ports are checked with opening sockets, that may be slow, so it is done without holding lock of this
+     * allocator. Ports are taken under lock before checking, so other allocations skip them, and memory, CPU and disk space are
+     * allocated under lock when all ports are checked.
+     */
+    private int[] allocate(Reservation reservation) throws RunnerException {
+        synchronized (this) {
+            // Don't check ports if other resources aren't enough.
+            checkResources(reservation);
+        }
+        final int[] ports = allocatePorts(reservation.ports);
+        if (ports == null) {
+            throw new RunnerException(String.format("Couldn't allocate %d ports for starting application", reservation.ports));
+        }
+        synchronized (this) {
+            try {
+                checkResources(reservation);
+            } catch (RunnerException e) {
+                releasePorts(ports);
+                throw e;
+            }
+            usedMemory += reservation.memory;
+            if (cpu > 0) {
+                usedCpu += reservation.cpu;
+            }
+            if (diskSize > 0) {
+                usedDisk += reservation.disk;
+            }
+            LOG.debug("allocate memory: {}M, cpu: {}m, disk: {}M, ports: {}, available memory: {}M, cpu: {}m", reservation.memory,
+                      reservation.cpu, reservation.disk, reservation.ports, memSize - usedMemory, cpu - usedCpu);
+        }
+        return ports;
+    }
+
+    /** Checks that memory, CPU and disk space are enough for reservation. Must be called under lock. */
+    private void checkResources(Reservation reservation) throws RunnerException {
+        if ((memSize - usedMemory) < reservation.memory) {
+            throw new RunnerException(String.format("Couldn't allocate %dM for starting application", reservation.memory));
+        }
+        if (cpu > 0 && (cpu - usedCpu) < reservation.cpu) {
+            throw new RunnerException(String.format("Couldn't allocate %dm CPU for starting application", reservation.cpu));
+        }
+        if (diskSize > 0 && (diskSize - usedDisk) < reservation.disk) {
+            throw new RunnerException(String.format("Couldn't allocate %dM of disk space for starting application", reservation.disk));
+        }
+    }
+
+    private synchronized void release(Reservation reservation, int[] ports) {
+        usedMemory -= reservation.memory;
+        if (cpu > 0) {
+            usedCpu -= reservation.cpu;
+        }
+        if (diskSize > 0) {
+            usedDisk -= reservation.disk;
+        }
+        releasePorts(ports);
+        LOG.debug("release memory: {}M, cpu: {}m, disk: {}M, ports: {}, available memory: {}M, cpu: {}m", reservation.memory,
+                  reservation.cpu, reservation.disk, reservation.ports, memSize - usedMemory, cpu - usedCpu);
+    }
+
+    /**
+     * Finds free ports. Ports are taken in round-robin through the whole range, so port that is released is not reused immediately
+     * (browser may show content of previous application on the same port from its cache). Must be called without lock, lock is
+     * acquired only to take ports which aren't used by other applications.
+     *
+     * @return ports or {@code null} if there is not enough free ports
+     */
+    private int[] allocatePorts(int num) {
+        final int[] ports = new int[num];
+        if (num == 0) {
+            return ports;
+        }
+        final int rangeSize = maxPort - minPort + 1;
+        // Ports which are used by other processes. Keep them taken until allocation is done, so they aren't checked again.
+        final List<Integer> busy = new ArrayList<>();
+        int found = 0;
+        int checked = 0;
+        while (found < num && checked < rangeSize) {
+            final int[] candidates = takePorts(Math.min(num - found, rangeSize - checked));
+            if (candidates.length == 0) {
+                break;
+            }
+            for (int port : candidates) {
+                if (isPortFree(port)) {
+                    ports[found++] = port;
+                } else {
+                    busy.add(port);
+                }
+            }
+            checked += candidates.length;
+        }
+        synchronized (this) {
+            for (int port : busy) {
+                usedPorts.clear(port - minPort);
+            }
+            if (found < num) {
+                releasePorts(Arrays.copyOf(ports, found));
+                return null;
+            }
+        }
+        return ports;
+    }
 
-        MemoryAllocator(int size) {
-            this.size = size;
+    /**
+     * Takes up to {@code num} ports which aren't used by applications, starting from the next port in round-robin order. Taken ports are
+     * marked as used but they aren't checked for use by other processes.
+     */
+    private synchronized int[] takePorts(int num) {
+        final int rangeSize = maxPort - minPort + 1;
+        if (usedPorts == null) {
+            usedPorts = new BitSet(rangeSize);
+        }
+        final int[] ports = new int[num];
+        int found = 0;
+        for (int i = 0; i < rangeSize && found < num; i++) {
+            final int index = nextPort;
+            nextPort = (nextPort + 1) % rangeSize;
+            if (!usedPorts.get(index)) {
+                usedPorts.set(index);
+                ports[found++] = minPort + index;
+            }
+        }
+        return found < num ? Arrays.copyOf(ports, found) : ports;
+    }
+
+    /** Releases ports. Must be called under lock. */
+    private void releasePorts(int[] ports) {
+        for (int port : ports) {
+            usedPorts.clear(port - minPort);
+        }
+    }
+
+    /** Checks that port isn't used by other process. */
+    private static boolean isPortFree(int port) {
+        try (ServerSocket ss = new ServerSocket(port); DatagramSocket ds = new DatagramSocket(port)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Reservation of resources for one application. */
+    public class Reservation implements ResourceAllocator {
+        final int memory;
+        final int cpu;
+        final int disk;
+        final int ports;
+
+        private int[] allocatedPorts;
+
+        Reservation(int memory, int cpu, int disk, int ports) {
+            this.memory = memory;
+            this.cpu = cpu;
+            this.disk = disk;
+            this.ports = ports;
         }
 
         @Override
-        public MemoryAllocator allocate() throws RunnerException {
-            if (!memSemaphore.tryAcquire(size)) {
-                throw new RunnerException(String.format("Couldn't allocate %dM for starting application", size));
+        public synchronized Reservation allocate() throws RunnerException {
+            if (allocatedPorts != null) {
+                throw new IllegalStateException("Resources are already allocated");
             }
-            LOG.debug("allocate memory: {}M, available: {}M", size, memSemaphore.availablePermits());
+            allocatedPorts = ResourceAllocators.this.allocate(this);
             return this;
         }
 
         @Override
-        public void release() {
-            memSemaphore.release(size);
-            LOG.debug("release memory: {}M, available: {}M", size, memSemaphore.availablePermits());
+        public synchronized void release() {
+            if (allocatedPorts != null) {
+                ResourceAllocators.this.release(this, allocatedPorts);
+                allocatedPorts = null;
+            }
+        }
+
+        /** Gets ports that are allocated for application. Returns empty array if resources are not allocated. */
+        public synchronized int[] getPorts() {
+            return allocatedPorts == null ? new int[0] : allocatedPorts.clone();
         }
     }
 }
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.runner.internal;
 
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.builder.dto.BuildTaskDescriptor;
@@ -35,8 +36,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -89,6 +95,15 @@ public abstract class Runner {
     private ExecutorService          executor;
     private ScheduledExecutorService cleanScheduler;
     private java.io.File             deployDirectory;
+    private ArtifactCache            artifactCache;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(org.eclipse.che.api.runner.internal.Constants.ARTIFACT_CACHE_DIRECTORY)
+    private String artifactCacheDirectory;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(org.eclipse.che.api.runner.internal.Constants.ARTIFACT_CACHE_SIZE)
+    private int artifactCacheSize = 1024;
 
     protected final DownloadPlugin downloadPlugin;
 
@@ -267,7 +282,7 @@ public abstract class Runner {
         final long startTime = System.currentTimeMillis();
         final RunnerConfiguration runnerCfg = getRunnerConfigurationFactory().createRunnerConfiguration(request);
         final int mem = runnerCfg.getMemory();
-        final ResourceAllocator memoryAllocator = allocators.newMemoryAllocator(mem);
+        final ResourceAllocators.Reservation resources = allocators.newReservation(mem, getRequiredPorts(runnerCfg));
         final Watchdog watcher = new Watchdog(getName().toUpperCase() + "-WATCHDOG", request.getLifetime(), TimeUnit.SECONDS);
         final Long internalId = processIdSequence.getAndIncrement();
         final RunnerProcessImpl process = new RunnerProcessImpl(internalId, getName(), runnerCfg, callback);
@@ -275,14 +290,32 @@ public abstract class Runner {
             @Override
             public void run() {
                 try {
-                    memoryAllocator.allocate();
-                    final java.io.File downloadDir =
-                            Files.createTempDirectory(deployDirectory.toPath(), ("download_" + getName().replace("/", "."))).toFile();
-                    final DeploymentSources deploymentSources = createDeploymentSources(request, downloadDir);
+                    resources.allocate();
+                    runnerCfg.setPorts(resources.getPorts());
+                    DeploymentSources deploymentSources = getCachedDeploymentSources(request);
+                    if (deploymentSources == null) {
+                        final java.io.File downloadDir = createWorkDirectory("download_");
+                        process.addToCleanupList(downloadDir);
+                        deploymentSources = createDeploymentSources(request, downloadDir);
+                    } else if (isModifyDeploymentSources()) {
+                        // Never let application modify files that are shared with other applications, use own copy.
+                        final ArtifactCache.Lease lease = ((CachedDeploymentSources)deploymentSources).lease;
+                        try {
+                            final java.io.File copyDir = createWorkDirectory("deploy_");
+                            process.addToCleanupList(copyDir);
+                            final java.io.File copy = new java.io.File(copyDir, lease.getFile().getName());
+                            copyDeploymentSources(lease.getFile().toPath(), copy.toPath());
+                            deploymentSources = new DeploymentSources(copy);
+                        } finally {
+                            lease.dispose();
+                        }
+                    } else {
+                        // Cached artifact may be removed from cache when application is removed.
+                        process.addDisposer(((CachedDeploymentSources)deploymentSources).lease);
+                    }
                     if (deploymentSources.getFile() == null) {
                         throw new RunnerException("[ERROR] No build artifacts found.");
                     }
-                    process.addToCleanupList(downloadDir);
                     if (!getDeploymentSourcesValidator().isValid(deploymentSources)) {
                         throw new RunnerException(
                                 String.format("Unsupported project. Cannot deploy project %s from workspace %s with runner %s",
@@ -313,7 +346,7 @@ public abstract class Runner {
                     process.setError(e);
                 } finally {
                     watcher.stop();
-                    memoryAllocator.release();
+                    resources.release();
                     runningAppsCounter.decrementAndGet();
                 }
             }
@@ -328,6 +361,15 @@ public abstract class Runner {
     /** @see RunnerConfiguration */
     public abstract RunnerConfigurationFactory getRunnerConfigurationFactory();
 
+    /**
+     * Gets number of ports that application needs. Ports are reserved together with other resources of application and are available
+     * with {@link RunnerConfiguration#getPorts()}. By default this method returns {@code 0}, sub-classes which need ports should override
+     * it.
+     */
+    protected int getRequiredPorts(RunnerConfiguration runnerCfg) {
+        return 0;
+    }
+
     protected abstract ApplicationProcess newApplicationProcess(DeploymentSources toDeploy, RunnerConfiguration runnerCfg)
             throws RunnerException;
 
@@ -350,35 +392,95 @@ public abstract class Runner {
         return ALL_VALID;
     }
 
+    /**
+     * Checks whether this runner modifies files of {@link DeploymentSources} when deploys application. Files of read-only deployment
+     * sources are copied to own directory of application before deploy if this method returns {@code true}. By default this method
+     * returns {@code true}. Sub-classes that never modify deployment sources should override it and return {@code false} to deploy
+     * cached build artifacts without copying them.
+     *
+     * @see DeploymentSources#isReadOnly()
+     */
+    protected boolean isModifyDeploymentSources() {
+        return true;
+    }
+
+    private java.io.File createWorkDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(deployDirectory.toPath(), prefix + getName().replace("/", ".")).toFile();
+    }
+
+    /**
+     * Gets deployment sources from the artifact cache. Returns {@code null} if request may not be served from the cache, e.g. there is
+     * no build task or cache is disabled. Download of missed artifact is done by the cache in its own directory.
+     */
+    private DeploymentSources getCachedDeploymentSources(RunRequest request) throws IOException {
+        final BuildTaskDescriptor buildTaskDescriptor = request.getBuildTaskDescriptor();
+        if (buildTaskDescriptor == null || artifactCache == null) {
+            return null;
+        }
+        final Link link = getArtifactLink(buildTaskDescriptor);
+        if (link == null) {
+            return null;
+        }
+        final boolean artifactTarball = Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL.equals(link.getRel());
+        // Result of build task never changes, so run of the same build reuses artifact that is downloaded before.
+        return new CachedDeploymentSources(artifactCache.get(getArtifactCacheKey(buildTaskDescriptor, link),
+                                                             getDownloadUrl(request, link), artifactTarball));
+    }
+
+    private static Link getArtifactLink(BuildTaskDescriptor buildTaskDescriptor) {
+        final List<Link> artifactLinks =
+                buildTaskDescriptor.getLinks(org.eclipse.che.api.builder.internal.Constants.LINK_REL_DOWNLOAD_RESULT);
+        if (artifactLinks.size() == 1) {
+            return artifactLinks.get(0);
+        } else if (artifactLinks.size() > 1) {
+            return buildTaskDescriptor.getLink(Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL);
+        }
+        return null;
+    }
+
+    private static String getDownloadUrl(RunRequest request, Link link) {
+        final String href = link.getHref();
+        final String token = request.getUserToken();
+        if (href.indexOf('?') > 0) {
+            return href + "&token=" + token;
+        }
+        return href + "?token=" + token;
+    }
+
+    /** Copies read-only cached file or directory. Copies keep permissions of original files but are always writable. */
+    private static void copyDeploymentSources(final java.nio.file.Path source, final java.nio.file.Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<java.nio.file.Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(java.nio.file.Path file, BasicFileAttributes attrs) throws IOException {
+                final java.io.File copy = Files.copy(file, target.resolve(source.relativize(file))).toFile();
+                if (!copy.setWritable(true)) {
+                    throw new IOException(String.format("Unable make file %s writable", copy));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
     protected DeploymentSources createDeploymentSources(RunRequest request, java.io.File dir) throws IOException {
-        Link link = null;
+        final Link link;
         final BuildTaskDescriptor buildTaskDescriptor = request.getBuildTaskDescriptor();
-        boolean artifactTarball = false;
         if (buildTaskDescriptor != null) {
-            final List<Link> artifactLinks =
-                    buildTaskDescriptor.getLinks(org.eclipse.che.api.builder.internal.Constants.LINK_REL_DOWNLOAD_RESULT);
-            if (artifactLinks.size() == 1) {
-                link = artifactLinks.get(0);
-            } else if (artifactLinks.size() > 1) {
-                link = buildTaskDescriptor.getLink(Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL);
-                artifactTarball = link != null;
-            }
+            link = getArtifactLink(buildTaskDescriptor);
         } else {
             link = request.getProjectDescriptor().getLink(org.eclipse.che.api.project.server.Constants.LINK_REL_EXPORT_ZIP);
         }
-        String url = null;
-        if (link != null) {
-            final String href = link.getHref();
-            final String token = request.getUserToken();
-            if (href.indexOf('?') > 0) {
-                url = href + "&token=" + token;
-            } else {
-                url = href + "?token=" + token;
-            }
-        }
-        if (url == null) {
+        if (link == null) {
             return NO_SOURCES;
         }
+        final boolean artifactTarball =
+                buildTaskDescriptor != null && Constants.LINK_REL_DOWNLOAD_RESULTS_TARBALL.equals(link.getRel());
+        final String url = getDownloadUrl(request, link);
         final DownloadCallback callback = new DownloadCallback();
         downloadPlugin.download(url, dir, callback);
         if (callback.getError() != null) {
@@ -395,6 +497,30 @@ public abstract class Runner {
         return new DeploymentSources(downloaded);
     }
 
+    /**
+     * Gets key of cached build artifact. Id of build task isn't unique, master restarts numbering of build tasks after restart, but
+     * runners may outlive master. Time of creation, start and end of build task together with download link identifies content of
+     * artifact.
+     */
+    private static String getArtifactCacheKey(BuildTaskDescriptor buildTaskDescriptor, Link link) {
+        return Hashing.sha1().newHasher()
+                      .putString(link.getHref(), StandardCharsets.UTF_8)
+                      .putLong(buildTaskDescriptor.getCreationTime())
+                      .putLong(buildTaskDescriptor.getStartTime())
+                      .putLong(buildTaskDescriptor.getEndTime())
+                      .hash().toString();
+    }
+
+    /** Deployment sources which are shared between all applications that are deployed from the same build artifact. */
+    private static class CachedDeploymentSources extends DeploymentSources {
+        final ArtifactCache.Lease lease;
+
+        CachedDeploymentSources(ArtifactCache.Lease lease) {
+            super(lease.getFile(), true);
+            this.lease = lease;
+        }
+    }
+
     private static class DownloadCallback implements DownloadPlugin.Callback {
         java.io.File downloaded;
         IOException  error;
@@ -447,6 +573,7 @@ public abstract class Runner {
         private long               stopTime;
         private Throwable          error;
         private List<java.io.File> forCleanup;
+        private List<Disposer>     disposers;
         private boolean            cancelled;
 
         protected RunnerProcessImpl(Long id, String runner, RunnerConfiguration configuration, Callback callback) {
@@ -529,6 +656,17 @@ public abstract class Runner {
             return forCleanup;
         }
 
+        synchronized void addDisposer(Disposer disposer) {
+            if (disposers == null) {
+                disposers = new LinkedList<>();
+            }
+            disposers.add(disposer);
+        }
+
+        synchronized List<Disposer> getDisposers() {
+            return disposers;
+        }
+
         @Override
         public final Long getId() {
             return id;
@@ -622,6 +760,13 @@ public abstract class Runner {
             if (!(deployDirectory.exists() || deployDirectory.mkdirs())) {
                 throw new IllegalStateException(String.format("Unable create directory %s", deployDirectory.getAbsolutePath()));
             }
+            if (artifactCacheSize > 0) {
+                final java.io.File cacheDir = artifactCacheDirectory == null
+                                              ? new java.io.File(deployDirectoryRoot, "artifact_cache")
+                                              : new java.io.File(artifactCacheDirectory);
+                artifactCache = new ArtifactCache(new java.io.File(cacheDir, getName().replace("/", ".")),
+                                                  artifactCacheSize * 1024L * 1024L, downloadPlugin);
+            }
             executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(getName() + "-Runner-%d")
                                                                                .setDaemon(true).build());
             cleanScheduler =
@@ -660,6 +805,16 @@ public abstract class Runner {
                         }
                     }
                 }
+                final List<Disposer> processDisposers = process.getDisposers();
+                if (processDisposers != null) {
+                    for (Disposer disposer : processDisposers) {
+                        try {
+                            disposer.dispose();
+                        } catch (RuntimeException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    }
+                }
                 final List<java.io.File> cleanupList = process.getCleanupList();
                 if (cleanupList != null) {
                     for (java.io.File file : cleanupList) {
@@ -35,6 +35,7 @@ public class RunnerConfiguration {
     private String              debugHost;
     private int                 debugPort;
     private java.io.File        recipeFile;
+    private int[]               ports;
 
     public RunnerConfiguration(int memory, RunRequest request) {
         this.memory = memory;
@@ -42,6 +43,7 @@ public class RunnerConfiguration {
         this.links = new ArrayList<>(2);
         this.portMapping = new HashMap<>(4);
         this.debugPort = -1;
+        this.ports = new int[0];
     }
 
     public RunnerConfiguration(int memory, RunRequest request, List<Link> links) {
@@ -50,6 +52,7 @@ public class RunnerConfiguration {
         this.links = new ArrayList<>(links);
         this.portMapping = new HashMap<>(4);
         this.debugPort = -1;
+        this.ports = new int[0];
     }
 
     public int getMemory() {
@@ -97,6 +100,19 @@ public class RunnerConfiguration {
         this.debugPort = debugPort;
     }
 
+    /**
+     * Gets ports which are reserved for application.
+     *
+     * @see Runner#getRequiredPorts(RunnerConfiguration)
+     */
+    public int[] getPorts() {
+        return ports;
+    }
+
+    public void setPorts(int[] ports) {
+        this.ports = ports;
+    }
+
     public java.io.File getRecipeFile() {
         return recipeFile;
     }
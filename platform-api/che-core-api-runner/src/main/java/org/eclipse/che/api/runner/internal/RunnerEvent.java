@@ -12,6 +12,9 @@ package org.eclipse.che.api.runner.internal;
 
 import org.eclipse.che.api.core.notification.EventOrigin;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author andrew00x
  */
@@ -54,16 +57,24 @@ public class RunnerEvent {
     /*
     Seems we can't guaranty correct order of messages on the client (browser) side, that means we need to wrap each line with simple object
     that keeps line's number.
+    Chunk of few lines is sent as list of lines, in this case line's number is number of the first line in chunk and message is null.
      */
     public static class LoggedMessage {
-        private String message;
-        private int    lineNum;
+        private String       message;
+        private int          lineNum;
+        private List<String> lines;
 
         public LoggedMessage(String message, int lineNum) {
             this.message = message;
             this.lineNum = lineNum;
         }
 
+        /** Creates message for chunk of lines, {@code lineNum} is number of the first line in chunk. */
+        public LoggedMessage(List<String> lines, int lineNum) {
+            this.lines = lines;
+            this.lineNum = lineNum;
+        }
+
         public LoggedMessage() {
         }
 
@@ -83,11 +94,24 @@ public class RunnerEvent {
             this.lineNum = lineNum;
         }
 
+        /** Gets lines of chunk. Returns list with the single line {@link #getMessage()} if message isn't a chunk. */
+        public List<String> getLines() {
+            if (lines == null) {
+                return message == null ? Collections.<String>emptyList() : Collections.singletonList(message);
+            }
+            return lines;
+        }
+
+        public void setLines(List<String> lines) {
+            this.lines = lines;
+        }
+
         @Override
         public String toString() {
             return "LoggedMessage{" +
                    "message='" + message + '\'' +
                    ", lineNum=" + lineNum +
+                   ", lines=" + lines +
                    '}';
         }
     }
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.runner.internal;
 
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.rest.CodenvyBinaryProvider;
 import org.eclipse.che.api.core.rest.Service;
 import org.eclipse.che.api.core.rest.ServiceContext;
 import org.eclipse.che.api.core.rest.annotations.Description;
@@ -92,7 +93,7 @@ public class SlaveRunnerService extends Service {
     @Path("run")
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public ApplicationProcessDescriptor run(@Description("Parameters for run task in JSON format") RunRequest request) throws Exception {
         final Runner myRunner = getRunner(request.getRunner());
         final RunnerProcess process = myRunner.execute(request);
@@ -101,7 +102,7 @@ public class SlaveRunnerService extends Service {
 
     @GET
     @Path("status/{runner:.*}/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public ApplicationProcessDescriptor getStatus(@PathParam("runner") String runner, @PathParam("id") Long id) throws Exception {
         final Runner myRunner = getRunner(runner);
         final RunnerProcess process = myRunner.getProcess(id);
@@ -110,7 +111,7 @@ public class SlaveRunnerService extends Service {
 
     @POST
     @Path("stop/{runner:.*}/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public ApplicationProcessDescriptor stop(@PathParam("runner") String runner, @PathParam("id") Long id) throws Exception {
         final Runner myRunner = getRunner(runner);
         final RunnerProcess process = myRunner.getProcess(id);
@@ -166,18 +167,22 @@ public class SlaveRunnerService extends Service {
     @GenerateLink(rel = Constants.LINK_REL_SERVER_STATE)
     @GET
     @Path("server-state")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public ServerState getServerState() {
         return DtoFactory.getInstance().createDto(ServerState.class)
                          .withCpuPercentUsage(SystemInfo.cpu())
                          .withTotalMemory(allocators.totalMemory())
-                         .withFreeMemory(allocators.freeMemory());
+                         .withFreeMemory(allocators.freeMemory())
+                         .withTotalCpu(allocators.totalCpu())
+                         .withFreeCpu(allocators.freeCpu())
+                         .withApplicationCpu(allocators.applicationCpu())
+                         .withFreePorts(allocators.freePorts());
     }
 
     @GenerateLink(rel = Constants.LINK_REL_AVAILABLE_RUNNERS)
     @GET
     @Path("available")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public List<RunnerDescriptor> getAvailableRunners() {
         final Set<Runner> all = runners.getAll();
         final List<RunnerDescriptor> list = new LinkedList<>();
@@ -194,7 +199,7 @@ public class SlaveRunnerService extends Service {
     @GenerateLink(rel = Constants.LINK_REL_RUNNER_STATE)
     @GET
     @Path("state")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public RunnerState getRunnerState(@Required
                                       @Description("Name of the runner")
                                       @QueryParam("runner") String runner) throws Exception {
@@ -208,7 +213,7 @@ public class SlaveRunnerService extends Service {
     @GenerateLink(rel = Constants.LINK_REL_RUNNER_ENVIRONMENTS)
     @GET
     @Path("environments")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CodenvyBinaryProvider.MEDIA_TYPE})
     public List<RunnerEnvironment> getRunnerEnvironments(@Required
                                                          @Description("Name of the runner")
                                                          @QueryParam("runner") String runner) throws Exception {
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import org.eclipse.che.api.runner.dto.RunnerState;
+import org.eclipse.che.api.runner.dto.ServerState;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class BestFitRunnerSelectionStrategyTest {
+    private final BestFitRunnerSelectionStrategy strategy = new BestFitRunnerSelectionStrategy();
+
+    @Test
+    public void shouldSelectRunnerWithLeastFreeResources() {
+        final RemoteRunner runner1 = runner(1024, 512, 4000, 3000);
+        final RemoteRunner runner2 = runner(1024, 512, 4000, 1000);
+        final RemoteRunner runner3 = runner(1024, 768, 4000, 1000);
+        Assert.assertEquals(strategy.select(Arrays.asList(runner1, runner2, runner3)), runner2);
+    }
+
+    @Test
+    public void shouldSelectRunnerWithUnknownStateLast() {
+        final RemoteRunner unknown = mock(RemoteRunner.class);
+        final RemoteRunner runner = runner(1024, 1024, -1, -1);
+        Assert.assertEquals(strategy.select(Arrays.asList(unknown, runner)), runner);
+    }
+
+    private RemoteRunner runner(long totalMemory, long freeMemory, int totalCpu, int freeCpu) {
+        final RemoteRunner runner = mock(RemoteRunner.class);
+        final ServerState serverState = DtoFactory.getInstance().createDto(ServerState.class)
+                                                  .withTotalMemory(totalMemory)
+                                                  .withFreeMemory(freeMemory)
+                                                  .withTotalCpu(totalCpu)
+                                                  .withFreeCpu(freeCpu);
+        doReturn(DtoFactory.getInstance().createDto(RunnerState.class).withServerState(serverState)).when(runner).getLastKnownState();
+        return runner;
+    }
+}
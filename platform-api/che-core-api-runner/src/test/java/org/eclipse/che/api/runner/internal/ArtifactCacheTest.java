@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner.internal;
+
+import org.eclipse.che.api.core.util.DownloadPlugin;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.TarUtils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ArtifactCacheTest {
+    private File           root;
+    private File           remote;
+    private AtomicInteger  downloads;
+    private CountDownLatch downloadStarted;
+    private CountDownLatch downloadAllowed;
+    private ArtifactCache  cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("artifact-cache-test").toFile();
+        remote = new File(root, "remote");
+        Assert.assertTrue(remote.mkdirs());
+        downloads = new AtomicInteger();
+        downloadStarted = new CountDownLatch(1);
+        downloadAllowed = new CountDownLatch(0);
+        cache = new ArtifactCache(new File(root, "cache"), 150, new DownloadPlugin() {
+            @Override
+            public void download(String downloadUrl, File downloadTo, Callback callback) {
+                downloads.incrementAndGet();
+                downloadStarted.countDown();
+                try {
+                    downloadAllowed.await();
+                    final File file = new File(remote, downloadUrl);
+                    final File downloaded = new File(downloadTo, file.getName());
+                    Files.copy(file.toPath(), downloaded.toPath());
+                    callback.done(downloaded);
+                } catch (IOException e) {
+                    callback.error(e);
+                } catch (InterruptedException e) {
+                    callback.error(new IOException(e));
+                }
+            }
+
+            @Override
+            public void download(String downloadUrl, File downloadTo, String fileName, boolean replaceExisting) {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testDownloadOnce() throws Exception {
+        createFile(remote, "app.war", "application");
+        final ArtifactCache.Lease lease1 = cache.get("key", "app.war", false);
+        final ArtifactCache.Lease lease2 = cache.get("key", "app.war", false);
+        Assert.assertEquals(downloads.get(), 1);
+        Assert.assertEquals(lease1.getFile(), lease2.getFile());
+        Assert.assertEquals(lease1.getFile().getName(), "app.war");
+        Assert.assertEquals(readFile(lease1.getFile()), "application");
+    }
+
+    @Test
+    public void testUnpack() throws Exception {
+        final File war = createFile(root, "app.war", "application");
+        final File tar = new File(remote, "app.tar");
+        TarUtils.tarFiles(tar, war);
+        final ArtifactCache.Lease lease = cache.get("key", "app.tar", true);
+        Assert.assertTrue(lease.getFile().isDirectory());
+        Assert.assertEquals(readFile(new File(lease.getFile(), "app.war")), "application");
+        // Unpack of the same artifact is reused.
+        Assert.assertEquals(cache.get("key", "app.tar", true).getFile(), lease.getFile());
+        Assert.assertEquals(downloads.get(), 1);
+    }
+
+    @Test
+    public void testConcurrentRequestsDownloadOnce() throws Exception {
+        createFile(remote, "app.war", "application");
+        downloadAllowed = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<ArtifactCache.Lease>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<ArtifactCache.Lease>() {
+                    @Override
+                    public ArtifactCache.Lease call() throws Exception {
+                        return cache.get("key", "app.war", false);
+                    }
+                }));
+            }
+            Assert.assertTrue(downloadStarted.await(5, TimeUnit.SECONDS));
+            downloadAllowed.countDown();
+            for (Future<ArtifactCache.Lease> result : results) {
+                Assert.assertEquals(readFile(result.get(5, TimeUnit.SECONDS).getFile()), "application");
+            }
+            Assert.assertEquals(downloads.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedDownloadIsNotCached() throws Exception {
+        try {
+            cache.get("key", "app.war", false);
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+        createFile(remote, "app.war", "application");
+        Assert.assertEquals(readFile(cache.get("key", "app.war", false).getFile()), "application");
+        Assert.assertEquals(downloads.get(), 2);
+    }
+
+    @Test
+    public void testEvictUnusedEntries() throws Exception {
+        createFile(remote, "app.war", new String(new char[60]));
+        final ArtifactCache.Lease lease1 = cache.get("key1", "app.war", false);
+        final ArtifactCache.Lease lease2 = cache.get("key2", "app.war", false);
+        lease2.dispose();
+        // Entry 'key1' is used least recently but it is in use.
+        new File(cache.getDirectory(), "key1").setLastModified(System.currentTimeMillis() - 10000);
+        cache.get("key3", "app.war", false);
+        Assert.assertTrue(cache.getSize() <= 150);
+        Assert.assertTrue(lease1.getFile().exists());
+        Assert.assertFalse(lease2.getFile().exists());
+    }
+
+    private File createFile(File parent, String path, String content) throws Exception {
+        final File file = new File(parent, path);
+        Assert.assertTrue(file.getParentFile().exists() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String readFile(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
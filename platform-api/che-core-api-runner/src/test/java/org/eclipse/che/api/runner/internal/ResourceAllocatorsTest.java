@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner.internal;
+
+import org.eclipse.che.api.runner.RunnerException;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.ServerSocket;
+
+public class ResourceAllocatorsTest {
+    private ResourceAllocators allocators;
+
+    @BeforeMethod
+    public void setUp() {
+        allocators = new ResourceAllocators(1024);
+        allocators.cpu = 1000;
+        allocators.defAppCpu = 400;
+        allocators.minPort = 61000;
+        allocators.maxPort = 61003;
+    }
+
+    @Test
+    public void testAllocateAndRelease() throws Exception {
+        final ResourceAllocators.Reservation reservation = allocators.newReservation(256, 2).allocate();
+        Assert.assertEquals(allocators.freeMemory(), 768);
+        Assert.assertEquals(allocators.freeCpu(), 600);
+        Assert.assertEquals(allocators.freePorts(), 2);
+        final int[] ports = reservation.getPorts();
+        Assert.assertEquals(ports.length, 2);
+        Assert.assertTrue(ports[0] != ports[1]);
+        reservation.release();
+        // Second release must not give resources twice.
+        reservation.release();
+        Assert.assertEquals(allocators.freeMemory(), 1024);
+        Assert.assertEquals(allocators.freeCpu(), 1000);
+        Assert.assertEquals(allocators.freePorts(), 4);
+    }
+
+    @Test
+    public void testCpuLimitsApplicationsWhenMemoryIsFree() throws Exception {
+        allocators.newReservation(128, 0).allocate();
+        allocators.newReservation(128, 0).allocate();
+        final ResourceAllocators.Reservation third = allocators.newReservation(128, 0);
+        try {
+            third.allocate();
+            Assert.fail("RunnerException expected");
+        } catch (RunnerException e) {
+            // expected
+        }
+        // Nothing is allocated if any resource is not enough.
+        Assert.assertEquals(allocators.freeMemory(), 768);
+        Assert.assertEquals(allocators.freeCpu(), 200);
+        // Release of not allocated reservation doesn't change anything.
+        third.release();
+        Assert.assertEquals(allocators.freeMemory(), 768);
+        Assert.assertFalse(allocators.isAvailable(128, 400, 0, 0));
+    }
+
+    @Test
+    public void testNotEnoughPorts() throws Exception {
+        allocators.newReservation(128, 3).allocate();
+        try {
+            allocators.newReservation(128, 2).allocate();
+            Assert.fail("RunnerException expected");
+        } catch (RunnerException e) {
+            // expected
+        }
+        Assert.assertEquals(allocators.freePorts(), 1);
+        Assert.assertEquals(allocators.freeMemory(), 896);
+    }
+
+    @Test
+    public void testSkipPortUsedByOtherProcess() throws Exception {
+        try (ServerSocket ignored = new ServerSocket(61001)) {
+            final int[] ports = allocators.newReservation(128, 3).allocate().getPorts();
+            Assert.assertEquals(ports, new int[]{61000, 61002, 61003});
+            // Port that is used by other process isn't kept by allocator.
+            Assert.assertEquals(allocators.freePorts(), 1);
+        }
+    }
+
+    @Test
+    public void testMemoryAllocatorDoesNotReserveCpu() throws Exception {
+        allocators.newMemoryAllocator(512).allocate();
+        Assert.assertEquals(allocators.freeMemory(), 512);
+        Assert.assertEquals(allocators.freeCpu(), 1000);
+    }
+}
@@ -10,10 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.server;
 
+import javax.ws.rs.core.StreamingOutput;
 import java.io.InputStream;
 import java.util.Date;
 
 /**
+ * Content of file or other data, e.g. zipped folder. Content is provided either as InputStream or as {@link StreamingOutput}
+ * that writes content directly to the output when it is requested, see {@link #getOutput()}.
+ *
  * @author <a href="mailto:aparfonov@exoplatform.com">Andrey Parfonov</a>
  */
 public final class ContentStream {
@@ -21,6 +25,8 @@ public final class ContentStream {
 
     private final InputStream stream;
 
+    private final StreamingOutput output;
+
     private final String mimeType;
 
     private final long length;
@@ -28,11 +34,7 @@ public final class ContentStream {
     private final Date lastModificationDate;
 
     public ContentStream(String fileName, InputStream stream, String mimeType, long length, Date lastModificationDate) {
-        this.fileName = fileName;
-        this.stream = stream;
-        this.mimeType = mimeType;
-        this.length = length;
-        this.lastModificationDate = lastModificationDate;
+        this(fileName, stream, null, mimeType, length, lastModificationDate);
     }
 
     public ContentStream(String fileName, InputStream stream, String mimeType, Date lastModificationDate) {
@@ -43,14 +45,47 @@ public final class ContentStream {
         this(fileName, stream, mimeType, -1, new Date());
     }
 
+    /**
+     * Creates content which is written by {@code output} when it is requested. Length of such content is unknown.
+     *
+     * @see #getOutput()
+     */
+    public ContentStream(String fileName, StreamingOutput output, String mimeType, Date lastModificationDate) {
+        this(fileName, null, output, mimeType, -1, lastModificationDate);
+    }
+
+    private ContentStream(String fileName, InputStream stream, StreamingOutput output, String mimeType, long length,
+                          Date lastModificationDate) {
+        this.fileName = fileName;
+        this.stream = stream;
+        this.output = output;
+        this.mimeType = mimeType;
+        this.length = length;
+        this.lastModificationDate = lastModificationDate;
+    }
+
     public String getFileName() {
         return fileName;
     }
 
+    /** Gets content as stream. Returns {@code null} if content is provided by {@link #getOutput()}. */
     public InputStream getStream() {
         return stream;
     }
 
+    /**
+     * Gets StreamingOutput that writes content to the output, e.g. to response. Returns {@code null} if content is provided
+     * by {@link #getStream()}. Content may be written just once.
+     */
+    public StreamingOutput getOutput() {
+        return output;
+    }
+
+    /** Gets stream or StreamingOutput, whichever provides content. Result may be used as entity of JAX-RS response. */
+    public Object getEntity() {
+        return output != null ? output : stream;
+    }
+
     public String getMimeType() {
         return mimeType;
     }
@@ -25,8 +25,8 @@ import java.lang.reflect.Type;
 import java.util.Date;
 
 /**
- * Serializer for ContentStream. Copy headers and content provided by method {@link ContentStream#getStream()} to HTTP
- * output stream.
+ * Serializer for ContentStream. Copy headers and content provided by method {@link ContentStream#getStream()} or {@link
+ * ContentStream#getOutput()} to HTTP output stream.
  *
  * @author <a href="mailto:aparfonov@exoplatform.com">Andrey Parfonov</a>
  */
@@ -72,6 +72,12 @@ public final class ContentStreamWriter implements MessageBodyWriter<ContentStrea
 
         httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
 
+        if (t.getOutput() != null) {
+            t.getOutput().write(entityStream);
+            entityStream.flush();
+            return;
+        }
+
         try (InputStream content = t.getStream()) {
             byte[] buf = new byte[8192];
             int rd;
@@ -0,0 +1,574 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Advisory file locks with the same shared/exclusive and parent/child semantics as {@link PathLockFactory} but without
+ * single global monitor.
+ * <p/>
+ * Each locked path is represented by node in the lock tree. Node is looked up in the striped, path-hashed table and
+ * has own monitor, so threads that work with unrelated paths never compete for the same monitor and release of lock
+ * wakes up only threads that wait for the same path. Hierarchy is supported with intention locks: to lock path in
+ * shared (exclusive) mode thread first takes intention-shared (intention-exclusive) lock on every ancestor of the path,
+ * starting from the root. Locks are acquired always in the same order (from the root down to the path), that prevents
+ * deadlocks between threads that lock the same branch of the tree.
+ * <p/>
+ * Intention locks are needed only if some ancestor of the path is locked. Every locked path is registered in the
+ * concurrent sorted map, when none of ancestors is registered lock is taken on the path only (flat lock), so threads
+ * don't compete for the nodes of the root and other top level folders. Thread that locks path waits until flat locks of
+ * descendants of this path, which are not visible through intention locks, are released. Both checks are done after
+ * registration of the path, so two threads which lock parent and child paths in the same time never miss each other.
+ * <p/>
+ * Lock is reentrant. Locks that are already obtained by current thread never prevent it to get another lock for the same
+ * path, parent or child path.
+ * <p/>
+ * Usage:
+ * <pre>
+ *      HierarchicalPathLockFactory lockFactory = ...
+ *
+ *      public void doSomething(Path path)
+ *      {
+ *         HierarchicalPathLockFactory.PathLock exclusiveLock = lockFactory.getLock(path, true).acquire(30000);
+ *         try
+ *         {
+ *            ... // do something
+ *         }
+ *         finally
+ *         {
+ *            exclusiveLock.release();
+ *         }
+ *      }
+ * </pre>
+ */
+public final class HierarchicalPathLockFactory {
+    private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+    private static final int DEFAULT_STRIPES     = 1 << 6;
+
+    // Lock modes. Values are used as indexes in arrays of hold counters.
+    private static final int INTENTION_SHARED    = 0;
+    private static final int INTENTION_EXCLUSIVE = 1;
+    private static final int SHARED              = 2;
+    private static final int EXCLUSIVE           = 3;
+    private static final int MODES               = 4;
+    // Part of shared and exclusive locks which are held without intention locks on ancestors.
+    private static final int FLAT_SHARED         = 4;
+    private static final int FLAT_EXCLUSIVE      = 5;
+    private static final int COUNTERS            = 6;
+
+    /** Orders paths element by element, so all descendants of path follow the path itself. */
+    private static final Comparator<Path> PATH_ORDER = new Comparator<Path>() {
+        @Override
+        public int compare(Path o1, Path o2) {
+            final int length = Math.min(o1.length(), o2.length());
+            for (int i = 0; i < length; i++) {
+                final String e1 = o1.element(i);
+                final String e2 = o2.element(i);
+                // Ancestors share elements with the path, avoid comparing the same strings char by char.
+                final int c = e1 == e2 ? 0 : e1.compareTo(e2);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Integer.compare(o1.length(), o2.length());
+        }
+    };
+
+    /** Max number of threads allowed to access file. */
+    private final int      maxThreads;
+    private final Stripe[] stripes;
+    private final int      mask;
+    /** Paths which are locked or wait for lock in shared or exclusive mode with number of such locks. */
+    private final ConcurrentSkipListMap<Path, AtomicInteger> lockedPaths = new ConcurrentSkipListMap<>(PATH_ORDER);
+
+    private final AtomicLong acquisitions          = new AtomicLong();
+    private final AtomicLong contendedAcquisitions = new AtomicLong();
+    private final AtomicLong timeouts              = new AtomicLong();
+    private final AtomicLong totalWaitNanos        = new AtomicLong();
+    private final AtomicLong maxWaitNanos          = new AtomicLong();
+
+    /**
+     * @param maxThreads
+     *         the max number of threads are allowed to access one file. Typically this parameter should be big enough to
+     *         avoid blocking threads that need to obtain NOT exclusive lock.
+     */
+    public HierarchicalPathLockFactory(int maxThreads) {
+        this(maxThreads, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param maxThreads
+     *         the max number of threads are allowed to access one file
+     * @param stripes
+     *         number of stripes in the lock table, rounded up to the nearest power of two
+     */
+    public HierarchicalPathLockFactory(int maxThreads, int stripes) {
+        if (maxThreads < 1 || stripes < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxThreads = maxThreads;
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        mask = size - 1;
+    }
+
+    public PathLock getLock(Path path, boolean exclusive) {
+        return new PathLock(path, exclusive);
+    }
+
+    /** Returns number of successfully acquired locks. */
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    /** Returns number of acquired locks that had to wait for another thread at least once. */
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions.get();
+    }
+
+    /** Returns number of attempts to get lock that failed because of waiting timeout. */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /** Returns total time that threads spent waiting for locks. */
+    public long getTotalWaitTime(TimeUnit unit) {
+        return unit.convert(totalWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Returns the longest time that thread spent waiting for a single lock. */
+    public long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public void checkClean() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                assert stripe.nodes.isEmpty();
+            }
+        }
+        assert lockedPaths.isEmpty();
+    }
+
+    private void acquire(Path path, boolean exclusive, long timeoutMilliseconds) {
+        final long endTime = timeoutMilliseconds > 0 ? System.currentTimeMillis() + timeoutMilliseconds : 0;
+        final long start = System.nanoTime();
+        final Path[] branch = branch(path);
+        boolean contended = false;
+        register(path);
+        try {
+            contended |= awaitFlatDescendants(path, exclusive, endTime);
+            if (!hasLockedAncestor(branch)) {
+                final int mode = exclusive ? EXCLUSIVE : SHARED;
+                final Node node = reference(path);
+                try {
+                    contended |= node.acquire(mode, endTime, true);
+                } catch (RuntimeException | Error e) {
+                    dereference(node);
+                    throw e;
+                }
+                if (!hasLockedAncestor(branch)) {
+                    countAcquisition(contended, start);
+                    return;
+                }
+                // Ancestor is locked in the same time and may not see flat lock, take lock again with intention locks.
+                node.release(mode);
+                dereference(node);
+            }
+            contended |= acquireBranch(branch, exclusive, endTime);
+        } catch (RuntimeException | Error e) {
+            unregister(path);
+            throw e;
+        }
+        countAcquisition(contended, start);
+    }
+
+    /** Takes intention locks on all ancestors of path, starting from the root, and lock on path itself, see {@link #branch(Path)}. */
+    private boolean acquireBranch(Path[] branch, boolean exclusive, long endTime) {
+        boolean contended = false;
+        int acquired = 0;
+        try {
+            for (; acquired < branch.length; acquired++) {
+                final boolean last = acquired == branch.length - 1;
+                final int mode = last ? (exclusive ? EXCLUSIVE : SHARED) : (exclusive ? INTENTION_EXCLUSIVE : INTENTION_SHARED);
+                final Node node = reference(branch[acquired]);
+                try {
+                    contended |= node.acquire(mode, endTime, false);
+                } catch (RuntimeException | Error e) {
+                    dereference(node);
+                    throw e;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // Release whatever we got before failure.
+            releaseBranch(branch, acquired, exclusive);
+            throw e;
+        }
+        return contended;
+    }
+
+    /** Waits until other threads release flat locks of descendants of path that conflict with lock of path. */
+    private boolean awaitFlatDescendants(Path path, boolean exclusive, long endTime) {
+        boolean waited = false;
+        for (Path descendant : lockedPaths.tailMap(path, false).keySet()) {
+            if (!descendant.isChild(path)) {
+                break;
+            }
+            final Node node = reference(descendant);
+            try {
+                waited |= node.awaitFlatLocks(exclusive, endTime);
+            } finally {
+                dereference(node);
+            }
+        }
+        return waited;
+    }
+
+    private boolean hasLockedAncestor(Path[] branch) {
+        for (int i = branch.length - 2; i >= 0; i--) {
+            if (lockedPaths.containsKey(branch[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void register(Path path) {
+        for (; ; ) {
+            final AtomicInteger locks = lockedPaths.get(path);
+            if (locks == null) {
+                if (lockedPaths.putIfAbsent(path, new AtomicInteger(1)) == null) {
+                    return;
+                }
+            } else {
+                final int current = locks.get();
+                if (current == 0) {
+                    // Path is being removed from the map by other thread, help to remove it and add it again.
+                    lockedPaths.remove(path, locks);
+                } else if (locks.compareAndSet(current, current + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void unregister(Path path) {
+        final AtomicInteger locks = lockedPaths.get(path);
+        if (locks.decrementAndGet() == 0) {
+            lockedPaths.remove(path, locks);
+        }
+    }
+
+    private void countAcquisition(boolean contended, long start) {
+        acquisitions.incrementAndGet();
+        if (contended) {
+            contendedAcquisitions.incrementAndGet();
+            final long waitNanos = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waitNanos);
+            long max;
+            while ((max = maxWaitNanos.get()) < waitNanos && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+                // retry
+            }
+        }
+    }
+
+    private void release(Path path, boolean exclusive) {
+        final Stripe stripe = stripeFor(path);
+        final Node node;
+        synchronized (stripe) {
+            node = stripe.nodes.get(path);
+        }
+        if (node == null) {
+            throw new IllegalStateException(String.format("Lock for '%s' is not held. ", path));
+        }
+        final boolean flat = node.release(exclusive ? EXCLUSIVE : SHARED);
+        dereference(node);
+        if (!flat) {
+            final Path[] branch = branch(path);
+            releaseBranch(branch, branch.length - 1, exclusive);
+        }
+        unregister(path);
+    }
+
+    private void releaseBranch(Path[] branch, int acquired, boolean exclusive) {
+        for (int i = acquired - 1; i >= 0; i--) {
+            final boolean last = i == branch.length - 1;
+            final int mode = last ? (exclusive ? EXCLUSIVE : SHARED) : (exclusive ? INTENTION_EXCLUSIVE : INTENTION_SHARED);
+            final Stripe stripe = stripeFor(branch[i]);
+            final Node node;
+            synchronized (stripe) {
+                node = stripe.nodes.get(branch[i]);
+            }
+            if (node == null) {
+                throw new IllegalStateException(String.format("Lock for '%s' is not held. ", branch[i]));
+            }
+            node.release(mode);
+            dereference(node);
+        }
+    }
+
+    /** Returns all ancestors of path, starting from the root, and path itself. */
+    private static Path[] branch(Path path) {
+        final Path[] branch = new Path[path.length() + 1];
+        Path current = path;
+        for (int i = branch.length - 1; i >= 0; i--) {
+            branch[i] = current;
+            current = current.getParent();
+        }
+        return branch;
+    }
+
+    private Stripe stripeFor(Path path) {
+        int h = path.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & mask];
+    }
+
+    private Node reference(Path path) {
+        final Stripe stripe = stripeFor(path);
+        synchronized (stripe) {
+            Node node = stripe.nodes.get(path);
+            if (node == null) {
+                stripe.nodes.put(path, node = new Node(path));
+            }
+            ++node.references;
+            return node;
+        }
+    }
+
+    private void dereference(Node node) {
+        final Stripe stripe = stripeFor(node.path);
+        synchronized (stripe) {
+            if (--node.references == 0) {
+                stripe.nodes.remove(node.path);
+            }
+        }
+    }
+
+   /* =============================================== */
+
+    private static class Stripe {
+        // Guarded by Stripe instance.
+        final Map<Path, Node> nodes = new HashMap<>();
+    }
+
+    private final class Node {
+        final Path path;
+        // Number of threads that hold or wait for lock. Guarded by Stripe that contains this node.
+        int references;
+        // All fields below are guarded by this Node instance.
+        final int[]             holds   = new int[COUNTERS];
+        final Map<Thread, int[]> holders = new HashMap<>(4);
+        int sharedHolders;
+
+        Node(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * Returns <code>true</code> if thread had to wait for the lock.
+         *
+         * @param flat
+         *         <code>true</code> if lock is taken without intention locks on ancestors
+         */
+        synchronized boolean acquire(int mode, long endTime, boolean flat) {
+            final Thread current = Thread.currentThread();
+            boolean waited = false;
+            while (!isCompatible(current, mode)) {
+                waited = true;
+                await(endTime);
+            }
+            int[] mine = holders.get(current);
+            if (mine == null) {
+                holders.put(current, mine = new int[COUNTERS]);
+            }
+            if (mine[mode] > MAX_RECURSIVE_LOCKS) {
+                throw new Error("Max number of recursive locks exceeded. ");
+            }
+            if (mode == SHARED && mine[SHARED] == 0) {
+                ++sharedHolders;
+            }
+            ++mine[mode];
+            ++holds[mode];
+            if (flat) {
+                ++mine[flatCounter(mode)];
+                ++holds[flatCounter(mode)];
+            }
+            return waited;
+        }
+
+        /** Returns <code>true</code> if released lock was taken without intention locks on ancestors. */
+        synchronized boolean release(int mode) {
+            final Thread current = Thread.currentThread();
+            final int[] mine = holders.get(current);
+            if (mine == null || mine[mode] == 0) {
+                throw new IllegalStateException(String.format("Lock for '%s' is not held by current thread. ", path));
+            }
+            --mine[mode];
+            --holds[mode];
+            // Release flat lock first if thread holds both, the rest is still protected with intention locks.
+            final boolean flat = (mode == SHARED || mode == EXCLUSIVE) && mine[flatCounter(mode)] > 0;
+            if (flat) {
+                --mine[flatCounter(mode)];
+                --holds[flatCounter(mode)];
+            }
+            if (mode == SHARED && mine[SHARED] == 0) {
+                --sharedHolders;
+            }
+            if (isEmpty(mine)) {
+                holders.remove(current);
+            }
+            // Wake up only threads which wait for this path.
+            notifyAll();
+            return flat;
+        }
+
+        /**
+         * Waits until other threads release flat locks of this path which conflict with lock of ancestor path in specified mode.
+         * Returns <code>true</code> if thread had to wait.
+         */
+        synchronized boolean awaitFlatLocks(boolean exclusive, long endTime) {
+            final int[] mine = holders.get(Thread.currentThread());
+            boolean waited = false;
+            while (others(FLAT_EXCLUSIVE, mine) > 0 || (exclusive && others(FLAT_SHARED, mine) > 0)) {
+                waited = true;
+                await(endTime);
+            }
+            return waited;
+        }
+
+        private void await(long endTime) {
+            try {
+                if (endTime > 0) {
+                    final long waitTime = endTime - System.currentTimeMillis();
+                    if (waitTime <= 0) {
+                        timeouts.incrementAndGet();
+                        throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
+                    }
+                    wait(waitTime);
+                } else {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private int flatCounter(int mode) {
+            return mode == EXCLUSIVE ? FLAT_EXCLUSIVE : FLAT_SHARED;
+        }
+
+        private boolean isCompatible(Thread current, int mode) {
+            final int[] mine = holders.get(current);
+            if (mine != null && mine[EXCLUSIVE] > 0) {
+                return true;
+            }
+            final int otherIS = others(INTENTION_SHARED, mine);
+            final int otherIX = others(INTENTION_EXCLUSIVE, mine);
+            final int otherS = others(SHARED, mine);
+            final int otherX = others(EXCLUSIVE, mine);
+            switch (mode) {
+                case INTENTION_SHARED:
+                    return otherX == 0;
+                case INTENTION_EXCLUSIVE:
+                    return otherX == 0 && otherS == 0;
+                case SHARED:
+                    if (mine != null && mine[SHARED] > 0) {
+                        return otherX == 0 && otherIX == 0;
+                    }
+                    return otherX == 0 && otherIX == 0 && sharedHolders < maxThreads;
+                case EXCLUSIVE:
+                    return otherIS == 0 && otherIX == 0 && otherS == 0 && otherX == 0;
+                default:
+                    throw new IllegalArgumentException();
+            }
+        }
+
+        private int others(int mode, int[] mine) {
+            return mine == null ? holds[mode] : holds[mode] - mine[mode];
+        }
+
+        private boolean isEmpty(int[] counters) {
+            for (int counter : counters) {
+                if (counter != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Node{" +
+                   "path=" + path +
+                   ", references=" + references +
+                   '}';
+        }
+    }
+
+    public final class PathLock {
+        private final Path    path;
+        private final boolean exclusive;
+
+        private PathLock(Path path, boolean exclusive) {
+            this.path = path;
+            this.exclusive = exclusive;
+        }
+
+        /**
+         * Acquire permit for file. Method is blocked until permit available.
+         *
+         * @return this PathLock instance
+         */
+        public PathLock acquire() {
+            HierarchicalPathLockFactory.this.acquire(path, exclusive, 0);
+            return this;
+        }
+
+        /**
+         * Acquire permit for file if it becomes available within the given timeout. It is the same as method {@link
+         * #acquire()} but with waiting timeout. If waiting timeout reached then RuntimeException thrown.
+         *
+         * @param timeoutMilliseconds
+         *         maximum time (in milliseconds) to wait for access permit
+         * @return this PathLock instance
+         * @throws RuntimeException
+         *         if waiting timeout reached
+         */
+        public PathLock acquire(long timeoutMilliseconds) {
+            HierarchicalPathLockFactory.this.acquire(path, exclusive, timeoutMilliseconds);
+            return this;
+        }
+
+        /** Release file permit. */
+        public void release() {
+            HierarchicalPathLockFactory.this.release(path, exclusive);
+        }
+
+        /** Returns <code>true</code> if this lock is exclusive and <code>false</code> otherwise. */
+        public boolean isExclusive() {
+            return exclusive;
+        }
+    }
+}
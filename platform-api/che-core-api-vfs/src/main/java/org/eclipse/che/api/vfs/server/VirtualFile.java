@@ -325,14 +325,33 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      *
      * @param filter
      *         filter of file. Only files that are matched to the filter are added in the zip archive
-     * @return zipped content of folder denoted by this VirtualFile
+     * @return zipped content of folder denoted by this VirtualFile. Implementation may create zip archive on the fly while it is
+     * written to the output, in this case content is provided by {@link ContentStream#getOutput()}
      * @throws ForbiddenException
      *         if this item doesn't denote a folder
      * @throws ServerException
      *         if other error occurs
+     * @see #zip(VirtualFileFilter, int)
      */
     ContentStream zip(VirtualFileFilter filter) throws ForbiddenException, ServerException;
 
+    /**
+     * Gets zipped content of folder denoted by this VirtualFile with specified compression level. Files that are already
+     * compressed, e.g. jar or png files, are stored without compression regardless of the level.
+     *
+     * @param filter
+     *         filter of file. Only files that are matched to the filter are added in the zip archive
+     * @param compressionLevel
+     *         compression level from 0 to 9 or -1 for default level, see {@link java.util.zip.Deflater}
+     * @return zipped content of folder denoted by this VirtualFile
+     * @throws ForbiddenException
+     *         if this item doesn't denote a folder
+     * @throws ServerException
+     *         if other error occurs
+     * @see #zip(VirtualFileFilter)
+     */
+    ContentStream zip(VirtualFileFilter filter, int compressionLevel) throws ForbiddenException, ServerException;
+
     /**
      * Imports ZIP content to the folder denoted by this VirtualFile.
      *
@@ -15,6 +15,8 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
+import org.eclipse.che.api.vfs.server.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.LinksHelper;
 import org.eclipse.che.api.vfs.shared.ItemType;
@@ -537,24 +539,28 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                     .setMediaType(query.getFirst("mediaType"))
                     .setText(query.getFirst("text"));
 
-            final String[] result = searcherProvider.getSearcher(mountPoint, true).search(expr);
+            final SearchResult result;
+            try {
+                result = searcherProvider.getSearcher(mountPoint, true).search(expr, maxItems, skipCount);
+            } catch (NotFoundException e) {
+                // Not expected, cursor isn't used.
+                throw new ServerException(e.getMessage(), e);
+            }
             if (skipCount > 0) {
-                if (skipCount > result.length) {
+                if (skipCount > result.getTotalHits()) {
                     throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
                 }
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<Item> items = new ArrayList<>(length);
-            for (int i = skipCount; i < length; i++) {
-                String path = result[i];
+            final List<Item> items = new ArrayList<>(result.getResults().size());
+            for (SearchResultEntry entry : result.getResults()) {
                 try {
-                    items.add(fromVirtualFile(mountPoint.getVirtualFile(path), false, propertyFilter));
+                    items.add(fromVirtualFile(mountPoint.getVirtualFile(entry.getFilePath()), false, propertyFilter));
                 } catch (NotFoundException | ForbiddenException ignored) {
                 }
             }
 
-            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.length)
-                             .withHasMoreItems(length < result.length);
+            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.getTotalHits())
+                             .withHasMoreItems(result.hasMoreItems());
         }
         throw new ServerException("Not supported. ");
     }
@@ -636,6 +642,11 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         return folder.zip(VirtualFileFilter.ALL);
     }
 
+    // For usage from Project API.
+    public static ContentStream exportZip(VirtualFile folder, int compressionLevel) throws ForbiddenException, ServerException {
+        return folder.zip(VirtualFileFilter.ALL, compressionLevel);
+    }
+
     @Path("export/{folderId}")
     @Override
     public Response exportZip(@PathParam("folderId") String folderId, InputStream in)
@@ -659,8 +670,10 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         }
         final List<OutputItem> multipart = new LinkedList<>();
         // String name, Object entity, MediaType mediaType, String fileName
-        final OutputItem updates = OutputItem.create("updates", zip.getStream(), MediaType.valueOf("application/zip"), zip.getFileName());
-        updates.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        final OutputItem updates = OutputItem.create("updates", zip.getEntity(), MediaType.valueOf("application/zip"), zip.getFileName());
+        if (zip.getLength() >= 0) {
+            updates.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
         multipart.add(updates);
 
         if (!deleted.isEmpty()) {
@@ -684,10 +697,12 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
             return Response.status(204).build();
         }
         final Response.ResponseBuilder responseBuilder = Response
-                .ok(zip.getStream(), zip.getMimeType())
+                .ok(zip.getEntity(), zip.getMimeType())
                 .lastModified(zip.getLastModificationDate())
-                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()))
                 .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"');
+        if (zip.getLength() >= 0) {
+            responseBuilder.header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
         if (!deleted.isEmpty()) {
             final StringBuilder buff = new StringBuilder();
             for (String str : deleted) {
@@ -902,12 +917,14 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
     @Override
     public Response downloadZip(@PathParam("folderId") String folderId) throws NotFoundException, ForbiddenException, ServerException {
         final ContentStream zip = exportZip(folderId);
-        return Response //
-                .ok(zip.getStream(), zip.getMimeType()) //
+        final Response.ResponseBuilder responseBuilder = Response //
+                .ok(zip.getEntity(), zip.getMimeType()) //
                 .lastModified(zip.getLastModificationDate()) //
-                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength())) //
-                .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"') //
-                .build();
+                .header("Content-Disposition", "attachment; filename=\"" + zip.getFileName() + '"');
+        if (zip.getLength() >= 0) {
+            responseBuilder.header(HttpHeaders.CONTENT_LENGTH, Long.toString(zip.getLength()));
+        }
+        return responseBuilder.build();
     }
 
     @Path("uploadzip/{parentId}")
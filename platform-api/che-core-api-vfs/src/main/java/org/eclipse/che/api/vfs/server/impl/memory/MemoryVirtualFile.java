@@ -32,6 +32,7 @@ import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdatePropertiesEvent;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.NotClosableInputStream;
+import org.eclipse.che.api.vfs.server.util.ZipCompression;
 import org.eclipse.che.api.vfs.server.util.ZipContent;
 import org.eclipse.che.api.vfs.shared.PropertyFilter;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
@@ -69,6 +70,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -929,10 +931,20 @@ public class MemoryVirtualFile implements VirtualFile {
 
     @Override
     public ContentStream zip(VirtualFileFilter filter) throws ForbiddenException, ServerException {
+        return zip(filter, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public ContentStream zip(VirtualFileFilter filter, int compressionLevel) throws ForbiddenException, ServerException {
         checkExist();
         if (!isFolder()) {
             throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder. ", getPath()));
         }
+        try {
+            ZipCompression.checkLevel(compressionLevel);
+        } catch (IllegalArgumentException e) {
+            throw new ServerException(e.getMessage());
+        }
         final ByteArrayOutputStream out = new ByteArrayOutputStream();
         try {
             final ZipOutputStream zipOut = new ZipOutputStream(out);
@@ -947,7 +959,7 @@ public class MemoryVirtualFile implements VirtualFile {
                     if (current.isFile()) {
                         final ZipEntry zipEntry = new ZipEntry(zipEntryName);
                         zipEntry.setTime(current.getLastModificationDate());
-                        zipOut.putNextEntry(zipEntry);
+                        ZipCompression.putNextEntry(zipOut, zipEntry, compressionLevel);
                         zipOut.write(((MemoryVirtualFile)current).content);
                         zipOut.closeEntry();
                     } else if (current.isFolder()) {
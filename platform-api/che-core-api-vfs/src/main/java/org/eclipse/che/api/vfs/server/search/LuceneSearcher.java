@@ -10,7 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.server.search;
 
+import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.LazyIterator;
 import org.eclipse.che.api.vfs.server.MountPoint;
@@ -25,10 +27,15 @@ import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -36,12 +43,17 @@ import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherLifetimeManager;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,7 +62,16 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -59,14 +80,29 @@ import java.util.Set;
  * @author andrew00x
  */
 public abstract class LuceneSearcher implements Searcher {
-    private static final Logger LOG          = LoggerFactory.getLogger(LuceneSearcher.class);
-    private static final int    RESULT_LIMIT = 1000;
+    private static final Logger      LOG                     = LoggerFactory.getLogger(LuceneSearcher.class);
+    private static final Set<String> PATH_FIELD              = Collections.singleton("path");
+    private static final Set<String> RECONCILE_FIELDS        = new HashSet<>(Arrays.asList("path", "modified", "length"));
+    /** Max number of snippets for one file. */
+    private static final int         MAX_SNIPPETS            = 10;
+    /** Max length of line in snippet. */
+    private static final int         MAX_SNIPPET_LENGTH      = 256;
+    /** Max number of files in one page of result which get snippets, snippets for other files are not created. */
+    private static final int         MAX_SNIPPET_FILES       = 50;
+    /** Snippets are not created for files which are bigger than this (bytes), file is read from the beginning to find snippets. */
+    private static final long        MAX_SNIPPET_FILE_LENGTH = 1024 * 1024;
+    /** How long (in seconds) cursor of search result is valid after index is changed. */
+    private static final double      MAX_CURSOR_AGE          = 10 * 60;
+    /** Max number of views of index which are kept for cursors of search result, the oldest views are dropped first. */
+    private static final int         MAX_CURSOR_VERSIONS     = 16;
 
     private final VirtualFileFilter filter;
 
-    private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
-    private boolean         closed;
+    private IndexWriter             luceneIndexWriter;
+    private SearcherManager         searcherManager;
+    private SearcherLifetimeManager searcherLifetimeManager;
+    private MountPoint              mountPoint;
+    private boolean                 closed;
 
     public LuceneSearcher(Set<String> indexedMediaTypes) {
         this(new MediaTypeFilter(indexedMediaTypes));
@@ -98,14 +134,16 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error
      */
     public void init(MountPoint mountPoint) throws ServerException {
-        doInit();
+        doInit(mountPoint);
         addTree(mountPoint.getRoot());
     }
 
-    protected final synchronized void doInit() throws ServerException {
+    protected final synchronized void doInit(MountPoint mountPoint) throws ServerException {
+        this.mountPoint = mountPoint;
         try {
             luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+            searcherLifetimeManager = new SearcherLifetimeManager();
         } catch (IOException e) {
             throw new ServerException(e);
         }
@@ -114,7 +152,7 @@ public abstract class LuceneSearcher implements Searcher {
     public synchronized void close() {
         if (!closed) {
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherLifetimeManager, searcherManager);
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
             }
@@ -126,8 +164,103 @@ public abstract class LuceneSearcher implements Searcher {
         return luceneIndexWriter;
     }
 
+    protected final synchronized SearcherManager getSearcherManager() {
+        return searcherManager;
+    }
+
+    /**
+     * Makes changes of index visible for search. This method is called before each search request. Implementation may override
+     * this method if index readers are refreshed in some other way, e.g. periodically.
+     */
+    protected void refreshBeforeSearch() throws IOException {
+        getSearcherManager().maybeRefresh();
+    }
+
     @Override
     public String[] search(QueryExpression query) throws ServerException {
+        final List<SearchResultEntry> results;
+        try {
+            results = search(query, -1, 0).getResults();
+        } catch (NotFoundException | ConflictException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final String[] paths = new String[results.size()];
+        for (int i = 0, length = paths.length; i < length; i++) {
+            paths[i] = results.get(i).getFilePath();
+        }
+        return paths;
+    }
+
+    @Override
+    public SearchResult search(QueryExpression query, int maxItems, int skipCount)
+            throws NotFoundException, ConflictException, ServerException {
+        if (skipCount < 0) {
+            throw new ConflictException("'skipCount' parameter is negative. ");
+        }
+        final Query luceneQuery = createLuceneQuery(query);
+        final Cursor after = query.getAfter() == null ? null : parseCursor(query.getAfter());
+        final SearcherManager searcherManager = getSearcherManager();
+        IndexSearcher luceneSearcher = null;
+        try {
+            if (after == null) {
+                refreshBeforeSearch();
+                luceneSearcher = searcherManager.acquire();
+            } else {
+                // Id of document in cursor is valid only in the same view of index, next pages are searched in the view of first page.
+                luceneSearcher = searcherLifetimeManager.acquire(after.version);
+                if (luceneSearcher == null) {
+                    throw new NotFoundException(String.format("Cursor '%s' is expired. ", query.getAfter()));
+                }
+            }
+            final int pageEnd;
+            if (maxItems > 0) {
+                pageEnd = (int)Math.min((long)skipCount + maxItems, Integer.MAX_VALUE - 1);
+            } else {
+                final TotalHitCountCollector counter = new TotalHitCountCollector();
+                luceneSearcher.search(luceneQuery, counter);
+                pageEnd = counter.getTotalHits();
+            }
+            // Collect one extra item to find out whether there are more items after this page.
+            final int numHits = pageEnd + 1;
+            final TopDocs topDocs = after == null ? luceneSearcher.search(luceneQuery, numHits)
+                                                  : luceneSearcher.searchAfter(after.scoreDoc, luceneQuery, numHits);
+            final ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            final int length = Math.min(scoreDocs.length, pageEnd);
+            final Map<String, Boolean> snippetTerms =
+                    query.isIncludeSnippets() ? getSnippetTerms(query.getText()) : Collections.<String, Boolean>emptyMap();
+            final List<SearchResultEntry> results = new ArrayList<>(Math.max(0, length - skipCount));
+            for (int i = skipCount; i < length; i++) {
+                final String path = luceneSearcher.doc(scoreDocs[i].doc, PATH_FIELD).get("path");
+                final List<SearchSnippet> snippets = snippetTerms.isEmpty() || i - skipCount >= MAX_SNIPPET_FILES
+                                                     ? null : createSnippets(path, snippetTerms);
+                results.add(new SearchResultEntry(path, scoreDocs[i].score, snippets));
+            }
+            final boolean hasMoreItems = scoreDocs.length > pageEnd && length > 0;
+            String nextCursor = null;
+            if (hasMoreItems && query.isIncludeNextCursor()) {
+                // Keep view of index that is used for this page until cursor is expired.
+                nextCursor = toCursor(searcherLifetimeManager.record(luceneSearcher), scoreDocs[length - 1]);
+            }
+            searcherLifetimeManager.prune(new CursorPruner());
+            return new SearchResult(results, topDocs.totalHits, hasMoreItems, nextCursor);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            if (luceneSearcher != null) {
+                try {
+                    if (after == null) {
+                        searcherManager.release(luceneSearcher);
+                    } else {
+                        searcherLifetimeManager.release(luceneSearcher);
+                    }
+                } catch (IOException e) {
+                    LOG.error(e.getMessage());
+                }
+            }
+        }
+    }
+
+    protected Query createLuceneQuery(QueryExpression query) throws ServerException {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
@@ -150,28 +283,182 @@ public abstract class LuceneSearcher implements Searcher {
                 throw new ServerException(e.getMessage());
             }
         }
-        IndexSearcher luceneSearcher = null;
-        try {
-            searcherManager.maybeRefresh();
-            luceneSearcher = searcherManager.acquire();
-            final TopDocs topDocs = luceneSearcher.search(luceneQuery, RESULT_LIMIT);
-            if (topDocs.totalHits > RESULT_LIMIT) {
-                throw new ServerException(String.format("Too many (%d) matched results found. ", topDocs.totalHits));
+        return luceneQuery;
+    }
+
+    /**
+     * Cursor is version of view of index (see {@link SearcherLifetimeManager#record(IndexSearcher)}), id of document and its score.
+     * Id of document is not stable, it is changed when segments of index are merged, so it is used for {@link
+     * IndexSearcher#searchAfter} only in the same view of index.
+     */
+    private String toCursor(long version, ScoreDoc scoreDoc) {
+        return Long.toString(version) + ':' + Integer.toString(scoreDoc.doc) + ':'
+               + Integer.toHexString(Float.floatToIntBits(scoreDoc.score));
+    }
+
+    private Cursor parseCursor(String cursor) throws ConflictException {
+        final String[] parts = cursor.split(":");
+        if (parts.length == 3) {
+            try {
+                final long version = Long.parseLong(parts[0]);
+                final int doc = Integer.parseInt(parts[1]);
+                final float score = Float.intBitsToFloat((int)Long.parseLong(parts[2], 16));
+                return new Cursor(version, new ScoreDoc(doc, score));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new ConflictException(String.format("Invalid cursor '%s'. ", cursor));
+    }
+
+    /**
+     * Drops views of index which are older than {@link #MAX_CURSOR_AGE} and views beyond {@link #MAX_CURSOR_VERSIONS} newest ones.
+     * Views are checked from the newest to the oldest one, new instance should be used for each pruning.
+     */
+    private static class CursorPruner implements SearcherLifetimeManager.Pruner {
+        final SearcherLifetimeManager.Pruner byAge = new SearcherLifetimeManager.PruneByAge(MAX_CURSOR_AGE);
+        int versions;
+
+        @Override
+        public boolean doPrune(double ageSec, IndexSearcher searcher) {
+            return ++versions > MAX_CURSOR_VERSIONS || byAge.doPrune(ageSec, searcher);
+        }
+    }
+
+    private static class Cursor {
+        final long     version;
+        final ScoreDoc scoreDoc;
+
+        Cursor(long version, ScoreDoc scoreDoc) {
+            this.version = version;
+            this.scoreDoc = scoreDoc;
+        }
+    }
+
+    /**
+     * Gets words of text query that should be highlighted in snippets. Key of result map is lower case word, value is {@code
+     * true} if word is prefix, e.g. in query like 'foo*'. Query syntax (operators, grouping, field names, boosts) is skipped.
+     */
+    private Map<String, Boolean> getSnippetTerms(String text) {
+        if (text == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Boolean> terms = new LinkedHashMap<>();
+        boolean negate = false;
+        for (String word : text.split("\\s+")) {
+            if (word.isEmpty() || "AND".equals(word) || "OR".equals(word) || "&&".equals(word) || "||".equals(word)) {
+                continue;
+            }
+            if ("NOT".equals(word)) {
+                negate = true;
+                continue;
+            }
+            // Words which must not be in file are not highlighted.
+            if (negate || word.charAt(0) == '-' || word.charAt(0) == '!') {
+                negate = false;
+                continue;
+            }
+            final int field = word.indexOf(':');
+            if (field >= 0) {
+                word = word.substring(field + 1);
+            }
+            final StringBuilder term = new StringBuilder(word.length());
+            boolean prefix = false;
+            for (int i = 0, length = word.length(); i < length && !prefix; i++) {
+                final char c = word.charAt(i);
+                if (c == '*' || c == '?') {
+                    prefix = true;
+                } else if (c == '~' || c == '^') {
+                    break;
+                } else if ("+-!()\"{}[]\\".indexOf(c) < 0) {
+                    term.append(c);
+                }
+            }
+            if (term.length() > 0) {
+                final String lowerCase = term.toString().toLowerCase();
+                final Boolean existed = terms.get(lowerCase);
+                terms.put(lowerCase, prefix || (existed != null && existed));
             }
-            final String[] result = new String[topDocs.scoreDocs.length];
-            for (int i = 0, length = result.length; i < length; i++) {
-                result[i] = luceneSearcher.doc(topDocs.scoreDocs[i].doc).getField("path").stringValue();
+        }
+        return terms;
+    }
+
+    private List<SearchSnippet> createSnippets(String path, Map<String, Boolean> terms) throws ServerException {
+        if (mountPoint == null) {
+            return null;
+        }
+        final VirtualFile virtualFile;
+        try {
+            virtualFile = mountPoint.getVirtualFile(path);
+        } catch (NotFoundException | ForbiddenException e) {
+            return null;
+        }
+        if (virtualFile.getLength() > MAX_SNIPPET_FILE_LENGTH) {
+            return null;
+        }
+        final List<SearchSnippet> snippets = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(virtualFile.getContent().getStream()))) {
+            String line;
+            int lineNumber = 0;
+            while (snippets.size() < MAX_SNIPPETS && (line = reader.readLine()) != null) {
+                lineNumber++;
+                final SearchSnippet snippet = createSnippet(lineNumber, line, terms);
+                if (snippet != null) {
+                    snippets.add(snippet);
+                }
             }
-            return result;
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
-        } finally {
-            try {
-                searcherManager.release(luceneSearcher);
-            } catch (IOException e) {
-                LOG.error(e.getMessage());
+        } catch (ForbiddenException e) {
+            return null;
+        }
+        return snippets;
+    }
+
+    private SearchSnippet createSnippet(int lineNumber, String line, Map<String, Boolean> terms) {
+        final String lowerCase = line.toLowerCase();
+        if (lowerCase.length() != line.length()) {
+            // Rare case when lower case changes length of string, use lower case to keep offsets of highlights correct.
+            line = lowerCase;
+        }
+        final List<int[]> matches = new ArrayList<>();
+        for (Map.Entry<String, Boolean> e : terms.entrySet()) {
+            final String term = e.getKey();
+            int from = 0;
+            int index;
+            while ((index = lowerCase.indexOf(term, from)) >= 0) {
+                final int end = index + term.length();
+                // Text is split in words by whitespaces, see makeAnalyzer().
+                if ((index == 0 || Character.isWhitespace(lowerCase.charAt(index - 1)))
+                    && (e.getValue() || end == lowerCase.length() || Character.isWhitespace(lowerCase.charAt(end)))) {
+                    matches.add(new int[]{index, end});
+                }
+                from = end;
             }
         }
+        if (matches.isEmpty()) {
+            return null;
+        }
+        Collections.sort(matches, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                return Integer.compare(o1[0], o2[0]);
+            }
+        });
+        // Cut too long lines, keep some text before the first match.
+        final int start = line.length() > MAX_SNIPPET_LENGTH ? Math.max(0, matches.get(0)[0] - MAX_SNIPPET_LENGTH / 4) : 0;
+        final int end = Math.min(line.length(), start + MAX_SNIPPET_LENGTH);
+        final List<Integer> highlights = new ArrayList<>();
+        for (int[] match : matches) {
+            if (match[1] <= end) {
+                highlights.add(match[0] - start);
+                highlights.add(match[1] - start);
+            }
+        }
+        final int[] highlightsArray = new int[highlights.size()];
+        for (int i = 0; i < highlightsArray.length; i++) {
+            highlightsArray[i] = highlights.get(i);
+        }
+        return new SearchSnippet(lineNumber, line.substring(start, end), highlightsArray);
     }
 
     @Override
@@ -187,6 +474,82 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /**
+     * Brings existed index in sync with the tree of files, e.g. with index that is kept after restart of server. Only files which
+     * are not indexed yet or which size or modification date differs from stored in index are indexed, documents of files which
+     * don't exist anymore are removed from index.
+     *
+     * @param tree
+     *         root of tree of files
+     * @throws ServerException
+     *         if any virtual filesystem error
+     */
+    protected void reconcileTree(VirtualFile tree) throws ServerException {
+        final long start = System.currentTimeMillis();
+        final Map<String, long[]> indexed = getIndexedFiles(tree.getPath());
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(tree);
+        int indexedFiles = 0;
+        while (!q.isEmpty()) {
+            final VirtualFile folder = q.pop();
+            if (folder.exists()) {
+                LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
+                while (children.hasNext()) {
+                    final VirtualFile child = children.next();
+                    if (child.isFolder()) {
+                        q.push(child);
+                    } else {
+                        final long[] stored = indexed.remove(child.getPath());
+                        if (stored == null || stored[0] != child.getLastModificationDate() || stored[1] != child.getLength()) {
+                            addFile(child);
+                            indexedFiles++;
+                        }
+                    }
+                }
+            }
+        }
+        try {
+            for (String path : indexed.keySet()) {
+                getIndexWriter().deleteDocuments(new Term("path", path));
+            }
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final long end = System.currentTimeMillis();
+        LOG.debug("Reconciled index of {}, indexed {} files, removed {} files, time: {} ms",
+                  tree.getPath(), indexedFiles, indexed.size(), (end - start));
+    }
+
+    /** Gets modification date and length of indexed files under specified path. Files indexed without this data are skipped. */
+    private Map<String, long[]> getIndexedFiles(String path) throws ServerException {
+        final Map<String, long[]> indexed = new HashMap<>();
+        final String prefix = path.endsWith("/") ? path : path + '/';
+        try (IndexReader reader = DirectoryReader.open(getIndexWriter(), true)) {
+            final Bits liveDocs = MultiFields.getLiveDocs(reader);
+            for (int i = 0, maxDoc = reader.maxDoc(); i < maxDoc; i++) {
+                if (liveDocs != null && !liveDocs.get(i)) {
+                    continue;
+                }
+                final Document doc = reader.document(i, RECONCILE_FIELDS);
+                final String docPath = doc.get("path");
+                if (docPath == null || !docPath.startsWith(prefix)) {
+                    continue;
+                }
+                final IndexableField modified = doc.getField("modified");
+                final IndexableField length = doc.getField("length");
+                indexed.put(docPath, modified == null || length == null
+                                     ? new long[]{-1, -1}
+                                     : new long[]{modified.numericValue().longValue(), length.numericValue().longValue()});
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        return indexed;
+    }
+
     protected void addTree(VirtualFile tree) throws ServerException {
         final long start = System.currentTimeMillis();
         final LinkedList<VirtualFile> q = new LinkedList<>();
@@ -229,6 +592,10 @@ public abstract class LuceneSearcher implements Searcher {
 
     @Override
     public final void delete(String path, boolean isFile) throws ServerException {
+        doDelete(path, isFile);
+    }
+
+    protected void doDelete(String path, boolean isFile) throws ServerException {
         try {
             if (isFile) {
                 Term term = new Term("path", path);
@@ -269,6 +636,8 @@ public abstract class LuceneSearcher implements Searcher {
         doc.add(new StringField("path", virtualFile.getPath(), Field.Store.YES));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
         doc.add(new StringField("mediatype", getMediaType(virtualFile), Field.Store.YES));
+        doc.add(new StoredField("modified", virtualFile.getLastModificationDate()));
+        doc.add(new StoredField("length", virtualFile.getLength()));
         if (inReader != null) {
             doc.add(new TextField("text", inReader));
         }
@@ -12,10 +12,13 @@ package org.eclipse.che.api.vfs.server.search;
 
 /** @author andrew00x */
 public class QueryExpression {
-    private String name;
-    private String path;
-    private String mediaType;
-    private String text;
+    private String  name;
+    private String  path;
+    private String  mediaType;
+    private String  text;
+    private String  after;
+    private boolean includeSnippets;
+    private boolean includeNextCursor;
 
     public String getPath() {
         return path;
@@ -53,6 +56,49 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Gets cursor that points to the last item of previous page of search result. Next pages are searched in the same state of
+     * index as the previous one, so cursor is valid for limited time after index is changed.
+     *
+     * @see SearchResult#getNextCursor()
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    public QueryExpression setAfter(String after) {
+        this.after = after;
+        return this;
+    }
+
+    /**
+     * If {@code true} search result contains lines of files which match to the text of query. Snippets may be omitted for too big
+     * files and for items at the end of too long page.
+     */
+    public boolean isIncludeSnippets() {
+        return includeSnippets;
+    }
+
+    public QueryExpression setIncludeSnippets(boolean includeSnippets) {
+        this.includeSnippets = includeSnippets;
+        return this;
+    }
+
+    /**
+     * If {@code true} search result contains cursor for the next page if there are more items. View of index is kept for cursor
+     * until it is expired, so cursor should be requested only if next page may be requested.
+     *
+     * @see SearchResult#getNextCursor()
+     */
+    public boolean isIncludeNextCursor() {
+        return includeNextCursor;
+    }
+
+    public QueryExpression setIncludeNextCursor(boolean includeNextCursor) {
+        this.includeNextCursor = includeNextCursor;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
@@ -60,6 +106,9 @@ public class QueryExpression {
                ", path='" + path + '\'' +
                ", mediaType='" + mediaType + '\'' +
                ", text='" + text + '\'' +
+               ", after='" + after + '\'' +
+               ", includeSnippets=" + includeSnippets +
+               ", includeNextCursor=" + includeNextCursor +
                '}';
     }
 }
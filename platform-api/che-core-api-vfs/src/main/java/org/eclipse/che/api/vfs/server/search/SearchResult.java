@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import java.util.List;
+
+/**
+ * Single page of result of search.
+ */
+public class SearchResult {
+    private final List<SearchResultEntry> results;
+    private final int                     totalHits;
+    private final boolean                 hasMoreItems;
+    private final String                  nextCursor;
+
+    public SearchResult(List<SearchResultEntry> results, int totalHits, boolean hasMoreItems, String nextCursor) {
+        this.results = results;
+        this.totalHits = totalHits;
+        this.hasMoreItems = hasMoreItems;
+        this.nextCursor = nextCursor;
+    }
+
+    /** Gets matched items ordered by relevance. */
+    public List<SearchResultEntry> getResults() {
+        return results;
+    }
+
+    /** Gets total number of matched items. */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Gets cursor that may be passed to {@link QueryExpression#setAfter(String)} to get next page of result or {@code null} if
+     * there is no more items or cursor isn't requested with {@link QueryExpression#setIncludeNextCursor(boolean)}.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMoreItems() {
+        return hasMoreItems;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+               "results=" + results +
+               ", totalHits=" + totalHits +
+               ", hasMoreItems=" + hasMoreItems +
+               ", nextCursor='" + nextCursor + '\'' +
+               '}';
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Item of {@link SearchResult}.
+ */
+public class SearchResultEntry {
+    private final String              filePath;
+    private final float               score;
+    private final List<SearchSnippet> snippets;
+
+    public SearchResultEntry(String filePath, float score, List<SearchSnippet> snippets) {
+        this.filePath = filePath;
+        this.score = score;
+        this.snippets = snippets == null ? Collections.<SearchSnippet>emptyList() : snippets;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /** Gets relevance of item. Items with greater score are more relevant to the query. */
+    public float getScore() {
+        return score;
+    }
+
+    /** Gets lines of file which match to the query. List is empty if snippets are not requested or query has no text. */
+    public List<SearchSnippet> getSnippets() {
+        return snippets;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResultEntry{" +
+               "filePath='" + filePath + '\'' +
+               ", score=" + score +
+               ", snippets=" + snippets +
+               '}';
+    }
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import java.util.Arrays;
+
+/**
+ * Line of file that matches to the text of query.
+ */
+public class SearchSnippet {
+    private final int    lineNumber;
+    private final String line;
+    private final int[]  highlights;
+
+    public SearchSnippet(int lineNumber, String line, int[] highlights) {
+        this.lineNumber = lineNumber;
+        this.line = line;
+        this.highlights = highlights;
+    }
+
+    /** Gets number of line in file. Numbering starts from 1. */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /** Gets content of line. Too long lines are trimmed. */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Gets positions of matched words in the line as pairs of start (inclusive) and end (exclusive) offsets, e.g. <code>[0, 4,
+     * 10, 15]</code> means two matched words: from 0 to 4 and from 10 to 15.
+     */
+    public int[] getHighlights() {
+        return highlights;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchSnippet{" +
+               "lineNumber=" + lineNumber +
+               ", line='" + line + '\'' +
+               ", highlights=" + Arrays.toString(highlights) +
+               '}';
+    }
+}
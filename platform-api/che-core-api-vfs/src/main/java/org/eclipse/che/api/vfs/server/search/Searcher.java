@@ -10,21 +10,44 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.server.search;
 
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 
 public interface Searcher {
     /**
-     * Return paths of matched items on virtual filesystem.
+     * Return paths of all matched items on virtual filesystem.
      *
      * @param query
      *         query expression
      * @return paths of matched items
      * @throws ServerException
      *         if an error occurs
+     * @see #search(QueryExpression, int, int)
      */
     String[] search(QueryExpression query) throws ServerException;
 
+    /**
+     * Return single page of matched items on virtual filesystem. Items are ordered by relevance. Page starts after item pointed
+     * by {@link QueryExpression#getAfter()} if it is set or from the beginning of result otherwise.
+     *
+     * @param query
+     *         query expression
+     * @param maxItems
+     *         max number of items in result. If this parameter is zero or negative all items are returned.
+     * @param skipCount
+     *         number of items to skip from the start of page
+     * @return page of result
+     * @throws NotFoundException
+     *         if cursor is expired
+     * @throws ConflictException
+     *         if cursor is invalid or {@code skipCount} is negative
+     * @throws ServerException
+     *         if an error occurs
+     */
+    SearchResult search(QueryExpression query, int maxItems, int skipCount) throws NotFoundException, ConflictException, ServerException;
+
     /**
      * Add VirtualFile to index.
      *
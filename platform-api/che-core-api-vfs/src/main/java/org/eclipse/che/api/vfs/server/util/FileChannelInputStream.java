@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * InputStream that reads content of file through opened {@link FileChannel}. Stream reads bytes from current position of
+ * stream up to length which is fixed when stream is created and doesn't change position of the channel. Channel is closed
+ * when stream is closed.
+ * <p/>
+ * If file is updated by replacing it with new file (write new content to temporary file and move it over original file)
+ * the stream still reads content of the file that was opened, i.e. stream provides consistent snapshot of content without
+ * holding any locks.
+ * <p/>
+ * Content may be transferred to other channel, e.g. channel of other file or socket, with {@link
+ * #transferTo(WritableByteChannel)} without copying it through buffers of java heap when operating system supports it. There is
+ * no such benefit for target which is {@link java.io.OutputStream}, e.g. output stream of servlet, it is copied as any other
+ * stream.
+ */
+public final class FileChannelInputStream extends InputStream {
+    private final FileChannel channel;
+    private final long        length;
+
+    private long position;
+    private long mark;
+
+    /**
+     * @param channel
+     *         opened channel
+     * @param length
+     *         number of bytes which may be read from the channel, usually size of file at the moment when channel is opened
+     */
+    public FileChannelInputStream(FileChannel channel, long length) {
+        this.channel = channel;
+        this.length = length;
+    }
+
+    /** Gets channel. Reading from channel directly doesn't change position of this stream. */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /** Gets number of bytes that may be read from this stream when it is just opened. */
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int r = read(b, 0, 1);
+        return r == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        final long remaining = length - position;
+        if (remaining <= 0) {
+            return -1;
+        }
+        final int r = channel.read(ByteBuffer.wrap(b, off, (int)Math.min(len, remaining)), position);
+        if (r == -1) {
+            // File is truncated in place since channel is opened.
+            position = length;
+            return -1;
+        }
+        position += r;
+        return r;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        final long skipped = Math.min(n, length - position);
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int)Math.min(Integer.MAX_VALUE, length - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        position = mark;
+    }
+
+    /**
+     * Transfers all remaining bytes of this stream to the {@code target} with {@link FileChannel#transferTo(long, long,
+     * WritableByteChannel)}. Stream is at the end after this method returns.
+     *
+     * @param target
+     *         target channel
+     * @return number of transferred bytes
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        final long start = position;
+        while (position < length) {
+            final long transferred = channel.transferTo(position, length - position, target);
+            if (transferred <= 0) {
+                // File is truncated in place since channel is opened.
+                break;
+            }
+            position += transferred;
+        }
+        return position - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
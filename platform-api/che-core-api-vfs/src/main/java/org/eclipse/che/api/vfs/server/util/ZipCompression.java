@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Helps to choose compression level for entries of zip archive. Files which are already compressed, e.g. jar, png or gz
+ * files, are not compressed again since it takes time but doesn't make archive smaller.
+ */
+public class ZipCompression {
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "zip", "jar", "war", "ear", "apk", "aar", "gz", "tgz", "bz2", "xz", "7z", "rar",
+            "png", "jpg", "jpeg", "gif", "ico", "mp3", "mp4", "avi", "mov", "woff", "woff2", "pdf"));
+
+    /**
+     * Checks compression level.
+     *
+     * @throws IllegalArgumentException
+     *         if level is not in range from 0 to 9 and not -1 (default level)
+     */
+    public static void checkLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException(String.format("Invalid compression level %d. ", level));
+        }
+    }
+
+    /** Checks whether content of file with specified name is already compressed. Check is based on extension of file. */
+    public static boolean isCompressed(String fileName) {
+        final int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Starts new entry of zip archive with level of compression suitable for the entry. {@link Deflater#NO_COMPRESSION} is
+     * used for already compressed files and {@code level} for all others. Entries are deflated anyway, so their size and
+     * checksum don't need to be counted before entry is written.
+     *
+     * @param zipOut
+     *         zip output
+     * @param zipEntry
+     *         new entry
+     * @param level
+     *         level of compression for not compressed files
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public static void putNextEntry(ZipOutputStream zipOut, ZipEntry zipEntry, int level) throws IOException {
+        zipOut.setLevel(!zipEntry.isDirectory() && isCompressed(zipEntry.getName()) ? Deflater.NO_COMPRESSION : level);
+        zipOut.putNextEntry(zipEntry);
+    }
+
+    private ZipCompression() {
+    }
+}
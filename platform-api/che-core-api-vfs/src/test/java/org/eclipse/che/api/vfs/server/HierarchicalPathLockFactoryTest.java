@@ -0,0 +1,344 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HierarchicalPathLockFactoryTest extends TestCase {
+    private final int  maxThreads = 3;
+    private final Path path       = Path.fromString("/a/b/c"); // Path not need to be real path on file system
+
+    private HierarchicalPathLockFactory pathLockFactory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        pathLockFactory = new HierarchicalPathLockFactory(maxThreads);
+    }
+
+    public void testLock() throws Exception {
+        final AtomicBoolean acquired = new AtomicBoolean(false);
+        final CountDownLatch waiter = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    pathLockFactory.getLock(path, true).acquire();
+                    acquired.set(true);
+                } finally {
+                    waiter.countDown();
+                }
+            }
+        };
+        t.start();
+        waiter.await();
+        assertTrue(acquired.get());
+    }
+
+    public void testConcurrentExclusiveLocks() throws Throwable {
+        final AtomicInteger acquired = new AtomicInteger(0);
+        final CountDownLatch waiter = new CountDownLatch(3);
+        final List<Throwable> errors = new ArrayList<>(3);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock exclusiveLock = pathLockFactory.getLock(path, true);
+                try {
+                    exclusiveLock.acquire();
+                    // Only one thread has exclusive access
+                    assertEquals(0, acquired.getAndIncrement());
+                    Thread.sleep(100);
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    acquired.getAndDecrement();
+                    exclusiveLock.release();
+                    waiter.countDown();
+                }
+            }
+        };
+        new Thread(task).start();
+        new Thread(task).start();
+        new Thread(task).start();
+        waiter.await();
+        assertEquals(0, acquired.get()); // all locks must be released
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+    }
+
+    public void testLockTimeout() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock exclusiveLock = pathLockFactory.getLock(path, true);
+                try {
+                    exclusiveLock.acquire();
+                    starter.countDown();
+                    Thread.sleep(2000); // get lock and sleep
+                } catch (InterruptedException ignored) {
+                } finally {
+                    exclusiveLock.release();
+                }
+            }
+        };
+        new Thread(task).start();
+        starter.await(); // wait while child thread acquire exclusive lock
+        HierarchicalPathLockFactory.PathLock timeoutExclusiveLock = pathLockFactory.getLock(path, true);
+        try {
+            // Wait lock timeout is much less then sleep time of child thread.
+            // Here we must be failed to get exclusive permit.
+            timeoutExclusiveLock.acquire(100);
+            fail();
+        } catch (RuntimeException e) {
+            // OK
+        }
+    }
+
+    public void testConcurrentLocks() throws Throwable {
+        final AtomicInteger acquired = new AtomicInteger(0);
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch waiter = new CountDownLatch(2);
+        Runnable task1 = new Runnable() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock lock = pathLockFactory.getLock(path, false);
+                lock.acquire();
+                acquired.incrementAndGet();
+                starter.countDown();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                } finally {
+                    acquired.getAndDecrement();
+                    lock.release();
+                    waiter.countDown();
+                }
+            }
+        };
+        final List<Throwable> errors = new ArrayList<>(1);
+        Runnable task2 = new Runnable() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock exclusiveLock = pathLockFactory.getLock(path, true);
+                try {
+                    exclusiveLock.acquire();
+                    // This thread must be blocked while another thread keeps lock.
+                    assertEquals(0, acquired.getAndIncrement());
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    acquired.getAndDecrement();
+                    exclusiveLock.release();
+                    waiter.countDown();
+                }
+            }
+        };
+        new Thread(task1).start();
+        starter.await();
+        new Thread(task2).start();
+        waiter.await();
+        assertEquals(0, acquired.get()); // all locks must be released
+
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+    }
+
+    public void testHierarchyLock() throws Throwable {
+        final AtomicInteger acquired = new AtomicInteger(0);
+        final Path parent = path.getParent();
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch waiter = new CountDownLatch(2);
+        Runnable parentTask = new Runnable() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock lock = pathLockFactory.getLock(parent, true);
+                lock.acquire();
+                acquired.incrementAndGet();
+                starter.countDown();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignored) {
+                } finally {
+                    acquired.getAndDecrement();
+                    lock.release();
+                    waiter.countDown();
+                }
+            }
+        };
+        final List<Throwable> errors = new ArrayList<>(1);
+        Runnable childTask = new Runnable() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock lock = pathLockFactory.getLock(path, false);
+                try {
+                    lock.acquire();
+                    // This thread must be blocked while another thread keeps lock.
+                    assertEquals(0, acquired.getAndIncrement());
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    lock.release();
+                    acquired.getAndDecrement();
+                    waiter.countDown();
+                }
+            }
+        };
+        new Thread(parentTask).start();
+        starter.await();
+        new Thread(childTask).start();
+        waiter.await();
+        assertEquals(0, acquired.get()); // all locks must be released
+
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+    }
+
+    public void testLockSameThread() throws Exception {
+        final AtomicInteger acquired = new AtomicInteger(0);
+        final CountDownLatch waiter = new CountDownLatch(1);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    HierarchicalPathLockFactory.PathLock lock1 = pathLockFactory.getLock(path, true);
+                    HierarchicalPathLockFactory.PathLock lock2 = pathLockFactory.getLock(path, true);
+                    lock1.acquire();
+                    acquired.incrementAndGet();
+                    lock2.acquire(1000); // try with timeout.
+                    acquired.incrementAndGet();
+                } finally {
+                    waiter.countDown();
+                }
+            }
+        };
+        new Thread(task).start();
+        waiter.await();
+        assertEquals(2, acquired.get());
+    }
+
+    public void testChildLockPreventsParentExclusiveLock() throws Exception {
+        final Path parent = path.getParent();
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            pathLockFactory.getLock(parent, true).acquire(100);
+            fail();
+        } catch (RuntimeException e) {
+            // OK
+        }
+        // Shared lock for parent does not conflict with shared lock for child.
+        pathLockFactory.getLock(parent, false).acquire(100).release();
+        finisher.countDown();
+        t.join();
+        pathLockFactory.getLock(parent, true).acquire(1000).release();
+        pathLockFactory.checkClean();
+        assertEquals(1, pathLockFactory.getTimeouts());
+    }
+
+    public void testUnrelatedPathsDoNotBlock() throws Exception {
+        final Path other = Path.fromString("/a/x/y");
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                HierarchicalPathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        pathLockFactory.getLock(other, true).acquire(100).release();
+        finisher.countDown();
+        t.join();
+        pathLockFactory.checkClean();
+        assertEquals(0, pathLockFactory.getContendedAcquisitions());
+    }
+
+    public void testConcurrentParentAndChildLocks() throws Throwable {
+        // Mix of parent and child paths: any two exclusive locks of the same branch must never be held in the same time.
+        final Path[] paths = {Path.fromString("/a"), Path.fromString("/a/b"), path, Path.fromString("/a/b/d"), Path.fromString("/a/x/y")};
+        final int threads = 8;
+        final List<Path> held = new ArrayList<>();
+        final List<Throwable> errors = new ArrayList<>();
+        final CountDownLatch waiter = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 2000; i++) {
+                            final Path lockPath = paths[(seed + i * 7) % paths.length];
+                            final HierarchicalPathLockFactory.PathLock lock = pathLockFactory.getLock(lockPath, true).acquire(10000);
+                            try {
+                                synchronized (held) {
+                                    for (Path other : held) {
+                                        assertTrue(!other.equals(lockPath) && !other.isChild(lockPath) && !lockPath.isChild(other));
+                                    }
+                                    held.add(lockPath);
+                                }
+                                Thread.yield();
+                                synchronized (held) {
+                                    held.remove(lockPath);
+                                }
+                            } finally {
+                                lock.release();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    } finally {
+                        waiter.countDown();
+                    }
+                }
+            }.start();
+        }
+        waiter.await();
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+        pathLockFactory.checkClean();
+    }
+}
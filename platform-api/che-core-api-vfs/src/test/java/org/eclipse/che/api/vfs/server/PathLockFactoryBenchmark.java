@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares throughput of {@link PathLockFactory} and {@link HierarchicalPathLockFactory} at 1, 8 and 64 threads. Each
+ * operation takes lock for one of files of typical project tree, 1 of 10 locks is exclusive, that is close to the
+ * read/write ratio of FSMountPoint.
+ * <p/>
+ * Contended benchmarks lock files of the same folder and keep lock for some time, 1 of 100 operations locks the folder
+ * itself, e.g. to copy or to delete it, so locks of files have to be checked against the lock of the folder.
+ * <p/>
+ * Run with: <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.eclipse.che.api.vfs.server.PathLockFactoryBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PathLockFactoryBenchmark {
+    private static final int  MAX_THREADS = 1024;
+    private static final long TIMEOUT     = 60000;
+    private static final long WORK        = 64;
+
+    private PathLockFactory             pathLockFactory;
+    private HierarchicalPathLockFactory hierarchicalPathLockFactory;
+    private Path[]                      paths;
+    private Path                        folder;
+    private Path[]                      folderFiles;
+
+    @Setup
+    public void setUp() {
+        pathLockFactory = new PathLockFactory(MAX_THREADS);
+        hierarchicalPathLockFactory = new HierarchicalPathLockFactory(MAX_THREADS);
+        paths = new Path[256];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = Path.fromString(String.format("/project/src/main/java/org/package%d/File%d.java", i % 16, i));
+        }
+        folder = Path.fromString("/project/src/main/java/org/package0");
+        folderFiles = new Path[64];
+        for (int i = 0; i < folderFiles.length; i++) {
+            folderFiles[i] = folder.newPath(String.format("File%d.java", i));
+        }
+    }
+
+    @Benchmark
+    public void pathLockFactory() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final PathLockFactory.PathLock lock =
+                pathLockFactory.getLock(paths[random.nextInt(paths.length)], random.nextInt(10) == 0).acquire(TIMEOUT);
+        lock.release();
+    }
+
+    @Benchmark
+    public void hierarchicalPathLockFactory() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final HierarchicalPathLockFactory.PathLock lock =
+                hierarchicalPathLockFactory.getLock(paths[random.nextInt(paths.length)], random.nextInt(10) == 0).acquire(TIMEOUT);
+        lock.release();
+    }
+
+    @Benchmark
+    public void pathLockFactoryContended() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final boolean lockFolder = random.nextInt(100) == 0;
+        final Path path = lockFolder ? folder : folderFiles[random.nextInt(folderFiles.length)];
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(path, lockFolder || random.nextInt(10) == 0).acquire(TIMEOUT);
+        try {
+            Blackhole.consumeCPU(WORK);
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Benchmark
+    public void hierarchicalPathLockFactoryContended() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final boolean lockFolder = random.nextInt(100) == 0;
+        final Path path = lockFolder ? folder : folderFiles[random.nextInt(folderFiles.length)];
+        final HierarchicalPathLockFactory.PathLock lock =
+                hierarchicalPathLockFactory.getLock(path, lockFolder || random.nextInt(10) == 0).acquire(TIMEOUT);
+        try {
+            Blackhole.consumeCPU(WORK);
+        } finally {
+            lock.release();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 64}) {
+            new Runner(new OptionsBuilder().include(PathLockFactoryBenchmark.class.getSimpleName())
+                                           .threads(threads)
+                                           .build()).run();
+        }
+    }
+}
@@ -10,8 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.server.impl.memory;
 
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.search.LuceneSearcher;
+import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
+import org.eclipse.che.api.vfs.server.search.SearchResultEntry;
+import org.eclipse.che.api.vfs.server.search.SearchSnippet;
 import org.eclipse.che.api.vfs.shared.dto.Item;
 import org.eclipse.che.api.vfs.shared.dto.ItemList;
 
@@ -33,8 +39,10 @@ import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author andrew00x
@@ -127,6 +135,93 @@ public class SearcherTest extends MemoryFileSystemTest {
         }
     }
 
+    public void testSearchPaging() throws Exception {
+        QueryExpression query = new QueryExpression().setText("to be or").setIncludeNextCursor(true);
+        SearchResult result = searcher.search(query, 2, 0);
+        assertEquals(3, result.getTotalHits());
+        assertEquals(2, result.getResults().size());
+        assertTrue(result.hasMoreItems());
+        Set<String> paths = new HashSet<>();
+        for (SearchResultEntry entry : result.getResults()) {
+            paths.add(entry.getFilePath());
+        }
+
+        result = searcher.search(query.setAfter(result.getNextCursor()), 2, 0);
+        assertEquals(1, result.getResults().size());
+        assertFalse(result.hasMoreItems());
+        paths.add(result.getResults().get(0).getFilePath());
+        assertEquals(new HashSet<>(Arrays.asList(file1, file2, file3)), paths);
+
+        result = searcher.search(query.setAfter(null), 2, 2);
+        assertEquals(1, result.getResults().size());
+        assertFalse(result.hasMoreItems());
+    }
+
+    public void testSearchPagingWhenIndexIsChanged() throws Exception {
+        QueryExpression query = new QueryExpression().setText("to be or").setIncludeNextCursor(true);
+        SearchResult result = searcher.search(query, 2, 0);
+        assertEquals(2, result.getResults().size());
+        Set<String> paths = new HashSet<>();
+        for (SearchResultEntry entry : result.getResults()) {
+            paths.add(entry.getFilePath());
+        }
+
+        // Next page is searched in the same state of index as the first one.
+        searchTestFolder.createFile("SearcherTest_File06", "text/plain", new ByteArrayInputStream("to be or not to be".getBytes()));
+        mountPoint.getVirtualFile(file1).delete(null);
+        result = searcher.search(query.setAfter(result.getNextCursor()), 2, 0);
+        assertEquals(3, result.getTotalHits());
+        assertEquals(1, result.getResults().size());
+        assertFalse(result.hasMoreItems());
+        paths.add(result.getResults().get(0).getFilePath());
+        assertEquals(new HashSet<>(Arrays.asList(file1, file2, file3)), paths);
+    }
+
+    public void testSearchWithoutNextCursor() throws Exception {
+        SearchResult result = searcher.search(new QueryExpression().setText("to be or"), 2, 0);
+        assertEquals(2, result.getResults().size());
+        assertTrue(result.hasMoreItems());
+        assertNull(result.getNextCursor());
+    }
+
+    public void testSearchCursorExpiresWhenTooManyViewsOfIndexAreKept() throws Exception {
+        QueryExpression query = new QueryExpression().setText("to be or").setIncludeNextCursor(true);
+        String first = searcher.search(query, 2, 0).getNextCursor();
+        // Each change of index creates new view of index for the next search.
+        for (int i = 0; i < 20; i++) {
+            searchTestFolder.createFile("SearcherTest_Expire" + i, "text/plain", new ByteArrayInputStream("to be or".getBytes()));
+            assertNotNull(searcher.search(query.setAfter(null), 2, 0).getNextCursor());
+        }
+        try {
+            searcher.search(query.setAfter(first), 2, 0);
+            fail("NotFoundException expected");
+        } catch (NotFoundException ignored) {
+        }
+    }
+
+    public void testSearchInvalidCursor() throws Exception {
+        try {
+            searcher.search(new QueryExpression().setText("to be or").setAfter("1:2"), 2, 0);
+            fail("ConflictException expected");
+        } catch (ConflictException ignored) {
+        }
+        try {
+            searcher.search(new QueryExpression().setText("to be or").setAfter(Long.MAX_VALUE + ":0:0"), 2, 0);
+            fail("NotFoundException expected");
+        } catch (NotFoundException ignored) {
+        }
+    }
+
+    public void testSearchSnippets() throws Exception {
+        SearchResult result = searcher.search(new QueryExpression().setText("not").setPath(file2).setIncludeSnippets(true), -1, 0);
+        assertEquals(1, result.getResults().size());
+        List<SearchSnippet> snippets = result.getResults().get(0).getSnippets();
+        assertEquals(1, snippets.size());
+        assertEquals(1, snippets.get(0).getLineNumber());
+        assertEquals("to be or not to be", snippets.get(0).getLine());
+        assertTrue(Arrays.equals(new int[]{9, 12}, snippets.get(0).getHighlights()));
+    }
+
     public void testDelete() throws Exception {
         searcherManager.maybeRefresh();
         IndexSearcher luceneSearcher = searcherManager.acquire();